@@ -0,0 +1,115 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.benchmarks;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates the warm matchers of each {@link com.zaradai.matchers.AnnotationMatchers} factory, cycling through a
+ * matcher for each class of the corpus.  Each matcher is matched against an item it matches, an item it does not
+ * match, or describes the mismatch of that item.  Run with the GC profiler to record the bytes allocated per
+ * evaluation, see {@link AllocationGate}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+public class AllocationBenchmark {
+    @Param
+    private MatcherFactory factory;
+
+    @Param
+    private Evaluation evaluation;
+
+    private static final int MASK = Fixture.SIZE - 1;
+
+    private final Matcher<?>[] matchers = new Matcher<?>[Fixture.SIZE];
+    private final Object[] items = new Object[Fixture.SIZE];
+    private final StringBuilder mismatch = new StringBuilder();
+    private final Description description = new StringDescription(mismatch);
+    private int next;
+
+    /**
+     * Create the matchers, warm their caches and pick the item each evaluates.
+     * @throws Exception if the corpus fails to load
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Fixture fixture = Fixture.shared();
+
+        for (int i = 0; i < Fixture.SIZE; i++) {
+            matchers[i] = factory.create(fixture, i);
+            if (!matchers[i].matches(fixture.getInstance(i))) {
+                throw new IllegalStateException(factory + " does not match class " + i + " of the corpus");
+            }
+        }
+        for (int i = 0; i < Fixture.SIZE; i++) {
+            if (evaluation == Evaluation.MATCH) {
+                items[i] = fixture.getInstance(i);
+            } else {
+                items[i] = mismatchOf(fixture, i);
+            }
+        }
+    }
+
+    private Object mismatchOf(Fixture fixture, int index) throws Exception {
+        for (int i = 1; i < Fixture.SIZE; i++) {
+            Object item = fixture.getInstance((index + i) & MASK);
+
+            if (!matchers[index].matches(item)) {
+                return item;
+            }
+        }
+
+        throw new IllegalStateException(factory + " of class " + index + " matches every class of the corpus");
+    }
+
+    /**
+     * Evaluate the matcher.
+     * @return match result, or whether a mismatch was described
+     */
+    @Benchmark
+    public boolean evaluate() {
+        int index = next++ & MASK;
+
+        if (evaluation == Evaluation.DESCRIBE_MISMATCH) {
+            mismatch.setLength(0);
+            matchers[index].describeMismatch(items[index], description);
+
+            return mismatch.length() > 0;
+        }
+
+        return matchers[index].matches(items[index]);
+    }
+}
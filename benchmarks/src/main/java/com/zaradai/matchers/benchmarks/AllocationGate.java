@@ -0,0 +1,125 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Runs the {@link AllocationBenchmark} with the GC profiler and fails if the matcher of any factory allocates more
+ * bytes per evaluation than its budget.  The budgets are checked in as {@value #BUDGETS}, a factory and evaluation
+ * without a budget fails the gate so every new factory has to be given one.  Measurements are rounded to whole bytes
+ * before they are compared, the profiler attributes a fraction of a byte of background allocation to allocation free
+ * code.
+ */
+public final class AllocationGate {
+    /**
+     * Resource holding the budgets, in bytes per evaluation, keyed by {@link MatcherFactory} and {@link Evaluation}
+     * names joined by a dot.
+     */
+    static final String BUDGETS = "allocation-budgets.properties";
+
+    private static final String ALLOCATION_RATE = "gc.alloc.rate.norm";
+
+    private AllocationGate() {
+    }
+
+    /**
+     * Run the gate.
+     * @param args benchmark options are fixed by {@link AllocationBenchmark}, arguments are ignored
+     * @throws Exception if the benchmark fails to run or a budget is exceeded
+     */
+    public static void main(String[] args) throws Exception {
+        Properties budgets = loadBudgets();
+        Options options = new OptionsBuilder()
+                .include(AllocationBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        List<String> failures = check(new Runner(options).run(), budgets);
+
+        if (!failures.isEmpty()) {
+            for (String failure : failures) {
+                System.err.println(failure);
+            }
+            throw new IllegalStateException(failures.size() + " matcher(s) exceeded their allocation budget");
+        }
+
+        System.out.println("All matchers are within their allocation budgets");
+    }
+
+    /**
+     * Compare the allocation of each benchmarked factory and evaluation with its budget.
+     * @param results results of the allocation benchmark run with the GC profiler
+     * @param budgets budgets keyed by factory and evaluation name
+     * @return description of each factory and evaluation over budget, or without one
+     */
+    static List<String> check(Collection<RunResult> results, Properties budgets) {
+        List<String> res = new ArrayList<String>();
+
+        for (RunResult result : results) {
+            String key = result.getParams().getParam("factory") + "." + result.getParams().getParam("evaluation");
+            String budget = budgets.getProperty(key);
+            long allocated = Math.round(allocationOf(result));
+
+            System.out.printf("%-70s %6d B/op (budget %s)%n", key, allocated, budget);
+            if (budget == null) {
+                res.add(key + " has no allocation budget in " + BUDGETS);
+            } else if (allocated > Long.parseLong(budget.trim())) {
+                res.add(key + " allocated " + allocated + " bytes per evaluation, budget is " + budget);
+            }
+        }
+
+        return res;
+    }
+
+    private static double allocationOf(RunResult result) {
+        // older JMH versions prefix the profiler's result labels with a middle dot
+        for (Map.Entry<String, Result> entry : result.getSecondaryResults().entrySet()) {
+            if (entry.getKey().endsWith(ALLOCATION_RATE)) {
+                return entry.getValue().getScore();
+            }
+        }
+
+        throw new IllegalStateException("The GC profiler did not record " + ALLOCATION_RATE);
+    }
+
+    private static Properties loadBudgets() throws IOException {
+        InputStream in = AllocationGate.class.getResourceAsStream("/" + BUDGETS);
+
+        if (in == null) {
+            throw new IllegalStateException(BUDGETS + " not found");
+        }
+
+        try (InputStream source = in) {
+            Properties res = new Properties();
+            res.load(source);
+
+            return res;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.benchmarks;
+
+import com.zaradai.matchers.AnnotatedElementMatcher;
+import com.zaradai.matchers.support.AnnotatedCorpus;
+import com.zaradai.matchers.support.AnnotatedCorpus.CorpusElement;
+import org.hamcrest.Matcher;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Benchmarks {@link AnnotatedElementMatcher} against a field of the corpus class.  The matcher only tests for the
+ * presence of an annotation, it has no parameter value scenario.
+ */
+public class AnnotatedElementMatcherBenchmark extends MatcherBenchmark {
+    @Param({ "HIT", "MISS" })
+    private Scenario scenario;
+
+    @Override
+    Matcher<?> create(Fixture fixture, int index) throws Exception {
+        CorpusElement element = fixture.getElement(index, AnnotatedCorpus.Kind.FIELD);
+
+        if (scenario == Scenario.MISS) {
+            return AnnotatedElementMatcher.hasAnnotation(fixture.getAbsentAnnotation(element));
+        }
+
+        return AnnotatedElementMatcher.hasAnnotation(fixture.getAnnotation(element));
+    }
+
+    @Override
+    Object itemOf(Fixture fixture, int index) throws Exception {
+        CorpusElement element = fixture.getElement(index, AnnotatedCorpus.Kind.FIELD);
+
+        return fixture.getType(index).getDeclaredField(element.getName());
+    }
+
+    @Override
+    boolean isHitExpected() {
+        return scenario != Scenario.MISS;
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.benchmarks;
+
+import com.zaradai.matchers.AnnotationParamMatcher;
+import com.zaradai.matchers.support.AnnotatedCorpus;
+import com.zaradai.matchers.support.AnnotatedCorpus.CorpusElement;
+import org.hamcrest.Matcher;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Benchmarks {@link AnnotationParamMatcher} against the annotation on the corpus class.  A miss looks for a
+ * parameter the annotation does not declare.
+ */
+public class AnnotationParamMatcherBenchmark extends MatcherBenchmark {
+    @Param
+    private Scenario scenario;
+
+    @Override
+    Matcher<?> create(Fixture fixture, int index) {
+        switch (scenario) {
+            case HIT:
+                return AnnotationParamMatcher.hasParam("name");
+            case MISS:
+                return AnnotationParamMatcher.hasParam("missing");
+            default:
+                return AnnotationParamMatcher.hasParamValue("value",
+                        fixture.getElement(index, AnnotatedCorpus.Kind.TYPE).getValue());
+        }
+    }
+
+    @Override
+    Object itemOf(Fixture fixture, int index) throws Exception {
+        CorpusElement element = fixture.getElement(index, AnnotatedCorpus.Kind.TYPE);
+
+        return fixture.getType(index).getAnnotation(fixture.getAnnotation(element));
+    }
+
+    @Override
+    boolean isHitExpected() {
+        return scenario != Scenario.MISS;
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.benchmarks;
+
+import com.zaradai.matchers.support.AnnotatedCorpus;
+import com.zaradai.matchers.support.AnnotatedCorpus.CorpusClass;
+import com.zaradai.matchers.support.AnnotatedCorpus.CorpusElement;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+
+/**
+ * The classes of the benchmark corpus as loaded by one class loader.  The corpus is generated once per JVM, every
+ * element of every class is annotated with one of its annotation types.  The matchers cache metadata per class,
+ * fixtures loaded by a fresh class loader have never been seen by the matchers and measure the cold cost of a match.
+ */
+final class Fixture {
+    /**
+     * Number of classes in the corpus, a power of two so benchmarks can cycle through them with a mask.
+     */
+    static final int SIZE = 1024;
+
+    private static final long SEED = 20140801L;
+    private static final int ANNOTATION_TYPES = 8;
+    private static final int MEMBERS = 4;
+    private static final int CONSTRUCTORS = 3;
+    private static final int PARAMETERS = 2;
+
+    private final ClassLoader loader;
+    private final List<CorpusClass> classes;
+    private final Object[] instances;
+
+    private Fixture(ClassLoader loader) {
+        this.loader = loader;
+        this.classes = Corpus.INSTANCE.getClasses();
+        this.instances = new Object[classes.size()];
+    }
+
+    /**
+     * Get the fixture shared by all warm benchmarks in the JVM.
+     * @return fixture loaded by the shared corpus class loader
+     */
+    static Fixture shared() {
+        return Corpus.SHARED;
+    }
+
+    /**
+     * Get a fixture no matcher has seen before.
+     * @return fixture loaded by a new class loader
+     */
+    static Fixture isolated() {
+        return new Fixture(Corpus.INSTANCE.newClassLoader(Fixture.class.getClassLoader()));
+    }
+
+    /**
+     * Get the generated corpus.
+     * @return corpus shared by all fixtures
+     */
+    static AnnotatedCorpus corpus() {
+        return Corpus.INSTANCE;
+    }
+
+    /**
+     * Get the class loader of the corpus classes.
+     * @return class loader of the fixture
+     */
+    ClassLoader getClassLoader() {
+        return loader;
+    }
+
+    /**
+     * Get a class of the corpus.
+     * @param index index of the class
+     * @return corpus class
+     * @throws Exception if the class fails to load
+     */
+    Class<?> getType(int index) throws Exception {
+        return Class.forName(classes.get(index).getName(), false, loader);
+    }
+
+    /**
+     * Get an instance of a class of the corpus, created on first use.
+     * @param index index of the class
+     * @return shared instance of the class
+     * @throws Exception if the class fails to load or instantiate
+     */
+    Object getInstance(int index) throws Exception {
+        if (instances[index] == null) {
+            instances[index] = getType(index).getDeclaredConstructor().newInstance();
+        }
+
+        return instances[index];
+    }
+
+    /**
+     * Get the last element of a kind declared by a class of the corpus.  For constructors and their parameters this
+     * is the constructor with the most parameters.
+     * @param index index of the class
+     * @param kind kind of element
+     * @return element of the class
+     */
+    CorpusElement getElement(int index, AnnotatedCorpus.Kind kind) {
+        List<CorpusElement> elements = classes.get(index).getElements(kind);
+
+        return elements.get(elements.size() - 1);
+    }
+
+    /**
+     * Get an annotation type the element is annotated with.
+     * @param element element of the corpus
+     * @return present annotation type
+     * @throws Exception if the annotation type fails to load
+     */
+    Class<? extends Annotation> getAnnotation(CorpusElement element) throws Exception {
+        return load(element.getAnnotations().get(0));
+    }
+
+    /**
+     * Get an annotation type the element is not annotated with.
+     * @param element element of the corpus
+     * @return absent annotation type
+     * @throws Exception if the annotation type fails to load
+     */
+    Class<? extends Annotation> getAbsentAnnotation(CorpusElement element) throws Exception {
+        for (String name : Corpus.INSTANCE.getAnnotationNames()) {
+            if (!element.isAnnotatedWith(name)) {
+                return load(name);
+            }
+        }
+
+        throw new IllegalStateException(element + " is annotated with every annotation type");
+    }
+
+    private Class<? extends Annotation> load(String name) throws Exception {
+        return Class.forName(name, false, loader).asSubclass(Annotation.class);
+    }
+
+    /**
+     * Holds the corpus, generated when first used.
+     */
+    private static final class Corpus {
+        private static final AnnotatedCorpus INSTANCE = AnnotatedCorpus.builder()
+                .classes(SIZE)
+                .fields(MEMBERS)
+                .methods(MEMBERS)
+                .constructors(CONSTRUCTORS)
+                .parameters(PARAMETERS)
+                .annotationTypes(ANNOTATION_TYPES)
+                .maxAnnotations(1)
+                .density(1)
+                .seed(SEED)
+                .build();
+        private static final Fixture SHARED = isolated();
+
+        private Corpus() {
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.benchmarks;
+
+import org.hamcrest.Matcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single evaluation of a matcher against a class of the generated corpus.  The warm benchmark cycles
+ * through a matcher for each class of the corpus, all of whose metadata has already been cached.  The cold benchmark
+ * creates the matcher and matches it against a corpus class freshly loaded for each iteration, so nothing about it
+ * is cached yet.  Subclasses declare the {@link Scenario} parameter, by default every scenario is benchmarked.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public abstract class MatcherBenchmark {
+    private static final int MASK = Fixture.SIZE - 1;
+
+    private final Matcher<?>[] matchers = new Matcher<?>[Fixture.SIZE];
+    private final Object[] items = new Object[Fixture.SIZE];
+    private int next;
+
+    /**
+     * Create the warm matchers and warm their caches.
+     * @throws Exception if the fixture fails to load
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Fixture fixture = Fixture.shared();
+
+        for (int i = 0; i < Fixture.SIZE; i++) {
+            matchers[i] = create(fixture, i);
+            items[i] = itemOf(fixture, i);
+            if (matchers[i].matches(items[i]) != isHitExpected()) {
+                throw new IllegalStateException(getClass().getSimpleName() + " matched class " + i + " unexpectedly");
+            }
+        }
+    }
+
+    /**
+     * Evaluate a matcher whose caches are warm.
+     * @return match result
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public boolean warm() {
+        int index = next++ & MASK;
+
+        return matchers[index].matches(items[index]);
+    }
+
+    /**
+     * Create and evaluate a matcher against classes it has never seen.
+     * @param cold freshly loaded fixture
+     * @return match result
+     * @throws Exception if the item fails to resolve
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 20)
+    @Measurement(iterations = 100)
+    public boolean cold(ColdFixture cold) throws Exception {
+        return create(cold.fixture, 0).matches(itemOf(cold.fixture, 0));
+    }
+
+    /**
+     * Create the matcher of the benchmarked scenario for a class of the corpus.
+     * @param fixture corpus classes to match
+     * @param index index of the class to match
+     * @return matcher to evaluate
+     * @throws Exception if an annotation type fails to load
+     */
+    abstract Matcher<?> create(Fixture fixture, int index) throws Exception;
+
+    /**
+     * Get the item the matcher is evaluated against, by default an instance of the corpus class.
+     * @param fixture corpus classes to match
+     * @param index index of the class to match
+     * @return item to match
+     * @throws Exception if the item cannot be resolved
+     */
+    Object itemOf(Fixture fixture, int index) throws Exception {
+        return fixture.getInstance(index);
+    }
+
+    /**
+     * Test if the benchmarked scenario is expected to match.
+     * @return true unless the scenario is a miss
+     */
+    abstract boolean isHitExpected();
+
+    /**
+     * Corpus classes loaded by a new class loader for each iteration.  The first class is instantiated before the
+     * iteration, its matchers are created and evaluated within it.
+     */
+    @State(Scope.Thread)
+    public static class ColdFixture {
+        private Fixture fixture;
+
+        /**
+         * Load the corpus classes again.
+         * @throws Exception if the first class fails to load
+         */
+        @Setup(Level.Iteration)
+        public void load() throws Exception {
+            fixture = Fixture.isolated();
+            fixture.getInstance(0);
+        }
+    }
+}
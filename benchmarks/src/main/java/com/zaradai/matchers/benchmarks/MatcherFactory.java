@@ -0,0 +1,362 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.benchmarks;
+
+import com.zaradai.matchers.AnnotationMatchers;
+import com.zaradai.matchers.SearchStrategy;
+import com.zaradai.matchers.support.AnnotatedCorpus.CorpusElement;
+import com.zaradai.matchers.support.AnnotatedCorpus.Kind;
+import org.hamcrest.Matcher;
+
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Every factory of {@link AnnotationMatchers}, each creating a matcher that matches a class of the corpus.
+ */
+public enum MatcherFactory {
+    /**
+     * {@link AnnotationMatchers#classAnnotatedWith}.
+     */
+    CLASS_ANNOTATED_WITH(Kind.TYPE) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.classAnnotatedWith(fixture.getAnnotation(element));
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#classAnnotatedWithParam}.
+     */
+    CLASS_ANNOTATED_WITH_PARAM(Kind.TYPE) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.classAnnotatedWithParam(fixture.getAnnotation(element), "value");
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#classAnnotatedWithParamValue}, matching the value with a matcher.
+     */
+    CLASS_ANNOTATED_WITH_PARAM_VALUE_MATCHER(Kind.TYPE) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.classAnnotatedWithParamValue(fixture.getAnnotation(element), "value",
+                    equalTo(element.getValue()));
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#classAnnotatedWithParamValue}, matching the value by equality.
+     */
+    CLASS_ANNOTATED_WITH_PARAM_VALUE(Kind.TYPE) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.classAnnotatedWithParamValue(fixture.getAnnotation(element), "value",
+                    element.getValue());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#classAnnotatedWithAll}.
+     */
+    CLASS_ANNOTATED_WITH_ALL(Kind.TYPE) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.classAnnotatedWithAll(fixture.getAnnotation(element));
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#classAnnotatedWithNone}.
+     */
+    CLASS_ANNOTATED_WITH_NONE(Kind.TYPE) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.classAnnotatedWithNone(fixture.getAbsentAnnotation(element));
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#classAnnotatedWith}, searching the whole type hierarchy.
+     */
+    CLASS_ANNOTATED_WITH_HIERARCHY(Kind.TYPE) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.classAnnotatedWith(fixture.getAnnotation(element), SearchStrategy.TYPE_HIERARCHY);
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#constructorAnnotatedWith}.
+     */
+    CONSTRUCTOR_ANNOTATED_WITH(Kind.CONSTRUCTOR) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.constructorAnnotatedWith(fixture.getAnnotation(element),
+                    element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#constructorAnnotatedWithParam}.
+     */
+    CONSTRUCTOR_ANNOTATED_WITH_PARAM(Kind.CONSTRUCTOR) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.constructorAnnotatedWithParam(fixture.getAnnotation(element), "value",
+                    element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#constructorAnnotatedWithParamValue}, matching the value with a matcher.
+     */
+    CONSTRUCTOR_ANNOTATED_WITH_PARAM_VALUE_MATCHER(Kind.CONSTRUCTOR) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.constructorAnnotatedWithParamValue(fixture.getAnnotation(element), "value",
+                    equalTo(element.getValue()), element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#constructorAnnotatedWithParamValue}, matching the value by equality.
+     */
+    CONSTRUCTOR_ANNOTATED_WITH_PARAM_VALUE(Kind.CONSTRUCTOR) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.constructorAnnotatedWithParamValue(fixture.getAnnotation(element), "value",
+                    element.getValue(), element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#fieldAnnotatedWith}.
+     */
+    FIELD_ANNOTATED_WITH(Kind.FIELD) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.fieldAnnotatedWith(fixture.getAnnotation(element), element.getName());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#fieldAnnotatedWithParam}.
+     */
+    FIELD_ANNOTATED_WITH_PARAM(Kind.FIELD) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.fieldAnnotatedWithParam(fixture.getAnnotation(element), "value",
+                    element.getName());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#fieldAnnotatedWithParamValue}, matching the value with a matcher.
+     */
+    FIELD_ANNOTATED_WITH_PARAM_VALUE_MATCHER(Kind.FIELD) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.fieldAnnotatedWithParamValue(fixture.getAnnotation(element), "value",
+                    equalTo(element.getValue()), element.getName());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#fieldAnnotatedWithParamValue}, matching the value by equality.
+     */
+    FIELD_ANNOTATED_WITH_PARAM_VALUE(Kind.FIELD) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.fieldAnnotatedWithParamValue(fixture.getAnnotation(element), "value",
+                    element.getValue(), element.getName());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#fieldAnnotatedWithAll}.
+     */
+    FIELD_ANNOTATED_WITH_ALL(Kind.FIELD) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.fieldAnnotatedWithAll(element.getName(), fixture.getAnnotation(element));
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#fieldAnnotatedWithNone}.
+     */
+    FIELD_ANNOTATED_WITH_NONE(Kind.FIELD) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.fieldAnnotatedWithNone(element.getName(), fixture.getAbsentAnnotation(element));
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#fieldAnnotatedWith}, searching the whole type hierarchy.
+     */
+    FIELD_ANNOTATED_WITH_HIERARCHY(Kind.FIELD) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.fieldAnnotatedWith(fixture.getAnnotation(element), element.getName(),
+                    SearchStrategy.TYPE_HIERARCHY);
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#methodAnnotatedWith}.
+     */
+    METHOD_ANNOTATED_WITH(Kind.METHOD) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.methodAnnotatedWith(fixture.getAnnotation(element), element.getName(),
+                    element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#methodAnnotatedWithParam}.
+     */
+    METHOD_ANNOTATED_WITH_PARAM(Kind.METHOD) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.methodAnnotatedWithParam(fixture.getAnnotation(element), "value",
+                    element.getName(), element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#methodAnnotatedWithParamValue}, matching the value with a matcher.
+     */
+    METHOD_ANNOTATED_WITH_PARAM_VALUE_MATCHER(Kind.METHOD) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.methodAnnotatedWithParamValue(fixture.getAnnotation(element), "value",
+                    equalTo(element.getValue()), element.getName(), element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#methodAnnotatedWithParamValue}, matching the value by equality.
+     */
+    METHOD_ANNOTATED_WITH_PARAM_VALUE(Kind.METHOD) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.methodAnnotatedWithParamValue(fixture.getAnnotation(element), "value",
+                    element.getValue(), element.getName(), element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#methodAnnotatedWith}, searching the whole type hierarchy.
+     */
+    METHOD_ANNOTATED_WITH_HIERARCHY(Kind.METHOD) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.methodAnnotatedWith(fixture.getAnnotation(element), SearchStrategy.TYPE_HIERARCHY,
+                    element.getName(), element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#constructorParameterAnnotatedWith}.
+     */
+    CONSTRUCTOR_PARAMETER_ANNOTATED_WITH(Kind.CONSTRUCTOR_PARAMETER) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.constructorParameterAnnotatedWith(fixture.getAnnotation(element),
+                    element.getPosition(), element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#constructorParameterAnnotatedWithParam}.
+     */
+    CONSTRUCTOR_PARAMETER_ANNOTATED_WITH_PARAM(Kind.CONSTRUCTOR_PARAMETER) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.constructorParameterAnnotatedWithParam(fixture.getAnnotation(element), "value",
+                    element.getPosition(), element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#constructorParameterAnnotatedWithParamValue}, matching the value with a matcher.
+     */
+    CONSTRUCTOR_PARAMETER_ANNOTATED_WITH_PARAM_VALUE_MATCHER(Kind.CONSTRUCTOR_PARAMETER) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.constructorParameterAnnotatedWithParamValue(fixture.getAnnotation(element),
+                    "value", equalTo(element.getValue()), element.getPosition(), element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#constructorParameterAnnotatedWithParamValue}, matching the value by equality.
+     */
+    CONSTRUCTOR_PARAMETER_ANNOTATED_WITH_PARAM_VALUE(Kind.CONSTRUCTOR_PARAMETER) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.constructorParameterAnnotatedWithParamValue(fixture.getAnnotation(element),
+                    "value", element.getValue(), element.getPosition(), element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#methodParameterAnnotatedWith}.
+     */
+    METHOD_PARAMETER_ANNOTATED_WITH(Kind.METHOD_PARAMETER) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.methodParameterAnnotatedWith(fixture.getAnnotation(element),
+                    element.getPosition(), element.getName(), element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#methodParameterAnnotatedWithParam}.
+     */
+    METHOD_PARAMETER_ANNOTATED_WITH_PARAM(Kind.METHOD_PARAMETER) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.methodParameterAnnotatedWithParam(fixture.getAnnotation(element), "value",
+                    element.getPosition(), element.getName(), element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#methodParameterAnnotatedWithParamValue}, matching the value with a matcher.
+     */
+    METHOD_PARAMETER_ANNOTATED_WITH_PARAM_VALUE_MATCHER(Kind.METHOD_PARAMETER) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.methodParameterAnnotatedWithParamValue(fixture.getAnnotation(element), "value",
+                    equalTo(element.getValue()), element.getPosition(), element.getName(), element.getParameterTypes());
+        }
+    },
+    /**
+     * {@link AnnotationMatchers#methodParameterAnnotatedWithParamValue}, matching the value by equality.
+     */
+    METHOD_PARAMETER_ANNOTATED_WITH_PARAM_VALUE(Kind.METHOD_PARAMETER) {
+        @Override
+        Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception {
+            return AnnotationMatchers.methodParameterAnnotatedWithParamValue(fixture.getAnnotation(element), "value",
+                    element.getValue(), element.getPosition(), element.getName(), element.getParameterTypes());
+        }
+    };
+
+    private final Kind kind;
+
+    /**
+     * Create a factory of matchers inspecting an element of a kind.
+     * @param kind kind of element inspected
+     */
+    MatcherFactory(Kind kind) {
+        this.kind = kind;
+    }
+
+    /**
+     * Create a matcher through the factory.
+     * @param fixture corpus classes to match
+     * @param index index of the class to match
+     * @return matcher that matches an instance of the class
+     * @throws Exception if an annotation type fails to load
+     */
+    Matcher<Object> create(Fixture fixture, int index) throws Exception {
+        return create(fixture, fixture.getElement(index, kind));
+    }
+
+    /**
+     * Create a matcher of an element through the factory.
+     * @param fixture corpus classes to match
+     * @param element element of the class inspected by the matcher
+     * @return matcher that matches an instance of the class
+     * @throws Exception if an annotation type fails to load
+     */
+    abstract Matcher<Object> create(Fixture fixture, CorpusElement element) throws Exception;
+}
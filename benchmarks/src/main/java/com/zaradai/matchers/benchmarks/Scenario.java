@@ -0,0 +1,34 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.benchmarks;
+
+/**
+ * What a benchmarked matcher is asked to match.
+ */
+public enum Scenario {
+    /**
+     * The annotation is present.
+     */
+    HIT,
+    /**
+     * The annotation is missing.
+     */
+    MISS,
+    /**
+     * The annotation is present and a parameter value is matched.
+     */
+    PARAM_VALUE
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.benchmarks;
+
+import com.zaradai.matchers.AnnotationRule;
+import com.zaradai.matchers.AnnotationVerifier;
+import com.zaradai.matchers.RuleViolation;
+import com.zaradai.matchers.support.AnnotatedCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Measures how a full {@link AnnotationVerifier} scan of the corpus scales with the number of threads.  The corpus is
+ * written several times over, once into a tree of directories and once into a jar, and every method and constructor
+ * parameter is checked against a rule for each annotation type.  Every scan must report the same violations.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VerifierScalingBenchmark {
+    /**
+     * Number of copies of the corpus scanned, each in its own directory.
+     */
+    private static final int COPIES = 8;
+
+    /**
+     * Where the class files are read from.
+     */
+    public enum Layout {
+        /**
+         * A directory for each copy of the corpus.
+         */
+        DIRECTORY,
+        /**
+         * A single jar holding every copy of the corpus.
+         */
+        JAR
+    }
+
+    @Param({ "1", "4", "16", "64" })
+    private int threads;
+
+    @Param
+    private Layout layout;
+
+    private Path work;
+    private File root;
+    private AnnotationVerifier verifier;
+    private int expected;
+
+    /**
+     * Write the class files and check the scan reports a violation for every element left unannotated.
+     * @throws Exception if the class files can not be written or the corpus fails to load
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        AnnotatedCorpus corpus = Fixture.corpus();
+        ClassLoader loader = Fixture.shared().getClassLoader();
+        List<AnnotationRule> rules = new ArrayList<AnnotationRule>();
+
+        for (String name : corpus.getAnnotationNames()) {
+            Class<? extends Annotation> annotation = Class.forName(name, false, loader).asSubclass(Annotation.class);
+
+            rules.add(AnnotationRule.named(name).onMethods().requireAnnotation(annotation).compile());
+            rules.add(AnnotationRule.named(name).onConstructorParameters().requireAnnotation(annotation).compile());
+        }
+
+        work = Files.createTempDirectory("verifier");
+        if (layout == Layout.JAR) {
+            root = writeJar(corpus);
+        } else {
+            root = writeDirectories(corpus);
+        }
+        verifier = AnnotationVerifier.of(rules).withClassLoader(loader).withParallelism(threads);
+        expected = AnnotationVerifier.of(rules).withClassLoader(loader).withParallelism(1).verify(root).size();
+        if (expected == 0) {
+            throw new IllegalStateException("The rules report no violations for the corpus");
+        }
+    }
+
+    /**
+     * Delete the class files.
+     * @throws IOException if a file can not be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.walkFileTree(work, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Scan every class file.
+     * @return violations found
+     * @throws IOException if a class file can not be read
+     */
+    @Benchmark
+    public List<RuleViolation> verify() throws IOException {
+        List<RuleViolation> res = verifier.verify(root);
+
+        if (res.size() != expected) {
+            throw new IllegalStateException(threads + " threads found " + res.size() + " violations, not " + expected);
+        }
+
+        return res;
+    }
+
+    private File writeDirectories(AnnotatedCorpus corpus) throws IOException {
+        for (int copy = 0; copy < COPIES; copy++) {
+            for (String name : corpus.getClassFileNames()) {
+                Path file = work.resolve(pathOf(copy, name));
+
+                Files.createDirectories(file.getParent());
+                Files.write(file, corpus.getClassFile(name));
+            }
+        }
+
+        return work.toFile();
+    }
+
+    private File writeJar(AnnotatedCorpus corpus) throws IOException {
+        Path jar = work.resolve("corpus.jar");
+
+        try (OutputStream out = Files.newOutputStream(jar); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (int copy = 0; copy < COPIES; copy++) {
+                for (String name : corpus.getClassFileNames()) {
+                    zip.putNextEntry(new ZipEntry(pathOf(copy, name)));
+                    zip.write(corpus.getClassFile(name));
+                }
+            }
+        }
+
+        return jar.toFile();
+    }
+
+    private static String pathOf(int copy, String name) {
+        return "copy" + copy + "/" + name.replace('.', '/') + ".class";
+    }
+}
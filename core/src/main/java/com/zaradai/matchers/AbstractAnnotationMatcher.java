@@ -0,0 +1,337 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import org.hamcrest.Description;
+import org.hamcrest.DiagnosingMatcher;
+import org.hamcrest.Matcher;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Supports basic annotation matcher functionality.
+ * <p>
+ * The matchers of this library resolve annotations through the cached metadata of the item's class.  A subclass
+ * that overrides one of the protected lookups, {@link #getAnnotation(Object, Class)},
+ * {@link #getAnnotationSnapshot(Object, Class)} or the parameter annotations of a parameter matcher, has every
+ * annotation resolved through its lookups instead.
+ * </p>
+ */
+public abstract class AbstractAnnotationMatcher extends DiagnosingMatcher<Object> {
+    private static final String PACKAGE = AbstractAnnotationMatcher.class.getPackage().getName();
+
+    private static final ClassValue<Boolean> CUSTOM_LOOKUP = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return overrides(type, "getAnnotation", Object.class, Class.class)
+                    || overrides(type, "getAnnotationSnapshot", Object.class, Class.class)
+                    || overrides(type, "getParameterAnnotations", Object.class);
+        }
+    };
+
+    private final Matcher<Annotation> paramMatcher;
+    private final Class<? extends Annotation> annotationClass;
+    private final AnnotationLocator locator;
+    private final boolean customLookup;
+    private final int annotationId;
+
+    /**
+     * Setup the matcher with {@link Annotation} class to be matched with and an optional {@link Matcher<Annotation> }
+     * to match the annotations parameters with.
+     * @param annotationClass  annotation that must decorate the class
+     * @param paramMatcher matcher to check the annotation for a specific parameter
+     * @throws IllegalArgumentException if the annotation class is null
+     */
+    protected AbstractAnnotationMatcher(Class<? extends Annotation> annotationClass, Matcher<Annotation> paramMatcher) {
+        this(annotationClass, paramMatcher, null);
+    }
+
+    /**
+     * Setup the matcher to resolve annotations through the cached metadata of the element found by the locator.
+     * @param annotationClass annotation that must decorate the element
+     * @param paramMatcher matcher to check the annotation for a specific parameter
+     * @param locator locates the annotated element, null to resolve through {@link #getAnnotation(Object, Class)}
+     * @throws IllegalArgumentException if the annotation class is null
+     */
+    AbstractAnnotationMatcher(Class<? extends Annotation> annotationClass, Matcher<Annotation> paramMatcher,
+                              AnnotationLocator locator) {
+        if (annotationClass == null) {
+            throw new IllegalArgumentException("Annotation class is null");
+        }
+
+        this.annotationClass = annotationClass;
+        this.paramMatcher = paramMatcher;
+        this.locator = locator;
+        this.customLookup = locator != null && CUSTOM_LOOKUP.get(getClass());
+        this.annotationId = AnnotationRegistry.idOf(annotationClass);
+    }
+
+    @Override
+    protected boolean matches(Object item, Description mismatchDescription) {
+        return validateItem(item, mismatchDescription) && match(item, mismatchDescription);
+    }
+
+    private boolean match(Object item, Description mismatchDescription) {
+        Object resolved = LastEvaluation.replay(this, item, mismatchDescription);
+
+        if (resolved instanceof Exception) {
+            mismatchDescription.appendText(resolved.toString());
+            return false;
+        }
+        if (resolved == LastEvaluation.NOT_REMEMBERED) {
+            try {
+                resolved = resolve(item);
+            } catch (Exception e) {
+                LastEvaluation.rememberFailure(this, item, mismatchDescription, e);
+                mismatchDescription.appendText(e.toString());
+                return false;
+            }
+        }
+
+        if (!matchResolved(resolved, mismatchDescription)) {
+            LastEvaluation.remember(this, item, mismatchDescription, resolved);
+            return false;
+        }
+
+        return true;
+    }
+
+    private Object resolve(Object item) throws Exception {
+        if (locator != null && !customLookup) {
+            return find(TypeMetadata.of(item));
+        }
+
+        // matchers without a locator resolve the annotation, or its snapshot, through the subclass
+        if (!customLookup) {
+            AnnotationTable table = getAnnotationTable(item);
+
+            if (table != null) {
+                return table;
+            }
+        }
+        if (paramMatcher instanceof AnnotationParamMatcher) {
+            return getAnnotationSnapshot(item, annotationClass);
+        }
+
+        return getAnnotation(item, annotationClass);
+    }
+
+    private Object find(TypeMetadata type) {
+        AnnotationTable table = locator.find(type);
+
+        if (table == null) {
+            return locator.getMiss(type);
+        }
+
+        return table;
+    }
+
+    private boolean matchResolved(Object resolved, Description mismatchDescription) {
+        if (resolved instanceof LookupMiss) {
+            mismatchDescription.appendText(resolved.toString());
+            return false;
+        }
+        if (resolved instanceof AnnotationTable) {
+            return matchesTable((AnnotationTable) resolved, mismatchDescription);
+        }
+        if (paramMatcher instanceof AnnotationParamMatcher) {
+            return matchSnapshot((AnnotationSnapshot) resolved, (AnnotationParamMatcher<?>) paramMatcher,
+                    mismatchDescription);
+        }
+
+        return matchAnnotation((Annotation) resolved, mismatchDescription);
+    }
+
+    /**
+     * Match against the resolved annotations of the element the matcher inspects, allowing the element to be
+     * resolved once for several matchers.
+     * @param table annotations of the element found by the matcher's locator
+     * @param mismatchDescription description of a mismatch
+     * @return true if the expected annotation, and parameter, are present
+     */
+    boolean matchesTable(AnnotationTable table, Description mismatchDescription) {
+        if (paramMatcher == null) {
+            return matchPresence(table.contains(annotationId), mismatchDescription);
+        }
+        if (paramMatcher instanceof AnnotationParamMatcher) {
+            return matchSnapshot(table.getSnapshot(annotationClass), (AnnotationParamMatcher<?>) paramMatcher,
+                    mismatchDescription);
+        }
+
+        return matchAnnotation(table.get(annotationClass), mismatchDescription);
+    }
+
+    private boolean matchPresence(boolean present, Description mismatchDescription) {
+        if (!present) {
+            mismatchDescription.appendText("annotation missing");
+        }
+
+        return present;
+    }
+
+    private boolean matchAnnotation(Annotation annotation, Description mismatchDescription) {
+        if (annotation == null) {
+            mismatchDescription.appendText("annotation missing");
+            return false;
+        }
+
+        return matchParameter(annotation, mismatchDescription);
+    }
+
+    private boolean matchSnapshot(AnnotationSnapshot snapshot, AnnotationParamMatcher<?> snapshotMatcher,
+                                  Description mismatchDescription) {
+        if (snapshot == null) {
+            mismatchDescription.appendText("annotation missing");
+            return false;
+        }
+
+        return snapshotMatcher.matchesSnapshot(snapshot, mismatchDescription);
+    }
+
+    private boolean matchParameter(Annotation annotation, Description mismatchDescription) {
+        if (paramMatcher != null) {
+            if (!paramMatcher.matches(annotation)) {
+                paramMatcher.describeMismatch(annotation, mismatchDescription);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean validateItem(Object item, Description mismatchDescription) {
+        if (item == null) {
+            mismatchDescription.appendText("was null");
+            return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public void describeTo(Description description) {
+        description.appendText(getAnnotationSource()).appendText(" to be annotated with ").appendValue(annotationClass);
+
+        if (paramMatcher != null) {
+            description.appendText(" ");
+            paramMatcher.describeTo(description);
+        }
+    }
+
+    /**
+     * get a string to help describe the matcher.
+     * @return description of source
+     */
+    protected abstract String getAnnotationSource();
+
+    /**
+     * get specific annotation from the implementation.
+     * @param item object instance to get annotation from
+     * @param clazz type of annotation to retrieve
+     * @return required annotation from the item
+     * @throws Exception
+     */
+    protected abstract Annotation getAnnotation(Object item, Class<? extends Annotation> clazz) throws Exception;
+
+    /**
+     * get a snapshot of the attribute values of a specific annotation.  Annotation parameters are matched against
+     * the snapshot rather than the annotation, implementations should return a cached snapshot where they can.
+     * @param item object instance to get annotation from
+     * @param clazz type of annotation to retrieve
+     * @return snapshot of the required annotation or null if it is not present
+     * @throws Exception
+     */
+    protected AnnotationSnapshot getAnnotationSnapshot(Object item, Class<? extends Annotation> clazz)
+            throws Exception {
+        if (!customLookup) {
+            AnnotationTable table = getAnnotationTable(item);
+
+            if (table != null) {
+                return table.getSnapshot(clazz);
+            }
+        }
+
+        Annotation annotation = getAnnotation(item, clazz);
+
+        if (annotation == null) {
+            return null;
+        }
+
+        return AnnotationSnapshot.of(annotation);
+    }
+
+    /**
+     * Get the annotations of the element the matcher inspects from the cached metadata of the item's class.
+     * @param item object instance to get annotations from
+     * @return table of the element's annotations or null if the matcher was not created with a locator
+     * @throws Exception if the item's class does not declare the element
+     */
+    AnnotationTable getAnnotationTable(Object item) throws Exception {
+        if (locator == null) {
+            return null;
+        }
+
+        return locator.locate(TypeMetadata.of(item));
+    }
+
+    /**
+     * Get the locator of the element the matcher inspects.
+     * @return element locator or null if the matcher resolves annotations through
+     * {@link #getAnnotation(Object, Class)}
+     */
+    AnnotationLocator getLocator() {
+        if (customLookup) {
+            return null;
+        }
+
+        return locator;
+    }
+
+    /**
+     * Test if a subclass outside this library overrides the protected lookups, so annotations must be resolved
+     * through them rather than through the cached metadata.
+     * @return true if the lookups are overridden
+     */
+    boolean hasCustomLookup() {
+        return customLookup;
+    }
+
+    private static boolean overrides(Class<?> type, String name, Class<?>... parameterTypes) {
+        for (Class<?> declaring = type; declaring != AbstractAnnotationMatcher.class;
+             declaring = declaring.getSuperclass()) {
+            try {
+                declaring.getDeclaredMethod(name, parameterTypes);
+            } catch (NoSuchMethodException e) {
+                continue;
+            }
+
+            // the matchers of this library resolve their lookups through the cached metadata themselves
+            return declaring.getClassLoader() != AbstractAnnotationMatcher.class.getClassLoader()
+                    || !PACKAGE.equals(packageOf(declaring));
+        }
+
+        return false;
+    }
+
+    private static String packageOf(Class<?> type) {
+        int end = type.getName().lastIndexOf('.');
+
+        if (end < 0) {
+            return "";
+        }
+
+        return type.getName().substring(0, end);
+    }
+}
@@ -41,17 +41,50 @@ public abstract class AbstractParameterAnnotatedMatcher extends AbstractAnnotati
         this.parameterPosition = parameterPosition;
     }
 
+    /**
+     * Setup the matcher to resolve the parameter annotations through the cached metadata of the located parameter.
+     * @param annotationClass annotation that must decorate the parameter
+     * @param paramMatcher matcher to check the annotation for a specific parameter
+     * @param parameterPosition position of parameter
+     * @param locator locates the annotated parameter
+     */
+    AbstractParameterAnnotatedMatcher(Class<? extends Annotation> annotationClass, Matcher<Annotation> paramMatcher,
+                                      int parameterPosition, AnnotationLocator locator) {
+        super(annotationClass, paramMatcher, locator);
+
+        this.parameterPosition = parameterPosition;
+    }
+
     @Override
     protected Annotation getAnnotation(Object item, Class<? extends Annotation> annotationClass) throws Exception {
-        Annotation[][] annotations = getParameterAnnotations(item);
+        return getAnnotationTable(item).get(annotationClass);
+    }
 
-        for (Annotation annotation : annotations[parameterPosition]) {
-            if (annotationClass.isInstance(annotation)) {
-                    return annotation;
-            }
+    @Override
+    AnnotationTable getAnnotationTable(Object item) throws Exception {
+        if (hasCustomLookup()) {
+            return getParameterAnnotationTable(item, parameterPosition);
         }
 
-        return null;
+        AnnotationTable res = super.getAnnotationTable(item);
+
+        if (res == null) {
+            return getParameterAnnotationTable(item, parameterPosition);
+        }
+
+        return res;
+    }
+
+    /**
+     * Get the annotations of the parameter at the position indexed by type.  The default indexes the result of
+     * {@link #getParameterAnnotations(Object)} on each call, it is only used when the matcher was not created with a
+     * locator.
+     * @param item object to get annotations from
+     * @param position position of parameter
+     * @throws Exception
+     */
+    AnnotationTable getParameterAnnotationTable(Object item, int position) throws Exception {
+        return AnnotationTable.of(getParameterAnnotations(item)[position]);
     }
 
     /**
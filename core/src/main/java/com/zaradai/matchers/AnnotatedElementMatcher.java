@@ -27,6 +27,7 @@ import java.lang.reflect.AnnotatedElement;
  */
 public class AnnotatedElementMatcher extends TypeSafeDiagnosingMatcher<AnnotatedElement> {
     private final Class<? extends Annotation> annotation;
+    private final int annotationId;
 
     /**
      * Create an {@link AnnotatedElement} matcher.
@@ -34,12 +35,13 @@ public class AnnotatedElementMatcher extends TypeSafeDiagnosingMatcher<Annotated
      */
     public AnnotatedElementMatcher(Class<? extends Annotation> annotation) {
         this.annotation = annotation;
+        this.annotationId = AnnotationRegistry.idOf(annotation);
     }
 
     @Override
     protected boolean matchesSafely(AnnotatedElement item, Description mismatchDescription) {
         try {
-            if (!item.isAnnotationPresent(annotation)) {
+            if (!isPresent(item)) {
                 mismatchDescription.appendText("annotation missing");
                 return false;
             }
@@ -51,6 +53,19 @@ public class AnnotatedElementMatcher extends TypeSafeDiagnosingMatcher<Annotated
         return true;
     }
 
+    private boolean isPresent(AnnotatedElement item) {
+        ElementMetadata metadata = ClassMetadata.forElement(item);
+
+        if (metadata == null) {
+            return item.isAnnotationPresent(annotation);
+        }
+        if (annotation == null) {
+            throw new NullPointerException();
+        }
+
+        return metadata.getAnnotations().contains(annotationId);
+    }
+
     @Override
     public void describeTo(Description description) {
         description.appendText(" annotated with ").appendValue(annotation.getName());
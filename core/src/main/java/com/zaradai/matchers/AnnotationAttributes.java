@@ -0,0 +1,209 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The attributes declared by an annotation type, each with a precompiled accessor.  Attribute tables are attached
+ * to the annotation type through a {@link ClassValue} so each (annotation type, attribute name) pair is resolved
+ * through reflection only once.  Attributes are indexed in name order.
+ */
+final class AnnotationAttributes {
+    private static final ClassValue<AnnotationAttributes> ATTRIBUTES = new ClassValue<AnnotationAttributes>() {
+        @Override
+        protected AnnotationAttributes computeValue(Class<?> type) {
+            return new AnnotationAttributes(type);
+        }
+    };
+
+    private static final Comparator<Method> BY_NAME = new Comparator<Method>() {
+        @Override
+        public int compare(Method first, Method second) {
+            return first.getName().compareTo(second.getName());
+        }
+    };
+
+    private final Class<?> annotationType;
+    private final Attribute[] attributes;
+    private final Map<String, Attribute> attributesByName;
+
+    private AnnotationAttributes(Class<?> annotationType) {
+        Method[] methods = attributeMethods(annotationType);
+
+        this.annotationType = annotationType;
+        this.attributes = new Attribute[methods.length];
+        this.attributesByName = new HashMap<String, Attribute>();
+
+        for (int i = 0; i < methods.length; i++) {
+            attributes[i] = new Attribute(methods[i], i);
+            attributesByName.put(attributes[i].getName(), attributes[i]);
+        }
+    }
+
+    /**
+     * Get the attribute table of an annotation type, creating it on first use.
+     * @param annotationType annotation type to get attributes of
+     * @return shared attribute table
+     */
+    static AnnotationAttributes forType(Class<? extends Annotation> annotationType) {
+        return ATTRIBUTES.get(annotationType);
+    }
+
+    /**
+     * Get the annotation type the attributes are declared by.
+     * @return annotation type
+     */
+    Class<?> getAnnotationType() {
+        return annotationType;
+    }
+
+    /**
+     * Get a named attribute.
+     * @param name name of the attribute
+     * @return the attribute or null if the annotation type does not declare it
+     */
+    Attribute get(String name) {
+        return attributesByName.get(name);
+    }
+
+    /**
+     * Get an attribute by its index.
+     * @param index position of the attribute in name order
+     * @return the attribute
+     */
+    Attribute get(int index) {
+        return attributes[index];
+    }
+
+    /**
+     * Get the number of attributes declared by the annotation type.
+     * @return attribute count
+     */
+    int size() {
+        return attributes.length;
+    }
+
+    private static Method[] attributeMethods(Class<?> annotationType) {
+        Method[] methods = annotationType.getDeclaredMethods();
+        int count = 0;
+
+        for (Method method : methods) {
+            if (isAttribute(method)) {
+                methods[count++] = method;
+            }
+        }
+
+        Method[] res = Arrays.copyOf(methods, count);
+        Arrays.sort(res, BY_NAME);
+
+        return res;
+    }
+
+    private static boolean isAttribute(Method method) {
+        return method.getParameterTypes().length == 0 && !method.isSynthetic()
+                && !Modifier.isStatic(method.getModifiers());
+    }
+
+    /**
+     * A single annotation attribute and its accessor.
+     */
+    static final class Attribute {
+        private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Annotation.class);
+
+        private final String name;
+        private final int index;
+        private final Class<?> type;
+        private final MethodHandle accessor;
+
+        private Attribute(Method method, int index) {
+            this.name = method.getName();
+            this.index = index;
+            this.type = method.getReturnType();
+            this.accessor = compile(method);
+        }
+
+        /**
+         * Get the attribute name.
+         * @return attribute name
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Get the position of the attribute in name order.
+         * @return attribute index
+         */
+        int getIndex() {
+            return index;
+        }
+
+        /**
+         * Get the declared type of the attribute.
+         * @return attribute type
+         */
+        Class<?> getType() {
+            return type;
+        }
+
+        /**
+         * Read the attribute value from an annotation of the type that declares it.
+         * @param annotation annotation to read
+         * @return attribute value
+         * @throws Exception if the annotation fails to produce the value
+         */
+        Object getValue(Annotation annotation) throws Exception {
+            try {
+                return accessor.invokeExact(annotation);
+            } catch (Exception e) {
+                throw e;
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new UndeclaredThrowableException(t);
+            }
+        }
+
+        private static MethodHandle compile(Method method) {
+            try {
+                return MethodHandles.publicLookup().unreflect(method).asType(ACCESSOR_TYPE);
+            } catch (IllegalAccessException e) {
+                // annotation types that are not public need the access check suppressed
+                return compileAccessible(method);
+            }
+        }
+
+        private static MethodHandle compileAccessible(Method method) {
+            try {
+                method.setAccessible(true);
+                return MethodHandles.publicLookup().unreflect(method).asType(ACCESSOR_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Unable to access annotation attribute " + method, e);
+            }
+        }
+    }
+}
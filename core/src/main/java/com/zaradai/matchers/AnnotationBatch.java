@@ -0,0 +1,257 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import org.hamcrest.Description;
+import org.hamcrest.DiagnosingMatcher;
+import org.hamcrest.Factory;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Evaluates many annotation matchers against one target.  Matchers are grouped by the class, member or parameter
+ * they inspect when the batch is created, and each distinct element is resolved only once per evaluation no
+ * matter how many matchers inspect it.  Matchers that do not resolve elements through the shared metadata, such as
+ * plain Hamcrest matchers, are evaluated as they are.
+ * <p>
+ * A batch is itself a matcher with the same behaviour as Hamcrest's {@code allOf}, so it can replace it in
+ * assertions:
+ * <pre>assertThat(myObject, AnnotationBatch.of(classAnnotatedWith(Entity.class), fieldAnnotatedWith(Id.class, "id"),
+ *     fieldAnnotatedWithParamValue(Column.class, "name", "ID", "id")))</pre>
+ * </p>
+ */
+public final class AnnotationBatch extends DiagnosingMatcher<Object> {
+    private final Matcher<?>[] matchers;
+    private final AnnotationLocator[] locators;
+    private final int[] groups;
+
+    private AnnotationBatch(Matcher<?>[] matchers) {
+        List<AnnotationLocator> distinct = new ArrayList<AnnotationLocator>();
+
+        this.matchers = matchers;
+        this.groups = new int[matchers.length];
+
+        for (int i = 0; i < matchers.length; i++) {
+            groups[i] = group(distinct, LocatedMatchers.locatorOf(matchers[i]));
+        }
+
+        this.locators = distinct.toArray(new AnnotationLocator[distinct.size()]);
+    }
+
+    /**
+     * Creates a batch of matchers to be evaluated together against the same target.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, of(classAnnotatedWith(Entity.class), fieldAnnotatedWith(Id.class, "id")))</pre>
+     * </p>
+     *
+     * @param matchers the matchers to evaluate
+     */
+    @Factory
+    public static AnnotationBatch of(Matcher<?>... matchers) {
+        return new AnnotationBatch(matchers.clone());
+    }
+
+    /**
+     * Creates a batch of matchers to be evaluated together against the same target.
+     *
+     * @param matchers the matchers to evaluate
+     */
+    @Factory
+    public static AnnotationBatch of(Iterable<? extends Matcher<?>> matchers) {
+        List<Matcher<?>> res = new ArrayList<Matcher<?>>();
+
+        for (Matcher<?> matcher : matchers) {
+            res.add(matcher);
+        }
+
+        return new AnnotationBatch(res.toArray(new Matcher<?>[res.size()]));
+    }
+
+    /**
+     * Evaluate every matcher of the batch against the target.
+     * @param item target to evaluate
+     * @return the result of each matcher in the order the matchers were given
+     */
+    public List<Result> evaluate(Object item) {
+        Evaluation evaluation = new Evaluation(item);
+        List<Result> res = new ArrayList<Result>(matchers.length);
+
+        for (int i = 0; i < matchers.length; i++) {
+            Description mismatch = new StringDescription();
+            boolean matched = evaluation.matches(i, mismatch);
+
+            if (matched) {
+                res.add(new Result(matchers[i], true, ""));
+            } else {
+                res.add(new Result(matchers[i], false, mismatch.toString()));
+            }
+        }
+
+        return Collections.unmodifiableList(res);
+    }
+
+    @Override
+    protected boolean matches(Object item, Description mismatchDescription) {
+        Evaluation evaluation = new Evaluation(item);
+
+        for (int i = 0; i < matchers.length; i++) {
+            if (!evaluation.matches(i, Description.NONE)) {
+                mismatchDescription.appendDescriptionOf(matchers[i]).appendText(" ");
+                evaluation.matches(i, mismatchDescription);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public void describeTo(Description description) {
+        description.appendList("(", " and ", ")", Arrays.asList(matchers));
+    }
+
+    /**
+     * Get the number of distinct elements the matchers of the batch inspect.
+     * @return number of elements resolved per evaluation
+     */
+    int getLocatorCount() {
+        return locators.length;
+    }
+
+    private static int group(List<AnnotationLocator> distinct, AnnotationLocator locator) {
+        if (locator == null) {
+            return -1;
+        }
+
+        int res = distinct.indexOf(locator);
+
+        if (res < 0) {
+            res = distinct.size();
+            distinct.add(locator);
+        }
+
+        return res;
+    }
+
+    /**
+     * The outcome of a single matcher of a batch.
+     */
+    public static final class Result {
+        private final Matcher<?> matcher;
+        private final boolean matched;
+        private final String mismatch;
+
+        private Result(Matcher<?> matcher, boolean matched, String mismatch) {
+            this.matcher = matcher;
+            this.matched = matched;
+            this.mismatch = mismatch;
+        }
+
+        /**
+         * Get the matcher the result is for.
+         * @return evaluated matcher
+         */
+        public Matcher<?> getMatcher() {
+            return matcher;
+        }
+
+        /**
+         * Test if the matcher matched the target.
+         * @return true if matched
+         */
+        public boolean isMatched() {
+            return matched;
+        }
+
+        /**
+         * Get the description of the mismatch, as produced by the matcher's own mismatch description.
+         * @return mismatch description, empty if the matcher matched
+         */
+        public String getMismatch() {
+            return mismatch;
+        }
+
+        @Override
+        public String toString() {
+            if (matched) {
+                return StringDescription.toString(matcher) + ": matched";
+            }
+
+            return StringDescription.toString(matcher) + ": " + mismatch;
+        }
+    }
+
+    /**
+     * The elements resolved while evaluating the batch against one target, each is resolved on first use.
+     */
+    private final class Evaluation {
+        private final Object item;
+        private final AnnotationTable[] tables;
+        private final LookupMiss[] misses;
+
+        Evaluation(Object item) {
+            this.item = item;
+            this.tables = new AnnotationTable[locators.length];
+            this.misses = new LookupMiss[locators.length];
+        }
+
+        boolean matches(int index, Description mismatchDescription) {
+            Matcher<?> matcher = matchers[index];
+
+            if (item == null || groups[index] < 0) {
+                return matchDirectly(matcher, mismatchDescription);
+            }
+
+            AnnotationTable table = resolve(groups[index]);
+
+            if (table == null) {
+                mismatchDescription.appendText(misses[groups[index]].toString());
+                return false;
+            }
+            return LocatedMatchers.matchesTable(matcher, table, mismatchDescription);
+        }
+
+        private boolean matchDirectly(Matcher<?> matcher, Description mismatchDescription) {
+            if (matcher.matches(item)) {
+                return true;
+            }
+
+            matcher.describeMismatch(item, mismatchDescription);
+
+            return false;
+        }
+
+        private AnnotationTable resolve(int group) {
+            if (tables[group] == null && misses[group] == null) {
+                TypeMetadata type = TypeMetadata.of(item);
+
+                tables[group] = locators[group].find(type);
+
+                if (tables[group] == null) {
+                    misses[group] = locators[group].getMiss(type);
+                }
+            }
+
+            return tables[group];
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An annotation as it is recorded in a class file: the binary name of its type and the values of the attributes
+ * that were given explicitly.  Values are kept as read, constants as their boxed value, strings as strings, enum
+ * constants and classes as the names recorded for them, nested annotations as annotation data and arrays as
+ * {@code Object[]} of such values.  No class is loaded until the annotation is materialized by
+ * {@link SyntheticAnnotation}.
+ */
+final class AnnotationData {
+    private final String typeName;
+    private final Map<String, Object> values;
+
+    /**
+     * Record an annotation.
+     * @param typeName binary name of the annotation type
+     * @param values explicitly given attribute values by attribute name
+     */
+    AnnotationData(String typeName, Map<String, Object> values) {
+        this.typeName = typeName;
+        this.values = values;
+    }
+
+    /**
+     * Get the binary name of the annotation type.
+     * @return annotation type name
+     */
+    String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * Get the explicitly given attribute values, attributes left at their default are absent.
+     * @param name name of the attribute
+     * @return value as read from the class file or null if the attribute was not given
+     */
+    Object getValue(String name) {
+        return values.get(name);
+    }
+
+    /**
+     * Get the explicitly given attribute values in the order they were recorded.
+     * @return unmodifiable map of values by attribute name
+     */
+    Map<String, Object> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    @Override
+    public String toString() {
+        return "@" + typeName + values;
+    }
+
+    /**
+     * An enum constant recorded by the name of its type and the name of the constant.
+     */
+    static final class EnumConstant {
+        private final String typeName;
+        private final String name;
+
+        /**
+         * Record an enum constant.
+         * @param typeName binary name of the enum type
+         * @param name name of the constant
+         */
+        EnumConstant(String typeName, String name) {
+            this.typeName = typeName;
+            this.name = name;
+        }
+
+        /**
+         * Get the binary name of the enum type.
+         * @return enum type name
+         */
+        String getTypeName() {
+            return typeName;
+        }
+
+        /**
+         * Get the name of the constant.
+         * @return constant name
+         */
+        String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return typeName + "." + name;
+        }
+    }
+
+    /**
+     * A class literal recorded by its field descriptor, such as {@code Ljava/lang/String;}, {@code [I} or
+     * {@code V}.
+     */
+    static final class ClassReference {
+        private final String descriptor;
+
+        /**
+         * Record a class literal.
+         * @param descriptor field descriptor of the class, or V for {@code void.class}
+         */
+        ClassReference(String descriptor) {
+            this.descriptor = descriptor;
+        }
+
+        /**
+         * Load the referenced class without initializing it.
+         * @param classLoader loader to load the class through, null for the bootstrap loader
+         * @return the referenced class
+         * @throws ClassNotFoundException if the class can not be found
+         */
+        Class<?> resolve(ClassLoader classLoader) throws ClassNotFoundException {
+            switch (descriptor.charAt(0)) {
+                case 'Z':
+                    return boolean.class;
+                case 'B':
+                    return byte.class;
+                case 'C':
+                    return char.class;
+                case 'S':
+                    return short.class;
+                case 'I':
+                    return int.class;
+                case 'J':
+                    return long.class;
+                case 'F':
+                    return float.class;
+                case 'D':
+                    return double.class;
+                case 'V':
+                    return void.class;
+                case '[':
+                    return Class.forName(descriptor.replace('/', '.'), false, classLoader);
+                default:
+                    return Class.forName(ClassFileParser.binaryName(descriptor), false, classLoader);
+            }
+        }
+
+        /**
+         * Get the name of the referenced class as it is written in source, such as {@code java.lang.String},
+         * {@code int[]} or {@code void}.
+         * @return source name of the class
+         */
+        String getSourceName() {
+            switch (descriptor.charAt(0)) {
+                case 'Z':
+                    return "boolean";
+                case 'B':
+                    return "byte";
+                case 'C':
+                    return "char";
+                case 'S':
+                    return "short";
+                case 'I':
+                    return "int";
+                case 'J':
+                    return "long";
+                case 'F':
+                    return "float";
+                case 'D':
+                    return "double";
+                case 'V':
+                    return "void";
+                case '[':
+                    return new ClassReference(descriptor.substring(1)).getSourceName() + "[]";
+                default:
+                    return ClassFileParser.binaryName(descriptor);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return descriptor;
+        }
+    }
+}
@@ -0,0 +1,662 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A persistent index of the annotations of many classes, written once from their class files and then read through
+ * a memory mapping.  Nothing is read from the index when it is opened, a class is decoded from the mapped file only
+ * when it is first looked up and then kept, so opening an index is immediate and its heap cost grows with the classes
+ * looked up rather than with the number of classes it holds.  The {@link ClassFile}s returned by
+ * {@link #find(String)} are matched by every matcher of {@link AnnotationMatchers} and checked by
+ * {@link AnnotationRule}s as if they were read from their class files, without loading the classes.
+ * <p>
+ * Strings are stored once in a front coded dictionary and integers as varints, see {@link AnnotationIndexWriter} for
+ * the format.  An index is immutable and may be shared between threads.  For example:
+ * <pre>AnnotationIndex.write(classFiles, new File("target/annotations.idx"));
+ *
+ * AnnotationIndex index = AnnotationIndex.open(new File("target/annotations.idx"));
+ * assertThat(index.find("com.acme.OrderService"), is(fieldAnnotatedWith(Inject.class, "repository")));</pre>
+ * </p>
+ */
+public final class AnnotationIndex {
+    /**
+     * Name of the index resource the annotation processor of the {@code matchers-processor} module generates next to
+     * the class files it compiles.  The matchers take the annotations of a class from the index of its class path
+     * entry, if that entry has one and the index holds the class.
+     */
+    public static final String RESOURCE = "META-INF/matchers/annotations.idx";
+
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MASK = 0x7F;
+    private static final int VARINT_MORE = 0x80;
+    private static final int INT_BYTES = 4;
+    private static final int CLASS_ENTRY_BYTES = 8;
+
+    private final String name;
+    private final ByteBuffer index;
+    private final ClassLoader classLoader;
+    private final int stringCount;
+    private final int restartTable;
+    private final int classCount;
+    private final int classTable;
+    private final ConcurrentMap<String, ClassFile> decoded = new ConcurrentHashMap<String, ClassFile>();
+
+    private AnnotationIndex(String name, ByteBuffer index, ClassLoader classLoader) throws IOException {
+        this.name = name;
+        this.index = index;
+        this.classLoader = classLoader;
+
+        if (index.limit() < AnnotationIndexWriter.HEADER_SIZE || index.getInt(0) != AnnotationIndexWriter.MAGIC) {
+            throw new IOException(name + " is not an annotation index");
+        }
+        if (index.getInt(INT_BYTES) != AnnotationIndexWriter.VERSION) {
+            throw new IOException(name + " is an annotation index of unsupported version " + index.getInt(INT_BYTES));
+        }
+
+        this.stringCount = index.getInt(AnnotationIndexWriter.STRING_COUNT);
+        this.restartTable = index.getInt(AnnotationIndexWriter.RESTART_TABLE);
+        this.classCount = index.getInt(AnnotationIndexWriter.CLASS_COUNT);
+        this.classTable = index.getInt(AnnotationIndexWriter.CLASS_TABLE);
+
+        int restarts = (stringCount + AnnotationIndexWriter.RESTART_INTERVAL - 1)
+                / AnnotationIndexWriter.RESTART_INTERVAL;
+
+        if (stringCount < 0 || classCount < 0 || restartTable < AnnotationIndexWriter.HEADER_SIZE
+                || (long) restartTable + (long) restarts * INT_BYTES > classTable
+                || (long) classTable + (long) classCount * CLASS_ENTRY_BYTES != index.limit()) {
+            throw new IOException(name + " is a corrupt annotation index");
+        }
+    }
+
+    /**
+     * Write an index of classes.  The index is written to a temporary file of its own in the directory of
+     * <code>file</code>, which then replaces <code>file</code>, so readers never see a partly written index and
+     * concurrent writers of the same index do not overwrite each other's temporary files.
+     * @param classes classes to index, read from their class files
+     * @param file index file
+     * @throws IOException if the index can not be written
+     * @throws IllegalArgumentException if two classes have the same name
+     */
+    public static void write(Iterable<ClassFile> classes, File file) throws IOException {
+        AnnotationIndexWriter writer = new AnnotationIndexWriter();
+
+        for (ClassFile classFile : classes) {
+            writer.add(classFile);
+        }
+
+        replace(file, writer.toByteArray());
+    }
+
+    /**
+     * Build an index of every class found in directories and jars, or bring the index already in <code>file</code>
+     * up to date.  A class whose class file did not change since the index was built, by modification time and size
+     * for a class file in a directory or by the CRC-32 recorded by its jar for a jar entry, is taken from the index
+     * without reading its class file, so only the classes changed are parsed again.  An incremental build writes the
+     * same bytes as a full build of the same class path.  A class file modified without changing its time stamp or
+     * size is not noticed, deleting the index forces a full build.
+     * <p>
+     * Classes are indexed in class path order and a class shadowed by one of the same name earlier on the class path
+     * is left out, as by the JVM.  Entries that do not exist are skipped.
+     * </p>
+     * @param classPath directories and jars to index
+     * @param file index file, built in full if it does not exist or is not a readable index
+     * @throws IOException if the class path can not be read, holds a malformed class file or if the index can not
+     * be written
+     */
+    public static void build(Iterable<File> classPath, File file) throws IOException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+        if (classLoader == null) {
+            classLoader = AnnotationIndex.class.getClassLoader();
+        }
+
+        replace(file, builderOf(classPath, file, classLoader).toByteArray());
+    }
+
+    /**
+     * Index every class of a class path, reusing the classes of the index in <code>file</code>.
+     * @param classPath directories and jars to index
+     * @param file previous index, built in full if it does not exist or is not a readable index
+     * @param classLoader loader of the annotation types of the classes parsed
+     * @return the builder holding the classes
+     * @throws IOException if the class path can not be read or holds a malformed class file
+     */
+    static IndexBuilder builderOf(Iterable<File> classPath, File file, ClassLoader classLoader) throws IOException {
+        AnnotationIndex previous = null;
+
+        if (file.isFile()) {
+            try {
+                // read rather than mapped, a mapped file can not be replaced by the new index on Windows
+                previous = new AnnotationIndex(file.toString(), ByteBuffer.wrap(Files.readAllBytes(file.toPath())),
+                        classLoader);
+            } catch (IOException e) {
+                // an index of an older format, or a file that is not an index, is rebuilt in full
+                previous = null;
+            }
+        }
+
+        IndexBuilder builder = new IndexBuilder(previous, classLoader);
+
+        for (File root : classPath) {
+            builder.addRoot(root);
+        }
+
+        return builder;
+    }
+
+    /**
+     * Open an index, loading annotation types through the context class loader of the current thread.
+     * @param file index file
+     * @return the index
+     * @throws IOException if the file can not be read or is not an annotation index
+     */
+    public static AnnotationIndex open(File file) throws IOException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+        if (classLoader == null) {
+            classLoader = AnnotationIndex.class.getClassLoader();
+        }
+
+        return open(file, classLoader);
+    }
+
+    /**
+     * Open an index, loading annotation types through the <code>classLoader</code>.
+     * @param file index file
+     * @param classLoader loader of the annotation types and of the classes referenced by annotation values
+     * @return the index
+     * @throws IOException if the file can not be read or is not an annotation index
+     */
+    public static AnnotationIndex open(File file, ClassLoader classLoader) throws IOException {
+        if (classLoader == null) {
+            throw new IllegalArgumentException("Class loader is null");
+        }
+
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+
+        try {
+            if (in.length() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to map");
+            }
+
+            return new AnnotationIndex(file.toString(),
+                    in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length()), classLoader);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Open an index found as a resource, mapping it if it is a file and reading it otherwise.  An index that is not a
+     * file, such as one inside a jar, can not be mapped, so it is read onto the heap whole and costs its size in heap
+     * for as long as it is open.
+     * @param url location of the index
+     * @param classLoader loader of the annotation types and of the classes referenced by annotation values
+     * @return the index
+     * @throws IOException if the resource can not be read or is not an annotation index
+     */
+    static AnnotationIndex open(URL url, ClassLoader classLoader) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return open(new File(url.toURI()), classLoader);
+            } catch (URISyntaxException e) {
+                throw new IOException(url + " is not a file", e);
+            }
+        }
+
+        URLConnection connection = url.openConnection();
+
+        // a cached connection would keep the jar open after the index is read
+        connection.setUseCaches(false);
+
+        InputStream in = connection.getInputStream();
+
+        try {
+            return new AnnotationIndex(url.toString(), ByteBuffer.wrap(ClassFile.readFully(in)), classLoader);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Get the number of classes in the index.
+     * @return number of classes
+     */
+    public int size() {
+        return classCount;
+    }
+
+    /**
+     * Get the name of a class in the index, classes are ordered by name.
+     * @param classIndex index of the class
+     * @return binary name of the class
+     * @throws IndexOutOfBoundsException if there is no such class
+     */
+    public String getClassName(int classIndex) {
+        return string(index.getInt(classEntry(classIndex)));
+    }
+
+    /**
+     * Get the class at an index, decoded from the index.
+     * @param classIndex index of the class
+     * @return the class
+     * @throws IndexOutOfBoundsException if there is no such class
+     */
+    ClassFile getClass(int classIndex) {
+        int entry = classEntry(classIndex);
+
+        return decode(string(index.getInt(entry)), index.getInt(entry + INT_BYTES), classLoader);
+    }
+
+    /**
+     * Get where the class at an index was read from when the index was built from a class path.
+     * @param classIndex index of the class
+     * @return source of the class or null if it was indexed without one
+     * @throws IndexOutOfBoundsException if there is no such class
+     */
+    ClassSource getSource(int classIndex) {
+        int entry = classEntry(classIndex);
+
+        try {
+            return new Decoder(index.getInt(entry + INT_BYTES)).readSource();
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalStateException(this + " is corrupt at class " + classIndex, e);
+        }
+    }
+
+    /**
+     * Look a class up by name.  The class is decoded from the index the first time it is found, later lookups return
+     * the same class file.
+     * @param className binary name of the class
+     * @return the class or null if it is not in the index
+     */
+    public ClassFile find(String className) {
+        ClassFile res = decoded.get(className);
+
+        if (res == null) {
+            res = find(className, classLoader);
+
+            // misses are not kept, the names looked up are not bounded by the index
+            if (res != null) {
+                ClassFile raced = decoded.putIfAbsent(className, res);
+
+                if (raced != null) {
+                    res = raced;
+                }
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Look a class up by name and decode it, loading its annotation types through another class loader than the
+     * index was opened with.
+     * @param className binary name of the class
+     * @param loader loader of the annotation types and of the classes referenced by annotation values
+     * @return the class or null if it is not in the index
+     */
+    ClassFile find(String className, ClassLoader loader) {
+        int id = idOf(className);
+
+        if (id < 0) {
+            return null;
+        }
+
+        int lo = 0;
+        int hi = classCount - 1;
+
+        // classes are sorted by name, so by the id of their name
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int entry = classTable + mid * CLASS_ENTRY_BYTES;
+            int nameId = index.getInt(entry);
+
+            if (nameId < id) {
+                lo = mid + 1;
+            } else if (nameId > id) {
+                hi = mid - 1;
+            } else {
+                return decode(className, index.getInt(entry + INT_BYTES), loader);
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "annotation index " + name;
+    }
+
+    private static void replace(File file, byte[] bytes) throws IOException {
+        File temporary = File.createTempFile("." + file.getName() + ".", ".tmp",
+                file.getAbsoluteFile().getParentFile());
+
+        try {
+            OutputStream out = new FileOutputStream(temporary);
+
+            try {
+                out.write(bytes);
+            } finally {
+                out.close();
+            }
+
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary.toPath());
+        }
+    }
+
+    private int classEntry(int classIndex) {
+        if (classIndex < 0 || classIndex >= classCount) {
+            throw new IndexOutOfBoundsException("Class " + classIndex + " of " + classCount);
+        }
+
+        return classTable + classIndex * CLASS_ENTRY_BYTES;
+    }
+
+    private ClassFile decode(String className, int record, ClassLoader loader) {
+        try {
+            return new ClassFile(new Decoder(record).readClass(className, loader));
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalStateException(this + " is corrupt at class " + className, e);
+        }
+    }
+
+    private int idOf(String string) {
+        int lo = 0;
+        int hi = (stringCount + AnnotationIndexWriter.RESTART_INTERVAL - 1) / AnnotationIndexWriter.RESTART_INTERVAL
+                - 1;
+
+        // find the last block whose first string, stored in full, does not sort after the string
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (string(mid * AnnotationIndexWriter.RESTART_INTERVAL).compareTo(string) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+
+        if (hi < 0) {
+            return -1;
+        }
+
+        Decoder decoder = new Decoder(index.getInt(restartTable + hi * INT_BYTES));
+        int first = hi * AnnotationIndexWriter.RESTART_INTERVAL;
+        int last = Math.min(stringCount, first + AnnotationIndexWriter.RESTART_INTERVAL);
+
+        for (int id = first; id < last; id++) {
+            int res = decoder.readString().compareTo(string);
+
+            if (res == 0) {
+                return id;
+            }
+            if (res > 0) {
+                break;
+            }
+        }
+
+        return -1;
+    }
+
+    private String string(int id) {
+        int block = id / AnnotationIndexWriter.RESTART_INTERVAL;
+        Decoder decoder = new Decoder(index.getInt(restartTable + block * INT_BYTES));
+        String res = decoder.readString();
+
+        for (int i = block * AnnotationIndexWriter.RESTART_INTERVAL; i < id; i++) {
+            res = decoder.readString();
+        }
+
+        return res;
+    }
+
+    /**
+     * Reads the index sequentially from a position, see {@link AnnotationIndexWriter} for the encoding.
+     */
+    private final class Decoder {
+        private final Map<Integer, String> strings = new HashMap<Integer, String>();
+        private int position;
+        private byte[] previous = new byte[0];
+
+        Decoder(int position) {
+            this.position = position;
+        }
+
+        ClassSource readSource() {
+            int location = readVarint();
+
+            if (location == 0) {
+                return null;
+            }
+
+            String path = stringOf(location - 1);
+            long stamp = readVarlong();
+
+            return new ClassSource(path, stamp, readVarlong());
+        }
+
+        ClassFileMetadata readClass(String className, ClassLoader loader) {
+            readSource();
+
+            int superclass = readVarint();
+            String superclassName = null;
+
+            if (superclass > 0) {
+                superclassName = stringOf(superclass - 1);
+            }
+
+            List<String> interfaceNames = new ArrayList<String>();
+
+            for (int i = readVarint(); i > 0; i--) {
+                interfaceNames.add(stringOf(readVarint()));
+            }
+
+            ClassFileMetadata.Builder builder = ClassFileMetadata.builder(className, superclassName, interfaceNames,
+                    loader);
+            AnnotationData[] annotations = readAnnotations();
+
+            readFields(builder);
+            readMethods(builder, false);
+            readMethods(builder, true);
+
+            return builder.build(annotations);
+        }
+
+        String readString() {
+            int shared = readVarint();
+            int length = shared + readVarint();
+            byte[] bytes = new byte[length];
+
+            System.arraycopy(previous, 0, bytes, 0, shared);
+            for (int i = shared; i < length; i++) {
+                bytes[i] = index.get(position++);
+            }
+            previous = bytes;
+
+            return new String(bytes, AnnotationIndexWriter.UTF_8);
+        }
+
+        private void readFields(ClassFileMetadata.Builder builder) {
+            int key = 0;
+
+            for (int i = readVarint(); i > 0; i--) {
+                key += readVarint();
+                builder.addField(stringOf(key), readVarint(), readAnnotations());
+            }
+        }
+
+        private void readMethods(ClassFileMetadata.Builder builder, boolean constructors) {
+            int key = 0;
+
+            for (int i = readVarint(); i > 0; i--) {
+                key += readVarint();
+
+                int access = readVarint();
+                AnnotationData[] annotations = readAnnotations();
+                AnnotationData[][] parameters = new AnnotationData[readVarint()][];
+
+                for (int j = 0; j < parameters.length; j++) {
+                    parameters[j] = readAnnotations();
+                }
+
+                if (constructors) {
+                    builder.addConstructor(stringOf(key), access, annotations, parameters);
+                } else {
+                    builder.addMethod(stringOf(key), access, annotations, parameters);
+                }
+            }
+        }
+
+        private AnnotationData[] readAnnotations() {
+            AnnotationData[] res = new AnnotationData[readVarint()];
+
+            for (int i = 0; i < res.length; i++) {
+                res[i] = readAnnotation();
+            }
+
+            return res;
+        }
+
+        private AnnotationData readAnnotation() {
+            String typeName = stringOf(readVarint());
+            Map<String, Object> values = new LinkedHashMap<String, Object>();
+
+            for (int i = readVarint(); i > 0; i--) {
+                String name = stringOf(readVarint());
+
+                values.put(name, readValue());
+            }
+
+            return new AnnotationData(typeName, values);
+        }
+
+        private Object readValue() {
+            int tag = index.get(position++);
+
+            switch (tag) {
+                case 'B':
+                    return (byte) unzigzag(readVarint());
+                case 'C':
+                    return (char) readVarint();
+                case 'S':
+                    return (short) unzigzag(readVarint());
+                case 'Z':
+                    return readVarint() != 0;
+                case 'I':
+                    return unzigzag(readVarint());
+                case 'J':
+                    return unzigzag(readVarlong());
+                case 'F':
+                    return Float.intBitsToFloat(readInt());
+                case 'D':
+                    return Double.longBitsToDouble(((long) readInt() << Integer.SIZE) | (readInt() & 0xFFFFFFFFL));
+                case 's':
+                    return stringOf(readVarint());
+                case 'e':
+                    return new AnnotationData.EnumConstant(stringOf(readVarint()), stringOf(readVarint()));
+                case 'c':
+                    return new AnnotationData.ClassReference(stringOf(readVarint()));
+                case '@':
+                    return readAnnotation();
+                case '[':
+                    return readArray();
+                default:
+                    throw new IllegalStateException(AnnotationIndex.this + " has an unknown value tag " + tag);
+            }
+        }
+
+        private Object[] readArray() {
+            Object[] res = new Object[readVarint()];
+
+            for (int i = 0; i < res.length; i++) {
+                res[i] = readValue();
+            }
+
+            return res;
+        }
+
+        private String stringOf(int id) {
+            String res = strings.get(id);
+
+            if (res == null) {
+                res = string(id);
+                strings.put(id, res);
+            }
+
+            return res;
+        }
+
+        private int readVarint() {
+            return (int) readVarlong();
+        }
+
+        private long readVarlong() {
+            long res = 0;
+            int shift = 0;
+            int next = index.get(position++);
+
+            while ((next & VARINT_MORE) != 0) {
+                res |= (long) (next & VARINT_MASK) << shift;
+                shift += VARINT_BITS;
+                next = index.get(position++);
+            }
+
+            return res | ((long) (next & VARINT_MASK) << shift);
+        }
+
+        private int readInt() {
+            int res = index.getInt(position);
+
+            position += INT_BYTES;
+
+            return res;
+        }
+
+        private int unzigzag(int value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
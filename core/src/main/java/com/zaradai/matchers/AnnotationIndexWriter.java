@@ -0,0 +1,460 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Encodes classes read from their class files into the format of an {@link AnnotationIndex}.
+ * <p>
+ * An index starts with a header of six integers: the magic number, the format version, the number of strings, the
+ * position of the string restart table, the number of classes and the position of the class table.  Every string
+ * the classes use, names as well as string values, is stored once in a dictionary sorted by
+ * {@link String#compareTo(String)} and referred to by its position in it.  Each string is front coded, as the
+ * length of the UTF-8 prefix it shares with the previous string and the bytes that follow; every
+ * {@link #RESTART_INTERVAL}th string is stored in full and its position recorded in the restart table, so a string
+ * can be decoded without reading the dictionary from its start.  The class table holds a pair of integers for each
+ * class, the string id of its name and the position of its record, sorted by name.
+ * </p>
+ * <p>
+ * A class record starts with the {@link ClassSource} of the class, if it was indexed from a class path: the string id
+ * of its location plus one, zero for no source, then its stamp and size.  It goes on with the superclass and
+ * interfaces, the class annotations, then the fields, methods and
+ * constructors, each sorted by key and identified by the difference between its key's string id and the previous
+ * one.  Members carry their access flags, annotations and, except fields, the annotations of each parameter.  Counts,
+ * string ids and integral values are written as unsigned LEB128 varints, signed values zigzag encoded first; floating
+ * point values are written as their raw bits.  Multi-byte integers outside varints are big-endian.
+ * </p>
+ * <p>
+ * The encoding is deterministic, the same classes always produce the same bytes whatever the order they were added.
+ * </p>
+ * <p>
+ * Tools that write an index, such as the {@code matchers-processor} annotation processor, add classes read with
+ * {@link ClassFile#read(byte[])} or described with {@link ClassFile#builder(String, String, List)} and store the
+ * encoded bytes as the {@link AnnotationIndex#RESOURCE} of the classes.
+ * </p>
+ */
+public final class AnnotationIndexWriter {
+    /**
+     * Magic number starting an index, {@code ZMAI}.
+     */
+    static final int MAGIC = 0x5A4D4149;
+    /**
+     * Version of the format.
+     */
+    static final int VERSION = 2;
+    /**
+     * Number of integers in the header.
+     */
+    static final int HEADER_SIZE = 24;
+    /**
+     * Number of strings between two strings stored in full.
+     */
+    static final int RESTART_INTERVAL = 16;
+    /**
+     * Position of the number of strings in the header.
+     */
+    static final int STRING_COUNT = 8;
+    /**
+     * Position of the position of the restart table in the header.
+     */
+    static final int RESTART_TABLE = 12;
+    /**
+     * Position of the number of classes in the header.
+     */
+    static final int CLASS_COUNT = 16;
+    /**
+     * Position of the position of the class table in the header.
+     */
+    static final int CLASS_TABLE = 20;
+
+    /**
+     * Encoding of the strings of the dictionary.
+     */
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MASK = 0x7F;
+    private static final int VARINT_MORE = 0x80;
+    private static final int BYTE_BITS = 8;
+    private static final int INT_BYTES = 4;
+    private static final int LONG_BYTES = 8;
+    private static final MemberSignature.Kind[] MEMBER_KINDS = {
+        MemberSignature.Kind.FIELD, MemberSignature.Kind.METHOD, MemberSignature.Kind.CONSTRUCTOR
+    };
+
+    private final SortedMap<String, ClassFileMetadata> classes = new TreeMap<String, ClassFileMetadata>();
+    private final Map<String, ClassSource> sources = new HashMap<String, ClassSource>();
+    private final SortedSet<String> strings = new TreeSet<String>();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private Map<String, Integer> ids;
+
+    /**
+     * Add a class to the index.
+     * @param classFile the class
+     * @throws IllegalArgumentException if a class of the same name was already added
+     */
+    public void add(ClassFile classFile) {
+        add(classFile, null);
+    }
+
+    /**
+     * Add a class read from a class path to the index.
+     * @param classFile the class
+     * @param source where the class was read from, null if unknown
+     * @throws IllegalArgumentException if a class of the same name was already added
+     */
+    void add(ClassFile classFile, ClassSource source) {
+        ClassFileMetadata metadata = (ClassFileMetadata) classFile.getMetadata();
+
+        if (contains(metadata.getName())) {
+            throw new IllegalArgumentException("Class " + metadata.getName() + " is indexed twice");
+        }
+
+        classes.put(metadata.getName(), metadata);
+        if (source != null) {
+            sources.put(metadata.getName(), source);
+            strings.add(source.getLocation());
+        }
+        collect(metadata);
+    }
+
+    /**
+     * Test if a class was already added.
+     * @param className binary name of the class
+     * @return true if a class of that name was added
+     */
+    public boolean contains(String className) {
+        return classes.containsKey(className);
+    }
+
+    /**
+     * Encode the classes added so far.
+     * @return contents of the index
+     */
+    public byte[] toByteArray() {
+        out.reset();
+        ids = new HashMap<String, Integer>();
+        out.write(new byte[HEADER_SIZE], 0, HEADER_SIZE);
+
+        List<Integer> restarts = writeStrings();
+        List<Integer> records = new ArrayList<Integer>();
+
+        for (ClassFileMetadata metadata : classes.values()) {
+            records.add(out.size());
+            writeClass(metadata);
+        }
+
+        int restartTable = out.size();
+
+        for (int restart : restarts) {
+            writeInt(restart);
+        }
+
+        int classTable = out.size();
+        int index = 0;
+
+        for (String name : classes.keySet()) {
+            writeInt(ids.get(name));
+            writeInt(records.get(index++));
+        }
+
+        ByteBuffer res = ByteBuffer.wrap(out.toByteArray());
+
+        res.putInt(0, MAGIC);
+        res.putInt(INT_BYTES, VERSION);
+        res.putInt(STRING_COUNT, strings.size());
+        res.putInt(RESTART_TABLE, restartTable);
+        res.putInt(CLASS_COUNT, classes.size());
+        res.putInt(CLASS_TABLE, classTable);
+
+        return res.array();
+    }
+
+    private void collect(ClassFileMetadata metadata) {
+        strings.add(metadata.getName());
+        if (metadata.getSuperclassName() != null) {
+            strings.add(metadata.getSuperclassName());
+        }
+        strings.addAll(metadata.getInterfaceNames());
+        collect(metadata.getType());
+
+        for (MemberSignature.Kind kind : MEMBER_KINDS) {
+            for (Map.Entry<String, ClassFileMetadata.Element> entry : metadata.getElements(kind).entrySet()) {
+                strings.add(entry.getKey());
+                collect(entry.getValue());
+            }
+        }
+    }
+
+    private void collect(ClassFileMetadata.Element element) {
+        collect(element.getAnnotations());
+
+        if (element.getParameterAnnotations() != null) {
+            for (AnnotationData[] annotations : element.getParameterAnnotations()) {
+                collect(annotations);
+            }
+        }
+    }
+
+    private void collect(AnnotationData[] annotations) {
+        for (AnnotationData annotation : annotations) {
+            collectValue(annotation);
+        }
+    }
+
+    private void collectValue(Object value) {
+        if (value instanceof String) {
+            strings.add((String) value);
+        } else if (value instanceof AnnotationData.EnumConstant) {
+            strings.add(((AnnotationData.EnumConstant) value).getTypeName());
+            strings.add(((AnnotationData.EnumConstant) value).getName());
+        } else if (value instanceof AnnotationData.ClassReference) {
+            strings.add(value.toString());
+        } else if (value instanceof AnnotationData) {
+            AnnotationData annotation = (AnnotationData) value;
+
+            strings.add(annotation.getTypeName());
+            for (Map.Entry<String, Object> entry : annotation.getValues().entrySet()) {
+                strings.add(entry.getKey());
+                collectValue(entry.getValue());
+            }
+        } else if (value instanceof Object[]) {
+            for (Object element : (Object[]) value) {
+                collectValue(element);
+            }
+        }
+    }
+
+    private List<Integer> writeStrings() {
+        List<Integer> restarts = new ArrayList<Integer>();
+        byte[] previous = new byte[0];
+
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(UTF_8);
+            int shared = 0;
+
+            if (ids.size() % RESTART_INTERVAL == 0) {
+                restarts.add(out.size());
+            } else {
+                shared = sharedPrefix(previous, bytes);
+            }
+
+            ids.put(string, ids.size());
+            writeVarint(shared);
+            writeVarint(bytes.length - shared);
+            out.write(bytes, shared, bytes.length - shared);
+            previous = bytes;
+        }
+
+        return restarts;
+    }
+
+    private void writeClass(ClassFileMetadata metadata) {
+        ClassSource source = sources.get(metadata.getName());
+
+        if (source == null) {
+            writeVarint(0);
+        } else {
+            writeVarint(idOf(source.getLocation()) + 1);
+            writeVarlong(source.getStamp());
+            writeVarlong(source.getSize());
+        }
+
+        if (metadata.getSuperclassName() == null) {
+            writeVarint(0);
+        } else {
+            writeVarint(idOf(metadata.getSuperclassName()) + 1);
+        }
+
+        writeVarint(metadata.getInterfaceNames().size());
+        for (String name : metadata.getInterfaceNames()) {
+            writeVarint(idOf(name));
+        }
+
+        writeAnnotations(metadata.getType().getAnnotations());
+
+        for (MemberSignature.Kind kind : MEMBER_KINDS) {
+            Map<String, ClassFileMetadata.Element> members = new TreeMap<String, ClassFileMetadata.Element>(
+                    metadata.getElements(kind));
+            int previous = 0;
+
+            writeVarint(members.size());
+            for (Map.Entry<String, ClassFileMetadata.Element> entry : members.entrySet()) {
+                int id = idOf(entry.getKey());
+
+                // keys and string ids sort alike, so the difference is never negative
+                writeVarint(id - previous);
+                writeVarint(entry.getValue().getAccess());
+                writeAnnotations(entry.getValue().getAnnotations());
+                if (kind != MemberSignature.Kind.FIELD) {
+                    writeParameters(entry.getValue().getParameterAnnotations());
+                }
+                previous = id;
+            }
+        }
+    }
+
+    private void writeParameters(AnnotationData[][] parameters) {
+        if (parameters == null) {
+            writeVarint(0);
+            return;
+        }
+
+        writeVarint(parameters.length);
+        for (AnnotationData[] annotations : parameters) {
+            writeAnnotations(annotations);
+        }
+    }
+
+    private void writeAnnotations(AnnotationData[] annotations) {
+        writeVarint(annotations.length);
+        for (AnnotationData annotation : annotations) {
+            writeAnnotation(annotation);
+        }
+    }
+
+    private void writeAnnotation(AnnotationData annotation) {
+        writeVarint(idOf(annotation.getTypeName()));
+        writeVarint(annotation.getValues().size());
+        for (Map.Entry<String, Object> entry : annotation.getValues().entrySet()) {
+            writeVarint(idOf(entry.getKey()));
+            writeValue(entry.getValue());
+        }
+    }
+
+    private void writeValue(Object value) {
+        if (value instanceof Byte) {
+            out.write('B');
+            writeVarint(zigzag((Byte) value));
+        } else if (value instanceof Character) {
+            out.write('C');
+            writeVarint((Character) value);
+        } else if (value instanceof Short) {
+            out.write('S');
+            writeVarint(zigzag((Short) value));
+        } else if (value instanceof Boolean) {
+            out.write('Z');
+            writeVarint(booleanBit((Boolean) value));
+        } else if (value instanceof Integer) {
+            out.write('I');
+            writeVarint(zigzag((Integer) value));
+        } else if (value instanceof Long) {
+            out.write('J');
+            writeVarlong(zigzag((Long) value));
+        } else if (value instanceof Float) {
+            out.write('F');
+            writeInt(Float.floatToRawIntBits((Float) value));
+        } else if (value instanceof Double) {
+            out.write('D');
+            writeLong(Double.doubleToRawLongBits((Double) value));
+        } else {
+            writeReference(value);
+        }
+    }
+
+    private void writeReference(Object value) {
+        if (value instanceof String) {
+            out.write('s');
+            writeVarint(idOf((String) value));
+        } else if (value instanceof AnnotationData.EnumConstant) {
+            out.write('e');
+            writeVarint(idOf(((AnnotationData.EnumConstant) value).getTypeName()));
+            writeVarint(idOf(((AnnotationData.EnumConstant) value).getName()));
+        } else if (value instanceof AnnotationData.ClassReference) {
+            out.write('c');
+            writeVarint(idOf(value.toString()));
+        } else if (value instanceof AnnotationData) {
+            out.write('@');
+            writeAnnotation((AnnotationData) value);
+        } else {
+            Object[] values = (Object[]) value;
+
+            out.write('[');
+            writeVarint(values.length);
+            for (Object element : values) {
+                writeValue(element);
+            }
+        }
+    }
+
+    private int idOf(String string) {
+        return ids.get(string);
+    }
+
+    private void writeVarint(int value) {
+        writeVarlong(value & 0xFFFFFFFFL);
+    }
+
+    private void writeVarlong(long value) {
+        long rest = value;
+
+        while ((rest & ~VARINT_MASK) != 0) {
+            out.write((int) ((rest & VARINT_MASK) | VARINT_MORE));
+            rest >>>= VARINT_BITS;
+        }
+        out.write((int) rest);
+    }
+
+    private void writeInt(int value) {
+        for (int shift = (INT_BYTES - 1) * BYTE_BITS; shift >= 0; shift -= BYTE_BITS) {
+            out.write(value >>> shift);
+        }
+    }
+
+    private void writeLong(long value) {
+        for (int shift = (LONG_BYTES - 1) * BYTE_BITS; shift >= 0; shift -= BYTE_BITS) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    private static int booleanBit(boolean value) {
+        if (value) {
+            return 1;
+        }
+
+        return 0;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> (Integer.SIZE - 1));
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> (Long.SIZE - 1));
+    }
+
+    private static int sharedPrefix(byte[] first, byte[] second) {
+        int res = 0;
+        int max = Math.min(first.length, second.length);
+
+        while (res < max && first[res] == second[res]) {
+            res++;
+        }
+
+        return res;
+    }
+}
@@ -0,0 +1,319 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+/**
+ * Locates the annotations a matcher inspects within a class: those of the class itself, of a declared member or of
+ * a formal parameter of a method or constructor.  Locators are immutable values, locators of the same element are
+ * equal.
+ */
+abstract class AnnotationLocator {
+    private static final AnnotationLocator TYPE = new TypeLocator();
+    private static final AnnotationLocator[] HIERARCHY = hierarchyLocators();
+
+    /**
+     * Get the locator of the annotations on a class.
+     * @return class locator
+     */
+    static AnnotationLocator forType() {
+        return TYPE;
+    }
+
+    /**
+     * Get the locator of the annotations on a class and on its supertypes.
+     * @param strategy how far up the type hierarchy annotations are searched
+     * @return class hierarchy locator
+     * @throws IllegalArgumentException if the strategy is null
+     */
+    static AnnotationLocator forHierarchy(SearchStrategy strategy) {
+        return HIERARCHY[checkStrategy(strategy).ordinal()];
+    }
+
+    /**
+     * Get a locator of the annotations on a declared member.
+     * @param signature identifies the member
+     * @return member locator
+     */
+    static AnnotationLocator forMember(MemberSignature signature) {
+        return new MemberLocator(signature);
+    }
+
+    /**
+     * Get a locator of the annotations on a field or method of a class, declared or inherited from the supertypes
+     * searched.
+     * @param signature identifies the field or method
+     * @param strategy how far up the type hierarchy the member is searched
+     * @return member locator, the declared member locator if only the class declaration is searched
+     * @throws IllegalArgumentException if the strategy is null
+     */
+    static AnnotationLocator forInheritedMember(MemberSignature signature, SearchStrategy strategy) {
+        if (checkStrategy(strategy) == SearchStrategy.DECLARED) {
+            return forMember(signature);
+        }
+
+        return new InheritedMemberLocator(signature, strategy);
+    }
+
+    /**
+     * Get a locator of the annotations on a formal parameter of a declared method or constructor.
+     * @param signature identifies the method or constructor
+     * @param position position of the parameter
+     * @return parameter locator
+     */
+    static AnnotationLocator forParameter(MemberSignature signature, int position) {
+        return new ParameterLocator(signature, position);
+    }
+
+    /**
+     * Resolve the annotations of the located element within a class.
+     * @param type class to search
+     * @return table of the element's annotations
+     * @throws Exception if the class does not declare the element
+     */
+    AnnotationTable locate(TypeMetadata type) throws Exception {
+        AnnotationTable res = find(type);
+
+        if (res == null) {
+            throw missingIn(type);
+        }
+
+        return res;
+    }
+
+    /**
+     * Resolve the annotations of the located element within a class without raising an exception if the element
+     * is missing, see {@link #getMiss(TypeMetadata)}.
+     * @param type class to search
+     * @return table of the element's annotations or null if the class does not declare the element
+     */
+    abstract AnnotationTable find(TypeMetadata type);
+
+    /**
+     * Get the cached miss of the located element in a class that does not declare it.
+     * @param type class that was searched
+     * @return the miss, described as the reflective lookup of the element would fail
+     */
+    LookupMiss getMiss(TypeMetadata type) {
+        return type.getMiss(this);
+    }
+
+    /**
+     * Create the exception reflection raises when looking up the element in a class that does not declare it.
+     * @param type class that was searched
+     * @return exception describing the missing element
+     */
+    abstract Exception missingIn(TypeMetadata type);
+
+    private static AnnotationLocator[] hierarchyLocators() {
+        AnnotationLocator[] res = new AnnotationLocator[SearchStrategy.values().length];
+
+        for (SearchStrategy strategy : SearchStrategy.values()) {
+            res[strategy.ordinal()] = new HierarchyLocator(strategy);
+        }
+
+        return res;
+    }
+
+    private static SearchStrategy checkStrategy(SearchStrategy strategy) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("Search strategy is null");
+        }
+
+        return strategy;
+    }
+
+    private static Exception missingMember(TypeMetadata type, MemberSignature signature) {
+        if (signature.getName() == null) {
+            return new NullPointerException();
+        }
+        if (signature.getKind() == MemberSignature.Kind.FIELD) {
+            return new NoSuchFieldException(signature.describe(type.getName()));
+        }
+
+        return new NoSuchMethodException(signature.describe(type.getName()));
+    }
+
+    /**
+     * Locates the annotations of the class itself.
+     */
+    private static final class TypeLocator extends AnnotationLocator {
+        @Override
+        AnnotationTable find(TypeMetadata type) {
+            return type.getTypeMetadata().getAnnotations();
+        }
+
+        @Override
+        Exception missingIn(TypeMetadata type) {
+            throw new IllegalStateException("A class is never missing its own annotations");
+        }
+    }
+
+    /**
+     * Locates the annotations of a class merged along its type hierarchy, see {@link TypeHierarchy}.
+     */
+    private static final class HierarchyLocator extends AnnotationLocator {
+        private final SearchStrategy strategy;
+
+        HierarchyLocator(SearchStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        @Override
+        AnnotationTable find(TypeMetadata type) {
+            return type.getHierarchy().getAnnotations(strategy);
+        }
+
+        @Override
+        Exception missingIn(TypeMetadata type) {
+            throw new IllegalStateException("A class is never missing the annotations of its hierarchy");
+        }
+    }
+
+    /**
+     * Locates the annotations of a declared field, method or constructor.
+     */
+    private static final class MemberLocator extends AnnotationLocator {
+        private final MemberSignature signature;
+
+        MemberLocator(MemberSignature signature) {
+            this.signature = signature;
+        }
+
+        @Override
+        AnnotationTable find(TypeMetadata type) {
+            ElementMetadata member = type.findMember(signature);
+
+            if (member == null) {
+                return null;
+            }
+
+            return member.getAnnotations();
+        }
+
+        @Override
+        Exception missingIn(TypeMetadata type) {
+            return missingMember(type, signature);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof MemberLocator && signature.equals(((MemberLocator) o).signature);
+        }
+
+        @Override
+        public int hashCode() {
+            return signature.hashCode();
+        }
+    }
+
+    /**
+     * Locates the annotations of a field or method declared by a class or inherited from its supertypes, see
+     * {@link TypeHierarchy#getMemberAnnotations(MemberSignature, SearchStrategy)}.
+     */
+    private static final class InheritedMemberLocator extends AnnotationLocator {
+        private final MemberSignature signature;
+        private final SearchStrategy strategy;
+
+        InheritedMemberLocator(MemberSignature signature, SearchStrategy strategy) {
+            this.signature = signature;
+            this.strategy = strategy;
+        }
+
+        @Override
+        AnnotationTable find(TypeMetadata type) {
+            return type.getHierarchy().getMemberAnnotations(signature, strategy);
+        }
+
+        @Override
+        Exception missingIn(TypeMetadata type) {
+            return missingMember(type, signature);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof InheritedMemberLocator)) {
+                return false;
+            }
+
+            InheritedMemberLocator other = (InheritedMemberLocator) o;
+
+            return strategy == other.strategy && signature.equals(other.signature);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * signature.hashCode() + strategy.ordinal();
+        }
+    }
+
+    /**
+     * Locates the annotations of a formal parameter of a declared method or constructor.
+     */
+    private static final class ParameterLocator extends AnnotationLocator {
+        private final MemberSignature signature;
+        private final int position;
+
+        ParameterLocator(MemberSignature signature, int position) {
+            this.signature = signature;
+            this.position = position;
+        }
+
+        @Override
+        AnnotationTable find(TypeMetadata type) {
+            ElementMetadata member = type.findMember(signature);
+
+            if (member == null) {
+                return null;
+            }
+
+            return member.findParameter(position);
+        }
+
+        @Override
+        Exception missingIn(TypeMetadata type) {
+            ElementMetadata member = type.findMember(signature);
+
+            if (member == null) {
+                return missingMember(type, signature);
+            }
+
+            try {
+                // index the parameters so the exception is described exactly as by the running VM
+                member.getParameter(position);
+            } catch (ArrayIndexOutOfBoundsException e) {
+                return e;
+            }
+
+            throw new IllegalStateException("Parameter " + position + " is not missing from " + signature);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ParameterLocator)) {
+                return false;
+            }
+
+            ParameterLocator other = (ParameterLocator) o;
+
+            return position == other.position && signature.equals(other.signature);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * signature.hashCode() + position;
+        }
+    }
+}
@@ -89,6 +89,104 @@ public final class AnnotationMatchers {
         return IsClassAnnotated.withParamValue(annotation, param, paramValue);
     }
 
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} class, or one of the supertypes
+     * the <code>strategy</code> searches, is annotated with the specified {@link Annotation}.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(classAnnotatedWith(Entity.class, SearchStrategy.TYPE_HIERARCHY))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param strategy how far up the type hierarchy the annotation is searched
+     */
+    public static Matcher<Object> classAnnotatedWith(Class<? extends Annotation> annotation, SearchStrategy strategy) {
+        return IsClassAnnotated.with(annotation, strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type
+     * the <code>strategy</code> finds has a parameter with the specified <code>param</code> name.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(classAnnotatedWithParam(Table.class, "name", SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the name of the parameter that must exist
+     * @param strategy how far up the type hierarchy the annotation is searched
+     */
+    public static Matcher<Object> classAnnotatedWithParam(Class<? extends Annotation> annotation, String param,
+                                                          SearchStrategy strategy) {
+        return IsClassAnnotated.withParam(annotation, param, strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type
+     * the <code>strategy</code> finds has a specified parameter with a required value.  The value is matched
+     * using a {@link Matcher}.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(classAnnotatedWithParamValue(Table.class, "name", is("test"),
+     *     SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the name of the parameter that must exist
+     * @param valueMatcher the matcher that asserts the parameter value.
+     * @param strategy how far up the type hierarchy the annotation is searched
+     */
+    public static <T> Matcher<Object> classAnnotatedWithParamValue(Class<? extends Annotation> annotation, String param,
+                                                                   Matcher<T> valueMatcher, SearchStrategy strategy) {
+        return IsClassAnnotated.withParamValue(annotation, param, valueMatcher, strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type
+     * the <code>strategy</code> finds has a specified parameter with a required value.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(classAnnotatedWithParamValue(Table.class, "name", "test",
+     *     SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the name of the parameter that must exist
+     * @param paramValue the value to match with.
+     * @param strategy how far up the type hierarchy the annotation is searched
+     */
+    public static <T> Matcher<Object> classAnnotatedWithParamValue(Class<? extends Annotation> annotation, String param,
+                                                                   T paramValue, SearchStrategy strategy) {
+        return IsClassAnnotated.withParamValue(annotation, param, paramValue, strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} class
+     * is annotated with every one of the specified {@link Annotation}s.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(classAnnotatedWithAll(Entity.class, Table.class))</pre>
+     * </p>
+     *
+     * @param annotations the annotations that must all be present
+     */
+    @SafeVarargs
+    public static Matcher<Object> classAnnotatedWithAll(Class<? extends Annotation>... annotations) {
+        return IsClassAnnotated.withAll(annotations);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} class
+     * is annotated with none of the specified {@link Annotation}s.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(classAnnotatedWithNone(Deprecated.class, Ignore.class))</pre>
+     * </p>
+     *
+     * @param annotations the annotations that must all be absent
+     */
+    @SafeVarargs
+    public static Matcher<Object> classAnnotatedWithNone(Class<? extends Annotation>... annotations) {
+        return IsClassAnnotated.withNone(annotations);
+    }
+
     /**
      * Creates a matcher that matches, if the examined {@link Object} has a constructor with
      * the specified {@link Annotation}.
@@ -248,6 +346,122 @@ public final class AnnotationMatchers {
         return IsFieldAnnotated.withParamValue(annotation, param, paramValue, fieldName);
     }
 
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} declares or inherits a field with
+     * the specified {@link Annotation}.  The field is the nearest one named {@code fieldName} in the types
+     * the <code>strategy</code> searches.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(fieldAnnotatedWith(Column.class, "notes", SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param fieldName the field name
+     * @param strategy how far up the type hierarchy the field is searched
+     */
+    public static Matcher<Object> fieldAnnotatedWith(Class<? extends Annotation> annotation, String fieldName,
+                                                     SearchStrategy strategy) {
+        return IsFieldAnnotated.with(annotation, fieldName, strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} declares or inherits a field with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(fieldAnnotatedWithParam(Column.class, "name", "notes", SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param fieldName the field name
+     * @param strategy how far up the type hierarchy the field is searched
+     */
+    public static Matcher<Object> fieldAnnotatedWithParam(Class<? extends Annotation> annotation, String param,
+                                                          String fieldName, SearchStrategy strategy) {
+        return IsFieldAnnotated.withParam(annotation, param, fieldName, strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} declares or inherits a field with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>
+     * with a required <code>value</code>.  A value matcher is provided to do the actual matching.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(fieldAnnotatedWithParamValue(Column.class, "name", is("notes"), "notes",
+     *     SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param valueMatcher a matcher for the parameter value
+     * @param fieldName the field name
+     * @param strategy how far up the type hierarchy the field is searched
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Object> fieldAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                   String param, Matcher<T> valueMatcher,
+                                                                   String fieldName, SearchStrategy strategy) {
+        return IsFieldAnnotated.withParamValue(annotation, param, valueMatcher, fieldName, strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} declares or inherits a field with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>
+     * with a required <code>value</code>.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(fieldAnnotatedWithParamValue(Column.class, "name", "notes", "notes",
+     *     SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param paramValue the parameter value must be equal to this
+     * @param fieldName the field name
+     * @param strategy how far up the type hierarchy the field is searched
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Object> fieldAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                   String param, T paramValue, String fieldName,
+                                                                   SearchStrategy strategy) {
+        return IsFieldAnnotated.withParamValue(annotation, param, paramValue, fieldName, strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} has a field annotated with every one
+     * of the specified {@link Annotation}s.  The {@code fieldName} parameter is used to identify the field
+     * to be examined.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(fieldAnnotatedWithAll("notes", Column.class, Lob.class))</pre>
+     * </p>
+     *
+     * @param fieldName the field name
+     * @param annotations the annotations that must all be present
+     */
+    @SafeVarargs
+    public static Matcher<Object> fieldAnnotatedWithAll(String fieldName, Class<? extends Annotation>... annotations) {
+        return IsFieldAnnotated.withAll(fieldName, annotations);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} has a field annotated with none
+     * of the specified {@link Annotation}s.  The {@code fieldName} parameter is used to identify the field
+     * to be examined.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(fieldAnnotatedWithNone("notes", Transient.class, Deprecated.class))</pre>
+     * </p>
+     *
+     * @param fieldName the field name
+     * @param annotations the annotations that must all be absent
+     */
+    @SafeVarargs
+    public static Matcher<Object> fieldAnnotatedWithNone(String fieldName, Class<? extends Annotation>... annotations) {
+        return IsFieldAnnotated.withNone(fieldName, annotations);
+    }
+
     /**
      * Creates a matcher that matches, if the examined {@link Object} has a method with
      * the specified {@link Annotation}. The {@code name} parameter is a
@@ -353,6 +567,101 @@ public final class AnnotationMatchers {
         return IsMethodAnnotated.withParamValue(annotation, param, paramValue, methodName, methodParameterTypes);
     }
 
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} declares or inherits a method with
+     * the specified {@link Annotation}.  The annotations of the method are merged with those of the methods
+     * it overrides or implements in the types the <code>strategy</code> searches, including interface default
+     * methods, the nearest annotation of each type is kept.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(methodAnnotatedWith(Id.class, SearchStrategy.TYPE_HIERARCHY, "getId"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param strategy how far up the type hierarchy the method is searched
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     */
+    public static Matcher<Object> methodAnnotatedWith(Class<? extends Annotation> annotation, SearchStrategy strategy,
+                                                      String methodName, Class<?>... methodParameterTypes) {
+        return IsMethodAnnotated.with(annotation, strategy, methodName, methodParameterTypes);
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type found on
+     * a declared or inherited method of the examined {@link Object}, or on the methods it overrides, contains the
+     * specified <code>param</code>.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(methodAnnotatedWithParam(Column.class, "name", SearchStrategy.SUPERCLASS,
+     *     "getName"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param strategy how far up the type hierarchy the method is searched
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     */
+    public static Matcher<Object> methodAnnotatedWithParam(Class<? extends Annotation> annotation, String param,
+                                                           SearchStrategy strategy, String methodName,
+                                                           Class<?>... methodParameterTypes) {
+        return IsMethodAnnotated.withParam(annotation, param, strategy, methodName, methodParameterTypes);
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type found on
+     * a declared or inherited method of the examined {@link Object}, or on the methods it overrides, contains the
+     * specified <code>param</code> with a required <code>value</code>.  A value matcher is provided to do the
+     * actual matching.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(methodAnnotatedWithParamValue(Column.class, "name", is("name"),
+     *     SearchStrategy.SUPERCLASS, "getName"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param valueMatcher a matcher for the parameter value
+     * @param strategy how far up the type hierarchy the method is searched
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Object> methodAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                   String param, Matcher<T> valueMatcher,
+                                                                   SearchStrategy strategy, String methodName,
+                                                                   Class<?>... methodParameterTypes) {
+        return IsMethodAnnotated.withParamValue(annotation, param, valueMatcher, strategy, methodName,
+                methodParameterTypes);
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type found on
+     * a declared or inherited method of the examined {@link Object}, or on the methods it overrides, contains the
+     * specified <code>param</code> with a required <code>value</code>.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(methodAnnotatedWithParamValue(Column.class, "name", "name",
+     *     SearchStrategy.SUPERCLASS, "getName"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param paramValue the parameter value must be equal to this
+     * @param strategy how far up the type hierarchy the method is searched
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Object> methodAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                   String param, T paramValue,
+                                                                   SearchStrategy strategy, String methodName,
+                                                                   Class<?>... methodParameterTypes) {
+        return IsMethodAnnotated.withParamValue(annotation, param, paramValue, strategy, methodName,
+                methodParameterTypes);
+    }
+
     /**
      * Creates a matcher that matches, if the examined {@link Object} has a constructor's parameter
      * with the specified {@link java.lang.annotation.Annotation}.
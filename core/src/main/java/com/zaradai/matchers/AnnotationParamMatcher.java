@@ -21,7 +21,6 @@ import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeDiagnosingMatcher;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
 
 import static org.hamcrest.CoreMatchers.anything;
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -33,6 +32,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 public class AnnotationParamMatcher<T> extends TypeSafeDiagnosingMatcher<Annotation> {
     private final String param;
     private final Matcher<T> valueMatcher;
+    private final boolean sharesValues;
 
     /**
      * Create an {@link Annotation} parameter matcher.
@@ -40,28 +40,87 @@ public class AnnotationParamMatcher<T> extends TypeSafeDiagnosingMatcher<Annotat
      * @param valueMatcher matcher to match parameter value
      */
     public AnnotationParamMatcher(String param, Matcher<T> valueMatcher) {
+        this(param, valueMatcher, false);
+    }
+
+    /**
+     * Create an {@link Annotation} parameter matcher.
+     * @param param name of parameter to match
+     * @param valueMatcher matcher to match parameter value
+     * @param sharesValues true if the value matcher never modifies the values it is given, so it is given the array
+     *                     values snapshots share rather than copies
+     */
+    AnnotationParamMatcher(String param, Matcher<T> valueMatcher, boolean sharesValues) {
         this.param = param;
         this.valueMatcher = valueMatcher;
+        this.sharesValues = sharesValues;
     }
 
     @Override
     protected boolean matchesSafely(Annotation item, Description mismatchDescription) {
-        Method wantedMethod = getWantedMethod(item);
+        AnnotationAttributes.Attribute attribute = AnnotationAttributes.forType(item.annotationType()).get(param);
 
-        if (wantedMethod == null) {
+        if (attribute == null) {
             mismatchDescription.appendText("parameter not found");
             return false;
         }
 
-        return invokeAndMatch(item, wantedMethod, mismatchDescription);
+        return invokeAndMatch(item, attribute, mismatchDescription);
     }
 
-    private boolean invokeAndMatch(Annotation item, Method method, Description mismatchDescription) {
+    /**
+     * Match the parameter against a snapshot of an annotation's values, avoiding the annotation proxy.
+     * @param snapshot snapshot of the annotation to match
+     * @param mismatchDescription description to append any mismatch to
+     * @return true if the parameter exists and its value matches
+     */
+    boolean matchesSnapshot(AnnotationSnapshot snapshot, Description mismatchDescription) {
+        AnnotationAttributes.Attribute attribute = snapshot.getAttributes().get(param);
+
+        if (attribute == null) {
+            mismatchDescription.appendText("parameter not found");
+            return false;
+        }
+
         try {
-            Object value = method.invoke(item);
+            return matchValue(valueOf(snapshot, attribute), mismatchDescription);
+        } catch (Exception e) {
+            mismatchDescription.appendText(e.getMessage());
+            return false;
+        }
+    }
+
+    private Object valueOf(AnnotationSnapshot snapshot, AnnotationAttributes.Attribute attribute) {
+        if (sharesValues) {
+            return snapshot.getValue(attribute);
+        }
+
+        // a user supplied matcher could modify the array values the snapshot shares, it is given a copy
+        return snapshot.getValueCopy(attribute);
+    }
+
+    private boolean invokeAndMatch(Annotation item, AnnotationAttributes.Attribute attribute,
+                                   Description mismatchDescription) {
+        Object value = LastEvaluation.replay(this, item, mismatchDescription);
+
+        if (value instanceof Exception) {
+            mismatchDescription.appendText(((Exception) value).getMessage());
+            return false;
+        }
+        if (value == LastEvaluation.NOT_REMEMBERED) {
+            try {
+                value = attribute.getValue(item);
+            } catch (Exception e) {
+                LastEvaluation.rememberFailure(this, item, mismatchDescription, e);
+                mismatchDescription.appendText(e.getMessage());
+                return false;
+            }
+        }
 
-            if (!valueMatcher.matches(value)) {
-                valueMatcher.describeMismatch(value, mismatchDescription);
+        try {
+            if (!matchValue(value, mismatchDescription)) {
+                // the proxy copies array values on every read, describing the mismatch reuses the copy
+                LastEvaluation.remember(this, item, mismatchDescription, value);
                 return false;
             }
         } catch (Exception e) {
@@ -72,12 +131,13 @@ public class AnnotationParamMatcher<T> extends TypeSafeDiagnosingMatcher<Annotat
         return true;
     }
 
-    private Method getWantedMethod(Annotation item) {
-        try {
-            return item.annotationType().getDeclaredMethod(param);
-        } catch (Exception e) {
-            return null;
+    private boolean matchValue(Object value, Description mismatchDescription) {
+        if (!valueMatcher.matches(value)) {
+            valueMatcher.describeMismatch(value, mismatchDescription);
+            return false;
         }
+
+        return true;
     }
 
     @Override
@@ -100,7 +160,7 @@ public class AnnotationParamMatcher<T> extends TypeSafeDiagnosingMatcher<Annotat
      */
     @Factory
     public static Matcher<Annotation> hasParam(String param) {
-        return new AnnotationParamMatcher(param, anything());
+        return new AnnotationParamMatcher<Object>(param, anything(), true);
     }
 
     /**
@@ -135,6 +195,7 @@ public class AnnotationParamMatcher<T> extends TypeSafeDiagnosingMatcher<Annotat
      */
     @Factory
     public static <T> Matcher<Annotation> hasParamValue(String param, T paramValue) {
-        return new AnnotationParamMatcher<T>(param, equalTo(paramValue));
+        // equalTo only reads the value
+        return new AnnotationParamMatcher<T>(param, equalTo(paramValue), true);
     }
 }
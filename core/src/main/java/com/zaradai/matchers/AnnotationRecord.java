@@ -0,0 +1,135 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An annotation recorded by name, as a class file records it, for a {@link ClassFile} built with
+ * {@link ClassFile#builder(String, String, java.util.List)}.  No class is loaded to record an annotation; the
+ * annotation type, and the enums and classes its values refer to, are only loaded when the annotation is matched.
+ * <p>
+ * The values of the attributes are those a class file holds: the boxed value of a primitive constant, a string,
+ * an enum constant from {@link #enumConstant(String, String)}, a class from {@link #classLiteral(String)}, a nested
+ * annotation record or an {@code Object[]} of such values for an array.  Attributes left at their default are
+ * omitted.
+ * </p>
+ */
+public final class AnnotationRecord {
+    private static final Set<Class<?>> CONSTANT_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+            Boolean.class, Byte.class, Character.class, Short.class, Integer.class, Long.class, Float.class,
+            Double.class, String.class, AnnotationData.EnumConstant.class, AnnotationData.ClassReference.class));
+
+    private final AnnotationData data;
+
+    private AnnotationRecord(AnnotationData data) {
+        this.data = data;
+    }
+
+    /**
+     * Record an annotation.
+     * @param typeName binary name of the annotation type
+     * @param values explicitly given attribute values by attribute name, in declaration order
+     * @return the annotation
+     * @throws IllegalArgumentException if the name is null or a value is not one a class file can hold
+     */
+    public static AnnotationRecord of(String typeName, Map<String, ?> values) {
+        if (typeName == null) {
+            throw new IllegalArgumentException("Annotation type name is null");
+        }
+
+        Map<String, Object> data = new LinkedHashMap<String, Object>();
+
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            data.put(entry.getKey(), dataOf(entry.getValue()));
+        }
+
+        return new AnnotationRecord(new AnnotationData(typeName, data));
+    }
+
+    /**
+     * Record an enum constant as an attribute value.
+     * @param typeName binary name of the enum type
+     * @param name name of the constant
+     * @return the value to record
+     */
+    public static Object enumConstant(String typeName, String name) {
+        return new AnnotationData.EnumConstant(typeName, name);
+    }
+
+    /**
+     * Record a class literal as an attribute value.
+     * @param descriptor field descriptor of the class, such as {@code Ljava/lang/String;} or {@code [I}, or
+     *                   {@code V} for {@code void.class}
+     * @return the value to record
+     */
+    public static Object classLiteral(String descriptor) {
+        return new AnnotationData.ClassReference(descriptor);
+    }
+
+    /**
+     * Get the annotation as it is kept for class files.
+     * @return annotation data
+     */
+    AnnotationData getData() {
+        return data;
+    }
+
+    /**
+     * Convert records to the annotations kept for class files.
+     * @param records recorded annotations
+     * @return annotation data of each record
+     */
+    static AnnotationData[] dataOf(AnnotationRecord[] records) {
+        AnnotationData[] res = new AnnotationData[records.length];
+
+        for (int i = 0; i < res.length; i++) {
+            res[i] = records[i].data;
+        }
+
+        return res;
+    }
+
+    private static Object dataOf(Object value) {
+        if (value instanceof AnnotationRecord) {
+            return ((AnnotationRecord) value).data;
+        }
+        if (value instanceof Object[]) {
+            Object[] values = (Object[]) value;
+            Object[] res = new Object[values.length];
+
+            for (int i = 0; i < res.length; i++) {
+                res[i] = dataOf(values[i]);
+            }
+
+            return res;
+        }
+        if (value != null && CONSTANT_TYPES.contains(value.getClass())) {
+            return value;
+        }
+
+        throw new IllegalArgumentException("Not an annotation value: " + value);
+    }
+
+    @Override
+    public String toString() {
+        return data.toString();
+    }
+}
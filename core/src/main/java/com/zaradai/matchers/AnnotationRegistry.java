@@ -0,0 +1,48 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gives every annotation type a small integer id, allocated in the order types are first seen.  Ids index the bits
+ * of an {@link AnnotationSet}, so keeping them dense keeps presence sets to one or two words.
+ */
+final class AnnotationRegistry {
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+    private static final ClassValue<Integer> IDS = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return NEXT_ID.getAndIncrement();
+        }
+    };
+
+    private AnnotationRegistry() {
+    }
+
+    /**
+     * Get the id of an annotation type, allocating one on first use.
+     * @param annotationType annotation type
+     * @return id of the annotation type or -1 for a null type
+     */
+    static int idOf(Class<?> annotationType) {
+        if (annotationType == null) {
+            return -1;
+        }
+
+        return IDS.get(annotationType);
+    }
+}
@@ -0,0 +1,375 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.List;
+
+/**
+ * A rule every class, or every element of a kind within a class, found by an {@link AnnotationVerifier} must keep.
+ * A rule selects the elements it applies to by the annotations they carry and requires each selected element to
+ * carry an annotation, optionally with parameters accepted by an {@link AnnotationParamMatcher}.  Rules on classes
+ * may also select and check classes with any instance matcher of {@link AnnotationMatchers} or an
+ * {@link AnnotationSpec}, which are applied to the {@link ClassFile} of the class.  Classes are read from their
+ * class files, so annotations a class inherits from its superclasses are not seen.
+ * <p>
+ * Rules are described through a {@link Builder} and are immutable once compiled.  For example:
+ * <pre>AnnotationRule.named("entities are mapped to tables").onClasses().whereAnnotatedWith(Entity.class)
+ *     .requireAnnotation(Table.class, hasParamValue("name", not(isEmptyString()))).compile();
+ *
+ * AnnotationRule.named("injected parameters are named").onConstructorParameters()
+ *     .whereMemberAnnotatedWith(Inject.class).requireAnnotation(Named.class).compile();</pre>
+ * </p>
+ */
+public final class AnnotationRule {
+    private final String name;
+    private final ElementType elementType;
+    private final MemberSignature.Kind memberKind;
+    private final Matcher<Object> condition;
+    private final AnnotationSet selectors;
+    private final AnnotationSet memberSelectors;
+    private final Matcher<Object> requirement;
+    private final Class<? extends Annotation> requiredAnnotation;
+    private final Matcher<Annotation> paramMatcher;
+
+    private AnnotationRule(Builder builder) {
+        this.name = builder.name;
+        this.elementType = builder.elementType;
+        this.memberKind = builder.memberKind;
+        this.condition = builder.condition;
+        this.selectors = AnnotationSet.of(builder.selectors);
+        this.memberSelectors = AnnotationSet.of(builder.memberSelectors);
+        this.requirement = builder.requirement;
+        this.requiredAnnotation = builder.requiredAnnotation;
+        this.paramMatcher = builder.paramMatcher;
+    }
+
+    /**
+     * Start describing a rule, the rule applies to classes until another kind of element is chosen.
+     * @param name name of the rule, used to report violations
+     * @return builder of the rule
+     */
+    public static Builder named(String name) {
+        return new Builder(name);
+    }
+
+    /**
+     * Get the name of the rule.
+     * @return rule name
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Check a class against the rule.
+     * @param classFile the class
+     * @param location class file the class was read from
+     * @param violations receives a violation for every selected element that breaks the rule
+     */
+    void check(ClassFile classFile, String location, List<RuleViolation> violations) {
+        ClassFileMetadata metadata = (ClassFileMetadata) classFile.getMetadata();
+
+        if (memberKind == null) {
+            checkClass(classFile, location, violations);
+        } else if (elementType == ElementType.PARAMETER) {
+            checkParameters(metadata, location, violations);
+        } else {
+            checkMembers(metadata, location, violations);
+        }
+    }
+
+    private void checkClass(ClassFile classFile, String location, List<RuleViolation> violations) {
+        AnnotationTable annotations = classFile.getMetadata().getTypeMetadata().getAnnotations();
+
+        if (condition != null && !condition.matches(classFile)) {
+            return;
+        }
+        if (!annotations.getPresent().containsAll(selectors)) {
+            return;
+        }
+
+        if (requirement != null && !requirement.matches(classFile)) {
+            Description mismatch = new StringDescription();
+
+            requirement.describeMismatch(classFile, mismatch);
+            violations.add(violation(classFile.getName(), "class", location, mismatch.toString()));
+        }
+
+        checkAnnotation(classFile.getName(), "class", location, annotations, violations);
+    }
+
+    private void checkMembers(ClassFileMetadata metadata, String location, List<RuleViolation> violations) {
+        for (String key : metadata.getMemberKeys(memberKind)) {
+            AnnotationTable annotations = metadata.findMember(memberKind, key).getAnnotations();
+
+            if (annotations.getPresent().containsAll(selectors)) {
+                checkAnnotation(metadata.getName(), describeMember(key), location, annotations, violations);
+            }
+        }
+    }
+
+    private void checkParameters(ClassFileMetadata metadata, String location, List<RuleViolation> violations) {
+        for (String key : metadata.getMemberKeys(memberKind)) {
+            ElementMetadata member = metadata.findMember(memberKind, key);
+
+            if (!member.getAnnotations().getPresent().containsAll(memberSelectors)) {
+                continue;
+            }
+
+            for (int i = 0; i < member.getParameterAnnotations().length; i++) {
+                AnnotationTable annotations = member.getParameter(i);
+
+                if (annotations.getPresent().containsAll(selectors)) {
+                    checkAnnotation(metadata.getName(), "parameter " + i + " of " + describeMember(key), location,
+                            annotations, violations);
+                }
+            }
+        }
+    }
+
+    private void checkAnnotation(String className, String element, String location, AnnotationTable annotations,
+                                 List<RuleViolation> violations) {
+        if (requiredAnnotation == null) {
+            return;
+        }
+
+        Annotation annotation = annotations.get(requiredAnnotation);
+
+        if (annotation == null) {
+            violations.add(violation(className, element, location, "annotation missing"));
+        } else if (paramMatcher != null && !paramMatcher.matches(annotation)) {
+            Description mismatch = new StringDescription();
+
+            paramMatcher.describeMismatch(annotation, mismatch);
+            violations.add(violation(className, element, location, mismatch.toString()));
+        }
+    }
+
+    private String describeMember(String key) {
+        if (memberKind == MemberSignature.Kind.FIELD) {
+            return "field " + key;
+        }
+        if (memberKind == MemberSignature.Kind.METHOD) {
+            return "method " + ClassFileParser.describeMember(key);
+        }
+
+        return "constructor " + ClassFileParser.describeMember(key).substring("<init>".length());
+    }
+
+    private RuleViolation violation(String className, String element, String location, String message) {
+        return new RuleViolation(name, className, element, location, message);
+    }
+
+    /**
+     * Describes a rule.  A builder is not thread-safe and each call to {@link #compile()} creates an independent
+     * rule.
+     */
+    public static final class Builder {
+        private static final Class<?>[] NO_TYPES = new Class<?>[0];
+
+        private final String name;
+        private ElementType elementType = ElementType.TYPE;
+        private MemberSignature.Kind memberKind;
+        private Matcher<Object> condition;
+        private Class<?>[] selectors = NO_TYPES;
+        private Class<?>[] memberSelectors = NO_TYPES;
+        private Matcher<Object> requirement;
+        private Class<? extends Annotation> requiredAnnotation;
+        private Matcher<Annotation> paramMatcher;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Apply the rule to classes, this is the default.
+         * @return this builder
+         */
+        public Builder onClasses() {
+            return on(ElementType.TYPE, null);
+        }
+
+        /**
+         * Apply the rule to the fields declared by each class.
+         * @return this builder
+         */
+        public Builder onFields() {
+            return on(ElementType.FIELD, MemberSignature.Kind.FIELD);
+        }
+
+        /**
+         * Apply the rule to the methods declared by each class.
+         * @return this builder
+         */
+        public Builder onMethods() {
+            return on(ElementType.METHOD, MemberSignature.Kind.METHOD);
+        }
+
+        /**
+         * Apply the rule to the constructors declared by each class.
+         * @return this builder
+         */
+        public Builder onConstructors() {
+            return on(ElementType.CONSTRUCTOR, MemberSignature.Kind.CONSTRUCTOR);
+        }
+
+        /**
+         * Apply the rule to the formal parameters of the methods declared by each class.
+         * @return this builder
+         */
+        public Builder onMethodParameters() {
+            return on(ElementType.PARAMETER, MemberSignature.Kind.METHOD);
+        }
+
+        /**
+         * Apply the rule to the formal parameters of the constructors declared by each class.
+         * @return this builder
+         */
+        public Builder onConstructorParameters() {
+            return on(ElementType.PARAMETER, MemberSignature.Kind.CONSTRUCTOR);
+        }
+
+        /**
+         * Apply the rule only to classes accepted by a matcher, rules on classes only.
+         * @param classMatcher instance matcher applied to the {@link ClassFile} of each class
+         * @return this builder
+         */
+        public Builder where(Matcher<Object> classMatcher) {
+            this.condition = classMatcher;
+            return this;
+        }
+
+        /**
+         * Apply the rule only to elements annotated with all of the annotation types.
+         * @param annotationTypes annotation types the element must carry
+         * @return this builder
+         */
+        public Builder whereAnnotatedWith(Class<?>... annotationTypes) {
+            this.selectors = annotationTypes.clone();
+            return this;
+        }
+
+        /**
+         * Apply the rule only to the parameters of methods or constructors annotated with all of the annotation
+         * types, rules on parameters only.
+         * @param annotationTypes annotation types the method or constructor must carry
+         * @return this builder
+         */
+        public Builder whereMemberAnnotatedWith(Class<?>... annotationTypes) {
+            this.memberSelectors = annotationTypes.clone();
+            return this;
+        }
+
+        /**
+         * Require every selected class to be accepted by a matcher, rules on classes only.
+         * @param classMatcher instance matcher applied to the {@link ClassFile} of each class
+         * @return this builder
+         */
+        public Builder require(Matcher<Object> classMatcher) {
+            this.requirement = classMatcher;
+            return this;
+        }
+
+        /**
+         * Require every selected element to be annotated with the annotation type.
+         * @param annotationType annotation type the element must carry
+         * @return this builder
+         */
+        public Builder requireAnnotation(Class<? extends Annotation> annotationType) {
+            return requireAnnotation(annotationType, null);
+        }
+
+        /**
+         * Require every selected element to be annotated with the annotation type, with parameters accepted by a
+         * matcher.
+         * @param annotationType annotation type the element must carry
+         * @param annotationMatcher matcher of the annotation, such as {@link AnnotationParamMatcher#hasParamValue}
+         * @return this builder
+         */
+        public Builder requireAnnotation(Class<? extends Annotation> annotationType,
+                                         Matcher<Annotation> annotationMatcher) {
+            this.requiredAnnotation = annotationType;
+            this.paramMatcher = annotationMatcher;
+            return this;
+        }
+
+        /**
+         * Check the rule and compile it.
+         * @return compiled rule
+         * @throws IllegalArgumentException if the rule is incomplete or can never be kept
+         */
+        public AnnotationRule compile() {
+            if (name == null) {
+                throw new IllegalArgumentException("Rule name is null");
+            }
+            if (requirement == null && requiredAnnotation == null) {
+                throw new IllegalArgumentException("Rule '" + name + "' requires nothing");
+            }
+            if (memberKind != null && (condition != null || requirement != null)) {
+                throw new IllegalArgumentException("Rule '" + name + "' applies class matchers to members");
+            }
+            if (elementType != ElementType.PARAMETER && memberSelectors.length > 0) {
+                throw new IllegalArgumentException("Rule '" + name + "' selects members of elements that are not "
+                        + "parameters");
+            }
+
+            checkAnnotationTypes(selectors);
+            checkAnnotationTypes(memberSelectors);
+            if (requiredAnnotation != null) {
+                checkAnnotationTypes(requiredAnnotation);
+            }
+
+            return new AnnotationRule(this);
+        }
+
+        private Builder on(ElementType type, MemberSignature.Kind kind) {
+            this.elementType = type;
+            this.memberKind = kind;
+            return this;
+        }
+
+        private void checkAnnotationTypes(Class<?>... annotationTypes) {
+            for (Class<?> annotationType : annotationTypes) {
+                if (annotationType == null) {
+                    throw new IllegalArgumentException("Annotation type of rule '" + name + "' is null");
+                }
+                if (!annotationType.isAnnotation()) {
+                    throw new IllegalArgumentException(annotationType.getName() + " is not an annotation type");
+                }
+
+                Retention retention = annotationType.getAnnotation(Retention.class);
+
+                if (retention == null || retention.value() != RetentionPolicy.RUNTIME) {
+                    throw new IllegalArgumentException("@" + annotationType.getName()
+                            + " is not retained at runtime");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+
+/**
+ * Immutable bit set of annotation types, one bit per {@link AnnotationRegistry} id.  Presence tests and set
+ * comparisons touch one word per 64 registered annotation types.
+ */
+final class AnnotationSet {
+    /**
+     * Set without any annotation types.
+     */
+    static final AnnotationSet EMPTY = new AnnotationSet(new long[0]);
+
+    private static final int ADDRESS_BITS = 6;
+
+    private final long[] words;
+
+    private AnnotationSet(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Create the set of the types of annotations present on an element.
+     * @param annotations annotations present
+     * @return set of annotation types
+     */
+    static AnnotationSet of(Annotation[] annotations) {
+        int[] ids = new int[annotations.length];
+
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = AnnotationRegistry.idOf(annotations[i].annotationType());
+        }
+
+        return of(ids);
+    }
+
+    /**
+     * Create a set of annotation types.
+     * @param annotationTypes annotation types to include, must not contain null
+     * @return set of annotation types
+     */
+    static AnnotationSet of(Class<?>... annotationTypes) {
+        int[] ids = new int[annotationTypes.length];
+
+        for (int i = 0; i < ids.length; i++) {
+            if (annotationTypes[i] == null) {
+                throw new NullPointerException("annotation type");
+            }
+            ids[i] = AnnotationRegistry.idOf(annotationTypes[i]);
+        }
+
+        return of(ids);
+    }
+
+    private static AnnotationSet of(int[] ids) {
+        if (ids.length == 0) {
+            return EMPTY;
+        }
+
+        int max = -1;
+
+        for (int id : ids) {
+            max = Math.max(max, id);
+        }
+
+        long[] words = new long[(max >>> ADDRESS_BITS) + 1];
+
+        for (int id : ids) {
+            words[id >>> ADDRESS_BITS] |= 1L << id;
+        }
+
+        return new AnnotationSet(words);
+    }
+
+    /**
+     * Test if the set contains the annotation type with the id.
+     * @param id registry id of an annotation type
+     * @return true if the type is in the set
+     */
+    boolean contains(int id) {
+        int word = id >>> ADDRESS_BITS;
+
+        return word < words.length && (words[word] & (1L << id)) != 0;
+    }
+
+    /**
+     * Test if every annotation type of another set is in this set.
+     * @param other set of required annotation types
+     * @return true if this set is a superset of the other
+     */
+    boolean containsAll(AnnotationSet other) {
+        for (int i = 0; i < other.words.length; i++) {
+            if ((other.words[i] & ~word(i)) != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Test if any annotation type of another set is in this set.
+     * @param other set of annotation types
+     * @return true if the sets share an annotation type
+     */
+    boolean intersects(AnnotationSet other) {
+        for (int i = 0; i < other.words.length; i++) {
+            if ((other.words[i] & word(i)) != 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Test if the set has no annotation types.
+     * @return true if empty
+     */
+    boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private long word(int index) {
+        if (index < words.length) {
+            return words[index];
+        }
+
+        return 0L;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AnnotationSet)) {
+            return false;
+        }
+
+        AnnotationSet other = (AnnotationSet) o;
+        int length = Math.max(words.length, other.words.length);
+
+        for (int i = 0; i < length; i++) {
+            if (word(i) != other.word(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int length = words.length;
+
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+
+        return Arrays.hashCode(Arrays.copyOf(words, length));
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import org.hamcrest.Description;
+import org.hamcrest.DiagnosingMatcher;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests an element for several annotations at once, either that all of them are present or that none of them are.
+ * The expected annotation types are held as an {@link AnnotationSet} and compared against the presence set of the
+ * element in a single pass over their words.
+ */
+public final class AnnotationSetMatcher extends DiagnosingMatcher<Object> {
+    private final String annotationSource;
+    private final AnnotationLocator locator;
+    private final boolean present;
+    private final List<Class<? extends Annotation>> annotations;
+    private final AnnotationSet annotationSet;
+
+    @SafeVarargs
+    private AnnotationSetMatcher(String annotationSource, AnnotationLocator locator, boolean present,
+                                 Class<? extends Annotation>... annotations) {
+        this.annotationSource = annotationSource;
+        this.locator = locator;
+        this.present = present;
+        this.annotations = copyOf(annotations);
+        this.annotationSet = AnnotationSet.of(this.annotations.toArray(new Class<?>[annotations.length]));
+    }
+
+    /**
+     * Create a matcher requiring every annotation to be present on the located element.
+     * @param annotationSource description of the element
+     * @param locator locates the element
+     * @param annotations annotations that must all be present
+     * @return all of matcher
+     */
+    @SafeVarargs
+    static AnnotationSetMatcher allOf(String annotationSource, AnnotationLocator locator,
+                                      Class<? extends Annotation>... annotations) {
+        return new AnnotationSetMatcher(annotationSource, locator, true, annotations);
+    }
+
+    /**
+     * Create a matcher requiring none of the annotations to be present on the located element.
+     * @param annotationSource description of the element
+     * @param locator locates the element
+     * @param annotations annotations that must all be absent
+     * @return none of matcher
+     */
+    @SafeVarargs
+    static AnnotationSetMatcher noneOf(String annotationSource, AnnotationLocator locator,
+                                       Class<? extends Annotation>... annotations) {
+        return new AnnotationSetMatcher(annotationSource, locator, false, annotations);
+    }
+
+    @Override
+    protected boolean matches(Object item, Description mismatchDescription) {
+        if (item == null) {
+            mismatchDescription.appendText("was null");
+            return false;
+        }
+
+        return LocatedMatchers.matchLocated(this, locator, TypeMetadata.of(item), item, mismatchDescription);
+    }
+
+    /**
+     * Match against the resolved annotations of the element the matcher inspects.
+     * @param table annotations of the element found by the matcher's locator
+     * @param mismatchDescription description of a mismatch
+     * @return true if all, or none, of the annotations are present
+     */
+    boolean matchesTable(AnnotationTable table, Description mismatchDescription) {
+        if (present) {
+            if (table.getPresent().containsAll(annotationSet)) {
+                return true;
+            }
+            mismatchDescription.appendText("missing ");
+        } else {
+            if (!table.getPresent().intersects(annotationSet)) {
+                return true;
+            }
+            mismatchDescription.appendText("annotated with ");
+        }
+
+        // the offending annotations are only collected when the mismatch is described
+        if (!(mismatchDescription instanceof Description.NullDescription)) {
+            mismatchDescription.appendValueList("[", ", ", "]", select(table, !present));
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the locator of the element the matcher inspects.
+     * @return element locator
+     */
+    AnnotationLocator getLocator() {
+        return locator;
+    }
+
+    @SafeVarargs
+    private static List<Class<? extends Annotation>> copyOf(Class<? extends Annotation>... annotations) {
+        List<Class<? extends Annotation>> res = new ArrayList<Class<? extends Annotation>>(annotations.length);
+
+        // only the elements are read, the array itself is never passed on
+        for (Class<? extends Annotation> annotation : annotations) {
+            res.add(annotation);
+        }
+
+        return Collections.unmodifiableList(res);
+    }
+
+    private List<Class<? extends Annotation>> select(AnnotationTable table, boolean found) {
+        List<Class<? extends Annotation>> res = new ArrayList<Class<? extends Annotation>>();
+
+        for (Class<? extends Annotation> annotation : annotations) {
+            if ((table.get(annotation) != null) == found) {
+                res.add(annotation);
+            }
+        }
+
+        return res;
+    }
+
+    @Override
+    public void describeTo(Description description) {
+        description.appendText(annotationSource).appendText(" to be annotated with ");
+
+        if (present) {
+            description.appendText("all of ");
+        } else {
+            description.appendText("none of ");
+        }
+
+        description.appendValueList("[", ", ", "]", annotations);
+    }
+}
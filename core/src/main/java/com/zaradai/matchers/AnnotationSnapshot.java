@@ -0,0 +1,214 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
+
+/**
+ * An immutable copy of the attribute values of an annotation.  Every attribute is read through the annotation once
+ * when the snapshot is taken and stored in a compact array indexed in attribute name order.  Reading a value from
+ * the snapshot does not go through the annotation proxy.  Snapshots are shared by every matcher, so like the
+ * annotation proxy the public accessors return a copy of array valued attributes, while the matchers read the
+ * shared arrays without copying them.
+ */
+public final class AnnotationSnapshot {
+    private final Class<? extends Annotation> annotationType;
+    private final AnnotationAttributes attributes;
+    private final Object[] values;
+
+    private AnnotationSnapshot(Class<? extends Annotation> annotationType, AnnotationAttributes attributes,
+                               Object[] values) {
+        this.annotationType = annotationType;
+        this.attributes = attributes;
+        this.values = values;
+    }
+
+    /**
+     * Read all attribute values of an annotation into a snapshot.  An attribute that fails to read, for example
+     * because it refers to a class that is not present, only fails when its value is requested.
+     * @param annotation annotation to copy
+     * @return snapshot of the annotation
+     */
+    public static AnnotationSnapshot of(Annotation annotation) {
+        Class<? extends Annotation> annotationType = annotation.annotationType();
+        AnnotationAttributes attributes = AnnotationAttributes.forType(annotationType);
+        Object[] values = new Object[attributes.size()];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readValue(attributes.get(i), annotation);
+        }
+
+        return new AnnotationSnapshot(annotationType, attributes, values);
+    }
+
+    /**
+     * Get the type of annotation the snapshot was taken from.
+     * @return annotation type
+     */
+    public Class<? extends Annotation> annotationType() {
+        return annotationType;
+    }
+
+    /**
+     * Test if the annotation type declares the named attribute.
+     * @param name name of attribute
+     * @return true if the attribute exists
+     */
+    public boolean hasAttribute(String name) {
+        return attributes.get(name) != null;
+    }
+
+    /**
+     * Get the value of the named attribute.  Array values are copied, so modifying them leaves the snapshot intact.
+     * @param name name of attribute
+     * @return the attribute value or null if the annotation type does not declare the attribute
+     */
+    public Object getValue(String name) {
+        AnnotationAttributes.Attribute attribute = attributes.get(name);
+
+        if (attribute == null) {
+            return null;
+        }
+
+        return getValueCopy(attribute);
+    }
+
+    /**
+     * Get the attributes declared by the snapshot's annotation type.
+     * @return attribute table
+     */
+    AnnotationAttributes getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Get the value of an attribute of the snapshot's annotation type, to be handed to code outside the library such
+     * as a user supplied value matcher.  Array values are copied, so modifying them leaves the snapshot intact.
+     * @param attribute attribute of the annotation type
+     * @return attribute value
+     */
+    Object getValueCopy(AnnotationAttributes.Attribute attribute) {
+        return copyOf(getValue(attribute));
+    }
+
+    /**
+     * Get the value of an attribute of the snapshot's annotation type.  Array values are shared with the snapshot
+     * and must not be modified, nor handed to code that might modify them.
+     * @param attribute attribute of the annotation type
+     * @return attribute value
+     */
+    Object getValue(AnnotationAttributes.Attribute attribute) {
+        Object value = values[attribute.getIndex()];
+
+        if (value instanceof ReadFailure) {
+            throw ((ReadFailure) value).exception;
+        }
+
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AnnotationSnapshot)) {
+            return false;
+        }
+
+        AnnotationSnapshot other = (AnnotationSnapshot) o;
+
+        return annotationType.equals(other.annotationType) && Arrays.deepEquals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * annotationType.hashCode() + Arrays.deepHashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder res = new StringBuilder("@").append(annotationType.getName()).append('(');
+
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                res.append(", ");
+            }
+            res.append(attributes.get(i).getName()).append('=').append(valueToString(values[i]));
+        }
+
+        return res.append(')').toString();
+    }
+
+    private static String valueToString(Object value) {
+        // deepToString renders nested and primitive arrays, strip the brackets of the wrapping array
+        String res = Arrays.deepToString(new Object[] {value});
+
+        return res.substring(1, res.length() - 1);
+    }
+
+    private static Object readValue(AnnotationAttributes.Attribute attribute, Annotation annotation) {
+        try {
+            return attribute.getValue(annotation);
+        } catch (RuntimeException e) {
+            return new ReadFailure(e);
+        } catch (Exception e) {
+            return new ReadFailure(new UndeclaredThrowableException(e));
+        }
+    }
+
+    /**
+     * Holds the exception raised when an attribute value could not be read.
+     */
+    private static final class ReadFailure {
+        private final RuntimeException exception;
+
+        ReadFailure(RuntimeException exception) {
+            this.exception = exception;
+        }
+
+        @Override
+        public String toString() {
+            return exception.toString();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ReadFailure && exception.equals(((ReadFailure) o).exception);
+        }
+
+        @Override
+        public int hashCode() {
+            return exception.hashCode();
+        }
+    }
+
+    private static Object copyOf(Object value) {
+        if (value == null || !value.getClass().isArray()) {
+            return value;
+        }
+
+        int length = Array.getLength(value);
+        Object res = Array.newInstance(value.getClass().getComponentType(), length);
+
+        System.arraycopy(value, 0, res, 0, length);
+
+        return res;
+    }
+}
@@ -0,0 +1,433 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import org.hamcrest.Description;
+import org.hamcrest.DiagnosingMatcher;
+import org.hamcrest.Matcher;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.anything;
+import static org.hamcrest.CoreMatchers.equalTo;
+
+/**
+ * A compiled annotation expectation: the element to inspect, the annotation it must carry and the values its
+ * parameters must have.  Specifications are described through a {@link Builder} and checked once by
+ * {@link Builder#compile()}, which verifies the annotation type is visible at runtime and may decorate the element,
+ * that every parameter is declared with a compatible type and, given the declaring class, that the element exists.
+ * The parameter accessors are resolved while compiling, so evaluating the specification only reads the cached
+ * metadata of the target.
+ * <p>
+ * A compiled specification is immutable and may be shared between threads and used against any number of targets.
+ * For example:
+ * <pre>private static final AnnotationSpec ID_COLUMN = AnnotationSpec.annotatedWith(Column.class)
+ *     .onField("id").withParamValue("name", "ID").declaredBy(Person.class).compile();
+ *
+ * assertThat(person, ID_COLUMN);</pre>
+ * </p>
+ */
+public final class AnnotationSpec extends DiagnosingMatcher<Object> {
+    private final String annotationSource;
+    private final AnnotationLocator locator;
+    private final Class<? extends Annotation> annotationClass;
+    private final int annotationId;
+    private final Condition[] conditions;
+
+    private AnnotationSpec(String annotationSource, AnnotationLocator locator,
+                           Class<? extends Annotation> annotationClass, Condition[] conditions) {
+        this.annotationSource = annotationSource;
+        this.locator = locator;
+        this.annotationClass = annotationClass;
+        this.annotationId = AnnotationRegistry.idOf(annotationClass);
+        this.conditions = conditions;
+    }
+
+    /**
+     * Start a specification of an element annotated with the specified {@link Annotation}.  The element is the
+     * class of the target unless another is chosen on the builder.
+     * @param annotation the annotation the element must carry
+     * @return specification builder
+     */
+    public static Builder annotatedWith(Class<? extends Annotation> annotation) {
+        return new Builder(annotation);
+    }
+
+    @Override
+    protected boolean matches(Object item, Description mismatchDescription) {
+        if (item == null) {
+            mismatchDescription.appendText("was null");
+            return false;
+        }
+
+        return LocatedMatchers.matchLocated(this, locator, TypeMetadata.of(item), item, mismatchDescription);
+    }
+
+    /**
+     * Match against the resolved annotations of the element the specification inspects.
+     * @param table annotations of the element found by the specification's locator
+     * @param mismatchDescription description of a mismatch
+     * @return true if the annotation is present with the expected parameters
+     */
+    boolean matchesTable(AnnotationTable table, Description mismatchDescription) {
+        if (!table.contains(annotationId)) {
+            mismatchDescription.appendText("annotation missing");
+            return false;
+        }
+        if (conditions.length == 0) {
+            return true;
+        }
+
+        AnnotationSnapshot snapshot = table.getSnapshot(annotationClass);
+
+        for (Condition condition : conditions) {
+            if (!condition.matches(snapshot, mismatchDescription)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Get the locator of the element the specification inspects.
+     * @return element locator
+     */
+    AnnotationLocator getLocator() {
+        return locator;
+    }
+
+    @Override
+    public void describeTo(Description description) {
+        description.appendText(annotationSource).appendText(" to be annotated with ").appendValue(annotationClass);
+
+        for (Condition condition : conditions) {
+            description.appendText(" ");
+            condition.describeTo(description);
+        }
+    }
+
+    /**
+     * A compiled expectation of a single annotation parameter.
+     */
+    private static final class Condition {
+        private final AnnotationAttributes.Attribute attribute;
+        private final Matcher<?> valueMatcher;
+        private final boolean sharesValues;
+
+        Condition(AnnotationAttributes.Attribute attribute, Matcher<?> valueMatcher, boolean sharesValues) {
+            this.attribute = attribute;
+            this.valueMatcher = valueMatcher;
+            this.sharesValues = sharesValues;
+        }
+
+        boolean matches(AnnotationSnapshot snapshot, Description mismatchDescription) {
+            Object value;
+
+            try {
+                value = valueOf(snapshot);
+            } catch (RuntimeException e) {
+                mismatchDescription.appendText(e.getMessage());
+                return false;
+            }
+
+            if (!valueMatcher.matches(value)) {
+                valueMatcher.describeMismatch(value, mismatchDescription);
+                return false;
+            }
+
+            return true;
+        }
+
+        private Object valueOf(AnnotationSnapshot snapshot) {
+            if (sharesValues) {
+                return snapshot.getValue(attribute);
+            }
+
+            // a user supplied matcher could modify the array values the snapshot shares, it is given a copy
+            return snapshot.getValueCopy(attribute);
+        }
+
+        void describeTo(Description description) {
+            description.appendText("with annotation parameter ").appendValue(attribute.getName())
+                    .appendText(" value ");
+            valueMatcher.describeTo(description);
+        }
+    }
+
+    /**
+     * Collects the parts of a specification, nothing is checked until {@link #compile()}.  Builders are not
+     * thread-safe and each call to {@link #compile()} creates an independent specification.
+     */
+    public static final class Builder {
+        private static final Object NO_MATCHER = new Object();
+
+        private final Class<? extends Annotation> annotationClass;
+        private final List<String> params = new ArrayList<String>();
+        private final List<Object> values = new ArrayList<Object>();
+        private ElementType elementType = ElementType.TYPE;
+        private String annotationSource = "class";
+        private MemberSignature signature;
+        private int parameterPosition = -1;
+        private Class<?> declaringType;
+
+        private Builder(Class<? extends Annotation> annotationClass) {
+            this.annotationClass = annotationClass;
+        }
+
+        /**
+         * Inspect the class of the target, this is the default.
+         * @return this builder
+         */
+        public Builder onClass() {
+            return on(ElementType.TYPE, "class", null, -1);
+        }
+
+        /**
+         * Inspect a field declared by the class of the target.
+         * @param fieldName the field name
+         * @return this builder
+         */
+        public Builder onField(String fieldName) {
+            return on(ElementType.FIELD, "field", MemberSignature.field(fieldName), -1);
+        }
+
+        /**
+         * Inspect a method declared by the class of the target.
+         * @param methodName name of the method
+         * @param parameterTypes the method's formal parameter types, in declared order
+         * @return this builder
+         */
+        public Builder onMethod(String methodName, Class<?>... parameterTypes) {
+            return on(ElementType.METHOD, "method", MemberSignature.method(methodName, parameterTypes), -1);
+        }
+
+        /**
+         * Inspect a constructor declared by the class of the target.
+         * @param parameterTypes the constructor's formal parameter types, in declared order
+         * @return this builder
+         */
+        public Builder onConstructor(Class<?>... parameterTypes) {
+            return on(ElementType.CONSTRUCTOR, "constructor", MemberSignature.constructor(parameterTypes), -1);
+        }
+
+        /**
+         * Inspect a formal parameter of a method declared by the class of the target.
+         * @param parameterPosition position of the parameter
+         * @param methodName name of the method
+         * @param parameterTypes the method's formal parameter types, in declared order
+         * @return this builder
+         */
+        public Builder onMethodParameter(int parameterPosition, String methodName, Class<?>... parameterTypes) {
+            return on(ElementType.PARAMETER, "method parameter", MemberSignature.method(methodName, parameterTypes),
+                    parameterPosition);
+        }
+
+        /**
+         * Inspect a formal parameter of a constructor declared by the class of the target.
+         * @param parameterPosition position of the parameter
+         * @param parameterTypes the constructor's formal parameter types, in declared order
+         * @return this builder
+         */
+        public Builder onConstructorParameter(int parameterPosition, Class<?>... parameterTypes) {
+            return on(ElementType.PARAMETER, "constructor parameter", MemberSignature.constructor(parameterTypes),
+                    parameterPosition);
+        }
+
+        /**
+         * Check when compiling that the inspected element is declared by the class.
+         * @param type the class targets will be instances of
+         * @return this builder
+         */
+        public Builder declaredBy(Class<?> type) {
+            this.declaringType = type;
+            return this;
+        }
+
+        /**
+         * Require the annotation to declare the named parameter.
+         * @param param name of the parameter
+         * @return this builder
+         */
+        public Builder withParam(String param) {
+            return addParam(param, anything());
+        }
+
+        /**
+         * Require the named parameter of the annotation to have a value matched by the matcher.
+         * @param param name of the parameter
+         * @param matcher matcher of the parameter value
+         * @return this builder
+         */
+        public Builder withParamValue(String param, Matcher<?> matcher) {
+            if (matcher == null) {
+                return addParam(param, NO_MATCHER);
+            }
+
+            return addParam(param, matcher);
+        }
+
+        /**
+         * Require the named parameter of the annotation to be equal to a value.  The value must be assignable to
+         * the parameter's type, primitive parameters are compared with their wrapper values.
+         * @param param name of the parameter
+         * @param paramValue the value the parameter must equal
+         * @return this builder
+         */
+        public Builder withParamValue(String param, Object paramValue) {
+            return addParam(param, paramValue);
+        }
+
+        /**
+         * Check the specification and compile it.
+         * @return compiled specification
+         * @throws IllegalArgumentException if the specification can never match
+         */
+        public AnnotationSpec compile() {
+            checkAnnotationType();
+            checkElement();
+
+            AnnotationAttributes attributes = AnnotationAttributes.forType(annotationClass);
+            Condition[] conditions = new Condition[params.size()];
+
+            for (int i = 0; i < conditions.length; i++) {
+                conditions[i] = compileCondition(attributes, params.get(i), values.get(i));
+            }
+
+            return new AnnotationSpec(annotationSource, locator(), annotationClass, conditions);
+        }
+
+        private Builder on(ElementType type, String source, MemberSignature member, int position) {
+            this.elementType = type;
+            this.annotationSource = source;
+            this.signature = member;
+            this.parameterPosition = position;
+            return this;
+        }
+
+        private Builder addParam(String param, Object value) {
+            params.add(param);
+            values.add(value);
+            return this;
+        }
+
+        private AnnotationLocator locator() {
+            if (signature == null) {
+                return AnnotationLocator.forType();
+            }
+            if (elementType == ElementType.PARAMETER) {
+                return AnnotationLocator.forParameter(signature, parameterPosition);
+            }
+
+            return AnnotationLocator.forMember(signature);
+        }
+
+        private void checkAnnotationType() {
+            if (annotationClass == null) {
+                throw new IllegalArgumentException("Annotation type is null");
+            }
+            if (!annotationClass.isAnnotation()) {
+                throw new IllegalArgumentException(annotationClass.getName() + " is not an annotation type");
+            }
+
+            Retention retention = annotationClass.getAnnotation(Retention.class);
+
+            if (retention == null || retention.value() != RetentionPolicy.RUNTIME) {
+                throw new IllegalArgumentException("@" + annotationClass.getName() + " is not retained at runtime");
+            }
+
+            Target target = annotationClass.getAnnotation(Target.class);
+
+            if (target != null && !Arrays.asList(target.value()).contains(elementType)) {
+                throw new IllegalArgumentException("@" + annotationClass.getName() + " can not be applied to a "
+                        + annotationSource);
+            }
+        }
+
+        private void checkElement() {
+            if (signature != null && signature.getName() == null) {
+                throw new IllegalArgumentException("Name of " + annotationSource + " is null");
+            }
+            if (elementType == ElementType.PARAMETER && parameterPosition < 0) {
+                throw new IllegalArgumentException("Parameter position " + parameterPosition + " is negative");
+            }
+            if (declaringType != null && signature != null) {
+                checkDeclared();
+            }
+        }
+
+        private void checkDeclared() {
+            ElementMetadata member;
+
+            try {
+                member = ClassMetadata.forClass(declaringType).getMember(signature);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalArgumentException(declaringType.getName() + " does not declare field "
+                        + e.getMessage(), e);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(declaringType.getName() + " does not declare "
+                        + e.getMessage(), e);
+            }
+
+            if (parameterPosition >= member.getParameterAnnotations().length) {
+                throw new IllegalArgumentException(signature.describe(declaringType) + " has no parameter at "
+                        + parameterPosition);
+            }
+        }
+
+        private Condition compileCondition(AnnotationAttributes attributes, String param, Object value) {
+            AnnotationAttributes.Attribute attribute = attributes.get(param);
+
+            if (attribute == null) {
+                throw new IllegalArgumentException("@" + annotationClass.getName() + " does not declare parameter '"
+                        + param + "'");
+            }
+            if (value == NO_MATCHER) {
+                throw new IllegalArgumentException("Value matcher of parameter '" + param + "' is null");
+            }
+            if (value instanceof Matcher) {
+                return new Condition(attribute, (Matcher<?>) value, false);
+            }
+            if (!wrap(attribute.getType()).isInstance(value)) {
+                throw new IllegalArgumentException("Parameter '" + param + "' of @" + annotationClass.getName()
+                        + " is " + attribute.getType().getName() + ", not " + typeName(value));
+            }
+
+            // equalTo only reads the value
+            return new Condition(attribute, equalTo(value), true);
+        }
+
+        private static String typeName(Object value) {
+            if (value == null) {
+                return "null";
+            }
+
+            return value.getClass().getName();
+        }
+
+        private static Class<?> wrap(Class<?> type) {
+            return MethodType.methodType(type).wrap().returnType();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable lookup table from annotation type to the annotation present on an element.  The
+ * {@link AnnotationSnapshot} of each annotation is taken the first time it is requested and then shared.  The
+ * types present are also kept as an {@link AnnotationSet} so presence tests do not need a map lookup.
+ */
+final class AnnotationTable {
+    /**
+     * Table of an element without annotations.
+     */
+    static final AnnotationTable EMPTY = new AnnotationTable(new HashMap<Class<? extends Annotation>, Entry>(),
+            AnnotationSet.EMPTY);
+
+    private final Map<Class<? extends Annotation>, Entry> entries;
+    private final AnnotationSet present;
+
+    private AnnotationTable(Map<Class<? extends Annotation>, Entry> entries, AnnotationSet present) {
+        this.entries = entries;
+        this.present = present;
+    }
+
+    /**
+     * Index annotations by their type.
+     * @param annotations annotations present on an element
+     * @return table of the annotations
+     */
+    static AnnotationTable of(Annotation[] annotations) {
+        if (annotations.length == 0) {
+            return EMPTY;
+        }
+
+        Map<Class<? extends Annotation>, Entry> entries = new HashMap<Class<? extends Annotation>, Entry>();
+
+        for (Annotation annotation : annotations) {
+            entries.put(annotation.annotationType(), new Entry(annotation));
+        }
+
+        return new AnnotationTable(entries, AnnotationSet.of(annotations));
+    }
+
+    /**
+     * Merge tables, the annotation of a type is taken from the first table holding one.  The merged table shares the
+     * snapshots of the annotations it takes.
+     * @param tables tables in order of precedence
+     * @return table of the annotations of every table
+     */
+    static AnnotationTable merge(List<AnnotationTable> tables) {
+        Map<Class<? extends Annotation>, Entry> entries = new HashMap<Class<? extends Annotation>, Entry>();
+        List<Annotation> annotations = new ArrayList<Annotation>();
+
+        for (AnnotationTable table : tables) {
+            for (Map.Entry<Class<? extends Annotation>, Entry> entry : table.entries.entrySet()) {
+                if (!entries.containsKey(entry.getKey())) {
+                    entries.put(entry.getKey(), entry.getValue());
+                    annotations.add(entry.getValue().annotation);
+                }
+            }
+        }
+
+        if (annotations.isEmpty()) {
+            return EMPTY;
+        }
+
+        return new AnnotationTable(entries, AnnotationSet.of(annotations.toArray(new Annotation[annotations.size()])));
+    }
+
+    /**
+     * Get the annotation of the specified type.  Like {@link java.lang.reflect.AnnotatedElement#getAnnotation(Class)}
+     * a null annotation type is rejected.
+     * @param annotationClass type of annotation to retrieve
+     * @return the annotation or null if not present
+     */
+    Annotation get(Class<? extends Annotation> annotationClass) {
+        Entry entry = getEntry(annotationClass);
+
+        if (entry == null) {
+            return null;
+        }
+
+        return entry.annotation;
+    }
+
+    /**
+     * Get a snapshot of the annotation of the specified type.
+     * @param annotationClass type of annotation to retrieve
+     * @return the snapshot or null if the annotation is not present
+     */
+    AnnotationSnapshot getSnapshot(Class<? extends Annotation> annotationClass) {
+        Entry entry = getEntry(annotationClass);
+
+        if (entry == null) {
+            return null;
+        }
+
+        return entry.getSnapshot();
+    }
+
+    /**
+     * Test if an annotation is present by the {@link AnnotationRegistry} id of its type.
+     * @param annotationId registry id of the annotation type
+     * @return true if the annotation is present
+     */
+    boolean contains(int annotationId) {
+        return present.contains(annotationId);
+    }
+
+    /**
+     * Get the set of annotation types present.
+     * @return presence set
+     */
+    AnnotationSet getPresent() {
+        return present;
+    }
+
+    /**
+     * Get the number of annotations in the table.
+     * @return annotation count
+     */
+    int size() {
+        return entries.size();
+    }
+
+    private Entry getEntry(Class<? extends Annotation> annotationClass) {
+        if (annotationClass == null) {
+            throw new NullPointerException();
+        }
+
+        return entries.get(annotationClass);
+    }
+
+    /**
+     * An annotation and its lazily taken snapshot.
+     */
+    private static final class Entry {
+        private final Annotation annotation;
+        private volatile AnnotationSnapshot snapshot;
+
+        Entry(Annotation annotation) {
+            this.annotation = annotation;
+        }
+
+        AnnotationSnapshot getSnapshot() {
+            AnnotationSnapshot res = snapshot;
+
+            if (res == null) {
+                res = AnnotationSnapshot.of(annotation);
+                snapshot = res;
+            }
+
+            return res;
+        }
+    }
+}
@@ -0,0 +1,696 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Verifies {@link AnnotationRule}s against every class found in directories and jars.  Classes are read as
+ * {@link ClassFile}s, so none of them is loaded or initialized, and are checked in parallel.  Every violation of
+ * every rule is reported by a single pass, in the order of the class names whatever the number of threads.
+ * <p>
+ * The scan runs on a work-stealing {@link ForkJoinPool}: each directory forks a task per subdirectory and the class
+ * files of a directory or jar are split in halves until runs are small enough, so idle threads steal whatever part of
+ * the class path is left.  A thread reads, parses and checks one class file at a time and keeps only the violations,
+ * so no more class files are held in memory than there are threads.  The violations of each task are joined in the
+ * order the tasks were forked, which does not depend on the number of threads or on which thread ran them.
+ * </p>
+ * <p>
+ * Jars are memory-mapped and read through their central directory, see {@link MappedJar}; stored class files are
+ * parsed in place and deflated ones are inflated with an inflater each thread reuses.  Jars the mapped reader does
+ * not support, such as zip64 archives, are read through {@link ZipFile}.
+ * </p>
+ * <p>
+ * A verifier is immutable and may be shared between threads.  For example:
+ * <pre>List&lt;RuleViolation&gt; violations = AnnotationVerifier.of(ENTITIES_HAVE_TABLES, INJECTED_NAMED)
+ *     .verify(System.getProperty("java.class.path"));</pre>
+ * </p>
+ */
+public final class AnnotationVerifier {
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String INFO_SUFFIX = "-info.class";
+    private static final String META_INF = "META-INF/";
+    private static final String UNREADABLE = "class files are well formed";
+    private static final int SPLIT_THRESHOLD = 16;
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final Comparator<RuleViolation> BY_CLASS = new Comparator<RuleViolation>() {
+        @Override
+        public int compare(RuleViolation first, RuleViolation second) {
+            int res = first.getClassName().compareTo(second.getClassName());
+
+            if (res == 0) {
+                res = first.getLocation().compareTo(second.getLocation());
+            }
+
+            return res;
+        }
+    };
+
+    private static final Comparator<Path> BY_NAME = new Comparator<Path>() {
+        @Override
+        public int compare(Path first, Path second) {
+            return first.getFileName().toString().compareTo(second.getFileName().toString());
+        }
+    };
+
+    private final List<AnnotationRule> rules;
+    private final ClassLoader classLoader;
+    private final int parallelism;
+
+    private AnnotationVerifier(List<AnnotationRule> rules, ClassLoader classLoader, int parallelism) {
+        this.rules = rules;
+        this.classLoader = classLoader;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Create a verifier of rules that loads annotation types through the context class loader of the verifying
+     * thread and uses a thread per available processor.
+     * @param rules rules every class must keep
+     * @return the verifier
+     */
+    public static AnnotationVerifier of(AnnotationRule... rules) {
+        return of(Arrays.asList(rules));
+    }
+
+    /**
+     * Create a verifier of rules that loads annotation types through the context class loader of the verifying
+     * thread and uses a thread per available processor.
+     * @param rules rules every class must keep
+     * @return the verifier
+     */
+    public static AnnotationVerifier of(Iterable<AnnotationRule> rules) {
+        List<AnnotationRule> res = new ArrayList<AnnotationRule>();
+
+        for (AnnotationRule rule : rules) {
+            if (rule == null) {
+                throw new IllegalArgumentException("Rule is null");
+            }
+            res.add(rule);
+        }
+
+        return new AnnotationVerifier(Collections.unmodifiableList(res), null,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a verifier of the same rules that loads annotation types through the <code>classLoader</code>.  The
+     * loader must resolve the annotation types of the rules to the same classes as the rules use.
+     * @param loader loader of the annotation types and of the classes referenced by annotation values
+     * @return the verifier
+     */
+    public AnnotationVerifier withClassLoader(ClassLoader loader) {
+        if (loader == null) {
+            throw new IllegalArgumentException("Class loader is null");
+        }
+
+        return new AnnotationVerifier(rules, loader, parallelism);
+    }
+
+    /**
+     * Create a verifier of the same rules that checks classes on the given number of threads.
+     * @param threads number of threads, at least one
+     * @return the verifier
+     */
+    public AnnotationVerifier withParallelism(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Parallelism " + threads + " is not positive");
+        }
+
+        return new AnnotationVerifier(rules, classLoader, threads);
+    }
+
+    /**
+     * Verify every class of a class path.
+     * @param classPath directories and jars separated by {@link File#pathSeparator}, as in {@code java.class.path}
+     * @return every violation of every rule, ordered by class name
+     * @throws IOException if a directory or jar can not be read
+     */
+    public List<RuleViolation> verify(String classPath) throws IOException {
+        List<File> roots = new ArrayList<File>();
+
+        for (String root : classPath.split(File.pathSeparator)) {
+            if (!root.isEmpty()) {
+                roots.add(new File(root));
+            }
+        }
+
+        return verify(roots);
+    }
+
+    /**
+     * Verify every class found in directories and jars.  Entries that do not exist are skipped, as by the JVM.
+     * @param roots directories and jars to scan
+     * @return every violation of every rule, ordered by class name
+     * @throws IOException if a directory or jar can not be read
+     */
+    public List<RuleViolation> verify(File... roots) throws IOException {
+        return verify(Arrays.asList(roots));
+    }
+
+    /**
+     * Verify every class found in directories and jars.  Entries that do not exist are skipped, as by the JVM.
+     * @param roots directories and jars to scan
+     * @return every violation of every rule, ordered by class name
+     * @throws IOException if a directory or jar can not be read
+     */
+    public List<RuleViolation> verify(Iterable<File> roots) throws IOException {
+        List<ZipFile> jars = new ArrayList<ZipFile>();
+        Scan scan = new Scan(loaderOf());
+
+        try {
+            List<ScanTask> tasks = new ArrayList<ScanTask>();
+
+            for (File root : roots) {
+                if (root.isDirectory()) {
+                    tasks.add(new DirectoryTask(root.toPath(), scan));
+                } else if (root.isFile()) {
+                    tasks.add(new SourcesTask(jarSources(root, jars), scan));
+                }
+            }
+
+            List<RuleViolation> res = invoke(new ForkTask(tasks));
+
+            // tasks are joined in fork order, a class is always checked by a single task in rule order
+            Collections.sort(res, BY_CLASS);
+
+            return res;
+        } finally {
+            // the pool has terminated, no thread uses an inflater any more even if a task failed
+            scan.end();
+            for (ZipFile jar : jars) {
+                jar.close();
+            }
+        }
+    }
+
+    /**
+     * Verify every class of an index, such as one kept up to date by {@link AnnotationIndex#build(Iterable, File)}
+     * between builds, so only the classes changed since are read from their class files.  Classes are decoded from
+     * the index in parallel and their annotation types loaded through the loader the index was opened with.
+     * @param index the index
+     * @return every violation of every rule, ordered by class name
+     * @throws IOException if the verification is interrupted
+     * @throws IllegalStateException if the index is corrupt
+     */
+    public List<RuleViolation> verify(AnnotationIndex index) throws IOException {
+        List<RuleViolation> res = invoke(new IndexTask(index, 0, index.size()));
+
+        // classes are indexed by name, the violations of a class are in rule order
+        Collections.sort(res, BY_CLASS);
+
+        return res;
+    }
+
+    /**
+     * Verify a single class.
+     * @param classFile the class
+     * @param location class file the class was read from
+     * @return every violation of every rule, in rule order
+     */
+    List<RuleViolation> verify(ClassFile classFile, String location) {
+        List<RuleViolation> res = new ArrayList<RuleViolation>();
+
+        for (AnnotationRule rule : rules) {
+            rule.check(classFile, location, res);
+        }
+
+        return res;
+    }
+
+    private ClassLoader loaderOf() {
+        if (classLoader != null) {
+            return classLoader;
+        }
+
+        ClassLoader res = Thread.currentThread().getContextClassLoader();
+
+        if (res == null) {
+            res = AnnotationVerifier.class.getClassLoader();
+        }
+
+        return res;
+    }
+
+    private List<RuleViolation> invoke(ScanTask task) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Verification was interrupted");
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } finally {
+            pool.shutdownNow();
+            awaitTermination(pool);
+        }
+    }
+
+    /**
+     * Wait for the tasks still running after one of them failed, so the resources they use can be released.
+     */
+    private static void awaitTermination(ForkJoinPool pool) {
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static IOException rethrow(Throwable cause) {
+        // a fork/join pool may wrap the exception of a task once more for the thread joining it
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof ScanException) {
+                return ((ScanException) t).getIOException();
+            }
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new IllegalStateException(cause);
+    }
+
+    private static List<Source> jarSources(File root, List<ZipFile> jars) throws IOException {
+        List<Source> res = new ArrayList<Source>();
+
+        try {
+            MappedJar jar = MappedJar.map(root);
+
+            for (int i = 0; i < jar.size(); i++) {
+                res.add(new MappedSource(jar, i));
+            }
+
+            return res;
+        } catch (ZipException e) {
+            // not a jar the mapped reader supports, such as a zip64 archive, or not a jar at all
+            ZipFile jar = new ZipFile(root);
+
+            jars.add(jar);
+
+            return zipSources(root, jar);
+        }
+    }
+
+    private static List<Source> zipSources(File root, ZipFile jar) {
+        List<Source> res = new ArrayList<Source>();
+        Enumeration<? extends ZipEntry> entries = jar.entries();
+
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+
+            if (!entry.isDirectory() && !entry.getName().startsWith(META_INF) && isClassFile(entry.getName())) {
+                res.add(new ZipSource(root, jar, entry));
+            }
+        }
+
+        return res;
+    }
+
+    private static boolean isClassFile(String name) {
+        return name.endsWith(CLASS_SUFFIX) && !name.endsWith(INFO_SUFFIX);
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        try {
+            ByteArrayOutputStream res = new ByteArrayOutputStream(BUFFER_SIZE);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int count = in.read(buffer);
+
+            while (count != -1) {
+                res.write(buffer, 0, count);
+                count = in.read(buffer);
+            }
+
+            return res.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Carries an {@link IOException} out of a task, whose compute method can not throw it.
+     */
+    private static final class ScanException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ScanException(IOException cause) {
+            super(cause);
+        }
+
+        IOException getIOException() {
+            return (IOException) getCause();
+        }
+    }
+
+    /**
+     * A part of the scan, returning the violations of the classes it covers in a deterministic order.
+     */
+    private abstract static class ScanTask extends RecursiveTask<List<RuleViolation>> {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Fork the subtasks, compute the last on this thread and join the others in fork order.
+         */
+        static List<RuleViolation> forkAll(List<ScanTask> tasks) {
+            List<RuleViolation> res = new ArrayList<RuleViolation>();
+
+            if (tasks.isEmpty()) {
+                return res;
+            }
+
+            int last = tasks.size() - 1;
+
+            for (int i = 0; i < last; i++) {
+                tasks.get(i).fork();
+            }
+
+            List<RuleViolation> tail = tasks.get(last).compute();
+
+            for (int i = 0; i < last; i++) {
+                res.addAll(tasks.get(i).join());
+            }
+            res.addAll(tail);
+
+            return res;
+        }
+    }
+
+    /**
+     * Scans independent parts of the class path.
+     */
+    private static final class ForkTask extends ScanTask {
+        private static final long serialVersionUID = 1L;
+
+        private final List<ScanTask> tasks;
+
+        ForkTask(List<ScanTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected List<RuleViolation> compute() {
+            return forkAll(tasks);
+        }
+    }
+
+    /**
+     * Scans a directory, forking a task for each subdirectory and for the class files it contains.
+     */
+    private final class DirectoryTask extends ScanTask {
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+        private final Scan scan;
+
+        DirectoryTask(Path directory, Scan scan) {
+            this.directory = directory;
+            this.scan = scan;
+        }
+
+        @Override
+        protected List<RuleViolation> compute() {
+            List<Path> children = new ArrayList<Path>();
+
+            try {
+                DirectoryStream<Path> stream = Files.newDirectoryStream(directory);
+
+                try {
+                    for (Path child : stream) {
+                        children.add(child);
+                    }
+                } finally {
+                    stream.close();
+                }
+            } catch (IOException e) {
+                throw new ScanException(e);
+            }
+
+            // directories list their entries in no particular order
+            Collections.sort(children, BY_NAME);
+
+            List<ScanTask> tasks = new ArrayList<ScanTask>();
+            List<Source> sources = new ArrayList<Source>();
+
+            for (Path child : children) {
+                // links to directories are not followed, they may lead back up the tree
+                if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                    tasks.add(new DirectoryTask(child, scan));
+                } else if (isClassFile(child.getFileName().toString())) {
+                    sources.add(new FileSource(child));
+                }
+            }
+            tasks.add(0, new SourcesTask(sources, scan));
+
+            return forkAll(tasks);
+        }
+    }
+
+    /**
+     * Reads, parses and checks a run of class files, splitting runs longer than {@link #SPLIT_THRESHOLD} in halves.
+     */
+    private final class SourcesTask extends ScanTask {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Source> sources;
+        private final Scan scan;
+
+        SourcesTask(List<Source> sources, Scan scan) {
+            this.sources = sources;
+            this.scan = scan;
+        }
+
+        @Override
+        protected List<RuleViolation> compute() {
+            if (sources.size() > SPLIT_THRESHOLD) {
+                int middle = sources.size() / 2;
+
+                return forkAll(Arrays.<ScanTask>asList(new SourcesTask(sources.subList(0, middle), scan),
+                        new SourcesTask(sources.subList(middle, sources.size()), scan)));
+            }
+
+            List<RuleViolation> res = new ArrayList<RuleViolation>();
+
+            for (Source source : sources) {
+                ClassFile classFile;
+
+                try {
+                    classFile = ClassFile.read(source.read(scan), scan.loader);
+                } catch (IOException e) {
+                    throw new ScanException(e);
+                } catch (IllegalArgumentException e) {
+                    res.add(new RuleViolation(UNREADABLE, source.getLocation(), "class file", source.getLocation(),
+                            e.getMessage()));
+                    continue;
+                }
+
+                res.addAll(verify(classFile, source.getLocation()));
+            }
+
+            return res;
+        }
+    }
+
+    /**
+     * Decodes and checks a range of the classes of an index, splitting ranges longer than {@link #SPLIT_THRESHOLD}
+     * in halves.
+     */
+    private final class IndexTask extends ScanTask {
+        private static final long serialVersionUID = 1L;
+
+        private final AnnotationIndex index;
+        private final int from;
+        private final int to;
+
+        IndexTask(AnnotationIndex index, int from, int to) {
+            this.index = index;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<RuleViolation> compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+
+                return forkAll(Arrays.<ScanTask>asList(new IndexTask(index, from, middle),
+                        new IndexTask(index, middle, to)));
+            }
+
+            List<RuleViolation> res = new ArrayList<RuleViolation>();
+
+            for (int i = from; i < to; i++) {
+                ClassSource source = index.getSource(i);
+                String location = index.toString();
+
+                if (source != null) {
+                    location = source.getLocation();
+                }
+
+                res.addAll(verify(index.getClass(i), location));
+            }
+
+            return res;
+        }
+    }
+
+    /**
+     * State shared by the tasks of a scan.
+     */
+    private static final class Scan {
+        private final ClassLoader loader;
+        private final Queue<MappedJar.Inflation> inflations = new ConcurrentLinkedQueue<MappedJar.Inflation>();
+        private final ThreadLocal<MappedJar.Inflation> inflation = new ThreadLocal<MappedJar.Inflation>();
+
+        Scan(ClassLoader loader) {
+            this.loader = loader;
+        }
+
+        /**
+         * Get the inflater and buffers of the current thread, created when the thread first inflates an entry.
+         */
+        MappedJar.Inflation inflation() {
+            MappedJar.Inflation res = inflation.get();
+
+            if (res == null) {
+                res = new MappedJar.Inflation();
+                inflation.set(res);
+                inflations.add(res);
+            }
+
+            return res;
+        }
+
+        /**
+         * Release the inflaters of every thread, once none of them is in use.
+         */
+        void end() {
+            for (MappedJar.Inflation res : inflations) {
+                res.end();
+            }
+        }
+    }
+
+    /**
+     * A class file found by the scan.
+     */
+    private abstract static class Source {
+        abstract String getLocation();
+
+        /**
+         * Read the class file, the buffer is only valid until the thread reads the next class file.
+         */
+        abstract ByteBuffer read(Scan scan) throws IOException;
+    }
+
+    /**
+     * A class file in a directory.
+     */
+    private static final class FileSource extends Source {
+        private final Path file;
+
+        FileSource(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        String getLocation() {
+            return file.toString();
+        }
+
+        @Override
+        ByteBuffer read(Scan scan) throws IOException {
+            return ByteBuffer.wrap(Files.readAllBytes(file));
+        }
+    }
+
+    /**
+     * A class file in a mapped jar.
+     */
+    private static final class MappedSource extends Source {
+        private final MappedJar jar;
+        private final int index;
+
+        MappedSource(MappedJar jar, int index) {
+            this.jar = jar;
+            this.index = index;
+        }
+
+        @Override
+        String getLocation() {
+            return jar.getLocation(index);
+        }
+
+        @Override
+        ByteBuffer read(Scan scan) throws IOException {
+            return jar.read(index, scan.inflation());
+        }
+    }
+
+    /**
+     * A class file in a jar read through {@link ZipFile}.
+     */
+    private static final class ZipSource extends Source {
+        private final File root;
+        private final ZipFile jar;
+        private final ZipEntry entry;
+
+        ZipSource(File root, ZipFile jar, ZipEntry entry) {
+            this.root = root;
+            this.jar = jar;
+            this.entry = entry;
+        }
+
+        @Override
+        String getLocation() {
+            return root + "!/" + entry.getName();
+        }
+
+        @Override
+        ByteBuffer read(Scan scan) throws IOException {
+            return ByteBuffer.wrap(readFully(jar.getInputStream(entry)));
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A class read from its class file rather than loaded.  Class files can be matched by the matchers of
+ * {@link AnnotationMatchers} and by {@link AnnotationSpec}s exactly as an instance of the class would be, without the
+ * class ever being loaded or initialized.  Only the annotation types, and the classes and enums annotation values refer to, are loaded, and
+ * only when an annotated element is first examined.
+ * <p>
+ * The class file records the annotations the class declares, so annotations a class inherits from its
+ * superclasses through {@link java.lang.annotation.Inherited} are not seen.
+ * </p>
+ * <p>
+ * For example:
+ * <pre>assertThat(ClassFile.read(bytes), fieldAnnotatedWith(Column.class, "notes"))</pre>
+ * </p>
+ */
+public final class ClassFile {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ClassFileMetadata metadata;
+
+    /**
+     * Wrap metadata read from a class file or from an {@link AnnotationIndex}.
+     * @param metadata metadata of the class
+     */
+    ClassFile(ClassFileMetadata metadata) {
+        this.metadata = metadata;
+    }
+
+    /**
+     * Read a class file, loading annotation types through the context class loader of the current thread.
+     * @param bytes contents of the class file
+     * @return the class described by the class file
+     * @throws IllegalArgumentException if the bytes are not a well formed class file
+     */
+    public static ClassFile read(byte[] bytes) {
+        return read(bytes, defaultClassLoader());
+    }
+
+    /**
+     * Read a class file, loading annotation types through the <code>classLoader</code>.
+     * @param bytes contents of the class file
+     * @param classLoader loader of the annotation types and of the classes referenced by annotation values
+     * @return the class described by the class file
+     * @throws IllegalArgumentException if the bytes are not a well formed class file
+     */
+    public static ClassFile read(byte[] bytes, ClassLoader classLoader) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("Class file is null");
+        }
+        if (classLoader == null) {
+            throw new IllegalArgumentException("Class loader is null");
+        }
+
+        return new ClassFile(ClassFileParser.parse(bytes, classLoader));
+    }
+
+    /**
+     * Read a class file held between the position and the limit of a buffer, loading annotation types through the
+     * <code>classLoader</code>.  The buffer, which may be a mapped file, is only read during the call and its
+     * position is left unchanged.
+     * @param bytes contents of the class file
+     * @param classLoader loader of the annotation types and of the classes referenced by annotation values
+     * @return the class described by the class file
+     * @throws IllegalArgumentException if the bytes are not a well formed class file
+     */
+    public static ClassFile read(ByteBuffer bytes, ClassLoader classLoader) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("Class file is null");
+        }
+        if (classLoader == null) {
+            throw new IllegalArgumentException("Class loader is null");
+        }
+
+        return new ClassFile(ClassFileParser.parse(bytes, classLoader));
+    }
+
+    /**
+     * Read a class file from a stream, loading annotation types through the <code>classLoader</code>.  The stream
+     * is read to its end but not closed.
+     * @param in stream of the contents of the class file
+     * @param classLoader loader of the annotation types and of the classes referenced by annotation values
+     * @return the class described by the class file
+     * @throws IOException if the stream can not be read
+     * @throws IllegalArgumentException if the stream does not hold a well formed class file
+     */
+    public static ClassFile read(InputStream in, ClassLoader classLoader) throws IOException {
+        return read(readFully(in), classLoader);
+    }
+
+    /**
+     * Start describing a class from what is known of it without its class file, such as the elements an annotation
+     * processor sees, so it can be written to an {@link AnnotationIndexWriter}.  Annotation types are loaded through
+     * the context class loader of the current thread when the class is matched.
+     * @param name binary name of the class
+     * @param superclassName binary name of the superclass, null for {@link Object}
+     * @param interfaceNames binary names of the directly implemented interfaces, in declaration order
+     * @return builder of the class
+     * @throws IllegalArgumentException if the name or the interface names are null
+     */
+    public static Builder builder(String name, String superclassName, List<String> interfaceNames) {
+        if (name == null) {
+            throw new IllegalArgumentException("Class name is null");
+        }
+        if (interfaceNames == null) {
+            throw new IllegalArgumentException("Interface names are null");
+        }
+
+        return new Builder(ClassFileMetadata.builder(name, superclassName,
+                Collections.unmodifiableList(new ArrayList<String>(interfaceNames)), defaultClassLoader()));
+    }
+
+    /**
+     * Read a stream to its end without closing it.
+     * @param in stream to read
+     * @return the bytes read
+     * @throws IOException if the stream can not be read
+     */
+    static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int count = in.read(buffer);
+
+        while (count != -1) {
+            bytes.write(buffer, 0, count);
+            count = in.read(buffer);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Get the binary name of the class, as returned by {@link Class#getName()}.
+     * @return class name
+     */
+    public String getName() {
+        return metadata.getName();
+    }
+
+    /**
+     * Get the binary name of the superclass.
+     * @return superclass name or null if the class file describes {@link Object} or a module
+     */
+    public String getSuperclassName() {
+        return metadata.getSuperclassName();
+    }
+
+    /**
+     * Get the binary names of the interfaces the class directly implements, in declaration order.
+     * @return unmodifiable list of interface names
+     */
+    public List<String> getInterfaceNames() {
+        return metadata.getInterfaceNames();
+    }
+
+    /**
+     * Get the annotation metadata read from the class file.
+     * @return class metadata
+     */
+    TypeMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public String toString() {
+        return "class file of " + getName();
+    }
+
+    private static ClassLoader defaultClassLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+        if (classLoader == null) {
+            classLoader = ClassFile.class.getClassLoader();
+        }
+
+        return classLoader;
+    }
+
+    /**
+     * Collects the members of a class and their annotations, recorded as a class file records them.  Members are
+     * identified by their keys, the member name for fields, otherwise the member name followed by the class file
+     * descriptor of the parameter types, such as {@code copy([ILjava/lang/String;)}, with {@code <init>} as the name
+     * of constructors.  Annotations are those retained at runtime, and the parameter annotations of a constructor
+     * include an empty entry for each parameter the compiler adds, such as the enclosing instance of an inner class.
+     */
+    public static final class Builder {
+        private final ClassFileMetadata.Builder metadata;
+
+        private Builder(ClassFileMetadata.Builder metadata) {
+            this.metadata = metadata;
+        }
+
+        /**
+         * Add a declared field.
+         * @param name name of the field
+         * @param access access flags of the field
+         * @param annotations annotations of the field
+         * @return this builder
+         */
+        public Builder field(String name, int access, AnnotationRecord... annotations) {
+            metadata.addField(name, access, AnnotationRecord.dataOf(annotations));
+            return this;
+        }
+
+        /**
+         * Add a declared method.
+         * @param key name of the method followed by the descriptor of its parameter types
+         * @param access access flags of the method
+         * @param annotations annotations of the method
+         * @param parameterAnnotations annotations of each parameter
+         * @return this builder
+         */
+        public Builder method(String key, int access, AnnotationRecord[] annotations,
+                              AnnotationRecord[]... parameterAnnotations) {
+            metadata.addMethod(key, access, AnnotationRecord.dataOf(annotations), dataOf(parameterAnnotations));
+            return this;
+        }
+
+        /**
+         * Add a declared constructor.
+         * @param key {@code <init>} followed by the descriptor of the constructor's parameter types
+         * @param access access flags of the constructor
+         * @param annotations annotations of the constructor
+         * @param parameterAnnotations annotations of each parameter
+         * @return this builder
+         */
+        public Builder constructor(String key, int access, AnnotationRecord[] annotations,
+                                   AnnotationRecord[]... parameterAnnotations) {
+            metadata.addConstructor(key, access, AnnotationRecord.dataOf(annotations), dataOf(parameterAnnotations));
+            return this;
+        }
+
+        /**
+         * Complete the class.
+         * @param annotations annotations of the class, including those inherited from its superclasses if they
+         *                    should be seen as {@link Class#getAnnotations()} reports them
+         * @return the class
+         */
+        public ClassFile build(AnnotationRecord... annotations) {
+            return new ClassFile(metadata.build(AnnotationRecord.dataOf(annotations)));
+        }
+
+        private static AnnotationData[][] dataOf(AnnotationRecord[][] parameterAnnotations) {
+            AnnotationData[][] res = new AnnotationData[parameterAnnotations.length][];
+
+            for (int i = 0; i < res.length; i++) {
+                res[i] = AnnotationRecord.dataOf(parameterAnnotations[i]);
+            }
+
+            return res;
+        }
+    }
+}
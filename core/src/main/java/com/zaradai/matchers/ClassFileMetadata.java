@@ -0,0 +1,468 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Annotation metadata of a class read from its class file by {@link ClassFileParser}.  The annotations of each
+ * element are kept as recorded in the class file until the element is first looked up, then materialized as
+ * {@link SyntheticAnnotation}s so the matchers evaluate them exactly as annotations read through reflection.  The
+ * metadata of a {@link TypeDescriptor} is given its annotations already materialized instead.  The described class
+ * is never loaded, only the annotation types and the classes their values refer to are.  As the class file only
+ * records declared annotations, annotations inherited from superclasses are not included in the class level
+ * metadata.
+ */
+final class ClassFileMetadata extends TypeMetadata {
+    private static final int ACC_BRIDGE = 0x0040;
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    private final String name;
+    private final String superclassName;
+    private final List<String> interfaceNames;
+    private final ClassLoader classLoader;
+    private final Element type;
+    private final Map<String, Element> fields;
+    private final Map<String, Element> methods;
+    private final Map<String, Element> constructors;
+    private final Class<?> loadedClass;
+
+    private ClassFileMetadata(Builder builder, Element type) {
+        this.name = builder.name;
+        this.superclassName = builder.superclassName;
+        this.interfaceNames = Collections.unmodifiableList(builder.interfaceNames);
+        this.classLoader = builder.classLoader;
+        this.type = type;
+        this.fields = builder.fields;
+        this.methods = builder.methods;
+        this.constructors = builder.constructors;
+        this.loadedClass = null;
+    }
+
+    private ClassFileMetadata(ClassFileMetadata metadata, Class<?> loadedClass) {
+        this.name = metadata.name;
+        this.superclassName = metadata.superclassName;
+        this.interfaceNames = metadata.interfaceNames;
+        this.classLoader = metadata.classLoader;
+        this.type = metadata.type;
+        this.fields = metadata.fields;
+        this.methods = metadata.methods;
+        this.constructors = metadata.constructors;
+        this.loadedClass = loadedClass;
+    }
+
+    /**
+     * Start collecting the metadata of a class.
+     * @param name binary name of the class
+     * @param superclassName binary name of the superclass, null for {@link Object} and modules
+     * @param interfaceNames binary names of the directly implemented interfaces
+     * @param classLoader loader of the annotation types and of the classes referenced by annotation values
+     * @return builder of the metadata
+     */
+    static Builder builder(String name, String superclassName, List<String> interfaceNames,
+                           ClassLoader classLoader) {
+        return new Builder(name, superclassName, interfaceNames, classLoader);
+    }
+
+    /**
+     * Get the same metadata as describing a loaded class, such as the metadata recorded for the class at compile
+     * time.  The class level annotations the class declares are then read from the class where they are needed.
+     * @param type the class described
+     * @return metadata sharing the recorded annotations of this one
+     */
+    ClassFileMetadata describing(Class<?> type) {
+        return new ClassFileMetadata(this, type);
+    }
+
+    @Override
+    String getName() {
+        return name;
+    }
+
+    @Override
+    Class<?> getLoadedClass() {
+        return loadedClass;
+    }
+
+    /**
+     * Get the binary name of the superclass.
+     * @return superclass name or null if the class has none
+     */
+    String getSuperclassName() {
+        return superclassName;
+    }
+
+    /**
+     * Get the binary names of the interfaces the class directly implements, in declaration order.
+     * @return unmodifiable list of interface names
+     */
+    List<String> getInterfaceNames() {
+        return interfaceNames;
+    }
+
+    @Override
+    ElementMetadata getTypeMetadata() {
+        return type.getMetadata(classLoader);
+    }
+
+    @Override
+    ElementMetadata findMember(MemberSignature signature) {
+        return findMember(signature.getKind(), signature.getDescriptor());
+    }
+
+    @Override
+    int getModifiers(MemberSignature signature) {
+        Element element = membersOf(signature.getKind()).get(signature.getDescriptor());
+
+        if (element == null) {
+            return 0;
+        }
+
+        // the class file records the access and static flags with the same values as Modifier
+        return element.access & ACCESS_MODIFIERS;
+    }
+
+    @Override
+    List<MemberSignature> getBridges(MemberSignature signature) {
+        if (loadedClass != null) {
+            // a descriptor generated at compile time records no bridge methods, the loaded class has them
+            return ClassMetadata.forClass(loadedClass).getBridges(signature);
+        }
+
+        List<MemberSignature> bridges = new ArrayList<MemberSignature>();
+        List<MemberSignature> declared = new ArrayList<MemberSignature>();
+
+        if (signature.getKind() == MemberSignature.Kind.METHOD) {
+            String prefix = signature.getName() + "(";
+
+            for (Map.Entry<String, Element> entry : methods.entrySet()) {
+                if (!entry.getKey().startsWith(prefix)) {
+                    continue;
+                }
+
+                Class<?>[] parameterTypes = parameterTypesOf(entry.getKey());
+
+                if (parameterTypes == null) {
+                    continue;
+                }
+                if ((entry.getValue().access & ACC_BRIDGE) != 0) {
+                    bridges.add(MemberSignature.method(signature.getName(), parameterTypes));
+                } else if ((entry.getValue().access & ACC_SYNTHETIC) == 0) {
+                    declared.add(MemberSignature.method(signature.getName(), parameterTypes));
+                }
+            }
+        }
+
+        return bridgesOf(signature, bridges, declared);
+    }
+
+    /**
+     * Get the keys of the members of a kind the class declares in source, leaving out the members the compiler
+     * generated.  Keys are sorted so members are always visited in the same order.
+     * @param kind kind of member
+     * @return the member name for fields, otherwise the member name followed by the descriptor of its parameter
+     * types, see {@link MemberSignature#getDescriptor()}
+     */
+    List<String> getMemberKeys(MemberSignature.Kind kind) {
+        List<String> res = new ArrayList<String>();
+
+        for (Map.Entry<String, Element> entry : membersOf(kind).entrySet()) {
+            if ((entry.getValue().access & ACC_SYNTHETIC) == 0) {
+                res.add(entry.getKey());
+            }
+        }
+
+        Collections.sort(res);
+
+        return res;
+    }
+
+    /**
+     * Get the metadata of a declared member by its key.
+     * @param kind kind of member
+     * @param key key of the member as returned by {@link #getMemberKeys(MemberSignature.Kind)}
+     * @return member metadata or null if the class does not declare the member
+     */
+    ElementMetadata findMember(MemberSignature.Kind kind, String key) {
+        Element element = membersOf(kind).get(key);
+
+        if (element == null) {
+            return null;
+        }
+
+        return element.getMetadata(classLoader);
+    }
+
+    /**
+     * Get the class loader annotation types are loaded through.
+     * @return class loader of the metadata
+     */
+    ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * Get the annotations recorded for the class itself.
+     * @return class element
+     */
+    Element getType() {
+        return type;
+    }
+
+    /**
+     * Get every member of a kind as recorded, including the members the compiler generated.
+     * @param kind kind of member
+     * @return unmodifiable map of members by key, see {@link #getMemberKeys(MemberSignature.Kind)}
+     */
+    Map<String, Element> getElements(MemberSignature.Kind kind) {
+        return Collections.unmodifiableMap(membersOf(kind));
+    }
+
+    private Class<?>[] parameterTypesOf(String key) {
+        List<String> descriptors = ClassFileParser.parameterDescriptors(key);
+        Class<?>[] res = new Class<?>[descriptors.size()];
+
+        try {
+            for (int i = 0; i < res.length; i++) {
+                res[i] = new AnnotationData.ClassReference(descriptors.get(i)).resolve(classLoader);
+            }
+        } catch (ClassNotFoundException e) {
+            // a method whose parameter types can not be loaded is not compared with the others
+            return null;
+        }
+
+        return res;
+    }
+
+    private Map<String, Element> membersOf(MemberSignature.Kind kind) {
+        if (kind == MemberSignature.Kind.FIELD) {
+            return fields;
+        }
+        if (kind == MemberSignature.Kind.METHOD) {
+            return methods;
+        }
+
+        return constructors;
+    }
+
+    /**
+     * The annotations recorded for an element and its lazily materialized metadata.
+     */
+    static final class Element {
+        private final AnnotationData[] annotations;
+        private final AnnotationData[][] parameterAnnotations;
+        private final int access;
+        private volatile ElementMetadata metadata;
+
+        /**
+         * Record an element.
+         * @param annotations annotations recorded for the element
+         * @param parameterAnnotations annotations recorded for each formal parameter, null if it has none
+         * @param access access flags of the element
+         */
+        Element(AnnotationData[] annotations, AnnotationData[][] parameterAnnotations, int access) {
+            this.annotations = annotations;
+            this.parameterAnnotations = parameterAnnotations;
+            this.access = access;
+        }
+
+        /**
+         * Record an element whose annotations are already materialized, such as those of a {@link TypeDescriptor}.
+         * @param metadata metadata of the element
+         * @param access access flags of the element
+         */
+        Element(ElementMetadata metadata, int access) {
+            this.annotations = null;
+            this.parameterAnnotations = null;
+            this.access = access;
+            this.metadata = metadata;
+        }
+
+        /**
+         * Get the annotations recorded for the element.
+         * @return annotation data, not to be modified, or null if the annotations were given materialized
+         */
+        AnnotationData[] getAnnotations() {
+            return annotations;
+        }
+
+        /**
+         * Get the annotations recorded for each formal parameter.
+         * @return annotation data, not to be modified, or null if the element has no parameters
+         */
+        AnnotationData[][] getParameterAnnotations() {
+            return parameterAnnotations;
+        }
+
+        /**
+         * Get the access flags of the element.
+         * @return access flags as recorded in the class file
+         */
+        int getAccess() {
+            return access;
+        }
+
+        /**
+         * Get the metadata of the element, materializing its annotations on first use.
+         * @param classLoader loader of the annotation types
+         * @return element metadata
+         */
+        ElementMetadata getMetadata(ClassLoader classLoader) {
+            ElementMetadata res = metadata;
+
+            if (res == null) {
+                res = new ElementMetadata(SyntheticAnnotation.materialize(annotations, classLoader),
+                        materializeParameters(classLoader));
+                metadata = res;
+            }
+
+            return res;
+        }
+
+        private Annotation[][] materializeParameters(ClassLoader classLoader) {
+            if (parameterAnnotations == null) {
+                return ElementMetadata.NO_PARAMETER_ANNOTATIONS;
+            }
+
+            Annotation[][] res = new Annotation[parameterAnnotations.length][];
+
+            for (int i = 0; i < res.length; i++) {
+                res[i] = SyntheticAnnotation.materialize(parameterAnnotations[i], classLoader);
+            }
+
+            return res;
+        }
+    }
+
+    /**
+     * Collects the elements of a class as they are read from its class file.
+     */
+    static final class Builder {
+        private final String name;
+        private final String superclassName;
+        private final List<String> interfaceNames;
+        private final ClassLoader classLoader;
+        private final Map<String, Element> fields;
+        private final Map<String, Element> methods;
+        private final Map<String, Element> constructors;
+
+        private Builder(String name, String superclassName, List<String> interfaceNames, ClassLoader classLoader) {
+            this.name = name;
+            this.superclassName = superclassName;
+            this.interfaceNames = interfaceNames;
+            this.classLoader = classLoader;
+            this.fields = new HashMap<String, Element>();
+            this.methods = new HashMap<String, Element>();
+            this.constructors = new HashMap<String, Element>();
+        }
+
+        /**
+         * Add a declared field.
+         * @param fieldName name of the field
+         * @param access access flags of the field
+         * @param annotations annotations recorded for the field
+         */
+        void addField(String fieldName, int access, AnnotationData[] annotations) {
+            fields.put(fieldName, new Element(annotations, null, access));
+        }
+
+        /**
+         * Add a declared method.  As with {@link Class#getDeclaredMethod(String, Class[])}, a method is preferred
+         * over the bridge methods the compiler generated with the same parameter types.
+         * @param key name of the method followed by the descriptor of its parameter types
+         * @param access access flags of the method
+         * @param annotations annotations recorded for the method
+         * @param parameterAnnotations annotations recorded for each formal parameter
+         */
+        void addMethod(String key, int access, AnnotationData[] annotations,
+                       AnnotationData[][] parameterAnnotations) {
+            Element existing = methods.get(key);
+
+            if (existing == null || (existing.access & ACC_BRIDGE) != 0) {
+                methods.put(key, new Element(annotations, parameterAnnotations, access));
+            }
+        }
+
+        /**
+         * Add a declared constructor.
+         * @param key {@code <init>} followed by the descriptor of the constructor's parameter types
+         * @param access access flags of the constructor
+         * @param annotations annotations recorded for the constructor
+         * @param parameterAnnotations annotations recorded for each formal parameter
+         */
+        void addConstructor(String key, int access, AnnotationData[] annotations,
+                            AnnotationData[][] parameterAnnotations) {
+            constructors.put(key, new Element(annotations, parameterAnnotations, access));
+        }
+
+        /**
+         * Add a declared field whose annotations are already materialized.
+         * @param fieldName name of the field
+         * @param access access flags of the field
+         * @param annotations annotations of the field
+         */
+        void addField(String fieldName, int access, Annotation[] annotations) {
+            fields.put(fieldName, new Element(new ElementMetadata(annotations,
+                    ElementMetadata.NO_PARAMETER_ANNOTATIONS), access));
+        }
+
+        /**
+         * Add a declared method whose annotations are already materialized.
+         * @param key name of the method followed by the descriptor of its parameter types
+         * @param access access flags of the method
+         * @param annotations annotations of the method
+         * @param parameterAnnotations annotations of each formal parameter
+         */
+        void addMethod(String key, int access, Annotation[] annotations, Annotation[][] parameterAnnotations) {
+            methods.put(key, new Element(new ElementMetadata(annotations, parameterAnnotations), access));
+        }
+
+        /**
+         * Add a declared constructor whose annotations are already materialized.
+         * @param key {@code <init>} followed by the descriptor of the constructor's parameter types
+         * @param access access flags of the constructor
+         * @param annotations annotations of the constructor
+         * @param parameterAnnotations annotations of each formal parameter
+         */
+        void addConstructor(String key, int access, Annotation[] annotations, Annotation[][] parameterAnnotations) {
+            constructors.put(key, new Element(new ElementMetadata(annotations, parameterAnnotations), access));
+        }
+
+        /**
+         * Complete the metadata.
+         * @param annotations annotations recorded for the class itself
+         * @return metadata of the class
+         */
+        ClassFileMetadata build(AnnotationData[] annotations) {
+            return new ClassFileMetadata(this, new Element(annotations, null, 0));
+        }
+
+        /**
+         * Complete the metadata with the already materialized annotations of the class itself.
+         * @param annotations annotations of the class
+         * @return metadata of the class
+         */
+        ClassFileMetadata build(Annotation[] annotations) {
+            return new ClassFileMetadata(this, new Element(new ElementMetadata(annotations,
+                    ElementMetadata.NO_PARAMETER_ANNOTATIONS), 0));
+        }
+    }
+}
@@ -0,0 +1,513 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the runtime visible annotations of a class, its fields, methods, constructors and their formal parameters
+ * straight from the bytes of a class file, following chapter 4 of the Java Virtual Machine Specification.  Only the
+ * constant pool, the member tables and the {@code RuntimeVisibleAnnotations} and
+ * {@code RuntimeVisibleParameterAnnotations} attributes are decoded, every other attribute is skipped by its
+ * length.  Nothing is loaded while parsing: annotations are recorded as {@link AnnotationData} and only materialized
+ * when a matcher looks at the element that carries them.
+ */
+final class ClassFileParser {
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+    private static final String RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS = "RuntimeVisibleParameterAnnotations";
+    private static final String CONSTRUCTOR_NAME = "<init>";
+    private static final String INITIALIZER_NAME = "<clinit>";
+
+    private static final AnnotationData[] NO_ANNOTATIONS = new AnnotationData[0];
+    private static final AnnotationData[][] NO_PARAMETER_ANNOTATIONS = new AnnotationData[0][];
+
+    private final ByteBuffer bytes;
+    private int position;
+    private int[] offsets;
+    private String[] strings;
+    private AnnotationData[] annotations;
+    private AnnotationData[][] parameterAnnotations;
+
+    private ClassFileParser(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Parse a class file.
+     * @param bytes contents of the class file
+     * @param classLoader loader of the annotation types and of the classes referenced by annotation values
+     * @return metadata of the class described by the class file
+     * @throws IllegalArgumentException if the bytes are not a well formed class file
+     */
+    static ClassFileMetadata parse(byte[] bytes, ClassLoader classLoader) {
+        return parse(ByteBuffer.wrap(bytes), classLoader);
+    }
+
+    /**
+     * Parse a class file held between the position and the limit of a buffer, such as a stored entry of a mapped
+     * jar.  The buffer is only read during the call, the metadata keeps no reference to it.
+     * @param bytes contents of the class file
+     * @param classLoader loader of the annotation types and of the classes referenced by annotation values
+     * @return metadata of the class described by the class file
+     * @throws IllegalArgumentException if the bytes are not a well formed class file
+     */
+    static ClassFileMetadata parse(ByteBuffer bytes, ClassLoader classLoader) {
+        try {
+            return new ClassFileParser(bytes.slice()).parseClass(classLoader);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated class file", e);
+        }
+    }
+
+    /**
+     * Convert the field descriptor of a class or interface, such as {@code Ljava/lang/String;}, to its binary name.
+     * @param descriptor field descriptor of a class or interface type
+     * @return binary name of the type
+     */
+    static String binaryName(String descriptor) {
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    /**
+     * Count the formal parameters in a method descriptor.
+     * @param descriptor method descriptor, such as {@code (I[Ljava/lang/String;)V}
+     * @return number of parameters
+     */
+    static int parameterCount(String descriptor) {
+        int res = 0;
+        int index = 1;
+
+        while (descriptor.charAt(index) != ')') {
+            while (descriptor.charAt(index) == '[') {
+                index++;
+            }
+            if (descriptor.charAt(index) == 'L') {
+                index = descriptor.indexOf(';', index);
+            }
+            index++;
+            res++;
+        }
+
+        return res;
+    }
+
+    /**
+     * Describe a method or constructor by its name and the source names of its parameter types.
+     * @param key member name followed by the descriptor of its parameter types, such as
+     *            {@code run(I[Ljava/lang/String;)}
+     * @return member name followed by its parameter types, such as {@code run(int, java.lang.String[])}
+     */
+    static String describeMember(String key) {
+        StringBuilder res = new StringBuilder(key.length()).append(key, 0, key.indexOf('(') + 1);
+        List<String> parameters = parameterDescriptors(key);
+
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                res.append(", ");
+            }
+            res.append(new AnnotationData.ClassReference(parameters.get(i)).getSourceName());
+        }
+
+        return res.append(')').toString();
+    }
+
+    /**
+     * Split the parameter types of a method or constructor into their field descriptors.
+     * @param key member name followed by the descriptor of its parameter types, such as
+     *            {@code run(I[Ljava/lang/String;)}
+     * @return field descriptor of each parameter type, such as {@code I} and {@code [Ljava/lang/String;}
+     */
+    static List<String> parameterDescriptors(String key) {
+        List<String> res = new ArrayList<String>();
+        int index = key.indexOf('(') + 1;
+
+        while (key.charAt(index) != ')') {
+            int end = index;
+
+            while (key.charAt(end) == '[') {
+                end++;
+            }
+            if (key.charAt(end) == 'L') {
+                end = key.indexOf(';', end);
+            }
+            end++;
+
+            res.add(key.substring(index, end));
+            index = end;
+        }
+
+        return res;
+    }
+
+    private ClassFileMetadata parseClass(ClassLoader classLoader) {
+        if (readInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+
+        // minor and major version, every version since 45.0 records annotations the same way
+        position += 4;
+        readConstantPool();
+        // access flags
+        position += 2;
+
+        String name = readClassName();
+        String superclassName = null;
+        int superclassIndex = readUnsignedShort();
+
+        if (superclassIndex != 0) {
+            superclassName = className(superclassIndex);
+        }
+
+        List<String> interfaceNames = new ArrayList<String>();
+
+        for (int i = readUnsignedShort(); i > 0; i--) {
+            interfaceNames.add(readClassName());
+        }
+
+        ClassFileMetadata.Builder builder = ClassFileMetadata.builder(name, superclassName, interfaceNames,
+                classLoader);
+
+        for (int i = readUnsignedShort(); i > 0; i--) {
+            readField(builder);
+        }
+        for (int i = readUnsignedShort(); i > 0; i--) {
+            readMethod(builder);
+        }
+
+        readAttributes();
+
+        return builder.build(annotations);
+    }
+
+    private void readField(ClassFileMetadata.Builder builder) {
+        int access = readUnsignedShort();
+        String name = utf8(readUnsignedShort());
+
+        // descriptor, fields are identified by name alone
+        position += 2;
+        readAttributes();
+        builder.addField(name, access, annotations);
+    }
+
+    private void readMethod(ClassFileMetadata.Builder builder) {
+        int access = readUnsignedShort();
+        String name = utf8(readUnsignedShort());
+        String descriptor = utf8(readUnsignedShort());
+
+        readAttributes();
+
+        if (INITIALIZER_NAME.equals(name)) {
+            return;
+        }
+
+        String key = name + descriptor.substring(0, descriptor.indexOf(')') + 1);
+        AnnotationData[][] parameters = alignParameters(parameterCount(descriptor));
+
+        if (CONSTRUCTOR_NAME.equals(name)) {
+            builder.addConstructor(key, access, annotations, parameters);
+        } else {
+            builder.addMethod(key, access, annotations, parameters);
+        }
+    }
+
+    private AnnotationData[][] alignParameters(int count) {
+        if (parameterAnnotations.length == count) {
+            return parameterAnnotations;
+        }
+        if (parameterAnnotations.length > count) {
+            throw new IllegalArgumentException("Annotations recorded for " + parameterAnnotations.length
+                    + " parameters of a method with " + count);
+        }
+
+        // javac records no annotations for the implicit leading parameters of inner class and enum constructors
+        AnnotationData[][] res = new AnnotationData[count][];
+        int implicit = count - parameterAnnotations.length;
+
+        for (int i = 0; i < implicit; i++) {
+            res[i] = NO_ANNOTATIONS;
+        }
+        System.arraycopy(parameterAnnotations, 0, res, implicit, parameterAnnotations.length);
+
+        return res;
+    }
+
+    private void readAttributes() {
+        annotations = NO_ANNOTATIONS;
+        parameterAnnotations = NO_PARAMETER_ANNOTATIONS;
+
+        for (int i = readUnsignedShort(); i > 0; i--) {
+            String name = utf8(readUnsignedShort());
+            int length = readInt();
+            int end = position + length;
+
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+                annotations = readAnnotations();
+            } else if (RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS.equals(name)) {
+                parameterAnnotations = readParameterAnnotations();
+            }
+
+            position = end;
+        }
+    }
+
+    private AnnotationData[][] readParameterAnnotations() {
+        AnnotationData[][] res = new AnnotationData[readUnsignedByte()][];
+
+        for (int i = 0; i < res.length; i++) {
+            res[i] = readAnnotations();
+        }
+
+        return res;
+    }
+
+    private AnnotationData[] readAnnotations() {
+        int count = readUnsignedShort();
+
+        if (count == 0) {
+            return NO_ANNOTATIONS;
+        }
+
+        AnnotationData[] res = new AnnotationData[count];
+
+        for (int i = 0; i < count; i++) {
+            res[i] = readAnnotation();
+        }
+
+        return res;
+    }
+
+    private AnnotationData readAnnotation() {
+        String typeName = binaryName(utf8(readUnsignedShort()));
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+
+        for (int i = readUnsignedShort(); i > 0; i--) {
+            String name = utf8(readUnsignedShort());
+
+            values.put(name, readElementValue());
+        }
+
+        return new AnnotationData(typeName, values);
+    }
+
+    private Object readElementValue() {
+        int tag = readUnsignedByte();
+
+        switch (tag) {
+            case 'B':
+                return (byte) integer(readUnsignedShort());
+            case 'C':
+                return (char) integer(readUnsignedShort());
+            case 'S':
+                return (short) integer(readUnsignedShort());
+            case 'Z':
+                return integer(readUnsignedShort()) != 0;
+            case 'I':
+                return integer(readUnsignedShort());
+            case 'J':
+                return longInteger(readUnsignedShort());
+            case 'F':
+                return Float.intBitsToFloat(integer(readUnsignedShort()));
+            case 'D':
+                return Double.longBitsToDouble(longInteger(readUnsignedShort()));
+            case 's':
+                return utf8(readUnsignedShort());
+            case 'e':
+                return readEnumConstant();
+            case 'c':
+                return new AnnotationData.ClassReference(utf8(readUnsignedShort()));
+            case '@':
+                return readAnnotation();
+            case '[':
+                return readArray();
+            default:
+                throw new IllegalArgumentException("Unknown element value tag '" + (char) tag + "'");
+        }
+    }
+
+    private AnnotationData.EnumConstant readEnumConstant() {
+        String typeName = binaryName(utf8(readUnsignedShort()));
+
+        return new AnnotationData.EnumConstant(typeName, utf8(readUnsignedShort()));
+    }
+
+    private Object[] readArray() {
+        Object[] res = new Object[readUnsignedShort()];
+
+        for (int i = 0; i < res.length; i++) {
+            res[i] = readElementValue();
+        }
+
+        return res;
+    }
+
+    private void readConstantPool() {
+        int count = readUnsignedShort();
+
+        offsets = new int[count];
+        strings = new String[count];
+
+        for (int i = 1; i < count; i++) {
+            int tag = readUnsignedByte();
+
+            offsets[i] = position;
+
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    position += 2 + readUnsignedShort();
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    position += 4;
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    // eight byte constants take up two entries
+                    position += 8;
+                    i++;
+                    break;
+                case CONSTANT_CLASS:
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    position += 2;
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    position += 3;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag + " at entry " + i);
+            }
+        }
+    }
+
+    private String readClassName() {
+        return className(readUnsignedShort());
+    }
+
+    private String className(int index) {
+        return utf8(unsignedShortAt(offsets[index])).replace('/', '.');
+    }
+
+    private int integer(int index) {
+        return intAt(offsets[index]);
+    }
+
+    private long longInteger(int index) {
+        int offset = offsets[index];
+
+        return ((long) intAt(offset) << 32) | (intAt(offset + 4) & 0xFFFFFFFFL);
+    }
+
+    private String utf8(int index) {
+        String res = strings[index];
+
+        if (res == null) {
+            int offset = offsets[index];
+
+            res = decode(offset + 2, unsignedShortAt(offset));
+            strings[index] = res;
+        }
+
+        return res;
+    }
+
+    private String decode(int start, int length) {
+        char[] chars = new char[length];
+        int count = 0;
+        int index = start;
+        int end = start + length;
+
+        // modified UTF-8, supplementary characters are already stored as surrogate pairs
+        while (index < end) {
+            int first = bytes.get(index) & 0xFF;
+
+            if (first < 0x80) {
+                chars[count] = (char) first;
+                index++;
+            } else if (first < 0xE0) {
+                chars[count] = (char) (((first & 0x1F) << 6) | (bytes.get(index + 1) & 0x3F));
+                index += 2;
+            } else {
+                chars[count] = (char) (((first & 0x0F) << 12) | ((bytes.get(index + 1) & 0x3F) << 6)
+                        | (bytes.get(index + 2) & 0x3F));
+                index += 3;
+            }
+            count++;
+        }
+
+        return new String(chars, 0, count);
+    }
+
+    private int readUnsignedByte() {
+        return bytes.get(position++) & 0xFF;
+    }
+
+    private int readUnsignedShort() {
+        int res = unsignedShortAt(position);
+
+        position += 2;
+
+        return res;
+    }
+
+    private int readInt() {
+        int res = intAt(position);
+
+        position += 4;
+
+        return res;
+    }
+
+    private int unsignedShortAt(int offset) {
+        return bytes.getShort(offset) & 0xFFFF;
+    }
+
+    private int intAt(int offset) {
+        // a sliced buffer is big-endian, as are class files
+        return bytes.getInt(offset);
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared cache of the annotation metadata of a class and the members it declares.  Metadata is attached to the
+ * class through a {@link ClassValue} so it is released together with the class and never prevents a class loader
+ * from being unloaded.  Annotations inherited from superclasses are included in the class level metadata.
+ */
+final class ClassMetadata extends TypeMetadata {
+    private static final ClassValue<ClassMetadata> METADATA = new ClassValue<ClassMetadata>() {
+        @Override
+        protected ClassMetadata computeValue(Class<?> type) {
+            return new ClassMetadata(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final ElementMetadata typeMetadata;
+    private volatile MemberTable members;
+
+    private ClassMetadata(Class<?> type) {
+        this.type = type;
+        this.typeMetadata = new ElementMetadata(type);
+    }
+
+    /**
+     * Get the cached metadata of a class, creating it on first use.
+     * @param type class to get metadata for
+     * @return shared metadata of the class
+     */
+    static ClassMetadata forClass(Class<?> type) {
+        return METADATA.get(type);
+    }
+
+    /**
+     * Get the cached metadata of a class or of a field, method or constructor.
+     * @param element class or member to get metadata for
+     * @return shared metadata of the element or null if the element is neither a class nor a member
+     */
+    static ElementMetadata forElement(AnnotatedElement element) {
+        if (element instanceof Class) {
+            return forClass((Class<?>) element).getTypeMetadata();
+        }
+        if (element instanceof Member) {
+            return forClass(((Member) element).getDeclaringClass()).getMembers().get(element);
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the class the metadata describes.
+     * @return described class
+     */
+    Class<?> getType() {
+        return type;
+    }
+
+    @Override
+    Class<?> getLoadedClass() {
+        return type;
+    }
+
+    @Override
+    String getName() {
+        return type.getName();
+    }
+
+    @Override
+    ElementMetadata getTypeMetadata() {
+        return typeMetadata;
+    }
+
+    /**
+     * Get the metadata of a declared member without raising an exception if it is not declared.  The class's
+     * declared members are read into a {@link MemberTable} the first time any member is requested.
+     * @param signature identifies the member
+     * @return member metadata or null if the class does not declare the member
+     */
+    @Override
+    ElementMetadata findMember(MemberSignature signature) {
+        return getMembers().get(signature);
+    }
+
+    @Override
+    int getModifiers(MemberSignature signature) {
+        ElementMetadata member = findMember(signature);
+
+        if (member == null) {
+            return 0;
+        }
+
+        return ((Member) member.getElement()).getModifiers() & ACCESS_MODIFIERS;
+    }
+
+    @Override
+    List<MemberSignature> getBridges(MemberSignature signature) {
+        List<MemberSignature> bridges = new ArrayList<MemberSignature>();
+        List<MemberSignature> methods = new ArrayList<MemberSignature>();
+
+        if (signature.getKind() == MemberSignature.Kind.METHOD) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (!method.getName().equals(signature.getName())) {
+                    continue;
+                }
+                if (method.isBridge()) {
+                    bridges.add(MemberSignature.method(method.getName(), method.getParameterTypes()));
+                } else if (!method.isSynthetic()) {
+                    methods.add(MemberSignature.method(method.getName(), method.getParameterTypes()));
+                }
+            }
+        }
+
+        return bridgesOf(signature, bridges, methods);
+    }
+
+    private MemberTable getMembers() {
+        MemberTable res = members;
+
+        if (res == null) {
+            res = MemberTable.of(type);
+            members = res;
+        }
+
+        return res;
+    }
+}
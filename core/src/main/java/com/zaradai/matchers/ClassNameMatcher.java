@@ -0,0 +1,118 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import org.hamcrest.Description;
+import org.hamcrest.DiagnosingMatcher;
+import org.hamcrest.Factory;
+import org.hamcrest.Matcher;
+
+/**
+ * Applies a {@link Class} matcher to a fully qualified class name.  The class is loaded with
+ * {@link Class#forName(String, boolean, ClassLoader)} without being initialized, so static initializers of the
+ * examined classes do not run.
+ */
+public final class ClassNameMatcher extends DiagnosingMatcher<String> {
+    private final Matcher<? super Class<?>> typeMatcher;
+    private final ClassLoader classLoader;
+
+    private ClassNameMatcher(Matcher<? super Class<?>> typeMatcher, ClassLoader classLoader) {
+        this.typeMatcher = typeMatcher;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Creates a matcher of class names that loads the named class through the context class loader of the
+     * matching thread and matches it with the <code>typeMatcher</code>.
+     * <p>
+     * For example:
+     * <pre>assertThat("com.acme.OrderService", named(TypeAnnotationMatchers.classAnnotatedWith(Service.class)))</pre>
+     * </p>
+     *
+     * @param typeMatcher matcher of the loaded class
+     */
+    @Factory
+    public static Matcher<String> named(Matcher<? super Class<?>> typeMatcher) {
+        return new ClassNameMatcher(typeMatcher, null);
+    }
+
+    /**
+     * Creates a matcher of class names that loads the named class through the <code>classLoader</code> and matches
+     * it with the <code>typeMatcher</code>.
+     *
+     * @param typeMatcher matcher of the loaded class
+     * @param classLoader loader of the named classes
+     */
+    @Factory
+    public static Matcher<String> named(Matcher<? super Class<?>> typeMatcher, ClassLoader classLoader) {
+        if (classLoader == null) {
+            throw new IllegalArgumentException("Class loader is null");
+        }
+
+        return new ClassNameMatcher(typeMatcher, classLoader);
+    }
+
+    @Override
+    protected boolean matches(Object item, Description mismatchDescription) {
+        if (item == null) {
+            mismatchDescription.appendText("was null");
+            return false;
+        }
+        if (!(item instanceof String)) {
+            mismatchDescription.appendText("was not a class name ").appendValue(item);
+            return false;
+        }
+
+        Class<?> type;
+
+        try {
+            type = Class.forName((String) item, false, getClassLoader());
+        } catch (ClassNotFoundException e) {
+            mismatchDescription.appendText(e.toString());
+            return false;
+        } catch (LinkageError e) {
+            mismatchDescription.appendText(e.toString());
+            return false;
+        }
+
+        if (!typeMatcher.matches(type)) {
+            typeMatcher.describeMismatch(type, mismatchDescription);
+            return false;
+        }
+
+        return true;
+    }
+
+    private ClassLoader getClassLoader() {
+        if (classLoader != null) {
+            return classLoader;
+        }
+
+        ClassLoader res = Thread.currentThread().getContextClassLoader();
+
+        if (res == null) {
+            return ClassNameMatcher.class.getClassLoader();
+        }
+
+        return res;
+    }
+
+    @Override
+    public void describeTo(Description description) {
+        description.appendText("name of ");
+        typeMatcher.describeTo(description);
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+/**
+ * Where a class of an {@link AnnotationIndex} was read from and a fingerprint of the class file at the time.  A class
+ * file in a directory is fingerprinted by its modification time and size, a jar entry by the CRC-32 and size its
+ * jar's central directory records, so neither needs to be read to tell whether it changed.
+ */
+final class ClassSource {
+    private final String location;
+    private final long stamp;
+    private final long size;
+
+    /**
+     * Record the source of a class.
+     * @param location path of the class file, or of the jar followed by {@code !/} and the entry name
+     * @param stamp modification time in milliseconds of a class file, CRC-32 of a jar entry
+     * @param size size of the class file in bytes
+     */
+    ClassSource(String location, long stamp, long size) {
+        this.location = location;
+        this.stamp = stamp;
+        this.size = size;
+    }
+
+    /**
+     * Get the location of the class file.
+     * @return class file path or jar entry location
+     */
+    String getLocation() {
+        return location;
+    }
+
+    /**
+     * Get the modification time of a class file or the CRC-32 of a jar entry.
+     * @return stamp of the class file
+     */
+    long getStamp() {
+        return stamp;
+    }
+
+    /**
+     * Get the size of the class file.
+     * @return size in bytes
+     */
+    long getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ClassSource)) {
+            return false;
+        }
+
+        ClassSource other = (ClassSource) o;
+
+        return location.equals(other.location) && stamp == other.stamp && size == other.size;
+    }
+
+    @Override
+    public int hashCode() {
+        int res = location.hashCode();
+
+        res = 31 * res + (int) (stamp ^ (stamp >>> Integer.SIZE));
+        res = 31 * res + (int) (size ^ (size >>> Integer.SIZE));
+
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return location;
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * Resolved annotations of a single class, field, method or constructor.  The annotations are read once when the
+ * metadata is created, after which lookups are plain map reads.  Instances are immutable and safe to share.
+ */
+final class ElementMetadata {
+    /**
+     * Parameter annotations of an element that is not a method or constructor.
+     */
+    static final Annotation[][] NO_PARAMETER_ANNOTATIONS = new Annotation[0][];
+
+    private final AnnotatedElement element;
+    private final AnnotationTable annotations;
+    private final Annotation[][] parameterAnnotations;
+    private final AnnotationTable[] parameters;
+
+    /**
+     * Read and index the annotations of the element.
+     * @param element class or member to read
+     */
+    ElementMetadata(AnnotatedElement element) {
+        this.element = element;
+        this.annotations = AnnotationTable.of(element.getAnnotations());
+        this.parameterAnnotations = readParameterAnnotations(element);
+        this.parameters = indexParameterAnnotations(parameterAnnotations);
+    }
+
+    /**
+     * Index annotations that were read from a class file rather than from a loaded element.
+     * @param annotations annotations present on the element
+     * @param parameterAnnotations annotations on the formal parameters of a method or constructor, in declaration
+     *                             order, empty for fields and classes
+     */
+    ElementMetadata(Annotation[] annotations, Annotation[][] parameterAnnotations) {
+        this.element = null;
+        this.annotations = AnnotationTable.of(annotations);
+        this.parameterAnnotations = parameterAnnotations;
+        this.parameters = indexParameterAnnotations(parameterAnnotations);
+    }
+
+    /**
+     * Get the element the metadata was read from.
+     * @return annotated element or null if the metadata was read from a class file
+     */
+    AnnotatedElement getElement() {
+        return element;
+    }
+
+    /**
+     * Get the element's annotations indexed by type.
+     * @return annotation table
+     */
+    AnnotationTable getAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * Get the element's annotation of the specified type.  Like {@link AnnotatedElement#getAnnotation(Class)}
+     * a null annotation type is rejected.
+     * @param annotationClass type of annotation to retrieve
+     * @return the annotation or null if not present
+     */
+    Annotation getAnnotation(Class<? extends Annotation> annotationClass) {
+        return annotations.get(annotationClass);
+    }
+
+    /**
+     * Get a snapshot of the element's annotation of the specified type, the snapshot is shared by all callers.
+     * @param annotationClass type of annotation to retrieve
+     * @return the snapshot or null if the annotation is not present
+     */
+    AnnotationSnapshot getSnapshot(Class<? extends Annotation> annotationClass) {
+        return annotations.getSnapshot(annotationClass);
+    }
+
+    /**
+     * Get the annotations on the formal parameters, in declaration order, of a method or constructor.  The
+     * returned array is shared and must not be modified.
+     * @return parameter annotations, empty for fields and classes
+     */
+    Annotation[][] getParameterAnnotations() {
+        return parameterAnnotations;
+    }
+
+    /**
+     * Get the annotations of a formal parameter of a method or constructor, indexed by type.
+     * @param position position of the parameter
+     * @return table of the parameter's annotations
+     * @throws ArrayIndexOutOfBoundsException if there is no parameter at the position
+     */
+    AnnotationTable getParameter(int position) {
+        return parameters[position];
+    }
+
+    /**
+     * Get the annotations of a formal parameter without raising an exception if there is no such parameter.
+     * @param position position of the parameter
+     * @return table of the parameter's annotations or null if there is no parameter at the position
+     */
+    AnnotationTable findParameter(int position) {
+        if (position < 0 || position >= parameters.length) {
+            return null;
+        }
+
+        return parameters[position];
+    }
+
+    private static AnnotationTable[] indexParameterAnnotations(Annotation[][] parameterAnnotations) {
+        AnnotationTable[] res = new AnnotationTable[parameterAnnotations.length];
+
+        for (int i = 0; i < res.length; i++) {
+            res[i] = AnnotationTable.of(parameterAnnotations[i]);
+        }
+
+        return res;
+    }
+
+    private static Annotation[][] readParameterAnnotations(AnnotatedElement element) {
+        if (element instanceof Method) {
+            return ((Method) element).getParameterAnnotations();
+        }
+        if (element instanceof Constructor) {
+            return ((Constructor<?>) element).getParameterAnnotations();
+        }
+
+        return NO_PARAMETER_ANNOTATIONS;
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Builds an {@link AnnotationIndex} from a class path, reusing the classes of a previous build whose class files did
+ * not change.
+ * <p>
+ * Every class is recorded with its {@link ClassSource}.  A class file in a directory is unchanged if its modification
+ * time and size are, a jar entry if the CRC-32 and size its central directory records are, in which case the class
+ * is decoded from the previous index instead of being read and parsed again.  Classes are added to the index in class
+ * path order and a class shadowed by one of the same name earlier on the class path is left out, as by the JVM, so an
+ * incremental build writes the same bytes as a full build of the same class path.
+ * </p>
+ */
+final class IndexBuilder {
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String INFO_SUFFIX = "-info.class";
+    private static final String META_INF = "META-INF/";
+
+    private static final Comparator<Path> BY_NAME = new Comparator<Path>() {
+        @Override
+        public int compare(Path first, Path second) {
+            return first.getFileName().toString().compareTo(second.getFileName().toString());
+        }
+    };
+
+    private final AnnotationIndexWriter writer = new AnnotationIndexWriter();
+    private final AnnotationIndex previous;
+    private final Map<String, Integer> previousClasses = new HashMap<String, Integer>();
+    private final ClassLoader classLoader;
+    private int parsed;
+    private int reused;
+
+    /**
+     * Create a builder.
+     * @param previous index of a previous build of the class path, null for a full build
+     * @param classLoader loader of the annotation types of the classes parsed
+     */
+    IndexBuilder(AnnotationIndex previous, ClassLoader classLoader) {
+        this.previous = previous;
+        this.classLoader = classLoader;
+
+        if (previous != null) {
+            for (int i = 0; i < previous.size(); i++) {
+                ClassSource source = previous.getSource(i);
+
+                if (source != null) {
+                    previousClasses.put(source.getLocation(), i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the classes of a directory or jar, after those of the roots added before.  Roots that do not exist are
+     * skipped, as by the JVM.
+     * @param root directory or jar
+     * @throws IOException if the root can not be read or holds a malformed class file
+     */
+    void addRoot(File root) throws IOException {
+        if (root.isDirectory()) {
+            addDirectory(root.toPath(), "");
+        } else if (root.isFile()) {
+            addJar(root);
+        }
+    }
+
+    /**
+     * Encode the classes added.
+     * @return the index
+     */
+    byte[] toByteArray() {
+        return writer.toByteArray();
+    }
+
+    /**
+     * Get the number of classes read and parsed from their class files.
+     * @return number of classes parsed
+     */
+    int getParsed() {
+        return parsed;
+    }
+
+    /**
+     * Get the number of classes decoded from the previous index.
+     * @return number of classes reused
+     */
+    int getReused() {
+        return reused;
+    }
+
+    private void addDirectory(Path directory, String packagePrefix) throws IOException {
+        List<Path> children = new ArrayList<Path>();
+        DirectoryStream<Path> stream = Files.newDirectoryStream(directory);
+
+        try {
+            for (Path child : stream) {
+                children.add(child);
+            }
+        } finally {
+            stream.close();
+        }
+
+        // directories list their entries in no particular order
+        Collections.sort(children, BY_NAME);
+
+        for (Path child : children) {
+            String name = child.getFileName().toString();
+
+            // links to directories are not followed, they may lead back up the tree
+            if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                addDirectory(child, packagePrefix + name + ".");
+            } else if (isClassFile(name)) {
+                BasicFileAttributes attributes = Files.readAttributes(child, BasicFileAttributes.class);
+                ClassSource source = new ClassSource(child.toString(), attributes.lastModifiedTime().toMillis(),
+                        attributes.size());
+
+                if (!isShadowed(packagePrefix + name)) {
+                    ClassFile classFile = reuse(source);
+
+                    if (classFile == null) {
+                        classFile = parse(ByteBuffer.wrap(Files.readAllBytes(child)), source);
+                    }
+                    add(classFile, source);
+                }
+            }
+        }
+    }
+
+    private void addJar(File root) throws IOException {
+        MappedJar jar;
+
+        try {
+            jar = MappedJar.map(root);
+        } catch (ZipException e) {
+            // not a jar the mapped reader supports, such as a zip64 archive, or not a jar at all
+            addZip(root);
+            return;
+        }
+
+        MappedJar.Inflation inflation = new MappedJar.Inflation();
+
+        try {
+            for (int i = 0; i < jar.size(); i++) {
+                ClassSource source = new ClassSource(jar.getLocation(i), jar.getCrc(i), jar.getSize(i));
+
+                if (!isShadowed(jar.getName(i))) {
+                    ClassFile classFile = reuse(source);
+
+                    if (classFile == null) {
+                        classFile = parse(jar.read(i, inflation), source);
+                    }
+                    add(classFile, source);
+                }
+            }
+        } finally {
+            inflation.end();
+        }
+    }
+
+    private void addZip(File root) throws IOException {
+        ZipFile jar = new ZipFile(root);
+
+        try {
+            Enumeration<? extends ZipEntry> entries = jar.entries();
+
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String name = entry.getName();
+
+                if (!entry.isDirectory() && !name.startsWith(META_INF) && isClassFile(name) && !isShadowed(name)) {
+                    ClassSource source = new ClassSource(root + "!/" + name, entry.getCrc(), entry.getSize());
+                    ClassFile classFile = reuse(source);
+
+                    if (classFile == null) {
+                        classFile = parse(jar.getInputStream(entry), source);
+                    }
+                    add(classFile, source);
+                }
+            }
+        } finally {
+            jar.close();
+        }
+    }
+
+    private boolean isShadowed(String path) {
+        // a class file whose path names a class already indexed is never read, as the JVM would not load it
+        String className = path.substring(0, path.length() - CLASS_SUFFIX.length()).replace('/', '.');
+
+        return writer.contains(className);
+    }
+
+    private ClassFile reuse(ClassSource source) {
+        Integer classIndex = previousClasses.get(source.getLocation());
+
+        if (classIndex == null || !source.equals(previous.getSource(classIndex))) {
+            return null;
+        }
+
+        reused++;
+
+        return previous.getClass(classIndex);
+    }
+
+    private ClassFile parse(ByteBuffer bytes, ClassSource source) throws IOException {
+        try {
+            parsed++;
+
+            return ClassFile.read(bytes, classLoader);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(source + " is not a valid class file", e);
+        }
+    }
+
+    private ClassFile parse(InputStream in, ClassSource source) throws IOException {
+        try {
+            parsed++;
+
+            return ClassFile.read(in, classLoader);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(source + " is not a valid class file", e);
+        } finally {
+            in.close();
+        }
+    }
+
+    private void add(ClassFile classFile, ClassSource source) {
+        // a class file misplaced in its directory may still declare a class already indexed
+        if (!writer.contains(classFile.getName())) {
+            writer.add(classFile, source);
+        }
+    }
+
+    private static boolean isClassFile(String name) {
+        return name.endsWith(CLASS_SUFFIX) && !name.endsWith(INFO_SUFFIX);
+    }
+}
@@ -0,0 +1,316 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Finds the annotation metadata of loaded classes in the {@link TypeDescriptor}s and the
+ * {@link AnnotationIndex#RESOURCE} indexes generated at compile time, falling back to reflection for the classes
+ * neither covers.  A descriptor is preferred to an index.
+ * <p>
+ * Indexes are only searched for the classes of a class loader that sees at least one index, checked once per class
+ * loader, so a class path without indexes costs no lookup beyond that check.  A class is only looked up in the index
+ * of the class path entry, directory or jar, its class file was loaded from, so an index never describes a class
+ * shadowed by another entry.  The index of a directory is only trusted for a class whose class file is not newer
+ * than the index, so a class compiled again without the processor, or copied over after the index was written, is
+ * read through reflection rather than from a stale record; the index of a jar is trusted as it is packaged with its
+ * classes.
+ * </p>
+ * <p>
+ * The indexes are cached per class loader, which is held weakly so it can still be collected, and the metadata of
+ * each class is attached to it through a {@link ClassValue} like {@link ClassMetadata}.  A cached index found in a
+ * file, or in a jar file, is opened again once the modification time or size of that file changes, so a rebuilt
+ * index is never read through a stale copy, and the metadata of the classes looked up in the replaced index is read
+ * again when they are next matched.  An index that can not be read, or that is of another format version, is
+ * ignored.
+ * </p>
+ */
+final class IndexResources {
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String JAR_PREFIX = "jar:";
+    private static final String JAR_SEPARATOR = "!/";
+
+    private static final Map<ClassLoader, Indexes> INDEXES = new WeakHashMap<ClassLoader, Indexes>();
+
+    private static final ClassValue<Cached> METADATA = new ClassValue<Cached>() {
+        @Override
+        protected Cached computeValue(Class<?> type) {
+            TypeDescriptor descriptor = TypeDescriptor.find(type);
+
+            if (descriptor != null) {
+                return new Cached(descriptor.getMetadata(), null);
+            }
+
+            Lookup lookup = new Lookup(type);
+
+            if (lookup.classFile == null) {
+                return new Cached(ClassMetadata.forClass(type), lookup.entry);
+            }
+
+            return new Cached(((ClassFileMetadata) lookup.classFile.getMetadata()).describing(type), lookup.entry);
+        }
+    };
+
+    private IndexResources() {
+    }
+
+    /**
+     * Get the cached metadata of a class, taken from its descriptor if it has one, then from the index of its
+     * class path entry if that index holds the class, and read through reflection otherwise.
+     * @param type class to get metadata for
+     * @return shared metadata of the class
+     */
+    static TypeMetadata forClass(Class<?> type) {
+        Cached res = METADATA.get(type);
+
+        if (res.isStale()) {
+            // the index the class was looked up in has been opened again since
+            METADATA.remove(type);
+            res = METADATA.get(type);
+        }
+
+        return res.metadata;
+    }
+
+    /**
+     * Look a class up in the index of the class path entry it was loaded from.
+     * @param type class to look up
+     * @return the class as recorded by the index or null if no index holds a current record of it
+     */
+    static ClassFile find(Class<?> type) {
+        return new Lookup(type).classFile;
+    }
+
+    private static Entry entryOf(ConcurrentMap<String, Entry> entries, String root) {
+        Entry res = entries.get(root);
+
+        if (res != null && res.isCurrent()) {
+            return res;
+        }
+
+        Entry opened = new Entry(fileOf(root), root);
+
+        if (res == null) {
+            Entry existing = entries.putIfAbsent(root, opened);
+
+            if (existing != null) {
+                return existing;
+            }
+        } else if (entries.replace(root, res, opened)) {
+            res.replaced = true;
+        }
+
+        return opened;
+    }
+
+    private static Indexes indexesOf(ClassLoader loader) {
+        synchronized (INDEXES) {
+            Indexes res = INDEXES.get(loader);
+
+            if (res == null) {
+                // a single lookup decides whether the classes of the loader are ever looked up in an index
+                res = new Indexes(loader.getResource(AnnotationIndex.RESOURCE) != null);
+                INDEXES.put(loader, res);
+            }
+
+            return res;
+        }
+    }
+
+    private static File fileOf(String root) {
+        // the index of a jar changes with the jar
+        if (isJar(root)) {
+            return localFile(root.substring(JAR_PREFIX.length(), root.length() - JAR_SEPARATOR.length()));
+        }
+
+        return localFile(root + AnnotationIndex.RESOURCE);
+    }
+
+    private static boolean isJar(String root) {
+        return root.startsWith(JAR_PREFIX) && root.endsWith(JAR_SEPARATOR);
+    }
+
+    private static File localFile(String location) {
+        try {
+            URL url = new URL(location);
+
+            if (!"file".equals(url.getProtocol())) {
+                return null;
+            }
+
+            return new File(url.toURI());
+        } catch (MalformedURLException e) {
+            return null;
+        } catch (URISyntaxException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            // a file URL with an authority or a query names no local file
+            return null;
+        }
+    }
+
+    private static AnnotationIndex open(String root) {
+        try {
+            // annotation types are loaded through the loader of each class looked up, not this one
+            return AnnotationIndex.open(new URL(root + AnnotationIndex.RESOURCE),
+                    IndexResources.class.getClassLoader());
+        } catch (IOException e) {
+            // most entries have no index, others may hold one of another format version
+            return null;
+        }
+    }
+
+    /**
+     * The indexes of the class path entries of a class loader, and whether the loader sees any index at all.
+     */
+    private static final class Indexes {
+        private final boolean indexed;
+        private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+        Indexes(boolean indexed) {
+            this.indexed = indexed;
+        }
+
+        boolean isIndexed() {
+            return indexed;
+        }
+
+        ConcurrentMap<String, Entry> getEntries() {
+            return entries;
+        }
+    }
+
+    /**
+     * The index of a class path entry, or its absence, and the stamp of the file it was read from.
+     */
+    private static final class Entry {
+        private final File file;
+        private final boolean directory;
+        private final long modified;
+        private final long length;
+        private final AnnotationIndex index;
+        private volatile boolean replaced;
+
+        Entry(File file, String root) {
+            this.file = file;
+            // an index that is not read from a file can not be checked against class files and is trusted
+            this.directory = file != null && !isJar(root);
+            // the file is stamped before it is read, a change made while it is read is noticed by the next lookup
+            if (file == null) {
+                this.modified = 0;
+                this.length = 0;
+            } else {
+                this.modified = file.lastModified();
+                this.length = file.length();
+            }
+            this.index = open(root);
+        }
+
+        boolean isCurrent() {
+            // an index that is not read from a file can not be checked and is kept
+            return file == null || (file.lastModified() == modified && file.length() == length);
+        }
+
+        AnnotationIndex getIndex() {
+            return index;
+        }
+
+        boolean isFresh(URL classFile) {
+            if (!directory) {
+                return true;
+            }
+
+            File local = localFile(classFile.toString());
+
+            // a class file that can not be checked against the index is not trusted to match it
+            return local != null && local.lastModified() <= modified;
+        }
+    }
+
+    /**
+     * The metadata of a class and the index entry it was looked up in, if any.
+     */
+    private static final class Cached {
+        private final TypeMetadata metadata;
+        private final Entry entry;
+
+        Cached(TypeMetadata metadata, Entry entry) {
+            this.metadata = metadata;
+            this.entry = entry;
+        }
+
+        boolean isStale() {
+            return entry != null && entry.replaced;
+        }
+    }
+
+    /**
+     * Looks a class up in the index of the class path entry it was loaded from.
+     */
+    private static final class Lookup {
+        private final Entry entry;
+        private final ClassFile classFile;
+
+        Lookup(Class<?> type) {
+            ClassLoader loader = type.getClassLoader();
+            String path = type.getName().replace('.', '/') + CLASS_SUFFIX;
+            Indexes indexes = null;
+            URL url = null;
+
+            // classes of the bootstrap loader and classes defined at runtime, such as proxies, are never indexed
+            if (loader != null) {
+                indexes = indexesOf(loader);
+            }
+            if (indexes != null && indexes.isIndexed()) {
+                url = loader.getResource(path);
+            }
+
+            if (url == null || !url.toString().endsWith(path)) {
+                this.entry = null;
+                this.classFile = null;
+            } else {
+                String location = url.toString();
+
+                this.entry = entryOf(indexes.getEntries(), location.substring(0, location.length() - path.length()));
+                this.classFile = find(type.getName(), loader, url);
+            }
+        }
+
+        private ClassFile find(String name, ClassLoader loader, URL url) {
+            AnnotationIndex index = entry.getIndex();
+
+            if (index == null || !entry.isFresh(url)) {
+                return null;
+            }
+
+            try {
+                return index.find(name, loader);
+            } catch (IllegalStateException e) {
+                // a corrupt index is no reason to fail, reflection still describes the class
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import org.hamcrest.Factory;
+import org.hamcrest.Matcher;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * A matcher to inspect classes for specified annotations.  By default the annotations of a class are those
+ * reflection reports, including the {@link java.lang.annotation.Inherited} annotations of its superclasses, the
+ * factories taking a {@link SearchStrategy} search the type hierarchy of the class instead.
+ */
+public class IsClassAnnotated extends AbstractAnnotationMatcher {
+    private final SearchStrategy strategy;
+
+    /**
+     * Setup the parameters for the annotation matcher.
+     * @param annotationClass annotation that must decorate the class
+     * @param paramMatcher matcher to check the annotation for a specific parameter
+     */
+    protected IsClassAnnotated(Class<? extends Annotation> annotationClass, Matcher<Annotation> paramMatcher) {
+        super(annotationClass, paramMatcher, AnnotationLocator.forType());
+        this.strategy = null;
+    }
+
+    /**
+     * Setup the parameters for an annotation matcher searching the type hierarchy of the class.
+     * @param annotationClass annotation that must decorate the class or one of the supertypes searched
+     * @param paramMatcher matcher to check the annotation for a specific parameter
+     * @param strategy how far up the type hierarchy the annotation is searched
+     */
+    IsClassAnnotated(Class<? extends Annotation> annotationClass, Matcher<Annotation> paramMatcher,
+                     SearchStrategy strategy) {
+        super(annotationClass, paramMatcher, AnnotationLocator.forHierarchy(strategy));
+        this.strategy = strategy;
+    }
+
+    @Override
+    protected Annotation getAnnotation(Object item, Class<? extends Annotation> annotationClass) throws Exception {
+        return getAnnotationTable(item).get(annotationClass);
+    }
+
+    @Override
+    protected String getAnnotationSource() {
+        if (strategy != null) {
+            return strategy.getSource();
+        }
+
+        return "class";
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} class
+     * is annotated with the specified {@link Annotation}.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(with(Entity.class))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     */
+    @Factory
+    public static Matcher<Object> with(Class<? extends Annotation> annotation) {
+        return new IsClassAnnotated(annotation, null);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} class
+     * is annotated with the specified {@link Annotation} and it has a parameter with
+     * the specified <code>param</code> name.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withParam(Table.class, "name"))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the name of the parameter that must exist
+     */
+    @Factory
+    public static Matcher<Object> withParam(Class<? extends Annotation> annotation, String param) {
+        return new IsClassAnnotated(annotation, AnnotationParamMatcher.hasParam(param));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} class
+     * is annotated with the specified {@link Annotation} and it has a specified parameter with
+     * a required value.  The value is matched using a {@link Matcher}.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withParamValue(Table.class, "name", is("test")))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the name of the parameter that must exist
+     * @param matcher the matcher that asserts the parameter value.
+     */
+    @Factory
+    public static <T> Matcher<Object> withParamValue(Class<? extends Annotation> annotation, String param, Matcher<T> matcher) {
+        return new IsClassAnnotated(annotation, AnnotationParamMatcher.hasParamValue(param, matcher));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} class
+     * is annotated with the specified {@link Annotation} and it has a specified parameter with
+     * a required value.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withParamValue(Table.class, "name", is("test")))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the name of the parameter that must exist
+     * @param paramValue the value to match with.
+     */
+    @Factory
+    public static <T> Matcher<Object> withParamValue(Class<? extends Annotation> annotation, String param, T paramValue) {
+        return new IsClassAnnotated(annotation, AnnotationParamMatcher.hasParamValue(param, paramValue));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} class, or one of the supertypes the
+     * <code>strategy</code> searches, is annotated with the specified {@link Annotation}.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(with(Entity.class, SearchStrategy.TYPE_HIERARCHY))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param strategy how far up the type hierarchy the annotation is searched
+     */
+    @Factory
+    public static Matcher<Object> with(Class<? extends Annotation> annotation, SearchStrategy strategy) {
+        return new IsClassAnnotated(annotation, null, strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type found on the
+     * examined {@link Object} class, or on one of the supertypes the <code>strategy</code> searches, has a parameter
+     * with the specified <code>param</code> name.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withParam(Table.class, "name", SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the name of the parameter that must exist
+     * @param strategy how far up the type hierarchy the annotation is searched
+     */
+    @Factory
+    public static Matcher<Object> withParam(Class<? extends Annotation> annotation, String param,
+                                            SearchStrategy strategy) {
+        return new IsClassAnnotated(annotation, AnnotationParamMatcher.hasParam(param), strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type found on the
+     * examined {@link Object} class, or on one of the supertypes the <code>strategy</code> searches, has a specified
+     * parameter with a required value.  The value is matched using a {@link Matcher}.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withParamValue(Table.class, "name", is("test"), SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the name of the parameter that must exist
+     * @param matcher the matcher that asserts the parameter value.
+     * @param strategy how far up the type hierarchy the annotation is searched
+     */
+    @Factory
+    public static <T> Matcher<Object> withParamValue(Class<? extends Annotation> annotation, String param,
+                                                     Matcher<T> matcher, SearchStrategy strategy) {
+        return new IsClassAnnotated(annotation, AnnotationParamMatcher.hasParamValue(param, matcher), strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type found on the
+     * examined {@link Object} class, or on one of the supertypes the <code>strategy</code> searches, has a specified
+     * parameter with a required value.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withParamValue(Table.class, "name", "test", SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the name of the parameter that must exist
+     * @param paramValue the value to match with.
+     * @param strategy how far up the type hierarchy the annotation is searched
+     */
+    @Factory
+    public static <T> Matcher<Object> withParamValue(Class<? extends Annotation> annotation, String param,
+                                                     T paramValue, SearchStrategy strategy) {
+        return new IsClassAnnotated(annotation, AnnotationParamMatcher.hasParamValue(param, paramValue), strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} class
+     * is annotated with every one of the specified {@link Annotation}s.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withAll(Entity.class, Table.class))</pre>
+     * </p>
+     *
+     * @param annotations the annotations that must all be present
+     */
+    @Factory
+    @SafeVarargs
+    public static Matcher<Object> withAll(Class<? extends Annotation>... annotations) {
+        return AnnotationSetMatcher.allOf("class", AnnotationLocator.forType(), annotations);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} class
+     * is annotated with none of the specified {@link Annotation}s.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withNone(Deprecated.class, Ignore.class))</pre>
+     * </p>
+     *
+     * @param annotations the annotations that must all be absent
+     */
+    @Factory
+    @SafeVarargs
+    public static Matcher<Object> withNone(Class<? extends Annotation>... annotations) {
+        return AnnotationSetMatcher.noneOf("class", AnnotationLocator.forType(), annotations);
+    }
+}
@@ -24,8 +24,6 @@ import java.lang.annotation.Annotation;
  * A matcher to inspect constructors for specified annotations.
  */
 public class IsConstructorAnnotated  extends AbstractAnnotationMatcher {
-    private final Class<?>[] parameterTypes;
-
     /**
      * Setup the search parameters to locate required constructor and verify annotation expectations.
      * @param annotationClass annotation that must decorate the constructor
@@ -34,14 +32,12 @@ public class IsConstructorAnnotated  extends AbstractAnnotationMatcher {
      */
     protected IsConstructorAnnotated(Class<? extends Annotation> annotationClass, Matcher<Annotation> paramMatcher,
                                      Class<?>... parameterTypes) {
-        super(annotationClass, paramMatcher);
-
-        this.parameterTypes = parameterTypes;
+        super(annotationClass, paramMatcher, AnnotationLocator.forMember(MemberSignature.constructor(parameterTypes)));
     }
 
     @Override
     protected Annotation getAnnotation(Object item, Class<? extends Annotation> annotationClass) throws Exception {
-        return item.getClass().getDeclaredConstructor(parameterTypes).getAnnotation(annotationClass);
+        return getAnnotationTable(item).get(annotationClass);
     }
 
     @Override
@@ -24,7 +24,7 @@ import java.lang.annotation.Annotation;
  * A matcher to inspect constructor parameters for specified annotations.
  */
 public class IsConstructorParameterAnnotated extends AbstractParameterAnnotatedMatcher {
-    private final Class<?>[] parameterTypes;
+    private final MemberSignature signature;
 
     /**
      * Setup the search parameters to locate required constructor and verify annotation expectations.
@@ -35,13 +35,20 @@ public class IsConstructorParameterAnnotated extends AbstractParameterAnnotatedM
      */
     protected IsConstructorParameterAnnotated(Class<? extends Annotation> annotationClass, Matcher<Annotation> paramMatcher,
                                               int parameterPosition, Class<?>... parameterTypes) {
-        super(annotationClass, paramMatcher, parameterPosition);
-        this.parameterTypes = parameterTypes;
+        this(annotationClass, paramMatcher, parameterPosition, MemberSignature.constructor(parameterTypes));
+    }
+
+    private IsConstructorParameterAnnotated(Class<? extends Annotation> annotationClass,
+                                            Matcher<Annotation> paramMatcher, int parameterPosition,
+                                            MemberSignature signature) {
+        super(annotationClass, paramMatcher, parameterPosition,
+                AnnotationLocator.forParameter(signature, parameterPosition));
+        this.signature = signature;
     }
 
     @Override
     protected Annotation[][] getParameterAnnotations(Object item) throws Exception {
-        return item.getClass().getDeclaredConstructor(parameterTypes).getParameterAnnotations();
+        return TypeMetadata.of(item).getMember(signature).getParameterAnnotations();
     }
 
     @Override
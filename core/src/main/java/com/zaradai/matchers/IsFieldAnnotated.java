@@ -0,0 +1,270 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import org.hamcrest.Factory;
+import org.hamcrest.Matcher;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * A matcher to inspect class fields for specified annotations.  By default only the fields the class declares are
+ * found, the factories taking a {@link SearchStrategy} also find the fields it inherits.
+ */
+public class IsFieldAnnotated extends AbstractAnnotationMatcher {
+    private final SearchStrategy strategy;
+
+    /**
+     * Setup the search parameters to locate required fields and verify annotation expectations.
+     * @param annotationClass annotation that must decorate the method
+     * @param paramMatcher  matcher to check for specified annotation parameter value
+     * @param fieldName name of field
+     */
+    protected IsFieldAnnotated(Class<? extends Annotation> annotationClass, Matcher<Annotation> paramMatcher,
+                               String fieldName) {
+        super(annotationClass, paramMatcher, AnnotationLocator.forMember(MemberSignature.field(fieldName)));
+        this.strategy = null;
+    }
+
+    /**
+     * Setup the search parameters to locate a declared or inherited field and verify annotation expectations.
+     * @param annotationClass annotation that must decorate the field
+     * @param paramMatcher  matcher to check for specified annotation parameter value
+     * @param fieldName name of field
+     * @param strategy how far up the type hierarchy the field is searched
+     */
+    IsFieldAnnotated(Class<? extends Annotation> annotationClass, Matcher<Annotation> paramMatcher, String fieldName,
+                     SearchStrategy strategy) {
+        super(annotationClass, paramMatcher,
+                AnnotationLocator.forInheritedMember(MemberSignature.field(fieldName), strategy));
+        this.strategy = strategy;
+    }
+
+    @Override
+    protected Annotation getAnnotation(Object item, Class<? extends Annotation> annotationClass) throws Exception {
+        return getAnnotationTable(item).get(annotationClass);
+    }
+
+    @Override
+    protected String getAnnotationSource() {
+        if (strategy != null) {
+            return strategy.getSource("field");
+        }
+
+        return "field";
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} has a field with
+     * the specified {@link Annotation}.  The {@code fieldName} parameter is used to identify the field
+     * to be examined.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(with(Column.class, "notes"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param fieldName fieldName the field name
+     */
+    @Factory
+    public static Matcher<Object> with(Class<? extends Annotation> annotation, String fieldName) {
+        return new IsFieldAnnotated(annotation, null, fieldName);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} has a field with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * The {@code fieldName} parameter is used to identify the field to be examined.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withParam(Column.class, "name", "notes"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param fieldName the field name
+     */
+    @Factory
+    public static Matcher<Object> withParam(Class<? extends Annotation> annotation, String param, String fieldName) {
+        return new IsFieldAnnotated(annotation, AnnotationParamMatcher.hasParam(param), fieldName);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} has a field with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * with a required <code>value</code>.  A value matcher is provided to do the actual matching.
+     * The {@code fieldName} parameter is used to identify the field to be examined.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withParamValue(Column.class, "name", is("notes"), "notes"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param matcher a matcher for the parameter value
+     * @param fieldName the field name
+     * @param <T> type of value to be matched
+     */
+    @Factory
+    public static <T> Matcher<Object> withParamValue(Class<? extends Annotation> annotation, String param,
+                                                     Matcher<T> matcher, String fieldName) {
+        return new IsFieldAnnotated(annotation, AnnotationParamMatcher.hasParamValue(param, matcher),
+                fieldName);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} has a field with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * with a required <code>value</code>. The {@code fieldName} parameter is used to identify the field to be examined.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withParamValue(Column.class, "name", "notes", "notes"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param paramValue the parameter value must be equal to this
+     * @param fieldName the field name
+     * @param <T> type of value to be matched
+     */
+    @Factory
+    public static <T> Matcher<Object> withParamValue(Class<? extends Annotation> annotation, String param, T paramValue,
+                                                     String fieldName) {
+        return new IsFieldAnnotated(annotation, AnnotationParamMatcher.hasParamValue(param, paramValue),
+                fieldName);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} declares or inherits a field with
+     * the specified {@link Annotation}.  The field is the nearest one named {@code fieldName} in the types the
+     * <code>strategy</code> searches.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(with(Column.class, "notes", SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param fieldName the field name
+     * @param strategy how far up the type hierarchy the field is searched
+     */
+    @Factory
+    public static Matcher<Object> with(Class<? extends Annotation> annotation, String fieldName,
+                                       SearchStrategy strategy) {
+        return new IsFieldAnnotated(annotation, null, fieldName, strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} declares or inherits a field with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withParam(Column.class, "name", "notes", SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param fieldName the field name
+     * @param strategy how far up the type hierarchy the field is searched
+     */
+    @Factory
+    public static Matcher<Object> withParam(Class<? extends Annotation> annotation, String param, String fieldName,
+                                            SearchStrategy strategy) {
+        return new IsFieldAnnotated(annotation, AnnotationParamMatcher.hasParam(param), fieldName, strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} declares or inherits a field with
+     * the specified {@link Annotation} with a specified parameter value.  The value is matched using a
+     * {@link Matcher}.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withParamValue(Column.class, "name", is("notes"), "notes",
+     *     SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param matcher the matcher that asserts the parameter value
+     * @param fieldName the field name
+     * @param strategy how far up the type hierarchy the field is searched
+     */
+    @Factory
+    public static <T> Matcher<Object> withParamValue(Class<? extends Annotation> annotation, String param,
+                                                     Matcher<T> matcher, String fieldName, SearchStrategy strategy) {
+        return new IsFieldAnnotated(annotation, AnnotationParamMatcher.hasParamValue(param, matcher), fieldName,
+                strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} declares or inherits a field with
+     * the specified {@link Annotation} with a specified parameter value.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withParamValue(Column.class, "name", "notes", "notes",
+     *     SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param paramValue the value to match with
+     * @param fieldName the field name
+     * @param strategy how far up the type hierarchy the field is searched
+     */
+    @Factory
+    public static <T> Matcher<Object> withParamValue(Class<? extends Annotation> annotation, String param, T paramValue,
+                                                     String fieldName, SearchStrategy strategy) {
+        return new IsFieldAnnotated(annotation, AnnotationParamMatcher.hasParamValue(param, paramValue), fieldName,
+                strategy);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} has a field annotated with every one
+     * of the specified {@link Annotation}s.  The {@code fieldName} parameter is used to identify the field
+     * to be examined.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withAll("notes", Column.class, Lob.class))</pre>
+     * </p>
+     *
+     * @param fieldName the field name
+     * @param annotations the annotations that must all be present
+     */
+    @Factory
+    @SafeVarargs
+    public static Matcher<Object> withAll(String fieldName, Class<? extends Annotation>... annotations) {
+        return AnnotationSetMatcher.allOf("field", AnnotationLocator.forMember(MemberSignature.field(fieldName)),
+                annotations);
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} has a field annotated with none
+     * of the specified {@link Annotation}s.  The {@code fieldName} parameter is used to identify the field
+     * to be examined.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withNone("notes", Transient.class, Deprecated.class))</pre>
+     * </p>
+     *
+     * @param fieldName the field name
+     * @param annotations the annotations that must all be absent
+     */
+    @Factory
+    @SafeVarargs
+    public static Matcher<Object> withNone(String fieldName, Class<? extends Annotation>... annotations) {
+        return AnnotationSetMatcher.noneOf("field", AnnotationLocator.forMember(MemberSignature.field(fieldName)),
+                annotations);
+    }
+}
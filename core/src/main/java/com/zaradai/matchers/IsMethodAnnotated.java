@@ -21,11 +21,12 @@ import org.hamcrest.Matcher;
 import java.lang.annotation.Annotation;
 
 /**
- * A matcher to inspect methods for specified annotations.
+ * A matcher to inspect methods for specified annotations.  By default only the methods the class declares are found,
+ * the factories taking a {@link SearchStrategy} also find the methods it inherits, with the annotations of the
+ * methods it overrides merged in.
  */
 public class IsMethodAnnotated extends AbstractAnnotationMatcher {
-    private final String methodName;
-    private final Class<?>[] methodParameterTypes;
+    private final SearchStrategy strategy;
 
     /**
      * Setup the search parameters to locate required function and verify annotation expectations.
@@ -36,19 +37,37 @@ public class IsMethodAnnotated extends AbstractAnnotationMatcher {
      */
     protected IsMethodAnnotated(Class<? extends Annotation> annotationClass, Matcher<Annotation> paramMatcher,
                                 String methodName, Class<?>... methodParameterTypes) {
-        super(annotationClass, paramMatcher);
+        super(annotationClass, paramMatcher,
+                AnnotationLocator.forMember(MemberSignature.method(methodName, methodParameterTypes)));
+        this.strategy = null;
+    }
 
-        this.methodName = methodName;
-        this.methodParameterTypes = methodParameterTypes;
+    /**
+     * Setup the search parameters to locate a declared or inherited method and verify annotation expectations.
+     * @param annotationClass annotation that must decorate the method or one of the methods it overrides
+     * @param paramMatcher matcher to check for specified annotation parameter value
+     * @param strategy how far up the type hierarchy the method is searched
+     * @param methodName name of method to look for
+     * @param methodParameterTypes zero or more method parameter types to define wanted method signature
+     */
+    IsMethodAnnotated(Class<? extends Annotation> annotationClass, Matcher<Annotation> paramMatcher,
+                      SearchStrategy strategy, String methodName, Class<?>... methodParameterTypes) {
+        super(annotationClass, paramMatcher, AnnotationLocator.forInheritedMember(
+                MemberSignature.method(methodName, methodParameterTypes), strategy));
+        this.strategy = strategy;
     }
 
     @Override
     protected Annotation getAnnotation(Object item, Class<? extends Annotation> annotationClass) throws Exception {
-        return item.getClass().getDeclaredMethod(methodName, methodParameterTypes).getAnnotation(annotationClass);
+        return getAnnotationTable(item).get(annotationClass);
     }
 
     @Override
     protected String getAnnotationSource() {
+        if (strategy != null) {
+            return strategy.getSource("method");
+        }
+
         return "method";
     }
 
@@ -162,4 +181,99 @@ public class IsMethodAnnotated extends AbstractAnnotationMatcher {
         return new IsMethodAnnotated(annotation, AnnotationParamMatcher.hasParamValue(param, paramValue),
                 methodName, methodParameterTypes);
     }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Object} declares or inherits a method with
+     * the specified {@link Annotation}.  The annotations of the method are merged with those of the methods
+     * it overrides or implements in the types the <code>strategy</code> searches, the nearest annotation of each
+     * type is kept.  The method is identified as by {@link #with(Class, String, Class[])}.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(with(Id.class, SearchStrategy.TYPE_HIERARCHY, "getId"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param strategy how far up the type hierarchy the method is searched
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     */
+    @Factory
+    public static Matcher<Object> with(Class<? extends Annotation> annotation, SearchStrategy strategy,
+                                       String methodName, Class<?>... methodParameterTypes) {
+        return new IsMethodAnnotated(annotation, null, strategy, methodName, methodParameterTypes);
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type found on
+     * a method of the examined {@link Object}, declared or inherited, or on the methods it overrides or implements
+     * in the types the <code>strategy</code> searches, contains the specified <code>param</code>.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withParam(Column.class, "name", SearchStrategy.SUPERCLASS, "getName"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param strategy how far up the type hierarchy the method is searched
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     */
+    @Factory
+    public static Matcher<Object> withParam(Class<? extends Annotation> annotation, String param,
+                                            SearchStrategy strategy, String methodName,
+                                            Class<?>... methodParameterTypes) {
+        return new IsMethodAnnotated(annotation, AnnotationParamMatcher.hasParam(param), strategy, methodName,
+                methodParameterTypes);
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type found on
+     * a method of the examined {@link Object}, declared or inherited, or on the methods it overrides or implements
+     * in the types the <code>strategy</code> searches, has a specified parameter value.  The value is matched
+     * using a {@link Matcher}.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withParamValue(Column.class, "name", is("name"), SearchStrategy.SUPERCLASS,
+     *     "getName"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param matcher the matcher that asserts the parameter value
+     * @param strategy how far up the type hierarchy the method is searched
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     */
+    @Factory
+    public static <T> Matcher<Object> withParamValue(Class<? extends Annotation> annotation, String param,
+                                                     Matcher<T> matcher, SearchStrategy strategy, String methodName,
+                                                     Class<?>... methodParameterTypes) {
+        return new IsMethodAnnotated(annotation, AnnotationParamMatcher.hasParamValue(param, matcher), strategy,
+                methodName, methodParameterTypes);
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type found on
+     * a method of the examined {@link Object}, declared or inherited, or on the methods it overrides or implements
+     * in the types the <code>strategy</code> searches, has a specified parameter value.
+     * <p>
+     * For example:
+     * <pre>assertThat(myObject, is(withParamValue(Column.class, "name", "name", SearchStrategy.SUPERCLASS,
+     *     "getName"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param paramValue the value to match with
+     * @param strategy how far up the type hierarchy the method is searched
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     */
+    @Factory
+    public static <T> Matcher<Object> withParamValue(Class<? extends Annotation> annotation, String param, T paramValue,
+                                                     SearchStrategy strategy, String methodName,
+                                                     Class<?>... methodParameterTypes) {
+        return new IsMethodAnnotated(annotation, AnnotationParamMatcher.hasParamValue(param, paramValue), strategy,
+                methodName, methodParameterTypes);
+    }
 }
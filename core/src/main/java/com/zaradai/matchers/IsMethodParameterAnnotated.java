@@ -24,8 +24,7 @@ import java.lang.annotation.Annotation;
  * A matcher to inspect method parameters for specified annotations.
  */
 public class IsMethodParameterAnnotated extends AbstractParameterAnnotatedMatcher {
-    private final String methodName;
-    private final Class<?>[] parameterTypes;
+    private final MemberSignature signature;
 
     /**
      * Setup the search parameters to locate required methods and verify annotation expectations.
@@ -37,14 +36,19 @@ public class IsMethodParameterAnnotated extends AbstractParameterAnnotatedMatche
      */
     protected IsMethodParameterAnnotated(Class<? extends Annotation> annotationClass, Matcher<Annotation> paramMatcher,
                                          int parameterPosition, String methodName, Class<?>... parameterTypes) {
-        super(annotationClass, paramMatcher, parameterPosition);
-        this.methodName = methodName;
-        this.parameterTypes = parameterTypes;
+        this(annotationClass, paramMatcher, parameterPosition, MemberSignature.method(methodName, parameterTypes));
+    }
+
+    private IsMethodParameterAnnotated(Class<? extends Annotation> annotationClass, Matcher<Annotation> paramMatcher,
+                                       int parameterPosition, MemberSignature signature) {
+        super(annotationClass, paramMatcher, parameterPosition,
+                AnnotationLocator.forParameter(signature, parameterPosition));
+        this.signature = signature;
     }
 
     @Override
     protected Annotation[][] getParameterAnnotations(Object item) throws Exception {
-        return item.getClass().getDeclaredMethod(methodName, parameterTypes).getParameterAnnotations();
+        return TypeMetadata.of(item).getMember(signature).getParameterAnnotations();
     }
 
     @Override
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import org.hamcrest.Description;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Remembers, per thread, what the last failed evaluation of a matcher resolved.  Hamcrest asks a matcher whether
+ * it matches and then, only when it does not, asks again for a description of the mismatch; the remembered
+ * resolution lets the second call describe the failure without repeating the lookup.  An evaluation is remembered
+ * only when its mismatch description is discarded, and is replayed once, by the next describing evaluation of the
+ * same matcher and item.  The matcher, item and resolution are held weakly so a thread never keeps their class
+ * loaders reachable; a resolution collected before it is replayed is simply resolved again.
+ */
+final class LastEvaluation {
+    /**
+     * Returned by {@link #replay(Object, Object, Description)} when there is nothing to replay.
+     */
+    static final Object NOT_REMEMBERED = new Object();
+
+    private static final WeakReference<Object> CLEARED = new WeakReference<Object>(null);
+    private static final Object NULL_VALUE = new Object();
+    private static final ThreadLocal<LastEvaluation> LAST = new ThreadLocal<LastEvaluation>() {
+        @Override
+        protected LastEvaluation initialValue() {
+            return new LastEvaluation();
+        }
+    };
+
+    private WeakReference<Object> matcher = CLEARED;
+    private WeakReference<Object> item = CLEARED;
+    private WeakReference<Object> resolution = CLEARED;
+
+    private LastEvaluation() {
+    }
+
+    /**
+     * Remember the value a failed evaluation resolved.
+     * @param matcher evaluated matcher
+     * @param item evaluated item
+     * @param mismatchDescription description the evaluation was given, nothing is remembered for describing
+     *                            evaluations
+     * @param value resolved value
+     */
+    static void remember(Object matcher, Object item, Description mismatchDescription, Object value) {
+        if (!isDescribing(mismatchDescription)) {
+            if (value == null) {
+                LAST.get().set(matcher, item, NULL_VALUE);
+            } else {
+                LAST.get().set(matcher, item, value);
+            }
+        }
+    }
+
+    /**
+     * Remember the exception a failed evaluation raised while resolving.
+     * @param matcher evaluated matcher
+     * @param item evaluated item
+     * @param mismatchDescription description the evaluation was given, nothing is remembered for describing
+     *                            evaluations
+     * @param failure exception raised
+     */
+    static void rememberFailure(Object matcher, Object item, Description mismatchDescription, Exception failure) {
+        if (!isDescribing(mismatchDescription)) {
+            LAST.get().set(matcher, item, failure);
+        }
+    }
+
+    /**
+     * Take the remembered resolution of a failed evaluation to describe it.  Resolved values are never exceptions,
+     * a replayed exception is the failure the evaluation raised while resolving.
+     * @param matcher matcher being evaluated
+     * @param item item being evaluated
+     * @param mismatchDescription description the evaluation was given
+     * @return the remembered value or exception, or {@link #NOT_REMEMBERED} if the evaluation is not describing,
+     * the last failed evaluation was of another matcher or item or its resolution has been collected
+     */
+    static Object replay(Object matcher, Object item, Description mismatchDescription) {
+        if (!isDescribing(mismatchDescription) || matcher == null) {
+            return NOT_REMEMBERED;
+        }
+
+        LastEvaluation last = LAST.get();
+
+        if (last.matcher.get() != matcher || last.item.get() != item) {
+            return NOT_REMEMBERED;
+        }
+
+        Object res = last.resolution.get();
+        last.clear();
+
+        if (res == null) {
+            return NOT_REMEMBERED;
+        }
+        if (res == NULL_VALUE) {
+            return null;
+        }
+
+        return res;
+    }
+
+    private void set(Object matcher, Object item, Object resolution) {
+        // warm evaluations remember the same objects again, their references are reused
+        this.matcher = reference(this.matcher, matcher);
+        this.item = reference(this.item, item);
+        this.resolution = reference(this.resolution, resolution);
+    }
+
+    private void clear() {
+        matcher = CLEARED;
+        item = CLEARED;
+        resolution = CLEARED;
+    }
+
+    private static WeakReference<Object> reference(WeakReference<Object> current, Object referent) {
+        if (referent == null) {
+            return CLEARED;
+        }
+        if (current.get() == referent) {
+            return current;
+        }
+
+        return new WeakReference<Object>(referent);
+    }
+
+    private static boolean isDescribing(Description mismatchDescription) {
+        return !(mismatchDescription instanceof Description.NullDescription);
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+
+/**
+ * Access to the matchers of the package that resolve their element through an {@link AnnotationLocator}, letting
+ * the element be resolved independently of the matcher, once for several matchers or from a class rather than an
+ * instance.
+ */
+final class LocatedMatchers {
+    private LocatedMatchers() {
+    }
+
+    /**
+     * Get the locator of the element a matcher inspects.
+     * @param matcher any matcher
+     * @return element locator or null if the matcher does not resolve its element through a locator
+     */
+    static AnnotationLocator locatorOf(Matcher<?> matcher) {
+        if (matcher instanceof AbstractAnnotationMatcher) {
+            return ((AbstractAnnotationMatcher) matcher).getLocator();
+        }
+        if (matcher instanceof AnnotationSetMatcher) {
+            return ((AnnotationSetMatcher) matcher).getLocator();
+        }
+        if (matcher instanceof AnnotationSpec) {
+            return ((AnnotationSpec) matcher).getLocator();
+        }
+
+        return null;
+    }
+
+    /**
+     * Match the resolved annotations of the element a matcher inspects.
+     * @param matcher matcher with a locator
+     * @param table annotations of the element found by the matcher's locator
+     * @param mismatchDescription description of a mismatch
+     * @return true if the matcher matches the annotations
+     */
+    static boolean matchesTable(Matcher<?> matcher, AnnotationTable table, Description mismatchDescription) {
+        if (matcher instanceof AbstractAnnotationMatcher) {
+            return ((AbstractAnnotationMatcher) matcher).matchesTable(table, mismatchDescription);
+        }
+        if (matcher instanceof AnnotationSpec) {
+            return ((AnnotationSpec) matcher).matchesTable(table, mismatchDescription);
+        }
+
+        return ((AnnotationSetMatcher) matcher).matchesTable(table, mismatchDescription);
+    }
+
+    /**
+     * Match the element a matcher inspects within a class.  A failure is remembered so describing it does not
+     * resolve the element again.
+     * @param matcher matcher with a locator
+     * @param locator the matcher's locator
+     * @param type metadata of the class to search for the element
+     * @param item item being matched
+     * @param mismatchDescription description of a mismatch
+     * @return true if the matcher matches the element's annotations
+     */
+    static boolean matchLocated(Matcher<?> matcher, AnnotationLocator locator, TypeMetadata type, Object item,
+                                Description mismatchDescription) {
+        Object last = LastEvaluation.replay(matcher, item, mismatchDescription);
+        AnnotationTable table;
+
+        if (last == LastEvaluation.NOT_REMEMBERED) {
+            table = locator.find(type);
+        } else {
+            table = (AnnotationTable) last;
+        }
+
+        if (table == null) {
+            mismatchDescription.appendText(locator.getMiss(type).toString());
+            return false;
+        }
+
+        if (!matchesTable(matcher, table, mismatchDescription)) {
+            LastEvaluation.remember(matcher, item, mismatchDescription, table);
+            return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+/**
+ * The cached result of looking up an element a class does not declare.  A miss is described exactly as the
+ * exception reflection raises for the lookup, but the exception is only created the first time the element is
+ * missed in the class, so later misses neither allocate nor fill in a stack trace.
+ */
+final class LookupMiss {
+    private final String description;
+
+    /**
+     * Record a miss.
+     * @param exception exception raised by the reflective lookup
+     */
+    LookupMiss(Exception exception) {
+        this.description = exception.toString();
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
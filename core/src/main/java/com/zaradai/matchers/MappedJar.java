@@ -0,0 +1,365 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * A jar read through a memory mapping of the whole archive.  The central directory is parsed straight from the
+ * mapping and only the offsets of class file entries are kept, so no object is created for the other entries.
+ * Stored entries are handed out as slices of the mapping without being copied, deflated entries are inflated into
+ * buffers of an {@link Inflation} the reading thread reuses from one entry to the next.
+ * <p>
+ * Only the archives {@link java.util.zip.ZipFile} reads without its zip64 extensions are supported, {@link #map(File)}
+ * rejects the others with a {@link ZipException} and they must be read some other way.  A mapped jar is immutable
+ * and may be read by many threads at once; the mapping is released once the jar is no longer referenced.
+ * </p>
+ */
+final class MappedJar {
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int END_SIZE = 22;
+    private static final int END_ENTRIES = 10;
+    private static final int END_DIRECTORY_OFFSET = 16;
+    private static final int MAX_COMMENT = 0xFFFF;
+
+    private static final int ENTRY_SIGNATURE = 0x02014b50;
+    private static final int ENTRY_SIZE = 46;
+    private static final int ENTRY_FLAGS = 8;
+    private static final int ENTRY_METHOD = 10;
+    private static final int ENTRY_CRC = 16;
+    private static final int ENTRY_COMPRESSED = 20;
+    private static final int ENTRY_UNCOMPRESSED = 24;
+    private static final int ENTRY_NAME_LENGTH = 28;
+    private static final int ENTRY_EXTRA_LENGTH = 30;
+    private static final int ENTRY_COMMENT_LENGTH = 32;
+    private static final int ENTRY_LOCAL_OFFSET = 42;
+
+    private static final int LOCAL_SIGNATURE = 0x04034b50;
+    private static final int LOCAL_SIZE = 30;
+    private static final int LOCAL_NAME_LENGTH = 26;
+    private static final int LOCAL_EXTRA_LENGTH = 28;
+
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final long INT_MASK = 0xFFFFFFFFL;
+    private static final int SHORT_MASK = 0xFFFF;
+    private static final int FLAG_ENCRYPTED = 1;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte[] CLASS_SUFFIX = ".class".getBytes(UTF_8);
+    private static final byte[] INFO_SUFFIX = "-info.class".getBytes(UTF_8);
+    private static final byte[] META_INF = "META-INF/".getBytes(UTF_8);
+
+    private final File file;
+    private final ByteBuffer archive;
+    private final int[] entries;
+
+    private MappedJar(File file, ByteBuffer archive, int[] entries) {
+        this.file = file;
+        this.archive = archive;
+        this.entries = entries;
+    }
+
+    /**
+     * Map a jar and find its class file entries, other than module and package descriptors and the entries under
+     * {@code META-INF/}.  The file is closed before returning, the mapping stays valid.
+     * @param file the jar
+     * @return mapped jar
+     * @throws ZipException if the file is not a jar this reader supports
+     * @throws IOException if the file can not be read
+     */
+    static MappedJar map(File file) throws IOException {
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        MappedByteBuffer mapping;
+
+        try {
+            if (in.length() > Integer.MAX_VALUE) {
+                throw new ZipException(file + " is too large to map");
+            }
+            mapping = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+        } finally {
+            in.close();
+        }
+
+        ByteBuffer archive = mapping.order(ByteOrder.LITTLE_ENDIAN);
+
+        try {
+            return new MappedJar(file, archive, findClassEntries(file, archive));
+        } catch (IndexOutOfBoundsException e) {
+            throw corrupt(file + " has a corrupt central directory", e);
+        }
+    }
+
+    /**
+     * Get the number of class file entries.
+     * @return number of entries
+     */
+    int size() {
+        return entries.length;
+    }
+
+    /**
+     * Get the name of a class file entry.
+     * @param index index of the entry, in the order of the central directory
+     * @return entry name
+     */
+    String getName(int index) {
+        int entry = entries[index];
+        byte[] name = new byte[unsignedShort(archive, entry + ENTRY_NAME_LENGTH)];
+
+        duplicate(entry + ENTRY_SIZE, name.length).get(name);
+
+        return new String(name, UTF_8);
+    }
+
+    /**
+     * Get the CRC-32 of the uncompressed contents of a class file entry, as recorded by the central directory.
+     * @param index index of the entry
+     * @return checksum of the entry
+     */
+    long getCrc(int index) {
+        return archive.getInt(entries[index] + ENTRY_CRC) & INT_MASK;
+    }
+
+    /**
+     * Get the uncompressed size of a class file entry, as recorded by the central directory.
+     * @param index index of the entry
+     * @return size of the entry in bytes
+     */
+    long getSize(int index) {
+        return archive.getInt(entries[index] + ENTRY_UNCOMPRESSED) & INT_MASK;
+    }
+
+    /**
+     * Get the location of a class file entry, in the form {@code jar!/entry}.
+     * @param index index of the entry
+     * @return entry location
+     */
+    String getLocation(int index) {
+        return file + "!/" + getName(index);
+    }
+
+    /**
+     * Read a class file entry.  A stored entry is returned as a read-only slice of the mapping.  A deflated entry is
+     * inflated into the output buffer of the <code>inflation</code>, which is overwritten by the next entry read
+     * with it.
+     * @param index index of the entry
+     * @param inflation inflater and buffers of the reading thread
+     * @return contents of the entry between the position and the limit of the buffer
+     * @throws ZipException if the entry is encrypted, compressed by an unsupported method or corrupt
+     */
+    ByteBuffer read(int index, Inflation inflation) throws ZipException {
+        try {
+            return readEntry(index, inflation);
+        } catch (IndexOutOfBoundsException e) {
+            throw corrupt(getLocation(index) + " is corrupt", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+
+    private ByteBuffer readEntry(int index, Inflation inflation) throws ZipException {
+        int entry = entries[index];
+        int method = unsignedShort(archive, entry + ENTRY_METHOD);
+        int compressed = archive.getInt(entry + ENTRY_COMPRESSED);
+        int uncompressed = archive.getInt(entry + ENTRY_UNCOMPRESSED);
+        int local = archive.getInt(entry + ENTRY_LOCAL_OFFSET);
+
+        if ((unsignedShort(archive, entry + ENTRY_FLAGS) & FLAG_ENCRYPTED) != 0) {
+            throw new ZipException(getLocation(index) + " is encrypted");
+        }
+        if (local < 0 || archive.getInt(local) != LOCAL_SIGNATURE) {
+            throw new ZipException(getLocation(index) + " has no local header");
+        }
+
+        int data = local + LOCAL_SIZE + unsignedShort(archive, local + LOCAL_NAME_LENGTH)
+                + unsignedShort(archive, local + LOCAL_EXTRA_LENGTH);
+
+        if (compressed < 0 || data + compressed > archive.limit()) {
+            throw new ZipException(getLocation(index) + " is truncated");
+        }
+        if (method == STORED) {
+            return duplicate(data, compressed).slice().asReadOnlyBuffer();
+        }
+        if (method == DEFLATED) {
+            return inflation.inflate(duplicate(data, compressed), uncompressed, getLocation(index));
+        }
+
+        throw new ZipException(getLocation(index) + " is compressed by unsupported method " + method);
+    }
+
+    private ByteBuffer duplicate(int offset, int length) {
+        ByteBuffer res = archive.duplicate();
+
+        // set through Buffer, whose methods ByteBuffer only overrides from Java 9
+        ((Buffer) res).limit(offset + length);
+        ((Buffer) res).position(offset);
+
+        return res;
+    }
+
+    private static int[] findClassEntries(File file, ByteBuffer archive) throws ZipException {
+        int end = findEnd(file, archive);
+
+        // an archive of exactly 65535 entries may fill the end record without zip64, only its locator tells them apart
+        if (end >= ZIP64_LOCATOR_SIZE && archive.getInt(end - ZIP64_LOCATOR_SIZE) == ZIP64_LOCATOR_SIGNATURE) {
+            throw new ZipException(file + " is a zip64 archive");
+        }
+
+        int count = unsignedShort(archive, end + END_ENTRIES);
+        int offset = archive.getInt(end + END_DIRECTORY_OFFSET);
+
+        int[] res = new int[count];
+        int found = 0;
+
+        for (int i = 0; i < count; i++) {
+            if (offset < 0 || offset + ENTRY_SIZE > end || archive.getInt(offset) != ENTRY_SIGNATURE) {
+                throw new ZipException(file + " has a corrupt central directory");
+            }
+
+            int nameLength = unsignedShort(archive, offset + ENTRY_NAME_LENGTH);
+
+            if (isClassFile(archive, offset + ENTRY_SIZE, nameLength)) {
+                res[found++] = offset;
+            }
+            offset += ENTRY_SIZE + nameLength + unsignedShort(archive, offset + ENTRY_EXTRA_LENGTH)
+                    + unsignedShort(archive, offset + ENTRY_COMMENT_LENGTH);
+        }
+
+        return Arrays.copyOf(res, found);
+    }
+
+    private static int findEnd(File file, ByteBuffer archive) throws ZipException {
+        // the end record is followed by a comment of up to 64k, search back from the end of the archive
+        int last = Math.max(0, archive.limit() - END_SIZE - MAX_COMMENT);
+
+        for (int offset = archive.limit() - END_SIZE; offset >= last; offset--) {
+            if (archive.getInt(offset) == END_SIGNATURE) {
+                return offset;
+            }
+        }
+
+        throw new ZipException(file + " is not a zip archive");
+    }
+
+    private static boolean isClassFile(ByteBuffer archive, int name, int length) {
+        return endsWith(archive, name, length, CLASS_SUFFIX) && !endsWith(archive, name, length, INFO_SUFFIX)
+                && !startsWith(archive, name, length, META_INF);
+    }
+
+    private static boolean startsWith(ByteBuffer archive, int name, int length, byte[] prefix) {
+        return length >= prefix.length && regionMatches(archive, name, prefix);
+    }
+
+    private static boolean endsWith(ByteBuffer archive, int name, int length, byte[] suffix) {
+        return length >= suffix.length && regionMatches(archive, name + length - suffix.length, suffix);
+    }
+
+    private static boolean regionMatches(ByteBuffer archive, int offset, byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (archive.get(offset + i) != expected[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static ZipException corrupt(String message, Exception cause) {
+        ZipException res = new ZipException(message);
+
+        res.initCause(cause);
+
+        return res;
+    }
+
+    private static int unsignedShort(ByteBuffer archive, int offset) {
+        return archive.getShort(offset) & SHORT_MASK;
+    }
+
+    /**
+     * An inflater with its input and output buffers, reused by one thread for every deflated entry it reads.  An
+     * inflation is not thread-safe and must be ended once the thread is done with it.
+     */
+    static final class Inflation {
+        private final Inflater inflater = new Inflater(true);
+        private byte[] input = new byte[0];
+        private byte[] output = new byte[0];
+
+        /**
+         * Release the native resources of the inflater.
+         */
+        void end() {
+            inflater.end();
+        }
+
+        private ByteBuffer inflate(ByteBuffer compressed, int size, String location) throws ZipException {
+            int length = compressed.remaining();
+
+            if (size < 0) {
+                throw new ZipException(location + " is too large");
+            }
+            // raw deflate streams may need a byte past their end to finish, see ZipFile
+            if (input.length < length + 1) {
+                input = new byte[length + 1];
+            }
+            if (output.length < size) {
+                output = new byte[size];
+            }
+            compressed.get(input, 0, length);
+            input[length] = 0;
+
+            inflater.reset();
+            inflater.setInput(input, 0, length + 1);
+            try {
+                int count = 0;
+
+                while (count < size && !inflater.finished()) {
+                    int inflated = inflater.inflate(output, count, size - count);
+
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    count += inflated;
+                }
+                if (count != size) {
+                    throw new ZipException(location + " inflated to " + count + " bytes, not " + size);
+                }
+            } catch (DataFormatException e) {
+                throw corrupt(location + " is corrupt: " + e.getMessage(), e);
+            }
+
+            return ByteBuffer.wrap(output, 0, size);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Identifies a field, method or constructor declared by a class.  Signatures are immutable and compute their hash
+ * once so they can be created by a matcher up front and used as cache keys on every evaluation.
+ */
+final class MemberSignature {
+    /**
+     * The kind of member a signature refers to.
+     */
+    enum Kind {
+        /** A declared field. */
+        FIELD,
+        /** A declared method. */
+        METHOD,
+        /** A declared constructor. */
+        CONSTRUCTOR
+    }
+
+    private static final Class<?>[] NO_PARAMETERS = new Class<?>[0];
+    private static final List<Class<?>> PRIMITIVE_TYPES = Arrays.<Class<?>>asList(boolean.class, byte.class,
+            char.class, short.class, int.class, long.class, float.class, double.class, void.class);
+    private static final String PRIMITIVE_DESCRIPTORS = "ZBCSIJFDV";
+
+    private final Kind kind;
+    private final String name;
+    private final Class<?>[] parameterTypes;
+    private final String descriptor;
+    private final int hash;
+
+    private MemberSignature(Kind kind, String name, Class<?>[] parameterTypes) {
+        this.kind = kind;
+        this.name = name;
+        this.parameterTypes = copyOf(parameterTypes);
+        this.descriptor = computeDescriptor();
+        this.hash = computeHash();
+    }
+
+    /**
+     * Create the signature of a declared field.
+     * @param name name of the field
+     */
+    static MemberSignature field(String name) {
+        return new MemberSignature(Kind.FIELD, name, NO_PARAMETERS);
+    }
+
+    /**
+     * Create the signature of a declared method.
+     * @param name name of the method
+     * @param parameterTypes the method's formal parameter types, in declared order
+     */
+    static MemberSignature method(String name, Class<?>... parameterTypes) {
+        return new MemberSignature(Kind.METHOD, name, parameterTypes);
+    }
+
+    /**
+     * Create the signature of a declared constructor.
+     * @param parameterTypes the constructor's formal parameter types, in declared order
+     */
+    static MemberSignature constructor(Class<?>... parameterTypes) {
+        return new MemberSignature(Kind.CONSTRUCTOR, "<init>", parameterTypes);
+    }
+
+    /**
+     * Describe the member as the JDK does when reporting that it is missing from a class.
+     * @param type class that was searched
+     * @return field name, or the qualified method or constructor name with its parameter types
+     */
+    String describe(Class<?> type) {
+        return describe(type.getName());
+    }
+
+    /**
+     * Describe the member as the JDK does when reporting that it is missing from a class.
+     * @param typeName binary name of the class that was searched
+     * @return field name, or the qualified method or constructor name with its parameter types
+     */
+    String describe(String typeName) {
+        if (kind == Kind.FIELD) {
+            return name;
+        }
+
+        StringBuilder res = new StringBuilder(typeName).append('.').append(name).append('(');
+
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                res.append(',');
+            }
+            res.append(typeName(parameterTypes[i]));
+        }
+
+        return res.append(')').toString();
+    }
+
+    /**
+     * Get the kind of member.
+     * @return member kind
+     */
+    Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Get the member name, constructors are named {@code <init>}.
+     * @return member name
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Get the formal parameter types of the method or constructor.
+     * @return copy of the parameter types, empty for fields
+     */
+    Class<?>[] getParameterTypes() {
+        return parameterTypes.clone();
+    }
+
+    /**
+     * Get the member name followed by the class file descriptor of its parameter types, such as
+     * {@code run(Ljava/lang/String;[I)}, which identifies a method or constructor among the members read from a
+     * class file.  Fields are identified by their name alone.
+     * @return member name and parameter descriptor
+     */
+    String getDescriptor() {
+        return descriptor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MemberSignature)) {
+            return false;
+        }
+
+        MemberSignature other = (MemberSignature) o;
+
+        return hash == other.hash && kind == other.kind && equalNames(name, other.name)
+                && Arrays.equals(parameterTypes, other.parameterTypes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + name + Arrays.toString(parameterTypes);
+    }
+
+    private int computeHash() {
+        int result = kind.ordinal();
+
+        if (name != null) {
+            result = 31 * result + name.hashCode();
+        }
+
+        return 31 * result + Arrays.hashCode(parameterTypes);
+    }
+
+    private String computeDescriptor() {
+        if (kind == Kind.FIELD || name == null) {
+            return name;
+        }
+
+        StringBuilder res = new StringBuilder(name).append('(');
+
+        for (Class<?> parameterType : parameterTypes) {
+            appendDescriptor(res, parameterType);
+        }
+
+        return res.append(')').toString();
+    }
+
+    private static void appendDescriptor(StringBuilder res, Class<?> type) {
+        if (type == null) {
+            // never matches a descriptor read from a class file
+            res.append('?');
+        } else if (type.isArray()) {
+            res.append(type.getName().replace('.', '/'));
+        } else if (type.isPrimitive()) {
+            res.append(PRIMITIVE_DESCRIPTORS.charAt(PRIMITIVE_TYPES.indexOf(type)));
+        } else {
+            res.append('L').append(type.getName().replace('.', '/')).append(';');
+        }
+    }
+
+    private static String typeName(Class<?> type) {
+        if (type == null) {
+            return "null";
+        }
+
+        return type.getName();
+    }
+
+    private static boolean equalNames(String first, String second) {
+        if (first == null) {
+            return second == null;
+        }
+
+        return first.equals(second);
+    }
+
+    private static Class<?>[] copyOf(Class<?>[] parameterTypes) {
+        if (parameterTypes == null || parameterTypes.length == 0) {
+            return NO_PARAMETERS;
+        }
+
+        return parameterTypes.clone();
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hash table of the fields, methods and constructors declared by a class, keyed by name and erased parameter
+ * types.  The declared members are copied out of the class once when the table is built, after which every lookup
+ * is a single hash access instead of the linear scan done by {@link Class#getDeclaredMethod(String, Class[])}.
+ * Member metadata is created the first time a member is looked up.  Members can also be looked up by their
+ * reflective object, which finds bridge methods that are hidden from signature lookups.
+ */
+final class MemberTable {
+    private final Map<MemberSignature, Entry> entries;
+    private final Map<AnnotatedElement, Entry> entriesByMember;
+
+    private MemberTable(Map<MemberSignature, Entry> entries, Map<AnnotatedElement, Entry> entriesByMember) {
+        this.entries = entries;
+        this.entriesByMember = entriesByMember;
+    }
+
+    /**
+     * Build the table of members declared by a class.
+     * @param type class to read
+     * @return table of declared members
+     */
+    static MemberTable of(Class<?> type) {
+        Map<MemberSignature, Entry> entries = new HashMap<MemberSignature, Entry>();
+        Map<AnnotatedElement, Entry> entriesByMember = new HashMap<AnnotatedElement, Entry>();
+
+        for (Field field : type.getDeclaredFields()) {
+            entries.put(MemberSignature.field(field.getName()), addMember(entriesByMember, field));
+        }
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            entries.put(MemberSignature.constructor(constructor.getParameterTypes()),
+                    addMember(entriesByMember, constructor));
+        }
+        for (Method method : type.getDeclaredMethods()) {
+            addMethod(entries, method, addMember(entriesByMember, method));
+        }
+
+        return new MemberTable(entries, entriesByMember);
+    }
+
+    /**
+     * Get the metadata of the member with the signature.
+     * @param signature identifies the member
+     * @return member metadata or null if the class does not declare such a member
+     */
+    ElementMetadata get(MemberSignature signature) {
+        Entry entry = entries.get(signature);
+
+        if (entry == null) {
+            return null;
+        }
+
+        return entry.getMetadata();
+    }
+
+    /**
+     * Get the metadata of a member by its reflective object.
+     * @param member field, method or constructor declared by the class
+     * @return member metadata or null if the class does not declare the member
+     */
+    ElementMetadata get(AnnotatedElement member) {
+        Entry entry = entriesByMember.get(member);
+
+        if (entry == null) {
+            return null;
+        }
+
+        return entry.getMetadata();
+    }
+
+    /**
+     * Get the number of members in the table.
+     * @return member count
+     */
+    int size() {
+        return entries.size();
+    }
+
+    private static Entry addMember(Map<AnnotatedElement, Entry> entriesByMember, AnnotatedElement member) {
+        Entry entry = new Entry(member);
+
+        entriesByMember.put(member, entry);
+
+        return entry;
+    }
+
+    private static void addMethod(Map<MemberSignature, Entry> entries, Method method, Entry entry) {
+        MemberSignature signature = MemberSignature.method(method.getName(), method.getParameterTypes());
+        Entry existing = entries.get(signature);
+
+        // as with getDeclaredMethod, prefer the method with the most specific return type over bridge methods
+        if (existing == null || isMoreSpecific(method, (Method) existing.member)) {
+            entries.put(signature, entry);
+        }
+    }
+
+    private static boolean isMoreSpecific(Method candidate, Method existing) {
+        return existing.getReturnType().isAssignableFrom(candidate.getReturnType());
+    }
+
+    /**
+     * A member and its lazily read metadata.
+     */
+    private static final class Entry {
+        private final AnnotatedElement member;
+        private volatile ElementMetadata metadata;
+
+        Entry(AnnotatedElement member) {
+            this.member = member;
+        }
+
+        ElementMetadata getMetadata() {
+            ElementMetadata res = metadata;
+
+            if (res == null) {
+                res = new ElementMetadata(member);
+                metadata = res;
+            }
+
+            return res;
+        }
+    }
+}
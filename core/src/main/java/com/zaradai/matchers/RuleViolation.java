@@ -0,0 +1,115 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+/**
+ * An element of a scanned class that breaks an {@link AnnotationRule}.  Violations are immutable values.
+ */
+public final class RuleViolation {
+    private final String rule;
+    private final String className;
+    private final String element;
+    private final String location;
+    private final String message;
+
+    /**
+     * Record a violation.
+     * @param rule name of the rule that was broken
+     * @param className binary name of the class
+     * @param element description of the element that breaks the rule
+     * @param location class file the class was read from
+     * @param message description of how the element breaks the rule
+     */
+    RuleViolation(String rule, String className, String element, String location, String message) {
+        this.rule = rule;
+        this.className = className;
+        this.element = element;
+        this.location = location;
+        this.message = message;
+    }
+
+    /**
+     * Get the name of the rule that was broken.
+     * @return rule name
+     */
+    public String getRule() {
+        return rule;
+    }
+
+    /**
+     * Get the binary name of the class that breaks the rule.
+     * @return class name
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Get the element of the class that breaks the rule, such as {@code class}, {@code field name},
+     * {@code method run(int, java.lang.String)} or {@code parameter 0 of constructor (java.lang.String)}.
+     * @return element description
+     */
+    public String getElement() {
+        return element;
+    }
+
+    /**
+     * Get the class file the class was read from, a file or a jar entry such as {@code lib/app.jar!/com/App.class}.
+     * @return class file location
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Get the description of how the element breaks the rule.
+     * @return mismatch description
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RuleViolation)) {
+            return false;
+        }
+
+        RuleViolation other = (RuleViolation) o;
+
+        return rule.equals(other.rule) && className.equals(other.className) && element.equals(other.element)
+                && location.equals(other.location) && message.equals(other.message);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = rule.hashCode();
+
+        result = 31 * result + className.hashCode();
+        result = 31 * result + element.hashCode();
+        result = 31 * result + location.hashCode();
+
+        return 31 * result + message.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return className + " " + element + " breaks rule '" + rule + "': " + message;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+/**
+ * How far up its type hierarchy the annotations of a class, or of a field or method it inherits, are searched.  Where
+ * the class and its supertypes carry annotations of the same type, the nearest one is used: the class itself, then its
+ * superclasses from the nearest, then the interfaces it implements before those of its superclasses and the
+ * superinterfaces of each breadth first.  Annotations are searched whether or not their type is
+ * {@link java.lang.annotation.Inherited}.
+ * <p>
+ * A method takes the annotations of the methods it overrides or implements in the searched supertypes, merged in the
+ * same order, but never those of a private method.  A field is taken from the nearest searched type declaring a field
+ * of that name, including the private fields of superclasses such as mapped superclasses of entities.
+ * </p>
+ */
+public enum SearchStrategy {
+    /**
+     * Only the annotations declared on the class itself, without those it inherits.
+     */
+    DECLARED("class declaration"),
+    /**
+     * The annotations declared on the class and on each of its superclasses.
+     */
+    SUPERCLASS("class or a superclass"),
+    /**
+     * The annotations declared on the class, on each of its superclasses and on every interface they implement.
+     */
+    TYPE_HIERARCHY("class or a supertype");
+
+    private final String source;
+
+    /**
+     * Describe a strategy.
+     * @param source description of the types searched
+     */
+    SearchStrategy(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Get the description of the types searched, as used by matchers to describe themselves.
+     * @return description of the searched types
+     */
+    String getSource() {
+        return source;
+    }
+
+    /**
+     * Get the description of the members searched, as used by matchers to describe themselves.
+     * @param member kind of member, such as <code>field</code>
+     * @return description of the searched members
+     */
+    String getSource(String member) {
+        return member + " of " + source;
+    }
+}
@@ -0,0 +1,385 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.AnnotationTypeMismatchException;
+import java.lang.annotation.IncompleteAnnotationException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Implements an annotation read from a class file as a dynamic proxy of its annotation type.  Like the annotations
+ * created by reflection, attribute values are converted to their declared types when they are first read, defaults
+ * fill in attributes that were not given and {@link Object#equals(Object)}, {@link Object#hashCode()} and
+ * {@link Annotation#annotationType()} follow the contract of {@link Annotation}, so synthetic and reflective
+ * annotations are interchangeable.  Values that can not be converted are reported when the attribute is read, with
+ * the exception reflection raises in the same situation.
+ */
+final class SyntheticAnnotation implements InvocationHandler {
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    private final Class<? extends Annotation> type;
+    private final AnnotationData data;
+    private final ClassLoader classLoader;
+    private final AnnotationAttributes attributes;
+    private final AtomicReferenceArray<Object> values;
+
+    private SyntheticAnnotation(Class<? extends Annotation> type, AnnotationData data, ClassLoader classLoader) {
+        this.type = type;
+        this.data = data;
+        this.classLoader = classLoader;
+        this.attributes = AnnotationAttributes.forType(type);
+        this.values = new AtomicReferenceArray<Object>(attributes.size());
+    }
+
+    /**
+     * Materialize the annotations recorded for an element.  As with reflection, annotations whose type can not be
+     * loaded or is no longer retained at runtime are left out.
+     * @param annotations annotations read from a class file
+     * @param classLoader loader of the annotation types and of the classes referenced by annotation values
+     * @return the annotations present on the element
+     */
+    static Annotation[] materialize(AnnotationData[] annotations, ClassLoader classLoader) {
+        if (annotations.length == 0) {
+            return NO_ANNOTATIONS;
+        }
+
+        Annotation[] res = new Annotation[annotations.length];
+        int count = 0;
+
+        for (AnnotationData annotation : annotations) {
+            Class<? extends Annotation> annotationType = annotationType(annotation.getTypeName(), classLoader);
+
+            if (annotationType != null) {
+                res[count++] = create(annotationType, annotation, classLoader);
+            }
+        }
+
+        if (count < res.length) {
+            return Arrays.copyOf(res, count);
+        }
+
+        return res;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+
+        if (args != null) {
+            if (args.length == 1 && "equals".equals(name)) {
+                return equalTo(proxy, args[0]);
+            }
+            throw new AssertionError("Unexpected method " + method);
+        }
+        if ("hashCode".equals(name)) {
+            return hash();
+        }
+        if ("toString".equals(name)) {
+            return describe();
+        }
+        if ("annotationType".equals(name)) {
+            return type;
+        }
+
+        return copyOf(valueOf(attributes.get(name)));
+    }
+
+    private static Annotation create(Class<? extends Annotation> annotationType, AnnotationData data,
+                                     ClassLoader classLoader) {
+        return annotationType.cast(Proxy.newProxyInstance(annotationType.getClassLoader(),
+                new Class<?>[] {annotationType}, new SyntheticAnnotation(annotationType, data, classLoader)));
+    }
+
+    private static Class<? extends Annotation> annotationType(String name, ClassLoader classLoader) {
+        Class<?> res;
+
+        try {
+            res = Class.forName(name, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (LinkageError e) {
+            return null;
+        }
+
+        if (!res.isAnnotation()) {
+            return null;
+        }
+
+        Retention retention = res.getAnnotation(Retention.class);
+
+        if (retention == null || retention.value() != RetentionPolicy.RUNTIME) {
+            return null;
+        }
+
+        return res.asSubclass(Annotation.class);
+    }
+
+    private Object valueOf(AnnotationAttributes.Attribute attribute) {
+        Object res = values.get(attribute.getIndex());
+
+        if (res == null) {
+            values.compareAndSet(attribute.getIndex(), null, resolve(attribute));
+            res = values.get(attribute.getIndex());
+        }
+        if (res instanceof Unavailable) {
+            throw ((Unavailable) res).exception;
+        }
+
+        return res;
+    }
+
+    private Object resolve(AnnotationAttributes.Attribute attribute) {
+        Object value = data.getValue(attribute.getName());
+
+        if (value == null) {
+            return defaultOf(attribute);
+        }
+
+        try {
+            return convert(value, attribute.getType());
+        } catch (ClassNotFoundException e) {
+            return new Unavailable(new TypeNotPresentException(e.getMessage(), e));
+        } catch (EnumConstantNotPresentException e) {
+            return new Unavailable(e);
+        } catch (IllegalArgumentException e) {
+            return new Unavailable(new AnnotationTypeMismatchException(method(attribute), e.getMessage()));
+        }
+    }
+
+    private Object defaultOf(AnnotationAttributes.Attribute attribute) {
+        Object res = method(attribute).getDefaultValue();
+
+        if (res == null) {
+            return new Unavailable(new IncompleteAnnotationException(type, attribute.getName()));
+        }
+
+        return res;
+    }
+
+    private Method method(AnnotationAttributes.Attribute attribute) {
+        try {
+            return type.getDeclaredMethod(attribute.getName());
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Attribute " + attribute.getName() + " of " + type + " has vanished", e);
+        }
+    }
+
+    private Object convert(Object value, Class<?> valueType) throws ClassNotFoundException {
+        if (value instanceof Object[]) {
+            return convertArray((Object[]) value, valueType);
+        }
+
+        Object res;
+
+        if (value instanceof AnnotationData.EnumConstant) {
+            res = convertEnumConstant((AnnotationData.EnumConstant) value, valueType);
+        } else if (value instanceof AnnotationData.ClassReference) {
+            res = ((AnnotationData.ClassReference) value).resolve(classLoader);
+        } else if (value instanceof AnnotationData) {
+            res = convertAnnotation((AnnotationData) value, valueType);
+        } else {
+            res = value;
+        }
+
+        if (!wrap(valueType).isInstance(res)) {
+            throw new IllegalArgumentException(res.getClass().getName());
+        }
+
+        return res;
+    }
+
+    private Object convertArray(Object[] value, Class<?> valueType) throws ClassNotFoundException {
+        if (!valueType.isArray()) {
+            throw new IllegalArgumentException("Array with component type [" + valueType.getName() + "]");
+        }
+
+        Object res = Array.newInstance(valueType.getComponentType(), value.length);
+
+        for (int i = 0; i < value.length; i++) {
+            Array.set(res, i, convert(value[i], valueType.getComponentType()));
+        }
+
+        return res;
+    }
+
+    private static Object convertEnumConstant(AnnotationData.EnumConstant value, Class<?> valueType) {
+        if (!valueType.isEnum() || !valueType.getName().equals(value.getTypeName())) {
+            throw new IllegalArgumentException(value.getTypeName() + "." + value.getName());
+        }
+
+        for (Object constant : valueType.getEnumConstants()) {
+            if (((Enum<?>) constant).name().equals(value.getName())) {
+                return constant;
+            }
+        }
+
+        throw new EnumConstantNotPresentException(valueType.asSubclass(Enum.class), value.getName());
+    }
+
+    private Object convertAnnotation(AnnotationData value, Class<?> valueType) {
+        if (!valueType.isAnnotation() || !valueType.getName().equals(value.getTypeName())) {
+            throw new IllegalArgumentException("@" + value.getTypeName());
+        }
+
+        return create(valueType.asSubclass(Annotation.class), value, classLoader);
+    }
+
+    private boolean equalTo(Object proxy, Object other) {
+        if (proxy == other) {
+            return true;
+        }
+        if (!type.isInstance(other)) {
+            return false;
+        }
+
+        for (int i = 0; i < attributes.size(); i++) {
+            AnnotationAttributes.Attribute attribute = attributes.get(i);
+            Object otherValue;
+
+            try {
+                otherValue = attribute.getValue((Annotation) other);
+            } catch (Exception e) {
+                return false;
+            }
+
+            if (!Arrays.deepEquals(new Object[] {valueOf(attribute)}, new Object[] {otherValue})) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int hash() {
+        int res = 0;
+
+        for (int i = 0; i < attributes.size(); i++) {
+            AnnotationAttributes.Attribute attribute = attributes.get(i);
+
+            res += (127 * attribute.getName().hashCode()) ^ hashOf(valueOf(attribute));
+        }
+
+        return res;
+    }
+
+    private String describe() {
+        StringBuilder res = new StringBuilder("@").append(type.getName()).append('(');
+
+        for (int i = 0; i < attributes.size(); i++) {
+            AnnotationAttributes.Attribute attribute = attributes.get(i);
+
+            if (i > 0) {
+                res.append(", ");
+            }
+            res.append(attribute.getName()).append('=');
+
+            try {
+                appendValue(res, valueOf(attribute));
+            } catch (RuntimeException e) {
+                res.append('<').append(e).append('>');
+            }
+        }
+
+        return res.append(')').toString();
+    }
+
+    private static void appendValue(StringBuilder res, Object value) {
+        if (!value.getClass().isArray()) {
+            res.append(value);
+            return;
+        }
+
+        res.append('[');
+
+        for (int i = 0; i < Array.getLength(value); i++) {
+            if (i > 0) {
+                res.append(", ");
+            }
+            res.append(Array.get(value, i));
+        }
+
+        res.append(']');
+    }
+
+    private static int hashOf(Object value) {
+        if (!value.getClass().isArray()) {
+            return value.hashCode();
+        }
+        if (value instanceof Object[]) {
+            return Arrays.hashCode((Object[]) value);
+        }
+        if (value instanceof int[]) {
+            return Arrays.hashCode((int[]) value);
+        }
+        if (value instanceof long[]) {
+            return Arrays.hashCode((long[]) value);
+        }
+        if (value instanceof boolean[]) {
+            return Arrays.hashCode((boolean[]) value);
+        }
+        if (value instanceof byte[]) {
+            return Arrays.hashCode((byte[]) value);
+        }
+        if (value instanceof char[]) {
+            return Arrays.hashCode((char[]) value);
+        }
+        if (value instanceof short[]) {
+            return Arrays.hashCode((short[]) value);
+        }
+        if (value instanceof float[]) {
+            return Arrays.hashCode((float[]) value);
+        }
+
+        return Arrays.hashCode((double[]) value);
+    }
+
+    private static Object copyOf(Object value) {
+        if (!value.getClass().isArray()) {
+            return value;
+        }
+
+        int length = Array.getLength(value);
+        Object res = Array.newInstance(value.getClass().getComponentType(), length);
+
+        System.arraycopy(value, 0, res, 0, length);
+
+        return res;
+    }
+
+    private static Class<?> wrap(Class<?> valueType) {
+        return MethodType.methodType(valueType).wrap().returnType();
+    }
+
+    /**
+     * An attribute value that could not be converted, reported each time the attribute is read.
+     */
+    private static final class Unavailable {
+        private final RuntimeException exception;
+
+        Unavailable(RuntimeException exception) {
+            this.exception = exception;
+        }
+    }
+}
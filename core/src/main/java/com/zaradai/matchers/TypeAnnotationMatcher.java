@@ -0,0 +1,78 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import org.hamcrest.Description;
+import org.hamcrest.DiagnosingMatcher;
+import org.hamcrest.Factory;
+import org.hamcrest.Matcher;
+
+/**
+ * Applies an annotation matcher of this package to a {@link Class} instead of an instance of it, so types can be
+ * checked without being instantiated.  The class, member or parameter the matcher inspects is resolved from the
+ * examined class through the same cached metadata used for instances.
+ */
+public final class TypeAnnotationMatcher extends DiagnosingMatcher<Class<?>> {
+    private final Matcher<?> matcher;
+    private final AnnotationLocator locator;
+
+    private TypeAnnotationMatcher(Matcher<?> matcher, AnnotationLocator locator) {
+        this.matcher = matcher;
+        this.locator = locator;
+    }
+
+    /**
+     * Creates a matcher of {@link Class} that matches any class whose instances would be matched by the annotation
+     * <code>matcher</code>.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyEntity.class, forType(fieldAnnotatedWith(Column.class, "notes")))</pre>
+     * </p>
+     *
+     * @param matcher an annotation matcher created by this package's factories or {@link AnnotationSpec}
+     * @throws IllegalArgumentException if the matcher can only examine instances
+     */
+    @Factory
+    public static Matcher<Class<?>> forType(Matcher<?> matcher) {
+        AnnotationLocator locator = LocatedMatchers.locatorOf(matcher);
+
+        if (locator == null) {
+            throw new IllegalArgumentException("Matcher can not examine classes: " + matcher);
+        }
+
+        return new TypeAnnotationMatcher(matcher, locator);
+    }
+
+    @Override
+    protected boolean matches(Object item, Description mismatchDescription) {
+        if (item == null) {
+            mismatchDescription.appendText("was null");
+            return false;
+        }
+        if (!(item instanceof Class)) {
+            mismatchDescription.appendText("was not a class ").appendValue(item);
+            return false;
+        }
+
+        return LocatedMatchers.matchLocated(matcher, locator, TypeMetadata.forClass((Class<?>) item), item,
+                mismatchDescription);
+    }
+
+    @Override
+    public void describeTo(Description description) {
+        matcher.describeTo(description);
+    }
+}
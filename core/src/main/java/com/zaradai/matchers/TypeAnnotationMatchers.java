@@ -0,0 +1,884 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import org.hamcrest.Matcher;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Contains factories for annotation matchers that examine classes rather than instances.  Each factory mirrors
+ * the one of the same name and parameters in {@link AnnotationMatchers}, including those searching the type
+ * hierarchy with a {@link SearchStrategy}, wrapped by {@link TypeAnnotationMatcher}.  Combine with
+ * {@link ClassNameMatcher} to examine classes by name without initializing them.
+ */
+public final class TypeAnnotationMatchers {
+    private TypeAnnotationMatchers() {
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class}
+     * is annotated with the specified {@link Annotation}.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(classAnnotatedWith(Entity.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     */
+    public static Matcher<Class<?>> classAnnotatedWith(Class<? extends Annotation> annotation) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.classAnnotatedWith(annotation));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class}
+     * is annotated with the specified {@link Annotation} and it has a parameter with
+     * the specified <code>param</code> name.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(classAnnotatedWithParam(Table.class, "name"))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the name of the parameter that must exist
+     */
+    public static Matcher<Class<?>> classAnnotatedWithParam(Class<? extends Annotation> annotation, String param) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.classAnnotatedWithParam(annotation, param));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class}
+     * is annotated with the specified {@link Annotation} and it has a specified parameter with
+     * a required value.  The value is matched using a {@link Matcher}.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(classAnnotatedWithParamValue(Table.class, "name", is("test")))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the name of the parameter that must exist
+     * @param valueMatcher the matcher that asserts the parameter value.
+     */
+    public static <T> Matcher<Class<?>> classAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                     String param, Matcher<T> valueMatcher) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.classAnnotatedWithParamValue(annotation, param,
+                valueMatcher));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class}
+     * is annotated with the specified {@link Annotation} and it has a specified parameter with
+     * a required value.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(classAnnotatedWithParamValue(Table.class, "name", is("test")))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the name of the parameter that must exist
+     * @param paramValue the value to match with.
+     */
+    public static <T> Matcher<Class<?>> classAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                     String param, T paramValue) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.classAnnotatedWithParamValue(annotation, param,
+                paramValue));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class}, or one of the supertypes
+     * the <code>strategy</code> searches, is annotated with the specified {@link Annotation}.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(classAnnotatedWith(Entity.class, SearchStrategy.TYPE_HIERARCHY))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param strategy how far up the type hierarchy the annotation is searched
+     */
+    public static Matcher<Class<?>> classAnnotatedWith(Class<? extends Annotation> annotation,
+                                                       SearchStrategy strategy) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.classAnnotatedWith(annotation, strategy));
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type
+     * the <code>strategy</code> finds has a parameter with the specified <code>param</code> name.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(classAnnotatedWithParam(Table.class, "name", SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the name of the parameter that must exist
+     * @param strategy how far up the type hierarchy the annotation is searched
+     */
+    public static Matcher<Class<?>> classAnnotatedWithParam(Class<? extends Annotation> annotation, String param,
+                                                            SearchStrategy strategy) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.classAnnotatedWithParam(annotation, param, strategy));
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type
+     * the <code>strategy</code> finds has a specified parameter with a required value.  The value is matched
+     * using a {@link Matcher}.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(classAnnotatedWithParamValue(Table.class, "name", is("test"),
+     *     SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the name of the parameter that must exist
+     * @param valueMatcher the matcher that asserts the parameter value.
+     * @param strategy how far up the type hierarchy the annotation is searched
+     */
+    public static <T> Matcher<Class<?>> classAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                     String param, Matcher<T> valueMatcher,
+                                                                     SearchStrategy strategy) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.classAnnotatedWithParamValue(annotation, param,
+                valueMatcher, strategy));
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type
+     * the <code>strategy</code> finds has a specified parameter with a required value.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(classAnnotatedWithParamValue(Table.class, "name", "test",
+     *     SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the name of the parameter that must exist
+     * @param paramValue the value to match with.
+     * @param strategy how far up the type hierarchy the annotation is searched
+     */
+    public static <T> Matcher<Class<?>> classAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                     String param, T paramValue,
+                                                                     SearchStrategy strategy) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.classAnnotatedWithParamValue(annotation, param,
+                paramValue, strategy));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class}
+     * is annotated with every one of the specified {@link Annotation}s.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(classAnnotatedWithAll(Entity.class, Table.class))</pre>
+     * </p>
+     *
+     * @param annotations the annotations that must all be present
+     */
+    @SafeVarargs
+    public static Matcher<Class<?>> classAnnotatedWithAll(Class<? extends Annotation>... annotations) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.classAnnotatedWithAll(annotations));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class}
+     * is annotated with none of the specified {@link Annotation}s.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(classAnnotatedWithNone(Deprecated.class, Ignore.class))</pre>
+     * </p>
+     *
+     * @param annotations the annotations that must all be absent
+     */
+    @SafeVarargs
+    public static Matcher<Class<?>> classAnnotatedWithNone(Class<? extends Annotation>... annotations) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.classAnnotatedWithNone(annotations));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a constructor with
+     * the specified {@link Annotation}.
+     * The {@code parameterTypes} parameter is an array of {@code Class} objects that identify
+     * the constructor's formal parameter types, in declared order.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(constructorAnnotatedWith(Inject.class, EventAggregator.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param parameterTypes the parameter array
+     */
+    public static Matcher<Class<?>> constructorAnnotatedWith(Class<? extends Annotation> annotation,
+                                                             Class<?>... parameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.constructorAnnotatedWith(annotation, parameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a constructor with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * The {@code parameterTypes} parameter is an array of {@code Class} objects that identify
+     * the constructor's formal parameter types, in declared order.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(constructorAnnotatedWithParam(Autowired.class, "required", EventAggregator.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param parameterTypes the parameter array
+     */
+    public static Matcher<Class<?>> constructorAnnotatedWithParam(Class<? extends Annotation> annotation, String param,
+                                                                  Class<?>... parameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.constructorAnnotatedWithParam(annotation, param,
+                parameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a constructor with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>
+     * with a required <code>value</code>.  A value matcher is provided to do the actual matching.
+     * The {@code parameterTypes} parameter is an array of {@code Class} objects that identify
+     * the constructor's formal parameter types, in declared order.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(constructorAnnotatedWithParamValue(Autowired.class, "required", is(false), EventAggregator.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param valueMatcher a matcher for the parameter value
+     * @param parameterTypes the parameter array
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Class<?>> constructorAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                           String param, Matcher<T> valueMatcher,
+                                                                           Class<?>... parameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.constructorAnnotatedWithParamValue(annotation, param,
+                valueMatcher, parameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a constructor with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>
+     * with a required <code>value</code>.
+     * The {@code parameterTypes} parameter is an array of {@code Class} objects that identify
+     * the constructor's formal parameter types, in declared order.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(constructorAnnotatedWithParamValue(Autowired.class, "required", false, EventAggregator.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param value the parameter value must be equal to this
+     * @param parameterTypes the parameter array
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Class<?>> constructorAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                           String param, T value,
+                                                                           Class<?>... parameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.constructorAnnotatedWithParamValue(annotation, param,
+                value, parameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a field with
+     * the specified {@link Annotation}.  The {@code fieldName} parameter is used to identify the field
+     * to be examined.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(fieldAnnotatedWith(Column.class, "notes"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param fieldName fieldName the field name
+     */
+    public static Matcher<Class<?>> fieldAnnotatedWith(Class<? extends Annotation> annotation, String fieldName) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.fieldAnnotatedWith(annotation, fieldName));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a field with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * The {@code fieldName} parameter is used to identify the field to be examined.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(fieldAnnotatedWithParam(Column.class, "name", "notes"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param fieldName the field name
+     */
+    public static Matcher<Class<?>> fieldAnnotatedWithParam(Class<? extends Annotation> annotation, String param,
+                                                            String fieldName) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.fieldAnnotatedWithParam(annotation, param, fieldName));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a field with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * with a required <code>value</code>.  A value matcher is provided to do the actual matching.
+     * The {@code fieldName} parameter is used to identify the field to be examined.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(fieldAnnotatedWithParamValue(Column.class, "name", is("notes"), "notes"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param valueMatcher a matcher for the parameter value
+     * @param fieldName the field name
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Class<?>> fieldAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                     String param, Matcher<T> valueMatcher,
+                                                                     String fieldName) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.fieldAnnotatedWithParamValue(annotation, param,
+                valueMatcher, fieldName));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a field with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * with a required <code>value</code>. The {@code fieldName} parameter is used to identify the field to be examined.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(fieldAnnotatedWithParamValue(Column.class, "name", "notes", "notes"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param paramValue the parameter value must be equal to this
+     * @param fieldName the field name
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Class<?>> fieldAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                     String param, T paramValue, String fieldName) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.fieldAnnotatedWithParamValue(annotation, param,
+                paramValue, fieldName));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares or inherits a field with
+     * the specified {@link Annotation}.  The field is the nearest one named {@code fieldName} in the types
+     * the <code>strategy</code> searches.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(fieldAnnotatedWith(Column.class, "notes", SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param fieldName the field name
+     * @param strategy how far up the type hierarchy the field is searched
+     */
+    public static Matcher<Class<?>> fieldAnnotatedWith(Class<? extends Annotation> annotation, String fieldName,
+                                                       SearchStrategy strategy) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.fieldAnnotatedWith(annotation, fieldName, strategy));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares or inherits a field with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(fieldAnnotatedWithParam(Column.class, "name", "notes",
+     *     SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param fieldName the field name
+     * @param strategy how far up the type hierarchy the field is searched
+     */
+    public static Matcher<Class<?>> fieldAnnotatedWithParam(Class<? extends Annotation> annotation, String param,
+                                                            String fieldName, SearchStrategy strategy) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.fieldAnnotatedWithParam(annotation, param, fieldName,
+                strategy));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares or inherits a field with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>
+     * with a required <code>value</code>.  A value matcher is provided to do the actual matching.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(fieldAnnotatedWithParamValue(Column.class, "name", is("notes"), "notes",
+     *     SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param valueMatcher a matcher for the parameter value
+     * @param fieldName the field name
+     * @param strategy how far up the type hierarchy the field is searched
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Class<?>> fieldAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                     String param, Matcher<T> valueMatcher,
+                                                                     String fieldName, SearchStrategy strategy) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.fieldAnnotatedWithParamValue(annotation, param,
+                valueMatcher, fieldName, strategy));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares or inherits a field with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>
+     * with a required <code>value</code>.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(fieldAnnotatedWithParamValue(Column.class, "name", "notes", "notes",
+     *     SearchStrategy.SUPERCLASS))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param paramValue the parameter value must be equal to this
+     * @param fieldName the field name
+     * @param strategy how far up the type hierarchy the field is searched
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Class<?>> fieldAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                     String param, T paramValue, String fieldName,
+                                                                     SearchStrategy strategy) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.fieldAnnotatedWithParamValue(annotation, param,
+                paramValue, fieldName, strategy));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a field annotated with every one
+     * of the specified {@link Annotation}s.  The {@code fieldName} parameter is used to identify the field
+     * to be examined.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(fieldAnnotatedWithAll("notes", Column.class, Lob.class))</pre>
+     * </p>
+     *
+     * @param fieldName the field name
+     * @param annotations the annotations that must all be present
+     */
+    @SafeVarargs
+    public static Matcher<Class<?>> fieldAnnotatedWithAll(String fieldName,
+                                                          Class<? extends Annotation>... annotations) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.fieldAnnotatedWithAll(fieldName, annotations));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a field annotated with none
+     * of the specified {@link Annotation}s.  The {@code fieldName} parameter is used to identify the field
+     * to be examined.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(fieldAnnotatedWithNone("notes", Transient.class, Deprecated.class))</pre>
+     * </p>
+     *
+     * @param fieldName the field name
+     * @param annotations the annotations that must all be absent
+     */
+    @SafeVarargs
+    public static Matcher<Class<?>> fieldAnnotatedWithNone(String fieldName,
+                                                           Class<? extends Annotation>... annotations) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.fieldAnnotatedWithNone(fieldName, annotations));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a method with
+     * the specified {@link Annotation}. The {@code name} parameter is a
+     * {@code String} that specifies the simple name of the desired
+     * method, and the {@code parameterTypes} parameter is an array of
+     * {@code Class} objects that identify the method's formal parameter
+     * types, in declared order.  If more than one method with the same
+     * parameter types is declared in a class, and one of these methods has a
+     * return type that is more specific than any of the others, that method is
+     * returned; otherwise one of the methods is chosen arbitrarily.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(methodAnnotatedWith(Override.class, "toString"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     */
+    public static Matcher<Class<?>> methodAnnotatedWith(Class<? extends Annotation> annotation, String methodName,
+                                                        Class<?>... methodParameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.methodAnnotatedWith(annotation, methodName,
+                methodParameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a method with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * The {@code name} parameter is a {@code String} that specifies the simple name of the desired
+     * method, and the {@code parameterTypes} parameter is an array of
+     * {@code Class} objects that identify the method's formal parameter
+     * types, in declared order.  If more than one method with the same
+     * parameter types is declared in a class, and one of these methods has a
+     * return type that is more specific than any of the others, that method is
+     * returned; otherwise one of the methods is chosen arbitrarily.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(methodAnnotatedWithParam(Autowired.class, "required", "getUser", String.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     */
+    public static Matcher<Class<?>> methodAnnotatedWithParam(Class<? extends Annotation> annotation, String param,
+                                                             String methodName, Class<?>... methodParameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.methodAnnotatedWithParam(annotation, param, methodName,
+                methodParameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a method with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>
+     * with a required <code>value</code>. A value matcher is provided to do the actual matching.
+     * The {@code name} parameter is a {@code String} that specifies the simple
+     * name of the desired method, and the {@code parameterTypes} parameter is an array of
+     * {@code Class} objects that identify the method's formal parameter
+     * types, in declared order.  If more than one method with the same
+     * parameter types is declared in a class, and one of these methods has a
+     * return type that is more specific than any of the others, that method is
+     * returned; otherwise one of the methods is chosen arbitrarily.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(methodAnnotatedWithParamValue(Autowired.class, "required", is(false), "getUser", String.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param valueMatcher a matcher for the parameter value
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     */
+    public static <T> Matcher<Class<?>> methodAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                      String param, Matcher<T> valueMatcher,
+                                                                      String methodName,
+                                                                      Class<?>... methodParameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.methodAnnotatedWithParamValue(annotation, param,
+                valueMatcher, methodName, methodParameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a method with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>
+     * with a required <code>value</code>. The {@code name} parameter is a {@code String} that specifies the simple
+     * name of the desired method, and the {@code parameterTypes} parameter is an array of
+     * {@code Class} objects that identify the method's formal parameter
+     * types, in declared order.  If more than one method with the same
+     * parameter types is declared in a class, and one of these methods has a
+     * return type that is more specific than any of the others, that method is
+     * returned; otherwise one of the methods is chosen arbitrarily.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(methodAnnotatedWithParamValue(Autowired.class, "required", false, "getUser", String.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param paramValue the parameter value must be equal to this
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Class<?>> methodAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                      String param, T paramValue, String methodName,
+                                                                      Class<?>... methodParameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.methodAnnotatedWithParamValue(annotation, param,
+                paramValue, methodName, methodParameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares or inherits a method with
+     * the specified {@link Annotation}.  The annotations of the method are merged with those of the methods
+     * it overrides or implements in the types the <code>strategy</code> searches, including interface default
+     * methods, the nearest annotation of each type is kept.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(methodAnnotatedWith(Id.class, SearchStrategy.TYPE_HIERARCHY, "getId"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param strategy how far up the type hierarchy the method is searched
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     */
+    public static Matcher<Class<?>> methodAnnotatedWith(Class<? extends Annotation> annotation, SearchStrategy strategy,
+                                                        String methodName, Class<?>... methodParameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.methodAnnotatedWith(annotation, strategy, methodName,
+                methodParameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type found on
+     * a declared or inherited method of the examined {@link Class}, or on the methods it overrides, contains the
+     * specified <code>param</code>.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(methodAnnotatedWithParam(Column.class, "name", SearchStrategy.SUPERCLASS,
+     *     "getName"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param strategy how far up the type hierarchy the method is searched
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     */
+    public static Matcher<Class<?>> methodAnnotatedWithParam(Class<? extends Annotation> annotation, String param,
+                                                             SearchStrategy strategy, String methodName,
+                                                             Class<?>... methodParameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.methodAnnotatedWithParam(annotation, param, strategy,
+                methodName, methodParameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type found on
+     * a declared or inherited method of the examined {@link Class}, or on the methods it overrides, contains the
+     * specified <code>param</code> with a required <code>value</code>.  A value matcher is provided to do the
+     * actual matching.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(methodAnnotatedWithParamValue(Column.class, "name", is("name"),
+     *     SearchStrategy.SUPERCLASS, "getName"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param valueMatcher a matcher for the parameter value
+     * @param strategy how far up the type hierarchy the method is searched
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Class<?>> methodAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                      String param, Matcher<T> valueMatcher,
+                                                                      SearchStrategy strategy, String methodName,
+                                                                      Class<?>... methodParameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.methodAnnotatedWithParamValue(annotation, param,
+                valueMatcher, strategy, methodName, methodParameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the nearest annotation of the specified {@link Annotation} type found on
+     * a declared or inherited method of the examined {@link Class}, or on the methods it overrides, contains the
+     * specified <code>param</code> with a required <code>value</code>.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(methodAnnotatedWithParamValue(Column.class, "name", "name",
+     *     SearchStrategy.SUPERCLASS, "getName"))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param paramValue the parameter value must be equal to this
+     * @param strategy how far up the type hierarchy the method is searched
+     * @param methodName the name of the method
+     * @param methodParameterTypes the parameter array
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Class<?>> methodAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                      String param, T paramValue,
+                                                                      SearchStrategy strategy, String methodName,
+                                                                      Class<?>... methodParameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.methodAnnotatedWithParamValue(annotation, param,
+                paramValue, strategy, methodName, methodParameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a constructor's parameter
+     * with the specified {@link java.lang.annotation.Annotation}.
+     * The {@code parameterTypes} parameter is an array of {@code Class} objects that identify
+     * the constructor's formal parameter types, in declared order.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(constructorParameterAnnotatedWith(Named.class, 1, String.class, String.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param parameterPosition position of target parameter
+     * @param parameterTypes the parameter array
+     */
+    public static Matcher<Class<?>> constructorParameterAnnotatedWith(Class<? extends Annotation> annotation,
+                                                                      int parameterPosition,
+                                                                      Class<?>... parameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.constructorParameterAnnotatedWith(annotation,
+                parameterPosition, parameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a constructor's parameter with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * The {@code parameterTypes} parameter is an array of {@code Class} objects that identify
+     * the constructor's formal parameter types, in declared order.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(constructorParameterAnnotatedWithParam(Named.class, "value", 1, String.class, String.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param parameterPosition position of target parameter
+     * @param parameterTypes the parameter array
+     */
+    public static Matcher<Class<?>> constructorParameterAnnotatedWithParam(Class<? extends Annotation> annotation,
+                                                                           String param, int parameterPosition,
+                                                                           Class<?>... parameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.constructorParameterAnnotatedWithParam(annotation,
+                param, parameterPosition, parameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a constructor's parameter with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * with a required <code>value</code>.  A value matcher is provided to do the actual matching.
+     * The {@code parameterTypes} parameter is an array of {@code Class} objects that identify
+     * the constructor's formal parameter types, in declared order.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(constructorParameterAnnotatedWithParamValue(Named.class, "value", is("car"), 1, String.class, String.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param matcher a matcher for the parameter value
+     * @param parameterPosition position of target parameter
+     * @param parameterTypes the parameter array
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Class<?>> constructorParameterAnnotatedWithParamValue(
+            Class<? extends Annotation> annotation, String param, Matcher<T> matcher, int parameterPosition,
+            Class<?>... parameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.constructorParameterAnnotatedWithParamValue(annotation,
+                param, matcher, parameterPosition, parameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a constructor's parameter with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * with a required <code>value</code>.
+     * The {@code parameterTypes} parameter is an array of {@code Class} objects that identify
+     * the constructor's formal parameter types, in declared order.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(constructorParameterAnnotatedWithParamValue(Named.class, "value", "car", 1, String.class, String.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param paramValue the parameter value must be equal to this
+     * @param parameterPosition position of target parameter
+     * @param parameterTypes the parameter array
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Class<?>> constructorParameterAnnotatedWithParamValue(
+            Class<? extends Annotation> annotation, String param, T paramValue, int parameterPosition,
+            Class<?>... parameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.constructorParameterAnnotatedWithParamValue(annotation,
+                param, paramValue, parameterPosition, parameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a constructor's parameter
+     * with the specified {@link java.lang.annotation.Annotation}.
+     * The {@code parameterTypes} parameter is an array of {@code Class} objects that identify
+     * the constructor's formal parameter types, in declared order.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(methodParameterAnnotatedWith(Named.class, 1, String.class, String.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param parameterPosition position of target parameter
+     * @param methodName the name of the method
+     * @param parameterTypes the parameter array
+     */
+    public static Matcher<Class<?>> methodParameterAnnotatedWith(Class<? extends Annotation> annotation,
+                                                                 int parameterPosition, String methodName,
+                                                                 Class<?>... parameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.methodParameterAnnotatedWith(annotation,
+                parameterPosition, methodName, parameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares a constructor's parameter with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * The {@code parameterTypes} parameter is an array of {@code Class} objects that identify
+     * the constructor's formal parameter types, in declared order.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(methodParameterAnnotatedWithParam(Named.class, "value", 1, "getFactory", String.class, String.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param parameterPosition position of target parameter
+     * @param methodName the name of the method
+     * @param parameterTypes the parameter array
+     */
+    public static Matcher<Class<?>> methodParameterAnnotatedWithParam(Class<? extends Annotation> annotation,
+                                                                      String param, int parameterPosition,
+                                                                      String methodName, Class<?>... parameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.methodParameterAnnotatedWithParam(annotation, param,
+                parameterPosition, methodName, parameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares method parameter with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * with a required <code>value</code>.  A value matcher is provided to do the actual matching.
+     * The {@code parameterTypes} parameter is an array of {@code Class} objects that identify
+     * the method's formal parameter types, in declared order.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(methodParameterAnnotatedWithParamValue(Named.class, "value", is("car"), 1, "getFactory", String.class, String.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param matcher a matcher for the parameter value
+     * @param parameterPosition position of target parameter
+     * @param methodName the name of the method
+     * @param parameterTypes the parameter array
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Class<?>> methodParameterAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                               String param, Matcher<T> matcher,
+                                                                               int parameterPosition, String methodName,
+                                                                               Class<?>... parameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.methodParameterAnnotatedWithParamValue(annotation,
+                param, matcher, parameterPosition, methodName, parameterTypes));
+    }
+
+    /**
+     * Creates a matcher that matches, if the examined {@link Class} declares method parameter with
+     * the specified {@link Annotation} and the annotation contains the specified <code>param</code>.
+     * with a required <code>value</code>.
+     * The {@code parameterTypes} parameter is an array of {@code Class} objects that identify
+     * the method's formal parameter types, in declared order.
+     * <p>
+     * For example:
+     * <pre>assertThat(MyType.class, is(methodParameterAnnotatedWithParamValue(Named.class, "value", "car", 1, "getFactory", String.class, String.class))</pre>
+     * </p>
+     *
+     * @param annotation the annotation that the returned matcher will be inspecting for
+     * @param param the param that the annotation must have
+     * @param paramValue the parameter value must be equal to this
+     * @param parameterPosition position of target parameter
+     * @param methodName the name of the method
+     * @param parameterTypes the parameter array
+     * @param <T> type of value to be matched
+     */
+    public static <T> Matcher<Class<?>> methodParameterAnnotatedWithParamValue(Class<? extends Annotation> annotation,
+                                                                               String param, T paramValue,
+                                                                               int parameterPosition, String methodName,
+                                                                               Class<?>... parameterTypes) {
+        return TypeAnnotationMatcher.forType(AnnotationMatchers.methodParameterAnnotatedWithParamValue(annotation,
+                param, paramValue, parameterPosition, methodName, parameterTypes));
+    }
+}
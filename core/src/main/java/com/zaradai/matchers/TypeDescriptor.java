@@ -0,0 +1,314 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * The annotations of a class and of the members it declares, held as constants by a descriptor class the
+ * {@code matchers-processor} module generates, so the matchers never inspect the class through reflection.
+ * <p>
+ * The descriptor of a class is named after its binary name followed by {@link #SUFFIX}, such as
+ * {@code com.acme.Order_AnnotationDescriptor}, and registers itself when it is initialized.  Annotations are
+ * instances of classes the processor generates alongside the descriptor, implementing each annotation type with its
+ * values, defaults included, as fields, so reading them involves neither a proxy nor reflection:
+ * <pre>public final class Order_AnnotationDescriptor {
+ *     public static final TypeDescriptor DESCRIPTOR = builder(com.acme.Order.class)
+ *         .annotatedWith(new EntityLiteral(""))
+ *         .field("id", 0x0002, new ColumnLiteral("ID", true))
+ *         .register();
+ *
+ *     private static final class EntityLiteral implements javax.persistence.Entity {
+ *         ...
+ *     }
+ * }</pre>
+ * The classes with a descriptor are listed in the {@link #RESOURCE} files of the class path, read once per class
+ * loader.  The first time a listed class is matched, its descriptor class is loaded by name through the class
+ * loader of the class, the one lookup by name that remains, and a class that is not listed is never looked up.  A
+ * descriptor is only registered while the matchers initialize its descriptor class for that lookup, a registration
+ * made at any other time is rejected so no other code can replace the descriptor of a class.
+ * Members are identified by their keys, the member name for fields, otherwise the member name followed by the class
+ * file descriptor of the parameter types, such as {@code copy([ILjava/lang/String;)}, with {@code <init>} as the name
+ * of constructors.
+ * </p>
+ */
+public final class TypeDescriptor {
+    /**
+     * Suffix of the binary name of a descriptor class to the binary name of the class it describes.
+     */
+    public static final String SUFFIX = "_AnnotationDescriptor";
+
+    /**
+     * Resource listing the binary names of the classes with a descriptor, one per line, in each class path entry.
+     */
+    public static final String RESOURCE = "META-INF/matchers/descriptors";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final Map<ClassLoader, Set<String>> DESCRIBED = new WeakHashMap<ClassLoader, Set<String>>();
+
+    private static final ThreadLocal<Class<?>> INITIALIZING = new ThreadLocal<Class<?>>();
+
+    private static final ClassValue<Slot> SLOTS = new ClassValue<Slot>() {
+        @Override
+        protected Slot computeValue(Class<?> type) {
+            return new Slot();
+        }
+    };
+
+    private final ClassFileMetadata metadata;
+
+    private TypeDescriptor(ClassFileMetadata metadata) {
+        this.metadata = metadata;
+    }
+
+    /**
+     * Start describing a class.
+     * @param type the class described
+     * @return builder of the descriptor
+     */
+    public static Builder builder(Class<?> type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Type is null");
+        }
+
+        return new Builder(type, ClassFileMetadata.builder(type.getName(), superclassName(type),
+                interfaceNames(type), type.getClassLoader()));
+    }
+
+    /**
+     * Group annotations, such as those of a parameter.
+     * @param annotations the annotations
+     * @return the annotations
+     */
+    public static Annotation[] annotations(Annotation... annotations) {
+        return annotations;
+    }
+
+    /**
+     * Get the descriptor of a class, initializing its descriptor class on first use.
+     * @param type the class
+     * @return the descriptor or null if the class has none
+     */
+    static TypeDescriptor find(Class<?> type) {
+        Slot slot = SLOTS.get(type);
+        ClassLoader classLoader = type.getClassLoader();
+
+        if (!slot.looked && classLoader != null) {
+            if (describedBy(classLoader).contains(type.getName())) {
+                initialize(type, type.getName() + SUFFIX, classLoader);
+            }
+            slot.looked = true;
+        }
+
+        return slot.descriptor;
+    }
+
+    /**
+     * Get the annotation metadata of the described class.
+     * @return metadata of the class and of its members
+     */
+    TypeMetadata getMetadata() {
+        return metadata;
+    }
+
+    private static String superclassName(Class<?> type) {
+        if (type.getSuperclass() == null) {
+            return null;
+        }
+
+        return type.getSuperclass().getName();
+    }
+
+    private static List<String> interfaceNames(Class<?> type) {
+        List<String> res = new ArrayList<String>();
+
+        for (Class<?> implemented : type.getInterfaces()) {
+            res.add(implemented.getName());
+        }
+
+        return res;
+    }
+
+    private static Set<String> describedBy(ClassLoader classLoader) {
+        synchronized (DESCRIBED) {
+            Set<String> res = DESCRIBED.get(classLoader);
+
+            if (res == null) {
+                res = readDescribed(classLoader);
+                DESCRIBED.put(classLoader, res);
+            }
+
+            return res;
+        }
+    }
+
+    private static Set<String> readDescribed(ClassLoader classLoader) {
+        Set<String> res = new HashSet<String>();
+
+        try {
+            Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+
+            while (resources.hasMoreElements()) {
+                readNames(resources.nextElement(), res);
+            }
+        } catch (IOException e) {
+            // the classes of a class path that can not be listed are described through the index or reflection
+        }
+
+        if (res.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        return res;
+    }
+
+    private static void readNames(URL resource, Set<String> names) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(resource.openStream(), UTF_8));
+
+        try {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                if (!line.trim().isEmpty()) {
+                    names.add(line.trim());
+                }
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void initialize(Class<?> type, String descriptorName, ClassLoader classLoader) {
+        Class<?> previous = INITIALIZING.get();
+
+        INITIALIZING.set(type);
+        try {
+            // the descriptor class registers the descriptor when it is initialized
+            Class.forName(descriptorName, true, classLoader);
+        } catch (ClassNotFoundException e) {
+            // a listed class whose descriptor class is not on the class path
+        } catch (LinkageError e) {
+            // a descriptor generated for another version of the class, or initialized before it was looked up,
+            // reflection still describes the class
+        } finally {
+            INITIALIZING.set(previous);
+        }
+    }
+
+    /**
+     * Collects the annotations of a class and of its members.
+     */
+    public static final class Builder {
+        private final Class<?> type;
+        private final ClassFileMetadata.Builder builder;
+        private Annotation[] annotations = new Annotation[0];
+
+        private Builder(Class<?> type, ClassFileMetadata.Builder builder) {
+            this.type = type;
+            this.builder = builder;
+        }
+
+        /**
+         * Describe the annotations of the class, including those it inherits from its superclasses.
+         * @param annotations annotations of the class
+         * @return this builder
+         */
+        public Builder annotatedWith(Annotation... annotations) {
+            this.annotations = annotations;
+            return this;
+        }
+
+        /**
+         * Describe a declared field.
+         * @param name name of the field
+         * @param access access flags of the field
+         * @param annotations annotations of the field
+         * @return this builder
+         */
+        public Builder field(String name, int access, Annotation... annotations) {
+            builder.addField(name, access, annotations);
+            return this;
+        }
+
+        /**
+         * Describe a declared method.
+         * @param key name of the method followed by the descriptor of its parameter types
+         * @param access access flags of the method
+         * @param annotations annotations of the method
+         * @param parameterAnnotations annotations of each parameter
+         * @return this builder
+         */
+        public Builder method(String key, int access, Annotation[] annotations,
+                              Annotation[]... parameterAnnotations) {
+            builder.addMethod(key, access, annotations, parameterAnnotations);
+            return this;
+        }
+
+        /**
+         * Describe a declared constructor.
+         * @param key {@code <init>} followed by the descriptor of the constructor's parameter types, including the
+         * implicit leading parameters of inner class and enum constructors
+         * @param access access flags of the constructor
+         * @param annotations annotations of the constructor
+         * @param parameterAnnotations annotations of each parameter, including the implicit ones
+         * @return this builder
+         */
+        public Builder constructor(String key, int access, Annotation[] annotations,
+                                   Annotation[]... parameterAnnotations) {
+            builder.addConstructor(key, access, annotations, parameterAnnotations);
+            return this;
+        }
+
+        /**
+         * Complete the descriptor and use it for the class from now on.
+         * @return the descriptor
+         * @throws IllegalStateException if the descriptor class of the class is not being initialized by the
+         * matchers looking it up
+         */
+        public TypeDescriptor register() {
+            if (INITIALIZING.get() != type) {
+                throw new IllegalStateException("The descriptor of " + type.getName()
+                        + " is only registered while the matchers initialize " + type.getName() + SUFFIX);
+            }
+
+            TypeDescriptor res = new TypeDescriptor(builder.build(annotations).describing(type));
+
+            SLOTS.get(type).descriptor = res;
+
+            return res;
+        }
+    }
+
+    /**
+     * The descriptor of a class, once registered, and whether its descriptor class was looked up.
+     */
+    private static final class Slot {
+        private volatile TypeDescriptor descriptor;
+        private volatile boolean looked;
+    }
+}
@@ -0,0 +1,404 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The class level annotations of a class merged along its type hierarchy, one table per {@link SearchStrategy}.
+ * Each table is merged the first time it is requested and then shared, and the hierarchy of each supertype is the
+ * one cached by the supertype's own {@link TypeMetadata}, so a deep hierarchy is walked once however many classes
+ * extend it.
+ * <p>
+ * The fields and methods the class inherits are resolved the same way.  Each strategy has a flattened table of the
+ * members looked up so far, keyed by signature, that is filled in as members are first requested, misses included,
+ * so a repeated lookup is a single hash access whichever supertype declares the member.  A method is merged only with
+ * the instance methods it overrides: private methods, methods declared static and package-private methods of
+ * another package are not.  A method overriding a method of a generic supertype is matched with it through the
+ * bridge method the compiler generated.
+ * </p>
+ * <p>
+ * The declared annotations of a loaded class are read through reflection, those of a class read from its class file
+ * are the ones its class file records.  The supertypes of a class file are loaded by name, without being initialized,
+ * through the class loader the class file was read with.
+ * </p>
+ */
+final class TypeHierarchy {
+    private static final ResolvedMember ABSENT = new ResolvedMember(null, 0, null);
+
+    private final TypeMetadata type;
+    private final AtomicReferenceArray<AnnotationTable> tables =
+            new AtomicReferenceArray<AnnotationTable>(SearchStrategy.values().length);
+    private final AtomicReferenceArray<ConcurrentMap<MemberSignature, ResolvedMember>> members =
+            new AtomicReferenceArray<ConcurrentMap<MemberSignature, ResolvedMember>>(SearchStrategy.values().length);
+    private volatile Supertypes supertypes;
+
+    /**
+     * Describe the hierarchy of a class.
+     * @param type metadata of the class
+     */
+    TypeHierarchy(TypeMetadata type) {
+        this.type = type;
+    }
+
+    /**
+     * Get the annotations of the class as found by a search strategy.
+     * @param strategy how far up the hierarchy to search
+     * @return table of the annotations found, the nearest of each type
+     * @throws TypeNotPresentException if a supertype of a class file can not be loaded
+     */
+    AnnotationTable getAnnotations(SearchStrategy strategy) {
+        AnnotationTable res = tables.get(strategy.ordinal());
+
+        if (res == null) {
+            res = merge(strategy);
+            tables.set(strategy.ordinal(), res);
+        }
+
+        return res;
+    }
+
+    /**
+     * Get the annotations of a field or method of the class as found by a search strategy.  The annotations of a
+     * method are merged with those of the methods it overrides, the nearest annotation of each type is kept, while a
+     * field is the nearest one of that name.  Private methods of supertypes, package-private methods of supertypes in
+     * another package and static methods of interfaces are never inherited, and a static method hides rather than
+     * overrides the methods of its supertypes.
+     * @param signature identifies the field or method
+     * @param strategy how far up the hierarchy to search
+     * @return table of the member's annotations or null if no type searched declares the member
+     * @throws TypeNotPresentException if a supertype of a class file can not be loaded
+     */
+    AnnotationTable getMemberAnnotations(MemberSignature signature, SearchStrategy strategy) {
+        if (strategy == SearchStrategy.DECLARED) {
+            return declaredMember(signature);
+        }
+
+        return resolvedMember(signature, strategy).annotations;
+    }
+
+    private AnnotationTable merge(SearchStrategy strategy) {
+        if (strategy == SearchStrategy.DECLARED) {
+            return declared();
+        }
+
+        TypeHierarchy superclass = getSupertypes().superclass;
+        List<AnnotationTable> merged = new ArrayList<AnnotationTable>();
+
+        merged.add(getAnnotations(SearchStrategy.DECLARED));
+        if (superclass != null) {
+            merged.add(superclass.getAnnotations(SearchStrategy.SUPERCLASS));
+        }
+        if (strategy == SearchStrategy.TYPE_HIERARCHY) {
+            for (TypeHierarchy face : interfaces()) {
+                merged.add(face.getAnnotations(SearchStrategy.DECLARED));
+            }
+        }
+
+        return AnnotationTable.merge(merged);
+    }
+
+    private ResolvedMember resolvedMember(MemberSignature signature, SearchStrategy strategy) {
+        if (strategy == SearchStrategy.DECLARED) {
+            return declaredResolution(signature);
+        }
+
+        ConcurrentMap<MemberSignature, ResolvedMember> resolved = resolvedMembers(strategy);
+        ResolvedMember res = resolved.get(signature);
+
+        if (res == null) {
+            res = resolveMember(signature, strategy);
+            resolved.putIfAbsent(signature, res);
+        }
+
+        return res;
+    }
+
+    private ResolvedMember resolveMember(MemberSignature signature, SearchStrategy strategy) {
+        TypeHierarchy superclass = getSupertypes().superclass;
+        List<AnnotationTable> found = new ArrayList<AnnotationTable>();
+        ResolvedMember declared = declaredResolution(signature);
+        boolean declares = declared.annotations != null;
+        List<MemberSignature> overridden = overriddenBy(signature, declared.annotations);
+        ResolvedMember nearest = declared;
+
+        addIfPresent(found, declared.annotations);
+        if (superclass != null) {
+            for (MemberSignature inherited : overridden) {
+                ResolvedMember member = superclass.resolvedMember(inherited, SearchStrategy.SUPERCLASS);
+
+                if (isInherited(signature, member, declares)) {
+                    found.add(member.annotations);
+                    nearest = nearestOf(nearest, member);
+                }
+            }
+        }
+        if (strategy == SearchStrategy.TYPE_HIERARCHY) {
+            for (TypeHierarchy face : interfaces()) {
+                for (MemberSignature inherited : overridden) {
+                    ResolvedMember member = face.resolvedMember(inherited, SearchStrategy.DECLARED);
+
+                    // static methods of interfaces are not inherited by their implementations, unlike their fields
+                    if (isInherited(signature, member, declares) && !isStaticMethod(signature, member)) {
+                        found.add(member.annotations);
+                        nearest = nearestOf(nearest, member);
+                    }
+                }
+            }
+        }
+
+        if (found.isEmpty()) {
+            return ABSENT;
+        }
+        if (found.size() == 1 || signature.getKind() == MemberSignature.Kind.FIELD) {
+            return new ResolvedMember(found.get(0), nearest.modifiers, nearest.packageName);
+        }
+
+        return new ResolvedMember(AnnotationTable.merge(found), nearest.modifiers, nearest.packageName);
+    }
+
+    /**
+     * Check whether the class sees a member resolved in one of its supertypes, and when it declares the member
+     * itself, whether its declaration overrides the supertype's so their annotations are merged.  Subclasses see the
+     * private fields of their superclasses but never inherit private methods, package-private methods are inherited
+     * and overridden only within their package, and a static method is inherited but hidden rather than overridden.
+     */
+    private boolean isInherited(MemberSignature signature, ResolvedMember member, boolean declares) {
+        if (member.annotations == null) {
+            return false;
+        }
+        if (signature.getKind() != MemberSignature.Kind.METHOD) {
+            return true;
+        }
+        if (Modifier.isPrivate(member.modifiers)) {
+            return false;
+        }
+        if (Modifier.isStatic(member.modifiers)) {
+            return !declares;
+        }
+        if (!Modifier.isPublic(member.modifiers) && !Modifier.isProtected(member.modifiers)) {
+            return member.packageName.equals(packageOf(type.getName()));
+        }
+
+        return true;
+    }
+
+    private static boolean isStaticMethod(MemberSignature signature, ResolvedMember member) {
+        return signature.getKind() == MemberSignature.Kind.METHOD && Modifier.isStatic(member.modifiers);
+    }
+
+    private static ResolvedMember nearestOf(ResolvedMember nearest, ResolvedMember member) {
+        if (nearest.annotations == null) {
+            return member;
+        }
+
+        return nearest;
+    }
+
+    /**
+     * Get the signatures a declared method overrides in its supertypes, its own and those of the bridge methods the
+     * compiler generated for it, so a method overriding a method of a generic supertype, such as {@code save(User)}
+     * overriding {@code save(T)} of {@code Repository<User>}, is merged with that method.
+     */
+    private List<MemberSignature> overriddenBy(MemberSignature signature, AnnotationTable declared) {
+        if (declared == null || signature.getKind() != MemberSignature.Kind.METHOD) {
+            return Collections.singletonList(signature);
+        }
+
+        List<MemberSignature> res = new ArrayList<MemberSignature>();
+
+        res.add(signature);
+        res.addAll(type.getBridges(signature));
+
+        return res;
+    }
+
+    /**
+     * Describe the member as the class declares it, for its subclasses to decide whether they inherit it.
+     */
+    private ResolvedMember declaredResolution(MemberSignature signature) {
+        AnnotationTable declared = declaredMember(signature);
+
+        if (declared == null) {
+            return ABSENT;
+        }
+
+        return new ResolvedMember(declared, type.getModifiers(signature), packageOf(type.getName()));
+    }
+
+    private AnnotationTable declaredMember(MemberSignature signature) {
+        ElementMetadata member = type.findMember(signature);
+
+        if (member == null) {
+            return null;
+        }
+
+        return member.getAnnotations();
+    }
+
+    private ConcurrentMap<MemberSignature, ResolvedMember> resolvedMembers(SearchStrategy strategy) {
+        ConcurrentMap<MemberSignature, ResolvedMember> res = members.get(strategy.ordinal());
+
+        if (res == null) {
+            members.compareAndSet(strategy.ordinal(), null, new ConcurrentHashMap<MemberSignature, ResolvedMember>());
+            res = members.get(strategy.ordinal());
+        }
+
+        return res;
+    }
+
+    private static void addIfPresent(List<AnnotationTable> tables, AnnotationTable table) {
+        if (table != null) {
+            tables.add(table);
+        }
+    }
+
+    private AnnotationTable declared() {
+        Class<?> loaded = type.getLoadedClass();
+
+        if (loaded == null) {
+            return type.getTypeMetadata().getAnnotations();
+        }
+
+        return AnnotationTable.of(loaded.getDeclaredAnnotations());
+    }
+
+    /**
+     * Collect the interfaces of the class and of its superclasses, nearest first and breadth first.
+     */
+    private List<TypeHierarchy> interfaces() {
+        List<TypeHierarchy> res = new ArrayList<TypeHierarchy>();
+        Set<String> seen = new HashSet<String>();
+        Queue<TypeHierarchy> queue = new ArrayDeque<TypeHierarchy>();
+
+        for (TypeHierarchy current = this; current != null; current = current.getSupertypes().superclass) {
+            queue.addAll(current.getSupertypes().interfaces);
+        }
+        while (!queue.isEmpty()) {
+            TypeHierarchy face = queue.remove();
+
+            if (seen.add(face.type.getName())) {
+                res.add(face);
+                queue.addAll(face.getSupertypes().interfaces);
+            }
+        }
+
+        return res;
+    }
+
+    private Supertypes getSupertypes() {
+        Supertypes res = supertypes;
+
+        if (res == null) {
+            res = resolve();
+            supertypes = res;
+        }
+
+        return res;
+    }
+
+    private Supertypes resolve() {
+        Class<?> loaded = type.getLoadedClass();
+
+        if (loaded != null) {
+            List<TypeHierarchy> interfaces = new ArrayList<TypeHierarchy>();
+
+            for (Class<?> face : loaded.getInterfaces()) {
+                interfaces.add(hierarchyOf(face));
+            }
+
+            return new Supertypes(hierarchyOf(loaded.getSuperclass()), interfaces);
+        }
+
+        ClassFileMetadata classFile = (ClassFileMetadata) type;
+        List<TypeHierarchy> interfaces = new ArrayList<TypeHierarchy>();
+
+        for (String name : classFile.getInterfaceNames()) {
+            interfaces.add(hierarchyOf(load(name, classFile.getClassLoader())));
+        }
+        if (classFile.getSuperclassName() == null) {
+            return new Supertypes(null, interfaces);
+        }
+
+        return new Supertypes(hierarchyOf(load(classFile.getSuperclassName(), classFile.getClassLoader())),
+                interfaces);
+    }
+
+    private static TypeHierarchy hierarchyOf(Class<?> type) {
+        if (type == null) {
+            return null;
+        }
+
+        return TypeMetadata.forClass(type).getHierarchy();
+    }
+
+    private static Class<?> load(String name, ClassLoader classLoader) {
+        try {
+            return Class.forName(name, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new TypeNotPresentException(name, e);
+        }
+    }
+
+    private static String packageOf(String className) {
+        int end = className.lastIndexOf('.');
+
+        if (end < 0) {
+            return "";
+        }
+
+        return className.substring(0, end);
+    }
+
+    /**
+     * The annotations a member was resolved to, null if no type searched declares it so misses are cached too, with
+     * the modifiers and package of its nearest declaration.
+     */
+    private static final class ResolvedMember {
+        private final AnnotationTable annotations;
+        private final int modifiers;
+        private final String packageName;
+
+        ResolvedMember(AnnotationTable annotations, int modifiers, String packageName) {
+            this.annotations = annotations;
+            this.modifiers = modifiers;
+            this.packageName = packageName;
+        }
+    }
+
+    /**
+     * The hierarchies of the direct supertypes of a class.
+     */
+    private static final class Supertypes {
+        private final TypeHierarchy superclass;
+        private final List<TypeHierarchy> interfaces;
+
+        Supertypes(TypeHierarchy superclass, List<TypeHierarchy> interfaces) {
+            this.superclass = superclass;
+            this.interfaces = interfaces;
+        }
+    }
+}
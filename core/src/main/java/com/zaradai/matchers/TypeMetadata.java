@@ -0,0 +1,221 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Annotation metadata of a class and the members it declares, read either through reflection from a loaded class
+ * or directly from a class file.  Elements that are looked up and found missing are cached, so repeated misses cost
+ * as little as hits.
+ */
+abstract class TypeMetadata {
+    /**
+     * The modifiers {@link #getModifiers(MemberSignature)} reports.
+     */
+    static final int ACCESS_MODIFIERS = Modifier.PUBLIC | Modifier.PROTECTED | Modifier.PRIVATE | Modifier.STATIC;
+
+    private final ConcurrentMap<AnnotationLocator, LookupMiss> misses;
+    private volatile TypeHierarchy hierarchy;
+
+    /**
+     * Setup empty caches.
+     */
+    TypeMetadata() {
+        this.misses = new ConcurrentHashMap<AnnotationLocator, LookupMiss>();
+    }
+
+    /**
+     * Get the metadata of the class an item is matched against.  A {@link ClassFile} describes the class it was read
+     * from, any other item describes its own class.
+     * @param item item being matched
+     * @return metadata of the item's class
+     */
+    static TypeMetadata of(Object item) {
+        if (item instanceof ClassFile) {
+            return ((ClassFile) item).getMetadata();
+        }
+
+        return forClass(item.getClass());
+    }
+
+    /**
+     * Get the metadata of a loaded class, as recorded by the descriptor or the index generated for it at compile time
+     * if there is one, otherwise read through reflection.
+     * @param type class to get metadata for
+     * @return shared metadata of the class
+     */
+    static TypeMetadata forClass(Class<?> type) {
+        return IndexResources.forClass(type);
+    }
+
+    /**
+     * Get the binary name of the class the metadata describes.
+     * @return class name
+     */
+    abstract String getName();
+
+    /**
+     * Get the loaded class the metadata describes.
+     * @return the class or null if the metadata was read from a class file that is not known to be loaded
+     */
+    abstract Class<?> getLoadedClass();
+
+    /**
+     * Get the metadata of the class itself.
+     * @return class level metadata
+     */
+    abstract ElementMetadata getTypeMetadata();
+
+    /**
+     * Get the metadata of a declared member without raising an exception if it is not declared.
+     * @param signature identifies the member
+     * @return member metadata or null if the class does not declare the member
+     */
+    abstract ElementMetadata findMember(MemberSignature signature);
+
+    /**
+     * Get the access and static modifiers of a declared member, which decide whether subclasses inherit and override
+     * it.
+     * @param signature identifies the member
+     * @return the member's {@link Modifier} flags, 0 if the class does not declare the member
+     */
+    abstract int getModifiers(MemberSignature signature);
+
+    /**
+     * Get the signatures of the bridge methods the compiler generated for a declared method, through which the method
+     * overrides methods of generic supertypes whose parameter types erase to other types, such as
+     * {@code save(Object)} generated for {@code save(User)} overriding {@code save(T)} of {@code Repository<T>}.
+     * @param signature identifies the declared method
+     * @return signatures of the bridge methods, empty if the class has none for the method
+     */
+    abstract List<MemberSignature> getBridges(MemberSignature signature);
+
+    /**
+     * Get the metadata of a declared member.
+     * @param signature identifies the member
+     * @return member metadata
+     * @throws NoSuchFieldException if the signature identifies a field that is not declared
+     * @throws NoSuchMethodException if the signature identifies a method or constructor that is not declared
+     */
+    ElementMetadata getMember(MemberSignature signature) throws NoSuchFieldException, NoSuchMethodException {
+        if (signature.getName() == null) {
+            throw new NullPointerException();
+        }
+
+        ElementMetadata metadata = findMember(signature);
+
+        if (metadata == null) {
+            if (signature.getKind() == MemberSignature.Kind.FIELD) {
+                throw new NoSuchFieldException(signature.describe(getName()));
+            }
+            throw new NoSuchMethodException(signature.describe(getName()));
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Pick the bridge methods of a method among the bridges of its name.  A bridge belongs to the method if the
+     * method is the only one of its name declared in source whose parameter types are each assignable to those of
+     * the bridge, the bridge of an ambiguous overload is left out rather than attributed to the wrong method.
+     * @param signature identifies the declared method
+     * @param bridges signatures of the bridge methods of the same name
+     * @param methods signatures of the methods of the same name declared in source
+     * @return signatures of the bridge methods of the method
+     */
+    static List<MemberSignature> bridgesOf(MemberSignature signature, List<MemberSignature> bridges,
+                                           List<MemberSignature> methods) {
+        List<MemberSignature> res = new ArrayList<MemberSignature>();
+
+        for (MemberSignature bridge : bridges) {
+            // a bridge with the same parameter types only narrows the return type
+            if (!bridge.equals(signature) && isOnlyTarget(signature, bridge.getParameterTypes(), methods)) {
+                res.add(bridge);
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Get the class level annotations of the class merged along its type hierarchy, created on first use.
+     * @return hierarchy of the class
+     */
+    TypeHierarchy getHierarchy() {
+        TypeHierarchy res = hierarchy;
+
+        if (res == null) {
+            res = new TypeHierarchy(this);
+            hierarchy = res;
+        }
+
+        return res;
+    }
+
+    /**
+     * Get the cached miss of an element the class does not declare, recording it on the first miss.
+     * @param locator locator that failed to find the element in the class
+     * @return the miss, described as the reflective lookup of the element would fail
+     */
+    LookupMiss getMiss(AnnotationLocator locator) {
+        LookupMiss res = misses.get(locator);
+
+        if (res == null) {
+            res = new LookupMiss(locator.missingIn(this));
+            LookupMiss existing = misses.putIfAbsent(locator, res);
+
+            if (existing != null) {
+                res = existing;
+            }
+        }
+
+        return res;
+    }
+
+    private static boolean isOnlyTarget(MemberSignature signature, Class<?>[] bridge, List<MemberSignature> methods) {
+        boolean res = false;
+
+        for (MemberSignature method : methods) {
+            if (isAssignable(method.getParameterTypes(), bridge)) {
+                if (!method.equals(signature)) {
+                    return false;
+                }
+                res = true;
+            }
+        }
+
+        return res;
+    }
+
+    private static boolean isAssignable(Class<?>[] parameterTypes, Class<?>[] bridge) {
+        if (parameterTypes.length != bridge.length) {
+            return false;
+        }
+
+        for (int i = 0; i < bridge.length; i++) {
+            if (!bridge[i].isAssignableFrom(parameterTypes[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -81,6 +81,24 @@ public class AnnotatedElementMatcherTest {
         assertThat(AnnotatedElementMatcher.hasAnnotation(TestAnnotation.class).matches(annotatedElement), is(true));
     }
 
+    @Test
+    public void shouldMatchAnnotatedMembers() throws Exception {
+        AnnotatedElementMatcher matcher = new AnnotatedElementMatcher(TestAnnotation.class);
+
+        assertThat(matcher.matches(TestAnnotated.class.getDeclaredField("annotatedField")), is(true));
+        assertThat(matcher.matches(TestAnnotated.class.getDeclaredField("nonAnnotatedField")), is(false));
+        assertThat(matcher.matches(TestAnnotated.class.getDeclaredMethod("annotated", int.class)), is(true));
+        assertThat(matcher.matches(TestAnnotated.class.getDeclaredConstructor(String.class)), is(true));
+        assertThat(matcher.matches(TestAnnotated.class.getDeclaredConstructor()), is(false));
+    }
+
+    @Test
+    public void shouldMatchOtherAnnotatedElements() throws Exception {
+        AnnotatedElementMatcher matcher = new AnnotatedElementMatcher(TestAnnotation.class);
+
+        assertThat(matcher.matches(TestAnnotated.class.getPackage()), is(false));
+    }
+
     @Test
     public void shouldDescribeTo() throws Exception {
         Description description = new StringDescription();
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class AnnotationAttributesTest {
+    @Test
+    public void shouldShareAttributesPerAnnotationType() throws Exception {
+        assertThat(AnnotationAttributes.forType(TestAnnotation.class),
+                is(sameInstance(AnnotationAttributes.forType(TestAnnotation.class))));
+    }
+
+    @Test
+    public void shouldResolveDeclaredAttributes() throws Exception {
+        AnnotationAttributes attributes = AnnotationAttributes.forType(TestAnnotation.class);
+
+        assertThat(attributes.get("name").getName(), is("name"));
+        assertThat(attributes.get("name").getType(), is(equalTo((Object) String.class)));
+        assertThat(attributes.get("value").getType(), is(equalTo((Object) int.class)));
+    }
+
+    @Test
+    public void shouldNotResolveUndeclaredAttributes() throws Exception {
+        AnnotationAttributes attributes = AnnotationAttributes.forType(TestAnnotation.class);
+
+        assertThat(attributes.get("notThere"), is(nullValue()));
+        assertThat(attributes.get("annotationType"), is(nullValue()));
+        assertThat(attributes.get("hashCode"), is(nullValue()));
+        assertThat(attributes.get(null), is(nullValue()));
+    }
+
+    @Test
+    public void shouldReadAttributeValues() throws Exception {
+        Annotation annotation = TestAnnotated.class.getAnnotation(TestAnnotation.class);
+        AnnotationAttributes attributes = AnnotationAttributes.forType(TestAnnotation.class);
+
+        assertThat(attributes.get("value").getValue(annotation), is((Object) TestAnnotated.TEST_VALUE));
+        assertThat(attributes.get("name").getValue(annotation), is((Object) TestAnnotated.TEST_PARAM));
+    }
+
+    @Test
+    public void shouldReadAttributesOfNonPublicAnnotationTypes() throws Exception {
+        Annotation annotation = Hidden.class.getAnnotation(Hidden.class);
+
+        assertThat(AnnotationAttributes.forType(Hidden.class).get("value").getValue(annotation), is((Object) "x"));
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Hidden("x")
+    private @interface Hidden {
+        String value();
+    }
+}
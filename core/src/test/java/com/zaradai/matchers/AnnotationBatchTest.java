@@ -0,0 +1,124 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class AnnotationBatchTest {
+    private final TestAnnotated annotated = new TestAnnotated();
+
+    @Test
+    public void shouldGroupMatchersByElement() throws Exception {
+        AnnotationBatch batch = AnnotationBatch.of(
+                IsClassAnnotated.with(TestAnnotation.class),
+                IsClassAnnotated.withParamValue(TestAnnotation.class, "value", TestAnnotated.TEST_VALUE),
+                IsFieldAnnotated.with(TestAnnotation.class, "annotatedField"),
+                IsFieldAnnotated.withAll("annotatedField", TestAnnotation.class),
+                IsMethodParameterAnnotated.with(TestAnnotation.class, 1, "methodParameterAnnotated", String.class,
+                        int.class),
+                IsMethodParameterAnnotated.withParam(TestAnnotation.class, "name", 1, "methodParameterAnnotated",
+                        String.class, int.class),
+                IsMethodParameterAnnotated.with(TestAnnotation.class, 0, "methodParameterAnnotated", String.class,
+                        int.class),
+                notNullValue());
+
+        assertThat(batch.getLocatorCount(), is(4));
+    }
+
+    @Test
+    public void shouldReturnResultPerMatcher() throws Exception {
+        Matcher<Object> hit = IsFieldAnnotated.with(TestAnnotation.class, "annotatedField");
+        Matcher<Object> miss = IsFieldAnnotated.with(TestAnnotation.class, "nonAnnotatedField");
+        Matcher<Object> wrongValue = IsClassAnnotated.withParamValue(TestAnnotation.class, "value", 1);
+        Matcher<Object> plain = instanceOf(String.class);
+
+        List<AnnotationBatch.Result> results = AnnotationBatch.of(hit, miss, wrongValue, plain).evaluate(annotated);
+
+        assertThat(results.size(), is(4));
+        assertResult(results.get(0), hit, true);
+        assertResult(results.get(1), miss, false);
+        assertResult(results.get(2), wrongValue, false);
+        assertResult(results.get(3), plain, false);
+    }
+
+    @Test
+    public void shouldReportMissingElementToEachMatcher() throws Exception {
+        Matcher<Object> first = IsFieldAnnotated.with(TestAnnotation.class, "missing");
+        Matcher<Object> second = IsFieldAnnotated.withParam(TestAnnotation.class, "name", "missing");
+
+        List<AnnotationBatch.Result> results = AnnotationBatch.of(first, second).evaluate(annotated);
+
+        assertResult(results.get(0), first, false);
+        assertResult(results.get(1), second, false);
+        assertThat(results.get(1).getMismatch(), containsString("NoSuchFieldException"));
+    }
+
+    @Test
+    public void shouldReportNullItemToEachMatcher() throws Exception {
+        List<AnnotationBatch.Result> results = AnnotationBatch.of(IsClassAnnotated.with(TestAnnotation.class))
+                .evaluate(null);
+
+        assertThat(results.get(0).isMatched(), is(false));
+        assertThat(results.get(0).getMismatch(), is("was null"));
+    }
+
+    @Test
+    public void shouldBehaveLikeAllOf() throws Exception {
+        List<Matcher<? super Object>> matchers = Arrays.<Matcher<? super Object>>asList(
+                IsClassAnnotated.with(TestAnnotation.class),
+                IsMethodAnnotated.with(TestAnnotation.class, "notAnnotated", int.class),
+                IsFieldAnnotated.with(TestAnnotation.class, "nonAnnotatedField"));
+        Matcher<Object> allOf = allOf(matchers);
+        AnnotationBatch batch = AnnotationBatch.of(matchers);
+
+        assertThat(batch.matches(annotated), is(false));
+        assertThat(StringDescription.toString(batch), is(StringDescription.toString(allOf)));
+        assertThat(mismatch(batch, annotated), is(mismatch(allOf, annotated)));
+        assertThat(annotated, is(AnnotationBatch.of(IsClassAnnotated.with(TestAnnotation.class),
+                IsFieldAnnotated.with(TestAnnotation.class, "annotatedField"))));
+    }
+
+    private void assertResult(AnnotationBatch.Result result, Matcher<?> matcher, boolean matched) {
+        assertThat(result.getMatcher(), is(sameInstance((Object) matcher)));
+        assertThat(result.isMatched(), is(matched));
+        assertThat(matcher.matches(annotated), is(matched));
+
+        if (matched) {
+            assertThat(result.getMismatch(), is(""));
+        } else {
+            assertThat(result.getMismatch(), is(mismatch(matcher, annotated)));
+        }
+    }
+
+    private static String mismatch(Matcher<?> matcher, Object item) {
+        Description description = new StringDescription();
+
+        matcher.describeMismatch(item, description);
+
+        return description.toString();
+    }
+}
@@ -0,0 +1,315 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.AnnotatedCorpus;
+import com.zaradai.matchers.support.AnnotatedCorpus.CorpusClass;
+import com.zaradai.matchers.support.ClassFiles;
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestArrayAnnotated;
+import com.zaradai.matchers.support.TestMultiAnnotated;
+import com.zaradai.matchers.support.TestValueAnnotated;
+import com.zaradai.matchers.support.TestValueAnnotation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static com.zaradai.matchers.AnnotationMatchers.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class AnnotationIndexTest {
+    private static final List<Class<?>> CLASSES = Arrays.<Class<?>>asList(TestAnnotated.class,
+            TestArrayAnnotated.class, TestMultiAnnotated.class, TestValueAnnotated.class, TestValueAnnotated.Inner.class,
+            TestValueAnnotated.Mode.class, Object.class);
+    private static final MemberSignature.Kind[] KINDS = MemberSignature.Kind.values();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldDecodeClassesAsReadFromTheirClassFiles() throws Exception {
+        AnnotationIndex index = AnnotationIndex.open(write(classFilesOf(CLASSES)), getClass().getClassLoader());
+
+        for (Class<?> type : CLASSES) {
+            assertSameMetadata(readClassFile(type), index.find(type.getName()));
+        }
+    }
+
+    @Test
+    public void shouldMatchIndexedClasses() throws Exception {
+        AnnotationIndex index = AnnotationIndex.open(write(classFilesOf(CLASSES)), getClass().getClassLoader());
+        ClassFile annotated = index.find(TestAnnotated.class.getName());
+        ClassFile values = index.find(TestValueAnnotated.class.getName());
+
+        assertThat(annotated, is(classAnnotatedWithParamValue(TestAnnotation.class, "value", TestAnnotated.TEST_VALUE)));
+        assertThat(annotated, is(fieldAnnotatedWith(TestAnnotation.class, "annotatedField")));
+        assertThat(annotated, is(not(fieldAnnotatedWith(TestAnnotation.class, "nonAnnotatedField"))));
+        assertThat(annotated, is(methodParameterAnnotatedWith(TestAnnotation.class, 1, "methodParameterAnnotated",
+                String.class, int.class)));
+        assertThat(values, is(methodAnnotatedWithParamValue(TestAnnotation.class, "name", "copy", "copy", int[].class,
+                String[][].class, double.class)));
+        assertThat(values.getInterfaceNames(), is(Arrays.asList("java.lang.Comparable")));
+        assertThat(values.getSuperclassName(), is("java.lang.Object"));
+        assertThat(index.find(Object.class.getName()).getSuperclassName(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldKeepEveryValueKind() throws Exception {
+        AnnotationIndex index = AnnotationIndex.open(write(classFilesOf(CLASSES)), getClass().getClassLoader());
+        ClassFile indexed = index.find(TestValueAnnotated.class.getName());
+        TestValueAnnotation expected = TestValueAnnotated.class.getAnnotation(TestValueAnnotation.class);
+        Object actual = ((ClassFileMetadata) indexed.getMetadata()).getTypeMetadata()
+                .getAnnotation(TestValueAnnotation.class);
+
+        assertThat(actual, is(equalTo((Object) expected)));
+        assertThat(actual.hashCode(), is(expected.hashCode()));
+    }
+
+    @Test
+    public void shouldListClassesByName() throws Exception {
+        AnnotationIndex index = AnnotationIndex.open(write(classFilesOf(CLASSES)), getClass().getClassLoader());
+        List<String> expected = new ArrayList<String>();
+        List<String> actual = new ArrayList<String>();
+
+        for (Class<?> type : CLASSES) {
+            expected.add(type.getName());
+        }
+        Collections.sort(expected);
+        for (int i = 0; i < index.size(); i++) {
+            actual.add(index.getClassName(i));
+        }
+
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void shouldNotFindClassesOutsideTheIndex() throws Exception {
+        AnnotationIndex index = AnnotationIndex.open(write(classFilesOf(CLASSES)), getClass().getClassLoader());
+
+        assertThat(index.find(String.class.getName()), is(nullValue()));
+        assertThat(index.find(""), is(nullValue()));
+        assertThat(index.find("\uffff"), is(nullValue()));
+        // strings such as annotation type names are in the index, but are not classes of it
+        assertThat(index.find(TestAnnotation.class.getName()), is(nullValue()));
+    }
+
+    @Test
+    public void shouldKeepDecodedClasses() throws Exception {
+        AnnotationIndex index = AnnotationIndex.open(write(classFilesOf(CLASSES)), getClass().getClassLoader());
+
+        assertThat(index.find(TestAnnotated.class.getName()),
+                is(sameInstance(index.find(TestAnnotated.class.getName()))));
+    }
+
+    @Test
+    public void shouldReadIndexInsideJar() throws Exception {
+        File jar = folder.newFile("indexed.jar");
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+
+        try {
+            out.putNextEntry(new JarEntry(AnnotationIndex.RESOURCE));
+            out.write(Files.readAllBytes(write(classFilesOf(CLASSES)).toPath()));
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+
+        AnnotationIndex index = AnnotationIndex.open(new URL("jar:" + jar.toURI() + "!/" + AnnotationIndex.RESOURCE),
+                getClass().getClassLoader());
+
+        assertThat(index.find(TestAnnotated.class.getName()), classAnnotatedWith(TestAnnotation.class));
+    }
+
+    @Test
+    public void shouldIndexBuiltClasses() throws Exception {
+        ClassFile built = ClassFile.builder("com.acme.Built", null, Collections.<String>emptyList())
+                .build(AnnotationRecord.of(TestAnnotation.class.getName(), Collections.singletonMap("value", 3)));
+        AnnotationIndex index = AnnotationIndex.open(write(Collections.singletonList(built)),
+                getClass().getClassLoader());
+
+        assertThat(index.find("com.acme.Built"), classAnnotatedWithParamValue(TestAnnotation.class, "value", 3));
+    }
+
+    @Test
+    public void shouldOpenEmptyIndex() throws Exception {
+        AnnotationIndex index = AnnotationIndex.open(write(Collections.<ClassFile>emptyList()));
+
+        assertThat(index.size(), is(0));
+        assertThat(index.find(TestAnnotated.class.getName()), is(nullValue()));
+    }
+
+    @Test
+    public void shouldIndexCorpus() throws Exception {
+        AnnotatedCorpus corpus = AnnotatedCorpus.builder().classes(200).seed(3).build();
+        ClassLoader loader = corpus.newClassLoader(getClass().getClassLoader());
+        List<ClassFile> classFiles = new ArrayList<ClassFile>();
+
+        for (String name : corpus.getClassFileNames()) {
+            classFiles.add(ClassFile.read(corpus.getClassFile(name), loader));
+        }
+
+        AnnotationIndex index = AnnotationIndex.open(write(classFiles), loader);
+
+        assertThat(index.size(), is(classFiles.size()));
+        for (CorpusClass corpusClass : corpus.getClasses()) {
+            assertSameMetadata(ClassFile.read(corpus.getClassFile(corpusClass.getName()), loader),
+                    index.find(corpusClass.getName()));
+        }
+    }
+
+    @Test
+    public void shouldWriteSameBytesWhateverTheOrderOfClasses() throws Exception {
+        List<ClassFile> classFiles = classFilesOf(CLASSES);
+        File first = write(classFiles);
+
+        Collections.reverse(classFiles);
+
+        assertThat(Arrays.equals(Files.readAllBytes(write(classFiles).toPath()), Files.readAllBytes(first.toPath())),
+                is(true));
+    }
+
+    @Test
+    public void shouldReplaceExistingIndex() throws Exception {
+        File file = write(classFilesOf(CLASSES));
+
+        AnnotationIndex.write(classFilesOf(CLASSES.subList(0, 1)), file);
+
+        assertThat(AnnotationIndex.open(file).size(), is(1));
+        assertThat(file.getParentFile().list(), is(new String[] {file.getName()}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectClassesIndexedTwice() throws Exception {
+        write(classFilesOf(Arrays.<Class<?>>asList(TestAnnotated.class, TestAnnotated.class)));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectFilesThatAreNotIndexes() throws Exception {
+        File file = folder.newFile();
+        FileOutputStream out = new FileOutputStream(file);
+
+        try {
+            out.write(ClassFiles.bytesOf(TestAnnotated.class));
+        } finally {
+            out.close();
+        }
+
+        AnnotationIndex.open(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectTruncatedIndex() throws Exception {
+        File file = write(classFilesOf(CLASSES));
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+
+        try {
+            out.setLength(out.length() - 1);
+        } finally {
+            out.close();
+        }
+
+        AnnotationIndex.open(file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullClassLoader() throws Exception {
+        AnnotationIndex.open(write(classFilesOf(CLASSES)), null);
+    }
+
+    private File write(List<ClassFile> classFiles) throws IOException {
+        File file = new File(folder.newFolder(), "annotations.idx");
+
+        AnnotationIndex.write(classFiles, file);
+
+        return file;
+    }
+
+    private List<ClassFile> classFilesOf(List<Class<?>> types) throws IOException {
+        List<ClassFile> res = new ArrayList<ClassFile>();
+
+        for (Class<?> type : types) {
+            res.add(readClassFile(type));
+        }
+
+        return res;
+    }
+
+    private ClassFile readClassFile(Class<?> type) throws IOException {
+        return ClassFile.read(ClassFiles.bytesOf(type), getClass().getClassLoader());
+    }
+
+    private static void assertSameMetadata(ClassFile expectedFile, ClassFile actualFile) {
+        ClassFileMetadata expected = (ClassFileMetadata) expectedFile.getMetadata();
+        ClassFileMetadata actual = (ClassFileMetadata) actualFile.getMetadata();
+
+        assertThat(actual.getName(), is(expected.getName()));
+        assertThat(actual.getSuperclassName(), is(expected.getSuperclassName()));
+        assertThat(actual.getInterfaceNames(), is(expected.getInterfaceNames()));
+        assertSameElement(expected.getName(), expected.getType(), actual.getType(), expected.getClassLoader());
+
+        for (MemberSignature.Kind kind : KINDS) {
+            Map<String, ClassFileMetadata.Element> members = expected.getElements(kind);
+
+            assertThat(actual.getElements(kind).keySet(), is(members.keySet()));
+            for (String key : members.keySet()) {
+                assertSameElement(expected.getName() + " " + key, members.get(key), actual.getElements(kind).get(key),
+                        expected.getClassLoader());
+            }
+        }
+    }
+
+    private static void assertSameElement(String element, ClassFileMetadata.Element expected,
+                                          ClassFileMetadata.Element actual, ClassLoader loader) {
+        assertThat(element, actual.getAccess(), is(expected.getAccess()));
+        assertThat(element, materialize(actual.getAnnotations(), loader),
+                is(materialize(expected.getAnnotations(), loader)));
+
+        AnnotationData[][] expectedParameters = expected.getParameterAnnotations();
+        AnnotationData[][] actualParameters = actual.getParameterAnnotations();
+
+        if (expectedParameters == null || expectedParameters.length == 0) {
+            assertThat(element, actualParameters == null || actualParameters.length == 0, is(true));
+            return;
+        }
+
+        assertThat(element, actualParameters.length, is(expectedParameters.length));
+        for (int i = 0; i < expectedParameters.length; i++) {
+            assertThat(element, materialize(actualParameters[i], loader),
+                    is(materialize(expectedParameters[i], loader)));
+        }
+    }
+
+    private static List<Annotation> materialize(AnnotationData[] annotations, ClassLoader loader) {
+        return Arrays.asList(SyntheticAnnotation.materialize(annotations, loader));
+    }
+}
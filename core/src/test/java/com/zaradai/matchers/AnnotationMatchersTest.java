@@ -30,6 +30,62 @@ public class AnnotationMatchersTest {
         assertThat(annotated, is(classAnnotatedWith(TestAnnotation.class)));
     }
 
+    @Test
+    public void shouldMatchClassAnnotatedWithAllAndNone() throws Exception {
+        TestMultiAnnotated annotated = new TestMultiAnnotated();
+
+        assertThat(annotated, is(classAnnotatedWithAll(TestAnnotation.class, TestArrayAnnotation.class)));
+        assertThat(annotated, is(classAnnotatedWithNone(Deprecated.class)));
+    }
+
+    @Test
+    public void shouldMatchFieldAnnotatedWithAllAndNone() throws Exception {
+        TestMultiAnnotated annotated = new TestMultiAnnotated();
+
+        assertThat(annotated, is(fieldAnnotatedWithAll("multiField", TestAnnotation.class, TestArrayAnnotation.class)));
+        assertThat(annotated, is(fieldAnnotatedWithNone("plainField", TestAnnotation.class)));
+    }
+
+    @Test
+    public void shouldMatchClassAnnotatedAlongHierarchy() throws Exception {
+        TestHierarchy.Sub annotated = new TestHierarchy.Sub();
+
+        assertThat(annotated, is(classAnnotatedWith(TestAnnotation.class, SearchStrategy.TYPE_HIERARCHY)));
+        assertThat(annotated, is(classAnnotatedWithParam(TestAnnotation.class, "name", SearchStrategy.TYPE_HIERARCHY)));
+        assertThat(annotated, is(classAnnotatedWithParamValue(TestHierarchyAnnotation.class, "value", is("named"),
+                SearchStrategy.TYPE_HIERARCHY)));
+        assertThat(new TestHierarchy.Leaf(), is(classAnnotatedWithParamValue(TestAnnotation.class, "name", "base",
+                SearchStrategy.SUPERCLASS)));
+    }
+
+    @Test
+    public void shouldMatchInheritedFieldsAndMethods() throws Exception {
+        TestInheritedMembers.Customer annotated = new TestInheritedMembers.Customer();
+
+        assertThat(annotated, is(fieldAnnotatedWith(TestAnnotation.class, "id", SearchStrategy.SUPERCLASS)));
+        assertThat(annotated, is(fieldAnnotatedWithParam(TestAnnotation.class, "name", "id", SearchStrategy.SUPERCLASS)));
+        assertThat(annotated, is(fieldAnnotatedWithParamValue(TestAnnotation.class, "name", is("id"), "id",
+                SearchStrategy.SUPERCLASS)));
+        assertThat(annotated, is(fieldAnnotatedWithParamValue(TestAnnotation.class, "name", "identified", "CONSTANT",
+                SearchStrategy.TYPE_HIERARCHY)));
+        assertThat(annotated, is(methodAnnotatedWith(TestArrayAnnotation.class, SearchStrategy.TYPE_HIERARCHY,
+                "getId")));
+        assertThat(annotated, is(methodAnnotatedWithParam(TestAnnotation.class, "name", SearchStrategy.SUPERCLASS,
+                "touch")));
+        assertThat(annotated, is(methodAnnotatedWithParamValue(TestAnnotation.class, "name", is("named"),
+                SearchStrategy.TYPE_HIERARCHY, "getName")));
+        assertThat(annotated, is(methodAnnotatedWithParamValue(TestAnnotation.class, "name", "customer",
+                SearchStrategy.SUPERCLASS, "touch")));
+    }
+
+    @Test
+    public void shouldMatchOverridesOfGenericMethods() throws Exception {
+        assertThat(new TestGenericMembers.Sub(), is(methodAnnotatedWithParamValue(TestAnnotation.class, "name", "base",
+                SearchStrategy.SUPERCLASS, "save", TestGenericMembers.User.class)));
+        assertThat(new TestGenericMembers.UserRepo(), is(methodAnnotatedWithParamValue(TestAnnotation.class, "name",
+                "repo", SearchStrategy.TYPE_HIERARCHY, "save", TestGenericMembers.User.class)));
+    }
+
     @Test
     public void shouldMatchAnnotatedClassParam() throws Exception {
         TestAnnotated annotated = new TestAnnotated();
@@ -17,7 +17,11 @@ package com.zaradai.matchers;
 
 import com.zaradai.matchers.support.TestAnnotated;
 import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestArrayAnnotated;
+import com.zaradai.matchers.support.TestArrayAnnotation;
+import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
+import org.hamcrest.Matcher;
 import org.hamcrest.StringDescription;
 import org.junit.Test;
 
@@ -138,6 +142,28 @@ public class AnnotationParamMatcherTest {
         assertThat(AnnotationParamMatcher.hasParamValue("value", 56).matches(annotation), is(true));
     }
 
+    @Test
+    public void shouldGiveValueMatchersCopiesOfSnapshotArrays() throws Exception {
+        Matcher<Object> tampering = new BaseMatcher<Object>() {
+            @Override
+            public boolean matches(Object item) {
+                ((String[]) item)[0] = "tampered";
+                return true;
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("tampering");
+            }
+        };
+        AnnotationSnapshot snapshot = AnnotationSnapshot.of(
+                TestArrayAnnotated.class.getAnnotation(TestArrayAnnotation.class));
+
+        assertThat(new AnnotationParamMatcher<Object>("value", tampering).matchesSnapshot(snapshot,
+                new StringDescription()), is(true));
+        assertThat((String[]) snapshot.getValue("value"), is(equalTo(new String[] {"a", "b", "c"})));
+    }
+
     private Annotation getAnnotation() {
         return new TestAnnotated().getClass().getAnnotation(TestAnnotation.class);
     }
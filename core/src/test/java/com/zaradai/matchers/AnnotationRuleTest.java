@@ -0,0 +1,194 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.ClassFiles;
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestArrayAnnotation;
+import com.zaradai.matchers.support.TestValueAnnotated;
+import org.junit.Test;
+
+import java.lang.annotation.Documented;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.zaradai.matchers.AnnotationMatchers.*;
+import static com.zaradai.matchers.AnnotationParamMatcher.hasParamValue;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class AnnotationRuleTest {
+    private static final String LOCATION = "TestAnnotated.class";
+
+    @Test
+    public void shouldReportFieldsMissingAnnotation() throws Exception {
+        AnnotationRule rule = AnnotationRule.named("fields").onFields().requireAnnotation(TestAnnotation.class)
+                .compile();
+
+        assertThat(check(rule), is(Arrays.asList(
+                violation("fields", "field TEST_PARAM", "annotation missing"),
+                violation("fields", "field TEST_VALUE", "annotation missing"),
+                violation("fields", "field nonAnnotatedField", "annotation missing"))));
+    }
+
+    @Test
+    public void shouldReportMethodsAndConstructorsMissingAnnotation() throws Exception {
+        AnnotationRule methods = AnnotationRule.named("methods").onMethods().requireAnnotation(TestAnnotation.class)
+                .compile();
+        AnnotationRule constructors = AnnotationRule.named("constructors").onConstructors()
+                .requireAnnotation(TestAnnotation.class).compile();
+
+        assertThat(check(methods), is(Arrays.asList(
+                violation("methods", "method methodParameterAnnotated(java.lang.String, int)", "annotation missing"),
+                violation("methods", "method notAnnotated(int)", "annotation missing"))));
+        assertThat(check(constructors), is(Arrays.asList(
+                violation("constructors", "constructor ()", "annotation missing"),
+                violation("constructors", "constructor (java.lang.String, int)", "annotation missing"))));
+    }
+
+    @Test
+    public void shouldOnlyCheckSelectedElements() throws Exception {
+        AnnotationRule rule = AnnotationRule.named("values").onMethods().whereAnnotatedWith(TestAnnotation.class)
+                .requireAnnotation(TestAnnotation.class, hasParamValue("value", equalTo(0))).compile();
+
+        List<RuleViolation> violations = check(rule);
+
+        assertThat(violations.size(), is(1));
+        assertThat(violations.get(0).getElement(), is("method annotated(int)"));
+        assertThat(violations.get(0).getMessage(), containsString("was <56>"));
+    }
+
+    @Test
+    public void shouldCheckParametersOfSelectedMembers() throws Exception {
+        AnnotationRule all = AnnotationRule.named("parameters").onMethodParameters()
+                .requireAnnotation(TestAnnotation.class).compile();
+        AnnotationRule selected = AnnotationRule.named("parameters").onConstructorParameters()
+                .whereMemberAnnotatedWith(TestAnnotation.class).requireAnnotation(TestAnnotation.class).compile();
+
+        assertThat(check(all), is(Arrays.asList(
+                violation("parameters", "parameter 0 of method annotated(int)", "annotation missing"),
+                violation("parameters", "parameter 0 of method methodParameterAnnotated(java.lang.String, int)",
+                        "annotation missing"),
+                violation("parameters", "parameter 0 of method notAnnotated(int)", "annotation missing"))));
+        assertThat(check(selected), is(Arrays.asList(
+                violation("parameters", "parameter 0 of constructor (java.lang.String)", "annotation missing"))));
+    }
+
+    @Test
+    public void shouldCheckClassesWithMatchers() throws Exception {
+        AnnotationRule kept = AnnotationRule.named("kept").where(classAnnotatedWith(TestAnnotation.class))
+                .require(classAnnotatedWithParamValue(TestAnnotation.class, "value", TestAnnotated.TEST_VALUE))
+                .compile();
+        AnnotationRule broken = AnnotationRule.named("broken").whereAnnotatedWith(TestAnnotation.class)
+                .require(fieldAnnotatedWith(TestAnnotation.class, "nonAnnotatedField")).compile();
+        AnnotationRule skipped = AnnotationRule.named("skipped").whereAnnotatedWith(TestArrayAnnotation.class)
+                .requireAnnotation(TestArrayAnnotation.class).compile();
+
+        assertThat(check(kept).isEmpty(), is(true));
+        assertThat(check(skipped).isEmpty(), is(true));
+        assertThat(check(broken).size(), is(1));
+        assertThat(check(broken).get(0).getElement(), is("class"));
+        assertThat(check(broken).get(0).getMessage(), containsString("annotation missing"));
+    }
+
+    @Test
+    public void shouldDescribeViolation() throws Exception {
+        RuleViolation violation = violation("fields", "field nonAnnotatedField", "annotation missing");
+
+        assertThat(violation.toString(), is(TestAnnotated.class.getName()
+                + " field nonAnnotatedField breaks rule 'fields': annotation missing"));
+        assertThat(violation.getRule(), is("fields"));
+        assertThat(violation.getClassName(), is(TestAnnotated.class.getName()));
+        assertThat(violation.getLocation(), is(LOCATION));
+    }
+
+    @Test
+    public void shouldDescribeMembersInSourceForm() throws Exception {
+        AnnotationRule rule = AnnotationRule.named("copies").onMethods().whereAnnotatedWith(TestAnnotation.class)
+                .requireAnnotation(TestAnnotation.class, hasParamValue("name", equalTo("clone"))).compile();
+        List<RuleViolation> violations = new ArrayList<RuleViolation>();
+        List<String> elements = new ArrayList<String>();
+
+        rule.check(ClassFile.read(ClassFiles.bytesOf(TestValueAnnotated.class)), LOCATION, violations);
+        for (RuleViolation violation : violations) {
+            elements.add(violation.getElement());
+        }
+
+        // the synthetic bridge compareTo(Object) is not reported
+        assertThat(elements, is(Arrays.asList("method compareTo(" + TestValueAnnotated.class.getName() + ")",
+                "method copy(int[], java.lang.String[][], double)")));
+    }
+
+    @Test
+    public void shouldBeNamed() throws Exception {
+        AnnotationRule rule = AnnotationRule.named("name").requireAnnotation(TestAnnotation.class).compile();
+
+        assertThat(rule.getName(), is("name"));
+        assertThat(rule.toString(), is("name"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMissingName() throws Exception {
+        AnnotationRule.named(null).requireAnnotation(TestAnnotation.class).compile();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectRuleRequiringNothing() throws Exception {
+        AnnotationRule.named("nothing").onFields().whereAnnotatedWith(TestAnnotation.class).compile();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectClassMatchersOnMembers() throws Exception {
+        AnnotationRule.named("members").onFields().require(classAnnotatedWith(TestAnnotation.class)).compile();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMemberSelectorsOutsideParameters() throws Exception {
+        AnnotationRule.named("members").onMethods().whereMemberAnnotatedWith(TestAnnotation.class)
+                .requireAnnotation(TestAnnotation.class).compile();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTypesThatAreNotAnnotations() throws Exception {
+        AnnotationRule.named("string").whereAnnotatedWith(String.class).requireAnnotation(TestAnnotation.class)
+                .compile();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectAnnotationsNotRetainedAtRuntime() throws Exception {
+        AnnotationRule.named("class").requireAnnotation(SuppressWarnings.class).compile();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullAnnotationTypes() throws Exception {
+        AnnotationRule.named("null").whereAnnotatedWith(Documented.class, null)
+                .requireAnnotation(TestAnnotation.class).compile();
+    }
+
+    private static List<RuleViolation> check(AnnotationRule rule) throws Exception {
+        List<RuleViolation> res = new ArrayList<RuleViolation>();
+
+        rule.check(ClassFile.read(ClassFiles.bytesOf(TestAnnotated.class)), LOCATION, res);
+
+        return res;
+    }
+
+    private static RuleViolation violation(String rule, String element, String message) {
+        return new RuleViolation(rule, TestAnnotated.class.getName(), element, LOCATION, message);
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestArrayAnnotation;
+import com.zaradai.matchers.support.TestMultiAnnotated;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class AnnotationSetMatcherTest {
+    private final TestMultiAnnotated annotated = new TestMultiAnnotated();
+
+    @Test
+    public void shouldMatchClassWithAll() throws Exception {
+        assertThat(annotated, is(IsClassAnnotated.withAll(TestAnnotation.class, TestArrayAnnotation.class)));
+        assertThat(new TestAnnotated(), is(not(IsClassAnnotated.withAll(TestAnnotation.class,
+                TestArrayAnnotation.class))));
+    }
+
+    @Test
+    public void shouldMatchClassWithNone() throws Exception {
+        assertThat(annotated, is(IsClassAnnotated.withNone(Deprecated.class)));
+        assertThat(annotated, is(not(IsClassAnnotated.withNone(Deprecated.class, TestArrayAnnotation.class))));
+    }
+
+    @Test
+    public void shouldMatchClassWithoutAnnotationTypes() throws Exception {
+        assertThat(annotated, is(AnnotationMatchers.classAnnotatedWithAll()));
+        assertThat(annotated, is(AnnotationMatchers.classAnnotatedWithNone()));
+    }
+
+    @Test
+    public void shouldMatchFieldWithAll() throws Exception {
+        assertThat(annotated, is(IsFieldAnnotated.withAll("multiField", TestAnnotation.class,
+                TestArrayAnnotation.class)));
+        assertThat(annotated, is(not(IsFieldAnnotated.withAll("singleField", TestAnnotation.class,
+                TestArrayAnnotation.class))));
+    }
+
+    @Test
+    public void shouldMatchFieldWithNone() throws Exception {
+        assertThat(annotated, is(IsFieldAnnotated.withNone("plainField", TestAnnotation.class,
+                TestArrayAnnotation.class)));
+        assertThat(annotated, is(not(IsFieldAnnotated.withNone("singleField", TestAnnotation.class,
+                TestArrayAnnotation.class))));
+    }
+
+    @Test
+    public void shouldMatchEmptySet() throws Exception {
+        assertThat(annotated, is(IsClassAnnotated.withAll()));
+        assertThat(annotated, is(IsClassAnnotated.withNone()));
+    }
+
+    @Test
+    public void shouldDescribeMissingAnnotations() throws Exception {
+        Matcher<Object> matcher = IsFieldAnnotated.withAll("singleField", TestAnnotation.class,
+                TestArrayAnnotation.class);
+
+        assertThat(mismatch(matcher, annotated),
+                is("missing [<interface com.zaradai.matchers.support.TestArrayAnnotation>]"));
+    }
+
+    @Test
+    public void shouldDescribePresentAnnotations() throws Exception {
+        Matcher<Object> matcher = IsClassAnnotated.withNone(Deprecated.class, TestAnnotation.class);
+
+        assertThat(mismatch(matcher, annotated),
+                is("annotated with [<interface com.zaradai.matchers.support.TestAnnotation>]"));
+    }
+
+    @Test
+    public void shouldMismatchIfItemIsNull() throws Exception {
+        assertThat(mismatch(IsClassAnnotated.withAll(TestAnnotation.class), null), is("was null"));
+    }
+
+    @Test
+    public void shouldMismatchIfFieldNotFound() throws Exception {
+        assertThat(mismatch(IsFieldAnnotated.withAll("missing", TestAnnotation.class), annotated),
+                containsString("NoSuchFieldException"));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldRejectNullAnnotation() throws Exception {
+        IsClassAnnotated.withAll(TestAnnotation.class, null);
+    }
+
+    @Test
+    public void shouldDescribeTo() throws Exception {
+        Description description = new StringDescription();
+
+        IsClassAnnotated.withAll(TestAnnotation.class).describeTo(description);
+        description.appendText("; ");
+        IsFieldAnnotated.withNone("plainField", TestAnnotation.class).describeTo(description);
+
+        assertThat(description.toString(), is("class to be annotated with all of "
+                + "[<interface com.zaradai.matchers.support.TestAnnotation>]; "
+                + "field to be annotated with none of [<interface com.zaradai.matchers.support.TestAnnotation>]"));
+    }
+
+    private static String mismatch(Matcher<Object> matcher, Object item) {
+        Description description = new StringDescription();
+
+        assertThat(matcher.matches(item), is(false));
+        matcher.describeMismatch(item, description);
+
+        return description.toString();
+    }
+}
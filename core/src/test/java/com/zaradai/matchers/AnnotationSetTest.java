@@ -0,0 +1,102 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestArrayAnnotation;
+import com.zaradai.matchers.support.TestMultiAnnotated;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class AnnotationSetTest {
+    @Test
+    public void shouldGiveEachTypeOneId() throws Exception {
+        int id = AnnotationRegistry.idOf(TestAnnotation.class);
+
+        assertThat(AnnotationRegistry.idOf(TestAnnotation.class), is(id));
+        assertThat(AnnotationRegistry.idOf(TestArrayAnnotation.class), is(not(id)));
+        assertThat(AnnotationRegistry.idOf(null), is(-1));
+    }
+
+    @Test
+    public void shouldBuildSetFromAnnotations() throws Exception {
+        AnnotationSet set = AnnotationSet.of(TestMultiAnnotated.class.getAnnotations());
+
+        assertThat(set.contains(AnnotationRegistry.idOf(TestAnnotation.class)), is(true));
+        assertThat(set.contains(AnnotationRegistry.idOf(TestArrayAnnotation.class)), is(true));
+        assertThat(set.contains(AnnotationRegistry.idOf(Deprecated.class)), is(false));
+        assertThat(set.contains(-1), is(false));
+        assertThat(set, is(equalTo(AnnotationSet.of(TestArrayAnnotation.class, TestAnnotation.class))));
+    }
+
+    @Test
+    public void shouldBeEmptyWithoutAnnotations() throws Exception {
+        assertThat(AnnotationSet.of(new Annotation[0]), is(sameInstance(AnnotationSet.EMPTY)));
+        assertThat(AnnotationSet.EMPTY.isEmpty(), is(true));
+        assertThat(AnnotationSet.of(TestAnnotation.class).isEmpty(), is(false));
+    }
+
+    @Test
+    public void shouldBeEmptyWithoutTypes() throws Exception {
+        assertThat(AnnotationSet.of(), is(sameInstance(AnnotationSet.EMPTY)));
+        assertThat(AnnotationSet.of(new Class<?>[0]).isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldCompareSets() throws Exception {
+        AnnotationSet both = AnnotationSet.of(TestAnnotation.class, TestArrayAnnotation.class);
+        AnnotationSet one = AnnotationSet.of(TestAnnotation.class);
+        AnnotationSet other = AnnotationSet.of(Deprecated.class);
+
+        assertThat(both.containsAll(one), is(true));
+        assertThat(one.containsAll(both), is(false));
+        assertThat(both.containsAll(AnnotationSet.EMPTY), is(true));
+        assertThat(both.intersects(one), is(true));
+        assertThat(both.intersects(other), is(false));
+        assertThat(AnnotationSet.EMPTY.intersects(both), is(false));
+    }
+
+    @Test
+    public void shouldSpanSeveralWords() throws Exception {
+        Class<?>[] types = new Class<?>[130];
+
+        for (int i = 0; i < types.length; i++) {
+            types[i] = java.lang.reflect.Array.newInstance(TestAnnotated.class, new int[i + 1]).getClass();
+        }
+
+        AnnotationSet wide = AnnotationSet.of(types);
+        AnnotationSet last = AnnotationSet.of(types[types.length - 1]);
+        AnnotationSet narrow = AnnotationSet.of(TestAnnotation.class);
+
+        assertThat(wide.contains(AnnotationRegistry.idOf(types[types.length - 1])), is(true));
+        assertThat(wide.containsAll(last), is(true));
+        assertThat(narrow.containsAll(last), is(false));
+        assertThat(narrow.intersects(last), is(false));
+        assertThat(last.intersects(wide), is(true));
+        assertThat(narrow, is(not(equalTo(last))));
+        assertThat(AnnotationSet.of(TestAnnotation.class).hashCode(), is(narrow.hashCode()));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldRejectNullType() throws Exception {
+        AnnotationSet.of(TestAnnotation.class, null);
+    }
+}
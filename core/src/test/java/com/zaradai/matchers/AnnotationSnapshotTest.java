@@ -0,0 +1,108 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestArrayAnnotated;
+import com.zaradai.matchers.support.TestArrayAnnotation;
+import org.junit.Test;
+
+import java.lang.annotation.ElementType;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class AnnotationSnapshotTest {
+    @Test
+    public void shouldCopyAllAttributeValues() throws Exception {
+        AnnotationSnapshot snapshot = AnnotationSnapshot.of(TestAnnotated.class.getAnnotation(TestAnnotation.class));
+
+        assertThat(snapshot.annotationType(), is(equalTo((Object) TestAnnotation.class)));
+        assertThat(snapshot.getValue("value"), is((Object) TestAnnotated.TEST_VALUE));
+        assertThat(snapshot.getValue("name"), is((Object) TestAnnotated.TEST_PARAM));
+    }
+
+    @Test
+    public void shouldReportDeclaredAttributes() throws Exception {
+        AnnotationSnapshot snapshot = AnnotationSnapshot.of(TestAnnotated.class.getAnnotation(TestAnnotation.class));
+
+        assertThat(snapshot.hasAttribute("value"), is(true));
+        assertThat(snapshot.hasAttribute("notThere"), is(false));
+        assertThat(snapshot.getValue("notThere"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldCopyArrayValuesOfPublicAccessor() throws Exception {
+        AnnotationSnapshot snapshot = AnnotationSnapshot.of(
+                TestArrayAnnotated.class.getAnnotation(TestArrayAnnotation.class));
+        String[] value = (String[]) snapshot.getValue("value");
+
+        value[0] = "changed";
+
+        assertThat(snapshot.getValue("value"), is(not(sameInstance((Object) value))));
+        assertThat((String[]) snapshot.getValue("value"), is(equalTo(new String[] {"a", "b", "c"})));
+        assertThat(snapshot, is(equalTo(AnnotationSnapshot.of(
+                TestArrayAnnotated.class.getAnnotation(TestArrayAnnotation.class)))));
+    }
+
+    @Test
+    public void shouldShareArrayValuesWithMatchers() throws Exception {
+        AnnotationSnapshot snapshot = AnnotationSnapshot.of(
+                TestArrayAnnotated.class.getAnnotation(TestArrayAnnotation.class));
+        AnnotationAttributes.Attribute attribute = snapshot.getAttributes().get("value");
+
+        assertThat(snapshot.getValue(attribute), is(sameInstance(snapshot.getValue(attribute))));
+    }
+
+    @Test
+    public void shouldReadArrayValues() throws Exception {
+        AnnotationSnapshot snapshot = AnnotationSnapshot.of(
+                TestArrayAnnotated.class.getAnnotation(TestArrayAnnotation.class));
+
+        assertThat((String[]) snapshot.getValue("value"), is(equalTo(new String[] {"a", "b", "c"})));
+        assertThat((int[]) snapshot.getValue("codes"), is(equalTo(new int[] {1, 2, 3, 4, 5, 6, 7, 8})));
+        assertThat(((TestAnnotation[]) snapshot.getValue("nested"))[1].name(), is("second"));
+        assertThat(snapshot.getValue("type"), is((Object) ElementType.TYPE));
+    }
+
+    @Test
+    public void shouldCompareByValue() throws Exception {
+        TestArrayAnnotation annotation = TestArrayAnnotated.class.getAnnotation(TestArrayAnnotation.class);
+
+        assertThat(AnnotationSnapshot.of(annotation), is(equalTo(AnnotationSnapshot.of(annotation))));
+        assertThat(AnnotationSnapshot.of(annotation).hashCode(), is(AnnotationSnapshot.of(annotation).hashCode()));
+        assertThat(AnnotationSnapshot.of(annotation), is(not(equalTo(
+                AnnotationSnapshot.of(TestAnnotated.class.getAnnotation(TestAnnotation.class))))));
+    }
+
+    @Test
+    public void shouldDescribeValuesInAttributeOrder() throws Exception {
+        AnnotationSnapshot snapshot = AnnotationSnapshot.of(TestAnnotated.class.getAnnotation(TestAnnotation.class));
+
+        assertThat(snapshot.toString(), is("@com.zaradai.matchers.support.TestAnnotation(name=param, value=56)"));
+    }
+
+    @Test
+    public void shouldBeSharedThroughMemberMetadata() throws Exception {
+        ElementMetadata metadata = ClassMetadata.forClass(TestArrayAnnotated.class)
+                .getMember(MemberSignature.field("arrayField"));
+
+        assertThat(metadata.getSnapshot(TestArrayAnnotation.class),
+                is(sameInstance(metadata.getSnapshot(TestArrayAnnotation.class))));
+        assertThat(metadata.getSnapshot(TestAnnotation.class), is(nullValue()));
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestArrayAnnotated;
+import com.zaradai.matchers.support.TestArrayAnnotation;
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class AnnotationSpecTest {
+    private final TestAnnotated annotated = new TestAnnotated();
+
+    @Test
+    public void shouldMatchClassByDefault() throws Exception {
+        AnnotationSpec spec = AnnotationSpec.annotatedWith(TestAnnotation.class)
+                .withParamValue("value", TestAnnotated.TEST_VALUE).compile();
+
+        assertThat(annotated, is(spec));
+        assertThat(new Object(), is(not(spec)));
+    }
+
+    @Test
+    public void shouldMatchEachElementKind() throws Exception {
+        assertThat(annotated, is(AnnotationSpec.annotatedWith(TestAnnotation.class).onField("annotatedField")
+                .declaredBy(TestAnnotated.class).compile()));
+        assertThat(annotated, is(AnnotationSpec.annotatedWith(TestAnnotation.class).onMethod("annotated", int.class)
+                .withParam("name").declaredBy(TestAnnotated.class).compile()));
+        assertThat(annotated, is(AnnotationSpec.annotatedWith(TestAnnotation.class).onConstructor(String.class)
+                .declaredBy(TestAnnotated.class).compile()));
+        assertThat(annotated, is(AnnotationSpec.annotatedWith(TestAnnotation.class)
+                .onConstructorParameter(1, String.class, int.class).withParamValue("name", TestAnnotated.TEST_PARAM)
+                .declaredBy(TestAnnotated.class).compile()));
+        assertThat(annotated, is(AnnotationSpec.annotatedWith(TestAnnotation.class)
+                .onMethodParameter(1, "methodParameterAnnotated", String.class, int.class)
+                .withParamValue("value", equalTo(TestAnnotated.TEST_VALUE)).compile()));
+    }
+
+    @Test
+    public void shouldRequireEveryParameter() throws Exception {
+        AnnotationSpec spec = AnnotationSpec.annotatedWith(TestAnnotation.class).onMethod("annotated", int.class)
+                .withParamValue("name", TestAnnotated.TEST_PARAM).withParamValue("value", 1).compile();
+
+        assertThat(spec.matches(annotated), is(false));
+        assertThat(mismatch(spec, annotated), is("was <56>"));
+    }
+
+    @Test
+    public void shouldMatchArrayValues() throws Exception {
+        AnnotationSpec spec = AnnotationSpec.annotatedWith(TestArrayAnnotation.class).onField("arrayField")
+                .withParamValue("value", TestArrayAnnotated.VALUES).withParamValue("target", String.class).compile();
+
+        assertThat(new TestArrayAnnotated(), is(spec));
+    }
+
+    @Test
+    public void shouldGiveValueMatchersCopiesOfArrayValues() throws Exception {
+        Matcher<Object> tampering = new BaseMatcher<Object>() {
+            @Override
+            public boolean matches(Object item) {
+                ((String[]) item)[0] = "tampered";
+                return true;
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("tampering");
+            }
+        };
+        AnnotationSpec spec = AnnotationSpec.annotatedWith(TestArrayAnnotation.class).onField("arrayField")
+                .withParamValue("value", tampering).compile();
+
+        assertThat(new TestArrayAnnotated(), is(spec));
+        assertThat(new TestArrayAnnotated(), is(AnnotationSpec.annotatedWith(TestArrayAnnotation.class)
+                .onField("arrayField").withParamValue("value", TestArrayAnnotated.VALUES).compile()));
+    }
+
+    @Test
+    public void shouldDescribeMismatchLikeFactoryMatchers() throws Exception {
+        assertSameMismatch(AnnotationSpec.annotatedWith(TestAnnotation.class).onField("nonAnnotatedField").compile(),
+                IsFieldAnnotated.with(TestAnnotation.class, "nonAnnotatedField"));
+        assertSameMismatch(AnnotationSpec.annotatedWith(TestAnnotation.class).onField("missing").compile(),
+                IsFieldAnnotated.with(TestAnnotation.class, "missing"));
+        assertSameMismatch(AnnotationSpec.annotatedWith(TestAnnotation.class).onMethod("missing").compile(),
+                IsMethodAnnotated.with(TestAnnotation.class, "missing"));
+        assertSameMismatch(AnnotationSpec.annotatedWith(TestAnnotation.class).withParamValue("name", "other")
+                .compile(), IsClassAnnotated.withParamValue(TestAnnotation.class, "name", "other"));
+        assertThat(mismatch(AnnotationSpec.annotatedWith(TestAnnotation.class).compile(), null), is("was null"));
+    }
+
+    @Test
+    public void shouldDescribeLikeFactoryMatchers() throws Exception {
+        assertThat(StringDescription.toString(AnnotationSpec.annotatedWith(TestAnnotation.class)
+                        .onMethodParameter(1, "methodParameterAnnotated", String.class, int.class)
+                        .withParamValue("name", TestAnnotated.TEST_PARAM).compile()),
+                is(StringDescription.toString(IsMethodParameterAnnotated.withParamValue(TestAnnotation.class,
+                        "name", TestAnnotated.TEST_PARAM, 1, "methodParameterAnnotated", String.class, int.class))));
+    }
+
+    @Test
+    public void shouldShareCompiledSpecInBatch() throws Exception {
+        AnnotationBatch batch = AnnotationBatch.of(
+                AnnotationSpec.annotatedWith(TestAnnotation.class).onField("annotatedField").compile(),
+                IsFieldAnnotated.with(TestAnnotation.class, "annotatedField"));
+
+        assertThat(batch.getLocatorCount(), is(1));
+        assertThat(annotated, is(batch));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullAnnotation() throws Exception {
+        AnnotationSpec.annotatedWith(null).compile();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @SuppressWarnings("unchecked")
+    public void shouldRejectNonAnnotationType() throws Exception {
+        AnnotationSpec.annotatedWith((Class<? extends Annotation>) (Class<?>) String.class).compile();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectAnnotationNotRetainedAtRuntime() throws Exception {
+        AnnotationSpec.annotatedWith(SuppressWarnings.class).onMethod("annotated", int.class).compile();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectAnnotationNotApplicableToElement() throws Exception {
+        AnnotationSpec.annotatedWith(Retention.class).onField("annotatedField").compile();
+    }
+
+    @Test
+    public void shouldRejectUndeclaredParameter() throws Exception {
+        assertRejected(AnnotationSpec.annotatedWith(TestAnnotation.class).withParam("missing"),
+                "does not declare parameter 'missing'");
+    }
+
+    @Test
+    public void shouldRejectIncompatibleParameterValue() throws Exception {
+        assertRejected(AnnotationSpec.annotatedWith(TestAnnotation.class).withParamValue("value", "56"),
+                "is int, not java.lang.String");
+        assertRejected(AnnotationSpec.annotatedWith(TestAnnotation.class).withParamValue("value", (Object) null),
+                "is int, not null");
+        assertRejected(AnnotationSpec.annotatedWith(TestAnnotation.class).withParamValue("value",
+                (Matcher<?>) null), "is null");
+    }
+
+    @Test
+    public void shouldRejectUndeclaredMember() throws Exception {
+        assertRejected(AnnotationSpec.annotatedWith(TestAnnotation.class).onField("missing")
+                .declaredBy(TestAnnotated.class), "does not declare field missing");
+        assertRejected(AnnotationSpec.annotatedWith(TestAnnotation.class).onMethod("annotated", long.class)
+                .declaredBy(TestAnnotated.class), "com.zaradai.matchers.support.TestAnnotated.annotated(long)");
+        assertRejected(AnnotationSpec.annotatedWith(TestAnnotation.class).onConstructorParameter(2, String.class,
+                int.class).declaredBy(TestAnnotated.class), "has no parameter at 2");
+    }
+
+    @Test
+    public void shouldRejectMissingNameAndNegativePosition() throws Exception {
+        assertRejected(AnnotationSpec.annotatedWith(TestAnnotation.class).onField(null), "is null");
+        assertRejected(AnnotationSpec.annotatedWith(TestAnnotation.class).onConstructorParameter(-1, String.class),
+                "is negative");
+    }
+
+    private static void assertRejected(AnnotationSpec.Builder builder, String message) {
+        try {
+            builder.compile();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString(message));
+            return;
+        }
+
+        throw new AssertionError("Expected compile to fail with " + message);
+    }
+
+    private void assertSameMismatch(Matcher<Object> spec, Matcher<Object> matcher) {
+        assertThat(spec.matches(annotated), is(false));
+        assertThat(mismatch(spec, annotated), is(mismatch(matcher, annotated)));
+    }
+
+    private static String mismatch(Matcher<?> matcher, Object item) {
+        Description description = new StringDescription();
+
+        matcher.describeMismatch(item, description);
+
+        return description.toString();
+    }
+}
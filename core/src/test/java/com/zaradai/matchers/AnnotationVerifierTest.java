@@ -0,0 +1,290 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.AnnotatedCorpus;
+import com.zaradai.matchers.support.ClassFiles;
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestMultiAnnotated;
+import com.zaradai.matchers.support.TestValueAnnotated;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class AnnotationVerifierTest {
+    private static final List<Class<?>> CLASSES = Arrays.<Class<?>>asList(TestAnnotated.class,
+            TestMultiAnnotated.class, TestValueAnnotated.class);
+
+    private static final AnnotationRule FIELDS = AnnotationRule.named("fields").onFields()
+            .requireAnnotation(TestAnnotation.class).compile();
+    private static final AnnotationRule PARAMETERS = AnnotationRule.named("parameters").onConstructorParameters()
+            .whereMemberAnnotatedWith(TestAnnotation.class).requireAnnotation(TestAnnotation.class).compile();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldReportEveryViolationInDirectory() throws Exception {
+        File root = directoryOf(CLASSES);
+        List<RuleViolation> violations = AnnotationVerifier.of(FIELDS, PARAMETERS).verify(root);
+
+        assertThat(violations, hasItem(new RuleViolation("fields", TestAnnotated.class.getName(),
+                "field nonAnnotatedField", fileOf(root, TestAnnotated.class).getPath(), "annotation missing")));
+        assertThat(violations, hasItem(new RuleViolation("parameters", TestAnnotated.class.getName(),
+                "parameter 0 of constructor (java.lang.String)", fileOf(root, TestAnnotated.class).getPath(),
+                "annotation missing")));
+        assertThat(withoutLocations(violations), is(expected(FIELDS, PARAMETERS)));
+    }
+
+    @Test
+    public void shouldReportEveryViolationInJar() throws Exception {
+        File jar = jarOf(CLASSES);
+        List<RuleViolation> violations = AnnotationVerifier.of(FIELDS).verify(jar);
+        String entry = TestAnnotated.class.getName().replace('.', '/') + ".class";
+
+        assertThat(violations, hasItem(new RuleViolation("fields", TestAnnotated.class.getName(),
+                "field nonAnnotatedField", jar + "!/" + entry, "annotation missing")));
+        assertThat(violations.size(), is(expected(FIELDS).size()));
+    }
+
+    @Test
+    public void shouldVerifyClassPath() throws Exception {
+        File jar = jarOf(CLASSES.subList(0, 1));
+        File root = directoryOf(CLASSES.subList(1, CLASSES.size()));
+        String classPath = jar + File.pathSeparator + root + File.pathSeparator + new File(root, "missing");
+
+        assertThat(AnnotationVerifier.of(FIELDS).verify(classPath).size(), is(expected(FIELDS).size()));
+    }
+
+    @Test
+    public void shouldReportMalformedClassFiles() throws Exception {
+        File root = folder.newFolder();
+        File broken = new File(root, "Broken.class");
+
+        write(broken, new byte[] {1, 2, 3, 4});
+
+        List<RuleViolation> violations = AnnotationVerifier.of(FIELDS).verify(root);
+
+        assertThat(violations.size(), is(1));
+        assertThat(violations.get(0).getClassName(), is(broken.getPath()));
+        assertThat(violations.get(0).getElement(), is("class file"));
+        assertThat(violations.get(0).getMessage(), is("Not a class file"));
+    }
+
+    @Test
+    public void shouldSkipModuleAndPackageInfo() throws Exception {
+        File root = folder.newFolder();
+
+        write(new File(root, "package-info.class"), new byte[] {1, 2, 3, 4});
+
+        assertThat(AnnotationVerifier.of(FIELDS).verify(root).isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldVerifyIndexAsClassFiles() throws Exception {
+        File jar = jarOf(CLASSES.subList(0, 1));
+        File root = directoryOf(CLASSES.subList(1, CLASSES.size()));
+        File file = new File(folder.getRoot(), "annotations.idx");
+
+        AnnotationIndex.build(Arrays.asList(jar, root), file);
+
+        AnnotationVerifier verifier = AnnotationVerifier.of(FIELDS, PARAMETERS);
+
+        assertThat(verifier.verify(AnnotationIndex.open(file)), is(verifier.verify(jar, root)));
+    }
+
+    @Test
+    public void shouldLocateClassesIndexedWithoutSource() throws Exception {
+        File file = new File(folder.getRoot(), "annotations.idx");
+
+        AnnotationIndex.write(Arrays.asList(ClassFile.read(ClassFiles.bytesOf(TestAnnotated.class))), file);
+
+        AnnotationIndex index = AnnotationIndex.open(file);
+        List<RuleViolation> violations = AnnotationVerifier.of(FIELDS).verify(index);
+
+        assertThat(violations.isEmpty(), is(false));
+        assertThat(violations.get(0).getLocation(), is(index.toString()));
+    }
+
+    @Test
+    public void shouldReportSameViolationsOnAnyNumberOfThreads() throws Exception {
+        AnnotatedCorpus corpus = AnnotatedCorpus.builder().classes(100).seed(11).build();
+        ClassLoader loader = corpus.newClassLoader(getClass().getClassLoader());
+        File root = folder.newFolder();
+        List<AnnotationRule> rules = rulesOf(corpus, loader);
+
+        for (String name : corpus.getClassFileNames()) {
+            write(new File(root, name.replace('.', '/') + ".class"), corpus.getClassFile(name));
+        }
+
+        List<RuleViolation> serial = AnnotationVerifier.of(rules).withClassLoader(loader).withParallelism(1)
+                .verify(root);
+
+        assertThat(serial.isEmpty(), is(false));
+        for (int threads : new int[] {2, 4, 16, 64}) {
+            assertThat(AnnotationVerifier.of(rules).withClassLoader(loader).withParallelism(threads).verify(root),
+                    is(serial));
+        }
+    }
+
+    @Test
+    public void shouldSplitDirectoryTreesAndJarsAlike() throws Exception {
+        AnnotatedCorpus corpus = AnnotatedCorpus.builder().classes(60).seed(5).build();
+        ClassLoader loader = corpus.newClassLoader(getClass().getClassLoader());
+        List<String> names = corpus.getClassFileNames();
+        File root = folder.newFolder();
+        File jar = folder.newFile();
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+
+        try {
+            for (int i = 0; i < names.size(); i++) {
+                // spread the classes over a tree of directories several levels deep
+                String path = "p" + (i % 3) + "/q" + (i % 5) + "/" + names.get(i).replace('.', '/') + ".class";
+
+                write(new File(root, path), corpus.getClassFile(names.get(i)));
+                out.putNextEntry(new ZipEntry(path));
+                out.write(corpus.getClassFile(names.get(i)));
+            }
+        } finally {
+            out.close();
+        }
+
+        AnnotationVerifier verifier = AnnotationVerifier.of(rulesOf(corpus, loader)).withClassLoader(loader);
+        List<RuleViolation> fromDirectory = withoutLocations(verifier.withParallelism(1).verify(root));
+
+        assertThat(fromDirectory.isEmpty(), is(false));
+        assertThat(withoutLocations(verifier.withParallelism(8).verify(root)), is(fromDirectory));
+        assertThat(withoutLocations(verifier.withParallelism(1).verify(jar)), is(fromDirectory));
+        assertThat(withoutLocations(verifier.withParallelism(8).verify(jar)), is(fromDirectory));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnUnreadableJar() throws Exception {
+        File jar = folder.newFile();
+
+        write(jar, new byte[] {1, 2, 3, 4});
+        AnnotationVerifier.of(FIELDS).verify(jar);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullRules() throws Exception {
+        AnnotationVerifier.of(FIELDS, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNoThreads() throws Exception {
+        AnnotationVerifier.of(FIELDS).withParallelism(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullClassLoader() throws Exception {
+        AnnotationVerifier.of(FIELDS).withClassLoader(null);
+    }
+
+    private static List<AnnotationRule> rulesOf(AnnotatedCorpus corpus, ClassLoader loader) throws Exception {
+        List<AnnotationRule> res = new ArrayList<AnnotationRule>();
+
+        for (String name : corpus.getAnnotationNames()) {
+            Class<? extends Annotation> annotation = Class.forName(name, false, loader).asSubclass(Annotation.class);
+
+            res.add(AnnotationRule.named(name).onMethods().requireAnnotation(annotation).compile());
+            res.add(AnnotationRule.named(name).onConstructorParameters().requireAnnotation(annotation).compile());
+        }
+
+        return res;
+    }
+
+    private static List<RuleViolation> expected(AnnotationRule... rules) throws IOException {
+        List<RuleViolation> res = new ArrayList<RuleViolation>();
+        AnnotationVerifier verifier = AnnotationVerifier.of(rules);
+
+        for (Class<?> type : CLASSES) {
+            res.addAll(verifier.verify(ClassFile.read(ClassFiles.bytesOf(type)), ""));
+        }
+
+        return withoutLocations(res);
+    }
+
+    private static List<RuleViolation> withoutLocations(List<RuleViolation> violations) {
+        List<RuleViolation> res = new ArrayList<RuleViolation>();
+
+        for (RuleViolation violation : violations) {
+            res.add(new RuleViolation(violation.getRule(), violation.getClassName(), violation.getElement(), "",
+                    violation.getMessage()));
+        }
+
+        return res;
+    }
+
+    private File directoryOf(List<Class<?>> types) throws IOException {
+        File root = folder.newFolder();
+
+        for (Class<?> type : types) {
+            write(fileOf(root, type), ClassFiles.bytesOf(type));
+        }
+
+        return root;
+    }
+
+    private File jarOf(List<Class<?>> types) throws IOException {
+        File jar = folder.newFile();
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+
+        try {
+            out.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+            out.write("Manifest-Version: 1.0\n".getBytes("UTF-8"));
+            for (Class<?> type : types) {
+                out.putNextEntry(new ZipEntry(type.getName().replace('.', '/') + ".class"));
+                out.write(ClassFiles.bytesOf(type));
+            }
+        } finally {
+            out.close();
+        }
+
+        return jar;
+    }
+
+    private static File fileOf(File root, Class<?> type) {
+        return new File(root, type.getName().replace('.', '/') + ".class");
+    }
+
+    private static void write(File file, byte[] bytes) throws IOException {
+        file.getParentFile().mkdirs();
+
+        OutputStream out = new FileOutputStream(file);
+
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.ClassFiles;
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestArrayAnnotated;
+import com.zaradai.matchers.support.TestArrayAnnotation;
+import com.zaradai.matchers.support.TestMultiAnnotated;
+import com.zaradai.matchers.support.TestValueAnnotated;
+import com.zaradai.matchers.support.TestValueAnnotation;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ClassFileParserTest {
+    private static final List<Class<? extends Annotation>> ANNOTATION_TYPES =
+            Arrays.<Class<? extends Annotation>>asList(TestAnnotation.class, TestArrayAnnotation.class,
+                    TestValueAnnotation.class, Deprecated.class);
+
+    @Test
+    public void shouldCountDescriptorParameters() throws Exception {
+        assertThat(ClassFileParser.parameterCount("()V"), is(0));
+        assertThat(ClassFileParser.parameterCount("(I)V"), is(1));
+        assertThat(ClassFileParser.parameterCount("(JD[I[[Ljava/lang/String;Ljava/util/List;Z)Ljava/lang/Object;"),
+                is(6));
+    }
+
+    @Test
+    public void shouldConvertDescriptorsToBinaryNames() throws Exception {
+        assertThat(ClassFileParser.binaryName("Ljava/lang/String;"), is("java.lang.String"));
+        assertThat(ClassFileParser.binaryName("Lcom/zaradai/Outer$Inner;"), is("com.zaradai.Outer$Inner"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectBytesThatAreNotAClassFile() throws Exception {
+        ClassFileParser.parse(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}, getClass().getClassLoader());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTruncatedClassFile() throws Exception {
+        byte[] bytes = ClassFiles.bytesOf(TestAnnotated.class);
+
+        ClassFileParser.parse(Arrays.copyOf(bytes, bytes.length / 2), getClass().getClassLoader());
+    }
+
+    @Test
+    public void shouldReadClassNames() throws Exception {
+        ClassFileMetadata metadata = parse(TestValueAnnotated.Inner.class);
+
+        assertThat(metadata.getName(), is(TestValueAnnotated.Inner.class.getName()));
+        assertThat(metadata.getSuperclassName(), is("java.lang.Object"));
+        assertThat(parse(TestValueAnnotated.class).getInterfaceNames(), is(Arrays.asList("java.lang.Comparable")));
+    }
+
+    @Test
+    public void shouldReadTheAnnotationsReflectionReads() throws Exception {
+        Class<?>[] types = {TestAnnotated.class, TestArrayAnnotated.class, TestMultiAnnotated.class,
+                TestValueAnnotated.class, TestValueAnnotated.Inner.class, TestValueAnnotated.Mode.class};
+
+        for (Class<?> type : types) {
+            assertSameAnnotations(type, ClassMetadata.forClass(type), parse(type));
+        }
+    }
+
+    @Test
+    public void shouldIdentifyMembersByParameterTypes() throws Exception {
+        ClassFileMetadata metadata = parse(TestValueAnnotated.class);
+        ElementMetadata copy = metadata.findMember(MemberSignature.method("copy", int[].class, String[][].class,
+                double.class));
+
+        assertThat(((TestAnnotation) copy.getAnnotation(TestAnnotation.class)).name(), is("copy"));
+        assertThat(metadata.findMember(MemberSignature.method("copy", int[].class, String[].class, double.class)),
+                is(nullValue()));
+        assertThat(metadata.findMember(MemberSignature.method("copy")), is(nullValue()));
+        assertThat(metadata.findMember(MemberSignature.method(null)), is(nullValue()));
+        assertThat(metadata.findMember(MemberSignature.field("copy")), is(nullValue()));
+    }
+
+    @Test
+    public void shouldSkipStaticInitializer() throws Exception {
+        ClassFileMetadata metadata = parse(TestValueAnnotated.class);
+
+        assertThat(metadata.findMember(MemberSignature.method("<clinit>")), is(nullValue()));
+        assertThat(metadata.findMember(MemberSignature.method("<init>")), is(nullValue()));
+        assertThat(metadata.findMember(MemberSignature.constructor()), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldAlignAnnotationsOfImplicitParameters() throws Exception {
+        ElementMetadata inner = parse(TestValueAnnotated.Inner.class).findMember(MemberSignature.constructor(
+                TestValueAnnotated.class, String.class, int.class));
+        ElementMetadata mode = parse(TestValueAnnotated.Mode.class).findMember(MemberSignature.constructor(
+                String.class, int.class, int.class));
+
+        assertThat(inner.getParameterAnnotations().length, is(3));
+        assertThat(((TestAnnotation) inner.getParameterAnnotations()[1][0]).name(), is("inner"));
+        assertThat(mode.getParameterAnnotations().length, is(3));
+        assertThat(((TestAnnotation) mode.getParameterAnnotations()[2][0]).name(), is("mode"));
+    }
+
+    @Test
+    public void shouldMaterializeAnnotationsOnce() throws Exception {
+        ClassFileMetadata metadata = parse(TestAnnotated.class);
+        MemberSignature signature = MemberSignature.field("annotatedField");
+
+        assertThat(metadata.findMember(signature), is(sameInstance(metadata.findMember(signature))));
+        assertThat(metadata.getTypeMetadata(), is(sameInstance(metadata.getTypeMetadata())));
+    }
+
+    private ClassFileMetadata parse(Class<?> type) throws Exception {
+        return ClassFileParser.parse(ClassFiles.bytesOf(type), getClass().getClassLoader());
+    }
+
+    private static void assertSameAnnotations(Class<?> type, TypeMetadata expected, TypeMetadata actual)
+            throws Exception {
+        assertSameAnnotations(type.getName(), expected.getTypeMetadata(), actual.getTypeMetadata());
+
+        for (Field field : type.getDeclaredFields()) {
+            assertSameMember(field.toString(), MemberSignature.field(field.getName()), expected, actual);
+        }
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            assertSameMember(constructor.toString(), MemberSignature.constructor(constructor.getParameterTypes()),
+                    expected, actual);
+        }
+        for (Method method : type.getDeclaredMethods()) {
+            assertSameMember(method.toString(), MemberSignature.method(method.getName(), method.getParameterTypes()),
+                    expected, actual);
+        }
+    }
+
+    private static void assertSameMember(String member, MemberSignature signature, TypeMetadata expected,
+                                         TypeMetadata actual) throws Exception {
+        assertSameAnnotations(member, expected.getMember(signature), actual.getMember(signature));
+    }
+
+    private static void assertSameAnnotations(String element, ElementMetadata expected, ElementMetadata actual) {
+        assertThat(element, actual.getAnnotations().size(), is(expected.getAnnotations().size()));
+        for (Class<? extends Annotation> type : ANNOTATION_TYPES) {
+            assertSameAnnotation(element, expected.getAnnotation(type), actual.getAnnotation(type));
+        }
+
+        Annotation[][] expectedParameters = expected.getParameterAnnotations();
+        Annotation[][] actualParameters = actual.getParameterAnnotations();
+
+        assertThat(element, actualParameters.length, is(expectedParameters.length));
+        for (int i = 0; i < expectedParameters.length; i++) {
+            assertThat(element, actualParameters[i].length, is(expectedParameters[i].length));
+            for (int j = 0; j < expectedParameters[i].length; j++) {
+                assertSameAnnotation(element + " parameter " + i, expectedParameters[i][j], actualParameters[i][j]);
+            }
+        }
+    }
+
+    private static void assertSameAnnotation(String element, Annotation expected, Annotation actual) {
+        if (expected == null) {
+            assertThat(element, actual, is(nullValue()));
+            return;
+        }
+
+        assertThat(element, (Object) actual.annotationType(), is(equalTo((Object) expected.annotationType())));
+        assertThat(element, actual.equals(expected), is(true));
+        assertThat(element, expected.equals(actual), is(true));
+        assertThat(element, actual.hashCode(), is(expected.hashCode()));
+    }
+}
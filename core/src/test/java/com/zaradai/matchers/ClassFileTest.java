@@ -0,0 +1,187 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.ClassFiles;
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestArrayAnnotation;
+import com.zaradai.matchers.support.TestMultiAnnotated;
+import com.zaradai.matchers.support.TestValueAnnotated;
+import com.zaradai.matchers.support.TestValueAnnotation;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.zaradai.matchers.AnnotationMatchers.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ClassFileTest {
+    @Test
+    public void shouldReadClassFileFromStream() throws Exception {
+        InputStream in = ClassFiles.open(TestValueAnnotated.class);
+        ClassFile classFile;
+
+        try {
+            classFile = ClassFile.read(in, getClass().getClassLoader());
+        } finally {
+            in.close();
+        }
+
+        assertThat(classFile.getName(), is(TestValueAnnotated.class.getName()));
+        assertThat(classFile.getSuperclassName(), is("java.lang.Object"));
+        assertThat(classFile.getInterfaceNames(), is(Arrays.asList("java.lang.Comparable")));
+        assertThat(classFile.toString(), is("class file of com.zaradai.matchers.support.TestValueAnnotated"));
+    }
+
+    @Test
+    public void shouldReadClassFileFromBuffer() throws Exception {
+        byte[] bytes = ClassFiles.bytesOf(TestAnnotated.class);
+        byte[] padded = new byte[bytes.length + 8];
+
+        System.arraycopy(bytes, 0, padded, 4, bytes.length);
+
+        ByteBuffer buffer = ByteBuffer.wrap(padded, 4, bytes.length);
+        ClassFile classFile = ClassFile.read(buffer, getClass().getClassLoader());
+
+        assertThat(classFile.getName(), is(TestAnnotated.class.getName()));
+        assertThat(classFile, is(classAnnotatedWithParamValue(TestAnnotation.class, "value", TestAnnotated.TEST_VALUE)));
+        assertThat(buffer.position(), is(4));
+    }
+
+    @Test
+    public void shouldHaveNoSuperclassForObject() throws Exception {
+        assertThat(ClassFile.read(ClassFiles.bytesOf(Object.class)).getSuperclassName(), is(nullValue()));
+        assertThat(ClassFile.read(ClassFiles.bytesOf(Object.class)).getInterfaceNames(),
+                is(Collections.<String>emptyList()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullBytes() throws Exception {
+        ClassFile.read((byte[]) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullClassLoader() throws Exception {
+        ClassFile.read(ClassFiles.bytesOf(TestAnnotated.class), null);
+    }
+
+    @Test
+    public void shouldMatchClassFileAsAnInstance() throws Exception {
+        ClassFile classFile = ClassFile.read(ClassFiles.bytesOf(TestAnnotated.class));
+        List<Matcher<Object>> matchers = Arrays.asList(
+                classAnnotatedWith(TestAnnotation.class),
+                classAnnotatedWithParamValue(TestAnnotation.class, "value", TestAnnotated.TEST_VALUE),
+                classAnnotatedWithParamValue(TestAnnotation.class, "name", equalTo(TestAnnotated.TEST_PARAM)),
+                fieldAnnotatedWith(TestAnnotation.class, "annotatedField"),
+                fieldAnnotatedWithParam(TestAnnotation.class, "name", "annotatedField"),
+                fieldAnnotatedWithNone("nonAnnotatedField", TestAnnotation.class),
+                constructorAnnotatedWith(TestAnnotation.class, String.class),
+                constructorParameterAnnotatedWith(TestAnnotation.class, 1, String.class, int.class),
+                methodAnnotatedWithParamValue(TestAnnotation.class, "value", TestAnnotated.TEST_VALUE, "annotated",
+                        int.class),
+                methodParameterAnnotatedWithParamValue(TestAnnotation.class, "name", TestAnnotated.TEST_PARAM, 1,
+                        "methodParameterAnnotated", String.class, int.class),
+                AnnotationSpec.annotatedWith(TestAnnotation.class).onField("annotatedField")
+                        .withParamValue("value", TestAnnotated.TEST_VALUE).compile());
+
+        for (Matcher<Object> matcher : matchers) {
+            assertThat(classFile, matcher);
+        }
+        for (AnnotationBatch.Result result : AnnotationBatch.of(matchers).evaluate(classFile)) {
+            assertThat(result.toString(), result.isMatched(), is(true));
+        }
+    }
+
+    @Test
+    public void shouldMatchMultipleAnnotations() throws Exception {
+        ClassFile classFile = ClassFile.read(ClassFiles.bytesOf(TestMultiAnnotated.class));
+
+        assertThat(classFile, classAnnotatedWithAll(TestAnnotation.class, TestArrayAnnotation.class));
+        assertThat(classFile, fieldAnnotatedWithAll("multiField", TestAnnotation.class, TestArrayAnnotation.class));
+        assertThat(classFile, not(fieldAnnotatedWithAll("singleField", TestAnnotation.class,
+                TestArrayAnnotation.class)));
+    }
+
+    @Test
+    public void shouldDescribeMismatchesAsForAnInstance() throws Exception {
+        ClassFile classFile = ClassFile.read(ClassFiles.bytesOf(TestAnnotated.class));
+        TestAnnotated instance = new TestAnnotated();
+        List<Matcher<Object>> matchers = Arrays.asList(
+                constructorAnnotatedWith(TestAnnotation.class, double.class),
+                fieldAnnotatedWith(TestAnnotation.class, "missing"),
+                fieldAnnotatedWith(TestAnnotation.class, "nonAnnotatedField"),
+                fieldAnnotatedWith(TestAnnotation.class, null),
+                methodParameterAnnotatedWith(TestAnnotation.class, 5, "annotated", int.class),
+                classAnnotatedWithParamValue(TestAnnotation.class, "value", 42));
+
+        for (Matcher<Object> matcher : matchers) {
+            assertThat(matcher.matches(classFile), is(false));
+            assertThat(describeMismatch(matcher, classFile), is(describeMismatch(matcher, instance)));
+        }
+    }
+
+    @Test
+    public void shouldBuildClassFromRecordedAnnotations() throws Exception {
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+
+        values.put("unit", AnnotationRecord.enumConstant(TimeUnit.class.getName(), "HOURS"));
+        values.put("types", new Object[] {AnnotationRecord.classLiteral("Ljava/lang/String;")});
+        values.put("nested", AnnotationRecord.of(TestAnnotation.class.getName(),
+                Collections.singletonMap("value", 7)));
+
+        AnnotationRecord annotation = AnnotationRecord.of(TestValueAnnotation.class.getName(), values);
+        AnnotationRecord[] none = {};
+        ClassFile classFile = ClassFile.builder("com.acme.Built", "java.lang.Object", Collections.<String>emptyList())
+                .field("id", 0, annotation)
+                .method("copy(I)", 0, none, new AnnotationRecord[] {annotation})
+                .constructor("<init>()", 0, new AnnotationRecord[] {annotation})
+                .build(annotation);
+
+        assertThat(classFile.getName(), is("com.acme.Built"));
+        assertThat(classFile, classAnnotatedWithParamValue(TestValueAnnotation.class, "unit", TimeUnit.HOURS));
+        assertThat(classFile, fieldAnnotatedWithParamValue(TestValueAnnotation.class, "types",
+                equalTo(new Class<?>[] {String.class}), "id"));
+        assertThat(classFile, methodParameterAnnotatedWith(TestValueAnnotation.class, 0, "copy", int.class));
+        assertThat(classFile, constructorAnnotatedWith(TestValueAnnotation.class));
+        assertThat(((TestValueAnnotation) classFile.getMetadata().getTypeMetadata()
+                .getAnnotation(TestValueAnnotation.class)).nested().value(), is(7));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectValuesClassFilesCanNotHold() throws Exception {
+        AnnotationRecord.of(TestAnnotation.class.getName(), Collections.singletonMap("value", TimeUnit.HOURS));
+    }
+
+    private static String describeMismatch(Matcher<Object> matcher, Object item) {
+        Description description = new StringDescription();
+
+        matcher.describeMismatch(item, description);
+
+        return description.toString();
+    }
+}
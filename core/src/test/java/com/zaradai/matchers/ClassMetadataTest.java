@@ -0,0 +1,167 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ClassMetadataTest {
+    @Test
+    public void shouldShareMetadataPerClass() throws Exception {
+        assertThat(ClassMetadata.forClass(TestAnnotated.class), is(sameInstance(
+                ClassMetadata.forClass(TestAnnotated.class))));
+        assertThat(ClassMetadata.forClass(TestAnnotated.class).getType(), is(equalTo((Object) TestAnnotated.class)));
+    }
+
+    @Test
+    public void shouldReadClassAnnotations() throws Exception {
+        ElementMetadata metadata = ClassMetadata.forClass(TestAnnotated.class).getTypeMetadata();
+
+        assertThat(metadata.getAnnotation(TestAnnotation.class), is(notNullValue()));
+        assertThat(metadata.getAnnotation(Deprecated.class), is(nullValue()));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldRejectNullAnnotationClass() throws Exception {
+        ClassMetadata.forClass(TestAnnotated.class).getTypeMetadata().getAnnotation(null);
+    }
+
+    @Test
+    public void shouldCacheResolvedMembers() throws Exception {
+        ClassMetadata metadata = ClassMetadata.forClass(TestAnnotated.class);
+        ElementMetadata member = metadata.getMember(MemberSignature.method("annotated", int.class));
+
+        assertThat(member, is(sameInstance(metadata.getMember(MemberSignature.method("annotated", int.class)))));
+        assertThat(member.getAnnotation(TestAnnotation.class), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldResolveFieldsAndConstructors() throws Exception {
+        ClassMetadata metadata = ClassMetadata.forClass(TestAnnotated.class);
+
+        assertThat(metadata.getMember(MemberSignature.field("annotatedField")).getAnnotation(TestAnnotation.class),
+                is(notNullValue()));
+        assertThat(metadata.getMember(MemberSignature.constructor(String.class)).getAnnotation(TestAnnotation.class),
+                is(notNullValue()));
+        assertThat(metadata.getMember(MemberSignature.constructor()).getAnnotation(TestAnnotation.class),
+                is(nullValue()));
+    }
+
+    @Test
+    public void shouldReadParameterAnnotations() throws Exception {
+        Annotation[][] annotations = ClassMetadata.forClass(TestAnnotated.class)
+                .getMember(MemberSignature.method("methodParameterAnnotated", String.class, int.class))
+                .getParameterAnnotations();
+
+        assertThat(annotations.length, is(2));
+        assertThat(annotations[0].length, is(0));
+        assertThat(annotations[1][0], is(instanceOf(TestAnnotation.class)));
+    }
+
+    @Test
+    public void shouldIndexParameterAnnotationsByPosition() throws Exception {
+        ElementMetadata metadata = ClassMetadata.forClass(TestAnnotated.class)
+                .getMember(MemberSignature.constructor(String.class, int.class));
+
+        assertThat(metadata.getParameter(0).get(TestAnnotation.class), is(nullValue()));
+        assertThat(((TestAnnotation) metadata.getParameter(1).get(TestAnnotation.class)).value(),
+                is(TestAnnotated.TEST_VALUE));
+        assertThat(metadata.getParameter(1), is(sameInstance(metadata.getParameter(1))));
+        assertThat(metadata.getParameter(1).getSnapshot(TestAnnotation.class),
+                is(sameInstance(metadata.getParameter(1).getSnapshot(TestAnnotation.class))));
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void shouldRejectMissingParameterPosition() throws Exception {
+        ClassMetadata.forClass(TestAnnotated.class).getMember(MemberSignature.constructor(String.class, int.class))
+                .getParameter(2);
+    }
+
+    @Test
+    public void shouldResolveReflectiveElements() throws Exception {
+        ClassMetadata metadata = ClassMetadata.forClass(TestAnnotated.class);
+
+        assertThat(ClassMetadata.forElement(TestAnnotated.class), is(sameInstance(metadata.getTypeMetadata())));
+        assertThat(ClassMetadata.forElement(TestAnnotated.class.getDeclaredMethod("annotated", int.class)),
+                is(sameInstance(metadata.getMember(MemberSignature.method("annotated", int.class)))));
+        assertThat(ClassMetadata.forElement(TestAnnotated.class.getPackage()), is(nullValue()));
+    }
+
+    @Test
+    public void shouldFindMissingMembersWithoutException() throws Exception {
+        ClassMetadata metadata = ClassMetadata.forClass(TestAnnotated.class);
+
+        assertThat(metadata.findMember(MemberSignature.method("missing")), is(nullValue()));
+        assertThat(metadata.findMember(MemberSignature.field(null)), is(nullValue()));
+        assertThat(metadata.findMember(MemberSignature.field("annotatedField")),
+                is(sameInstance(metadata.getMember(MemberSignature.field("annotatedField")))));
+    }
+
+    @Test
+    public void shouldCacheMissesPerClass() throws Exception {
+        AnnotationLocator locator = AnnotationLocator.forMember(MemberSignature.constructor(double.class));
+        LookupMiss miss = ClassMetadata.forClass(TestAnnotated.class).getMiss(locator);
+
+        assertThat(ClassMetadata.forClass(TestAnnotated.class).getMiss(
+                AnnotationLocator.forMember(MemberSignature.constructor(double.class))), is(sameInstance(miss)));
+        assertThat(miss.toString(), is(
+                "java.lang.NoSuchMethodException: com.zaradai.matchers.support.TestAnnotated.<init>(double)"));
+    }
+
+    @Test
+    public void shouldDescribeMissesAsReflection() throws Exception {
+        assertMissDescribedAs(MemberSignature.field("missing"), -1);
+        assertMissDescribedAs(MemberSignature.method("missing", String.class, int[].class), -1);
+        assertMissDescribedAs(MemberSignature.constructor(String.class, int.class), 2);
+    }
+
+    @Test(expected = NoSuchMethodException.class)
+    public void shouldFailToResolveMissingMethod() throws Exception {
+        ClassMetadata.forClass(TestAnnotated.class).getMember(MemberSignature.method("missing"));
+    }
+
+    @Test(expected = NoSuchFieldException.class)
+    public void shouldFailToResolveMissingField() throws Exception {
+        ClassMetadata.forClass(TestAnnotated.class).getMember(MemberSignature.field("missing"));
+    }
+
+    private static void assertMissDescribedAs(MemberSignature signature, int position) {
+        ClassMetadata metadata = ClassMetadata.forClass(TestAnnotated.class);
+        AnnotationLocator locator;
+        String expected;
+
+        if (position < 0) {
+            locator = AnnotationLocator.forMember(signature);
+        } else {
+            locator = AnnotationLocator.forParameter(signature, position);
+        }
+        try {
+            locator.locate(metadata);
+            throw new AssertionError("expected " + signature + " to be missing");
+        } catch (Exception e) {
+            expected = e.toString();
+        }
+
+        assertThat(locator.find(metadata), is(nullValue()));
+        assertThat(locator.getMiss(metadata).toString(), is(expected));
+    }
+}
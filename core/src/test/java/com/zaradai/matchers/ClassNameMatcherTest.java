@@ -0,0 +1,98 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestStaticInitialized;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ClassNameMatcherTest {
+    private static final String UNINITIALIZED = "com.zaradai.matchers.support.TestStaticInitialized";
+
+    @Test
+    public void shouldMatchNamedClass() throws Exception {
+        assertThat(TestAnnotated.class.getName(),
+                is(ClassNameMatcher.named(TypeAnnotationMatchers.classAnnotatedWith(TestAnnotation.class))));
+        assertThat(TestAnnotated.class.getName(), is(ClassNameMatcher.named(
+                TypeAnnotationMatchers.fieldAnnotatedWith(TestAnnotation.class, "annotatedField"),
+                getClass().getClassLoader())));
+    }
+
+    @Test
+    public void shouldNotInitializeNamedClass() throws Exception {
+        Matcher<String> matcher = ClassNameMatcher.named(TypeAnnotationMatchers.classAnnotatedWithParamValue(
+                TestAnnotation.class, "name", TestAnnotated.TEST_PARAM));
+
+        assertThat(UNINITIALIZED, is(matcher));
+        assertThat(UNINITIALIZED, is(ClassNameMatcher.named(TypeAnnotationMatchers.fieldAnnotatedWith(
+                TestAnnotation.class, "annotatedField"))));
+        assertThat(System.getProperty(TestStaticInitialized.INITIALIZED_PROPERTY), is(nullValue()));
+    }
+
+    @Test
+    public void shouldDescribeMismatchOfNamedClass() throws Exception {
+        Matcher<String> matcher = ClassNameMatcher.named(TypeAnnotationMatchers.classAnnotatedWith(Deprecated.class));
+
+        assertThat(mismatch(matcher, TestAnnotated.class.getName()), is("annotation missing"));
+    }
+
+    @Test
+    public void shouldMismatchIfClassNotFound() throws Exception {
+        Matcher<String> matcher = ClassNameMatcher.named(TypeAnnotationMatchers.classAnnotatedWith(
+                TestAnnotation.class));
+
+        assertThat(matcher.matches("com.zaradai.Missing"), is(false));
+        assertThat(mismatch(matcher, "com.zaradai.Missing"),
+                is("java.lang.ClassNotFoundException: com.zaradai.Missing"));
+    }
+
+    @Test
+    public void shouldMismatchIfItemIsNull() throws Exception {
+        assertThat(mismatch(ClassNameMatcher.named(anything()), null), is("was null"));
+    }
+
+    @Test
+    public void shouldMismatchIfItemIsNotString() throws Exception {
+        assertThat(mismatch(ClassNameMatcher.named(anything()), 1), containsString("was not a class name"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullClassLoader() throws Exception {
+        ClassNameMatcher.named(anything(), null);
+    }
+
+    @Test
+    public void shouldDescribeTo() throws Exception {
+        assertThat(StringDescription.toString(ClassNameMatcher.named(TypeAnnotationMatchers.classAnnotatedWith(
+                TestAnnotation.class))), is("name of class to be annotated with "
+                + "<interface com.zaradai.matchers.support.TestAnnotation>"));
+    }
+
+    private static String mismatch(Matcher<?> matcher, Object item) {
+        Description description = new StringDescription();
+
+        matcher.describeMismatch(item, description);
+
+        return description.toString();
+    }
+}
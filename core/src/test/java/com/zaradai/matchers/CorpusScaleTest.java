@@ -0,0 +1,197 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.AnnotatedCorpus;
+import com.zaradai.matchers.support.AnnotatedCorpus.CorpusClass;
+import com.zaradai.matchers.support.AnnotatedCorpus.CorpusElement;
+import org.hamcrest.Matcher;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class CorpusScaleTest {
+    private static AnnotatedCorpus corpus;
+
+    @BeforeClass
+    public static void generateCorpus() throws Exception {
+        corpus = AnnotatedCorpus.builder().classes(300).seed(42).build();
+    }
+
+    @Test
+    public void shouldGenerateDeterministically() throws Exception {
+        AnnotatedCorpus first = AnnotatedCorpus.builder().classes(3).seed(7).build();
+        AnnotatedCorpus second = AnnotatedCorpus.builder().classes(3).seed(7).build();
+
+        assertThat(first.getClassFileNames(), is(equalTo(second.getClassFileNames())));
+        for (int i = 0; i < 3; i++) {
+            assertThat(first.getClasses().get(i).getElements().toString(),
+                    is(equalTo(second.getClasses().get(i).getElements().toString())));
+        }
+    }
+
+    @Test
+    public void shouldLoadCorpusInEachClassLoader() throws Exception {
+        String name = corpus.getClasses().get(0).getName();
+        Class<?> first = Class.forName(name, false, corpus.newClassLoader(getClass().getClassLoader()));
+        Class<?> second = Class.forName(name, false, corpus.newClassLoader(getClass().getClassLoader()));
+
+        assertThat(first, is(not(sameInstance((Object) second))));
+        assertThat(first.getName(), is(name));
+    }
+
+    @Test
+    public void shouldMatchEveryElementOfTheCorpus() throws Exception {
+        ClassLoader loader = corpus.newClassLoader(getClass().getClassLoader());
+        List<Class<? extends Annotation>> annotations = loadAnnotations(loader);
+        int hits = 0;
+
+        for (CorpusClass corpusClass : corpus.getClasses()) {
+            Object item = Class.forName(corpusClass.getName(), true, loader).getDeclaredConstructor().newInstance();
+
+            for (CorpusElement element : corpusClass.getElements()) {
+                for (Class<? extends Annotation> annotation : annotations) {
+                    boolean annotated = element.isAnnotatedWith(annotation.getName());
+
+                    assertThat(element + " " + annotation.getName(), matcherOf(element, annotation).matches(item),
+                            is(annotated));
+                    if (annotated) {
+                        assertThat(element.toString(), paramValueMatcherOf(element, annotation).matches(item),
+                                is(true));
+                        hits++;
+                    }
+                }
+            }
+        }
+
+        assertThat(hits, is(not(0)));
+    }
+
+    @Test
+    public void shouldMatchClassFilesWithoutLoadingThem() throws Exception {
+        RecordingClassLoader loader = new RecordingClassLoader(corpus.newClassLoader(getClass().getClassLoader()));
+        List<Class<? extends Annotation>> annotations = loadAnnotations(loader);
+        int hits = 0;
+
+        for (CorpusClass corpusClass : corpus.getClasses()) {
+            ClassFile item = ClassFile.read(corpus.getClassFile(corpusClass.getName()), loader);
+
+            for (CorpusElement element : corpusClass.getElements()) {
+                for (Class<? extends Annotation> annotation : annotations) {
+                    boolean annotated = element.isAnnotatedWith(annotation.getName());
+
+                    assertThat(element + " " + annotation.getName(), matcherOf(element, annotation).matches(item),
+                            is(annotated));
+                    if (annotated) {
+                        assertThat(element.toString(), paramValueMatcherOf(element, annotation).matches(item),
+                                is(true));
+                        hits++;
+                    }
+                }
+            }
+        }
+
+        assertThat(hits, is(not(0)));
+        assertThat(loader.getRequested(), is(equalTo((Set<String>) new HashSet<String>(corpus.getAnnotationNames()))));
+    }
+
+    private static List<Class<? extends Annotation>> loadAnnotations(ClassLoader loader) throws Exception {
+        List<Class<? extends Annotation>> res = new ArrayList<Class<? extends Annotation>>();
+
+        for (String name : corpus.getAnnotationNames()) {
+            res.add(Class.forName(name, false, loader).asSubclass(Annotation.class));
+        }
+
+        return res;
+    }
+
+    private static Matcher<Object> matcherOf(CorpusElement element, Class<? extends Annotation> annotation) {
+        switch (element.getKind()) {
+            case TYPE:
+                return AnnotationMatchers.classAnnotatedWith(annotation);
+            case FIELD:
+                return AnnotationMatchers.fieldAnnotatedWith(annotation, element.getName());
+            case METHOD:
+                return AnnotationMatchers.methodAnnotatedWith(annotation, element.getName(),
+                        element.getParameterTypes());
+            case CONSTRUCTOR:
+                return AnnotationMatchers.constructorAnnotatedWith(annotation, element.getParameterTypes());
+            case METHOD_PARAMETER:
+                return AnnotationMatchers.methodParameterAnnotatedWith(annotation, element.getPosition(),
+                        element.getName(), element.getParameterTypes());
+            default:
+                return AnnotationMatchers.constructorParameterAnnotatedWith(annotation, element.getPosition(),
+                        element.getParameterTypes());
+        }
+    }
+
+    private static Matcher<Object> paramValueMatcherOf(CorpusElement element,
+                                                       Class<? extends Annotation> annotation) {
+        Integer value = element.getValue();
+
+        switch (element.getKind()) {
+            case TYPE:
+                return AnnotationMatchers.classAnnotatedWithParamValue(annotation, "value", value);
+            case FIELD:
+                return AnnotationMatchers.fieldAnnotatedWithParamValue(annotation, "value", value, element.getName());
+            case METHOD:
+                return AnnotationMatchers.methodAnnotatedWithParamValue(annotation, "value", value, element.getName(),
+                        element.getParameterTypes());
+            case CONSTRUCTOR:
+                return AnnotationMatchers.constructorAnnotatedWithParamValue(annotation, "value", value,
+                        element.getParameterTypes());
+            case METHOD_PARAMETER:
+                return AnnotationMatchers.methodParameterAnnotatedWithParamValue(annotation, "value", value,
+                        element.getPosition(), element.getName(), element.getParameterTypes());
+            default:
+                return AnnotationMatchers.constructorParameterAnnotatedWithParamValue(annotation, "value", value,
+                        element.getPosition(), element.getParameterTypes());
+        }
+    }
+
+    /**
+     * Records the names of the classes loaded through it.
+     */
+    private static final class RecordingClassLoader extends ClassLoader {
+        private final Set<String> requested = Collections.synchronizedSet(new HashSet<String>());
+
+        RecordingClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Set<String> getRequested() {
+            return requested;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.startsWith(AnnotatedCorpus.PACKAGE + ".")) {
+                requested.add(name);
+            }
+
+            return super.loadClass(name, resolve);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.ClassFiles;
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestArrayAnnotated;
+import com.zaradai.matchers.support.TestMultiAnnotated;
+import com.zaradai.matchers.support.TestValueAnnotated;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static com.zaradai.matchers.AnnotationMatchers.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class IndexBuilderTest {
+    private static final List<Class<?>> DIRECTORY_CLASSES = Arrays.<Class<?>>asList(TestAnnotated.class,
+            TestMultiAnnotated.class, TestValueAnnotated.class);
+    private static final List<Class<?>> JAR_CLASSES = Arrays.<Class<?>>asList(TestArrayAnnotated.class,
+            TestValueAnnotated.Inner.class, TestValueAnnotated.Mode.class);
+    private static final long MODIFIED = 1000000000000L;
+    private static final int BUILDERS = 4;
+    private static final int BUILDS = 20;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldIndexDirectoriesAndJars() throws Exception {
+        File index = new File(folder.newFolder(), "annotations.idx");
+
+        AnnotationIndex.build(Arrays.asList(directoryOf(DIRECTORY_CLASSES), jarOf(JAR_CLASSES)), index);
+
+        AnnotationIndex res = AnnotationIndex.open(index, getClass().getClassLoader());
+
+        assertThat(res.size(), is(DIRECTORY_CLASSES.size() + JAR_CLASSES.size()));
+        assertThat(res.find(TestAnnotated.class.getName()), is(classAnnotatedWith(TestAnnotation.class)));
+        assertThat(res.find(TestArrayAnnotated.class.getName()), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldReuseEveryClassOfUnchangedClassPath() throws Exception {
+        List<File> classPath = Arrays.asList(directoryOf(DIRECTORY_CLASSES), jarOf(JAR_CLASSES));
+        File index = new File(folder.newFolder(), "annotations.idx");
+
+        AnnotationIndex.build(classPath, index);
+
+        IndexBuilder builder = AnnotationIndex.builderOf(classPath, index, getClass().getClassLoader());
+
+        assertThat(builder.getParsed(), is(0));
+        assertThat(builder.getReused(), is(DIRECTORY_CLASSES.size() + JAR_CLASSES.size()));
+        assertThat(builder.toByteArray(), is(Files.readAllBytes(index.toPath())));
+    }
+
+    @Test
+    public void shouldParseOnlyChangedClassFiles() throws Exception {
+        File directory = directoryOf(DIRECTORY_CLASSES);
+        File jar = jarOf(JAR_CLASSES);
+        List<File> classPath = Arrays.asList(directory, jar);
+        File index = new File(folder.newFolder(), "annotations.idx");
+
+        AnnotationIndex.build(classPath, index);
+        assertThat(fileOf(directory, TestAnnotated.class).setLastModified(MODIFIED * 2), is(true));
+        // rewriting the jar moves its entries, but leaves the checksums of those unchanged
+        writeJar(jar, Arrays.<Class<?>>asList(TestValueAnnotated.Mode.class, TestArrayAnnotated.class,
+                TestValueAnnotated.Inner.class));
+
+        IndexBuilder builder = AnnotationIndex.builderOf(classPath, index, getClass().getClassLoader());
+
+        assertThat(builder.getParsed(), is(1));
+        assertThat(builder.getReused(), is(DIRECTORY_CLASSES.size() + JAR_CLASSES.size() - 1));
+    }
+
+    @Test
+    public void shouldBuildSameIndexIncrementallyAsInFull() throws Exception {
+        File directory = directoryOf(DIRECTORY_CLASSES);
+        File jar = jarOf(JAR_CLASSES);
+        List<File> classPath = Arrays.asList(directory, jar);
+        File incremental = new File(folder.newFolder(), "annotations.idx");
+        File full = new File(folder.newFolder(), "annotations.idx");
+
+        AnnotationIndex.build(classPath, incremental);
+        // a class is modified, one removed and one added, in both the directory and the jar
+        assertThat(fileOf(directory, TestAnnotated.class).setLastModified(MODIFIED * 2), is(true));
+        assertThat(fileOf(directory, TestMultiAnnotated.class).delete(), is(true));
+        write(fileOf(directory, TestArrayAnnotated.class), ClassFiles.bytesOf(TestArrayAnnotated.class));
+        writeJar(jar, Arrays.<Class<?>>asList(TestValueAnnotated.Inner.class, TestMultiAnnotated.class));
+
+        AnnotationIndex.build(classPath, incremental);
+        AnnotationIndex.build(classPath, full);
+
+        assertThat(Files.readAllBytes(incremental.toPath()), is(Files.readAllBytes(full.toPath())));
+
+        AnnotationIndex res = AnnotationIndex.open(incremental, getClass().getClassLoader());
+
+        assertThat(res.size(), is(DIRECTORY_CLASSES.size() + 2));
+        assertThat(res.find(TestValueAnnotated.Mode.class.getName()), is(nullValue()));
+        assertThat(res.getSource(indexOf(res, TestArrayAnnotated.class)).getLocation(),
+                is(fileOf(directory, TestArrayAnnotated.class).toString()));
+    }
+
+    @Test
+    public void shouldLeaveOutShadowedClasses() throws Exception {
+        File directory = directoryOf(DIRECTORY_CLASSES);
+        File index = new File(folder.newFolder(), "annotations.idx");
+
+        AnnotationIndex.build(Arrays.asList(directory, jarOf(DIRECTORY_CLASSES)), index);
+
+        AnnotationIndex res = AnnotationIndex.open(index, getClass().getClassLoader());
+
+        assertThat(res.size(), is(DIRECTORY_CLASSES.size()));
+        for (int i = 0; i < res.size(); i++) {
+            assertThat(res.getSource(i).getLocation(), startsWith(directory.toString()));
+        }
+    }
+
+    @Test
+    public void shouldRebuildFileThatIsNotAnIndex() throws Exception {
+        List<File> classPath = Collections.singletonList(directoryOf(DIRECTORY_CLASSES));
+        File index = new File(folder.newFolder(), "annotations.idx");
+
+        write(index, new byte[] { 1, 2, 3 });
+
+        IndexBuilder builder = AnnotationIndex.builderOf(classPath, index, getClass().getClassLoader());
+
+        assertThat(builder.getParsed(), is(DIRECTORY_CLASSES.size()));
+        assertThat(builder.getReused(), is(0));
+    }
+
+    @Test
+    public void shouldBuildSameIndexConcurrently() throws Exception {
+        final List<File> classPath = Arrays.asList(directoryOf(DIRECTORY_CLASSES), jarOf(JAR_CLASSES));
+        final File index = new File(folder.newFolder(), "annotations.idx");
+        ExecutorService pool = Executors.newFixedThreadPool(BUILDERS);
+        List<Future<Void>> builds = new ArrayList<Future<Void>>();
+
+        try {
+            for (int i = 0; i < BUILDERS; i++) {
+                builds.add(pool.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int j = 0; j < BUILDS; j++) {
+                            AnnotationIndex.build(classPath, index);
+                        }
+
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> build : builds) {
+                build.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(AnnotationIndex.open(index).size(), is(DIRECTORY_CLASSES.size() + JAR_CLASSES.size()));
+        assertThat(index.getParentFile().list(), is(new String[] {index.getName()}));
+    }
+
+    @Test
+    public void shouldSkipMissingRoots() throws Exception {
+        File index = new File(folder.newFolder(), "annotations.idx");
+
+        AnnotationIndex.build(Collections.singletonList(new File(folder.getRoot(), "missing")), index);
+
+        assertThat(AnnotationIndex.open(index).size(), is(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnMalformedClassFile() throws Exception {
+        File directory = directoryOf(DIRECTORY_CLASSES);
+
+        write(new File(directory, "Broken.class"), new byte[] { 1, 2, 3 });
+
+        AnnotationIndex.build(Collections.singletonList(directory), new File(folder.newFolder(), "annotations.idx"));
+    }
+
+    private static int indexOf(AnnotationIndex index, Class<?> type) {
+        for (int i = 0; i < index.size(); i++) {
+            if (index.getClassName(i).equals(type.getName())) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private File directoryOf(List<Class<?>> types) throws IOException {
+        File root = folder.newFolder();
+
+        for (Class<?> type : types) {
+            File file = fileOf(root, type);
+
+            write(file, ClassFiles.bytesOf(type));
+            // file systems may record modification times in whole seconds
+            assertThat(file.setLastModified(MODIFIED), is(true));
+        }
+
+        return root;
+    }
+
+    private File jarOf(List<Class<?>> types) throws IOException {
+        File jar = folder.newFile();
+
+        writeJar(jar, types);
+
+        return jar;
+    }
+
+    private static void writeJar(File jar, List<Class<?>> types) throws IOException {
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+
+        try {
+            out.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+            out.write("Manifest-Version: 1.0\n".getBytes("UTF-8"));
+            for (Class<?> type : types) {
+                out.putNextEntry(new ZipEntry(type.getName().replace('.', '/') + ".class"));
+                out.write(ClassFiles.bytesOf(type));
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private static File fileOf(File root, Class<?> type) {
+        return new File(root, type.getName().replace('.', '/') + ".class");
+    }
+
+    private static void write(File file, byte[] bytes) throws IOException {
+        file.getParentFile().mkdirs();
+
+        OutputStream out = new FileOutputStream(file);
+
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+}
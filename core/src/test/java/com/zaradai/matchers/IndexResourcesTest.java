@@ -0,0 +1,282 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.ClassFiles;
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class IndexResourcesTest {
+    private static final List<Class<?>> CLASSES = Arrays.<Class<?>>asList(TestAnnotated.class, TestAnnotation.class);
+    private static final long STAMP_CHANGE = 2000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldTakeMetadataFromIndexOfDirectory() throws Exception {
+        File root = directoryOf(CLASSES);
+
+        AnnotationIndex.build(Collections.singletonList(root), resourceOf(root));
+
+        URLClassLoader loader = loaderOf(root);
+
+        try {
+            Class<?> type = loader.loadClass(TestAnnotated.class.getName());
+            TypeMetadata metadata = IndexResources.forClass(type);
+
+            assertThat(metadata, is(instanceOf(ClassFileMetadata.class)));
+            // annotation types are loaded through the loader of the class, not the one the index was opened with
+            assertThat(metadata.getTypeMetadata().getAnnotations().size(), is(1));
+            assertThat(metadata.getTypeMetadata().getAnnotation(TestAnnotation.class), is(nullValue()));
+            assertThat(metadata.getTypeMetadata().getAnnotation(annotationOf(loader)), is(notNullValue()));
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void shouldTakeMetadataFromIndexOfJar() throws Exception {
+        File directory = directoryOf(CLASSES);
+        File index = new File(folder.newFolder(), "annotations.idx");
+
+        AnnotationIndex.build(Collections.singletonList(directory), index);
+
+        URLClassLoader loader = loaderOf(jarOf(CLASSES, index));
+
+        try {
+            assertThat(IndexResources.forClass(loader.loadClass(TestAnnotated.class.getName())),
+                    is(instanceOf(ClassFileMetadata.class)));
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void shouldReopenRewrittenIndex() throws Exception {
+        File root = directoryOf(CLASSES);
+        File index = resourceOf(root);
+
+        AnnotationIndex.build(Collections.singletonList(root), index);
+
+        URLClassLoader first = loaderOf(root);
+        URLClassLoader second = loaderOf(root);
+
+        try {
+            Class<?> type = first.loadClass(TestAnnotated.class.getName());
+
+            assertThat(IndexResources.find(type), is(notNullValue()));
+            assertThat(IndexResources.forClass(type), is(instanceOf(ClassFileMetadata.class)));
+
+            // the index no longer holds the annotated class
+            AnnotationIndex.write(Collections.<ClassFile>emptyList(), index);
+            assertThat(index.setLastModified(index.lastModified() + STAMP_CHANGE), is(true));
+
+            assertThat(IndexResources.find(type), is(nullValue()));
+            // metadata taken from the replaced index is read again
+            assertThat(IndexResources.forClass(type), is(instanceOf(ClassMetadata.class)));
+            assertThat(IndexResources.forClass(second.loadClass(TestAnnotated.class.getName())),
+                    is(instanceOf(ClassMetadata.class)));
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    public void shouldIgnoreIndexOlderThanClassFile() throws Exception {
+        File root = directoryOf(CLASSES);
+        File index = resourceOf(root);
+
+        AnnotationIndex.build(Collections.singletonList(root), index);
+
+        // compiled again without the index being written
+        File classFile = new File(root, TestAnnotated.class.getName().replace('.', '/') + ".class");
+
+        assertThat(classFile.setLastModified(index.lastModified() + STAMP_CHANGE), is(true));
+
+        URLClassLoader loader = loaderOf(root);
+
+        try {
+            Class<?> type = loader.loadClass(TestAnnotated.class.getName());
+
+            assertThat(IndexResources.find(type), is(nullValue()));
+            assertThat(IndexResources.forClass(type), is(instanceOf(ClassMetadata.class)));
+            // the annotation type is not newer than the index
+            assertThat(IndexResources.find(loader.loadClass(TestAnnotation.class.getName())), is(notNullValue()));
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void shouldNotLookUpClassesOfLoaderWithoutIndex() throws Exception {
+        final List<String> lookups = new ArrayList<String>();
+        URLClassLoader loader = new URLClassLoader(new URL[] {directoryOf(CLASSES).toURI().toURL()}, null) {
+            @Override
+            public URL getResource(String name) {
+                lookups.add(name);
+                return super.getResource(name);
+            }
+        };
+
+        try {
+            assertThat(IndexResources.forClass(loader.loadClass(TestAnnotated.class.getName())),
+                    is(instanceOf(ClassMetadata.class)));
+            assertThat(IndexResources.forClass(loader.loadClass(TestAnnotation.class.getName())),
+                    is(instanceOf(ClassMetadata.class)));
+            // the loader is checked for an index once, its class files are never looked up
+            assertThat(lookups, is(Collections.singletonList(AnnotationIndex.RESOURCE)));
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void shouldFallBackToReflectionWithoutIndex() throws Exception {
+        URLClassLoader loader = loaderOf(directoryOf(CLASSES));
+
+        try {
+            assertThat(IndexResources.forClass(loader.loadClass(TestAnnotated.class.getName())),
+                    is(instanceOf(ClassMetadata.class)));
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void shouldIgnoreIndexOfOtherClassPathEntries() throws Exception {
+        File indexed = directoryOf(CLASSES);
+
+        AnnotationIndex.build(Collections.singletonList(indexed), resourceOf(indexed));
+
+        // the classes are loaded from the first entry, which has no index
+        URLClassLoader loader = loaderOf(directoryOf(CLASSES), indexed);
+
+        try {
+            assertThat(IndexResources.forClass(loader.loadClass(TestAnnotated.class.getName())),
+                    is(instanceOf(ClassMetadata.class)));
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void shouldIgnoreFileThatIsNotAnIndex() throws Exception {
+        File root = directoryOf(CLASSES);
+
+        write(resourceOf(root), new byte[] { 1, 2, 3 });
+
+        URLClassLoader loader = loaderOf(root);
+
+        try {
+            assertThat(IndexResources.forClass(loader.loadClass(TestAnnotated.class.getName())),
+                    is(instanceOf(ClassMetadata.class)));
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void shouldNotLookUpBootstrapClasses() throws Exception {
+        assertThat(IndexResources.find(String.class), is(nullValue()));
+        assertThat(IndexResources.forClass(String.class), is(instanceOf(ClassMetadata.class)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends TestAnnotation> annotationOf(ClassLoader loader) throws ClassNotFoundException {
+        return (Class<? extends TestAnnotation>) loader.loadClass(TestAnnotation.class.getName());
+    }
+
+    private static URLClassLoader loaderOf(File... roots) throws IOException {
+        URL[] urls = new URL[roots.length];
+
+        for (int i = 0; i < roots.length; i++) {
+            urls[i] = roots[i].toURI().toURL();
+        }
+
+        // the classes are defined again by this loader, isolated from the test class path
+        return new URLClassLoader(urls, null);
+    }
+
+    private static File resourceOf(File root) {
+        File res = new File(root, AnnotationIndex.RESOURCE);
+
+        res.getParentFile().mkdirs();
+
+        return res;
+    }
+
+    private File directoryOf(List<Class<?>> types) throws IOException {
+        File root = folder.newFolder();
+
+        for (Class<?> type : types) {
+            write(new File(root, type.getName().replace('.', '/') + ".class"), ClassFiles.bytesOf(type));
+        }
+
+        return root;
+    }
+
+    private File jarOf(List<Class<?>> types, File index) throws IOException {
+        File jar = folder.newFile();
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+
+        try {
+            out.putNextEntry(new ZipEntry(AnnotationIndex.RESOURCE));
+            out.write(Files.readAllBytes(index.toPath()));
+            for (Class<?> type : types) {
+                out.putNextEntry(new ZipEntry(type.getName().replace('.', '/') + ".class"));
+                out.write(ClassFiles.bytesOf(type));
+            }
+        } finally {
+            out.close();
+        }
+
+        return jar;
+    }
+
+    private static void write(File file, byte[] bytes) throws IOException {
+        file.getParentFile().mkdirs();
+
+        OutputStream out = new FileOutputStream(file);
+
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+}
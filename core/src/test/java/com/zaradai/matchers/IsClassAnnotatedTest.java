@@ -15,14 +15,19 @@
  */
 package com.zaradai.matchers;
 
+import com.zaradai.matchers.support.ClassFiles;
 import com.zaradai.matchers.support.TestAnnotated;
 import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestCustomClassMatcher;
+import com.zaradai.matchers.support.TestHierarchy;
+import com.zaradai.matchers.support.TestHierarchyAnnotation;
 import org.hamcrest.Description;
 import org.hamcrest.StringDescription;
 import org.junit.Test;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 public class IsClassAnnotatedTest {
@@ -52,16 +57,20 @@ public class IsClassAnnotatedTest {
     }
 
     @Test
-    public void shouldMismatchIfTargetAnnotationIsNull() throws Exception {
-        TestAnnotated annotated = new TestAnnotated();
-        IsClassAnnotated matcher = new IsClassAnnotated(null, null);
-        Description description = new StringDescription();
-
-        boolean result = matcher.matches(annotated);
-        matcher.describeMismatch(annotated, description);
+    public void shouldResolveThroughOverriddenLookup() throws Exception {
+        Object item = new Object();
+
+        assertThat(new TestCustomClassMatcher(TestAnnotation.class, null).matches(item), is(true));
+        assertThat(new TestCustomClassMatcher(TestAnnotation.class,
+                AnnotationParamMatcher.hasParamValue("value", TestAnnotated.TEST_VALUE)).matches(item), is(true));
+        assertThat(new TestCustomClassMatcher(TestHierarchyAnnotation.class, null).matches(item), is(false));
+        assertThat(LocatedMatchers.locatorOf(new TestCustomClassMatcher(TestAnnotation.class, null)),
+                is(nullValue()));
+    }
 
-        assertThat(result, is(false));
-        assertThat(description.toString(), containsString("NullPointerException"));
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullTargetAnnotation() throws Exception {
+        new IsClassAnnotated(null, null);
     }
 
     @Test
@@ -160,4 +169,92 @@ public class IsClassAnnotatedTest {
 
         assertThat(IsClassAnnotated.withParamValue(TestAnnotation.class, "value", 56).matches(annotated), is(true));
     }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreateWithNullSearchStrategy() throws Exception {
+        new IsClassAnnotated(TestAnnotation.class, null, null);
+    }
+
+    @Test
+    public void shouldMatchInheritedAnnotationsByDefault() throws Exception {
+        TestHierarchy.Leaf annotated = new TestHierarchy.Leaf();
+
+        assertThat(IsClassAnnotated.with(TestHierarchyAnnotation.class).matches(annotated), is(true));
+        assertThat(IsClassAnnotated.with(TestAnnotation.class).matches(annotated), is(false));
+    }
+
+    @Test
+    public void shouldMismatchInheritedAnnotationIfSearchingDeclaration() throws Exception {
+        TestHierarchy.Leaf annotated = new TestHierarchy.Leaf();
+        IsClassAnnotated matcher = new IsClassAnnotated(TestHierarchyAnnotation.class, null, SearchStrategy.DECLARED);
+        Description description = new StringDescription();
+
+        boolean result = matcher.matches(annotated);
+        matcher.describeMismatch(annotated, description);
+
+        assertThat(result, is(false));
+        assertThat(description.toString(), containsString("annotation missing"));
+    }
+
+    @Test
+    public void shouldMatchAnnotationOfSuperclass() throws Exception {
+        TestHierarchy.Leaf annotated = new TestHierarchy.Leaf();
+
+        assertThat(IsClassAnnotated.with(TestAnnotation.class, SearchStrategy.SUPERCLASS).matches(annotated), is(true));
+        assertThat(IsClassAnnotated.withParamValue(TestAnnotation.class, "name", "base", SearchStrategy.SUPERCLASS)
+                .matches(annotated), is(true));
+    }
+
+    @Test
+    public void shouldMatchAnnotationOfInterface() throws Exception {
+        TestHierarchy.Plain annotated = new TestHierarchy.Plain();
+
+        assertThat(IsClassAnnotated.with(TestAnnotation.class, SearchStrategy.SUPERCLASS).matches(annotated), is(false));
+        assertThat(IsClassAnnotated.withParam(TestAnnotation.class, "name", SearchStrategy.TYPE_HIERARCHY)
+                .matches(annotated), is(true));
+        assertThat(IsClassAnnotated.withParamValue(TestAnnotation.class, "name", is("root"),
+                SearchStrategy.TYPE_HIERARCHY).matches(annotated), is(true));
+    }
+
+    @Test
+    public void shouldMatchClassFileAlongHierarchy() throws Exception {
+        ClassFile classFile = ClassFile.read(ClassFiles.bytesOf(TestHierarchy.Middle.class));
+
+        assertThat(IsClassAnnotated.with(TestAnnotation.class, SearchStrategy.DECLARED).matches(classFile), is(false));
+        assertThat(IsClassAnnotated.with(TestAnnotation.class, SearchStrategy.SUPERCLASS).matches(classFile), is(true));
+    }
+
+    @Test
+    public void shouldMismatchIfSupertypeIsMissing() throws Exception {
+        final String missing = TestHierarchy.Base.class.getName();
+        ClassLoader classLoader = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (name.equals(missing)) {
+                    throw new ClassNotFoundException(name);
+                }
+
+                return super.loadClass(name, resolve);
+            }
+        };
+        ClassFile classFile = ClassFile.read(ClassFiles.bytesOf(TestHierarchy.Middle.class), classLoader);
+        IsClassAnnotated matcher = new IsClassAnnotated(TestAnnotation.class, null, SearchStrategy.SUPERCLASS);
+        Description description = new StringDescription();
+
+        boolean result = matcher.matches(classFile);
+        matcher.describeMismatch(classFile, description);
+
+        assertThat(result, is(false));
+        assertThat(description.toString(), containsString("TypeNotPresentException"));
+    }
+
+    @Test
+    public void shouldDescribeSearchStrategy() throws Exception {
+        Description description = new StringDescription();
+
+        IsClassAnnotated.with(TestAnnotation.class, SearchStrategy.TYPE_HIERARCHY).describeTo(description);
+
+        assertThat(description.toString(), is("class or a supertype to be annotated with " +
+                "<interface com.zaradai.matchers.support.TestAnnotation>"));
+    }
 }
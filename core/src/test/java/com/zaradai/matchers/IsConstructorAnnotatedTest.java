@@ -64,17 +64,9 @@ public class IsConstructorAnnotatedTest {
         assertThat(description.toString(), containsString("annotation missing"));
     }
 
-    @Test
-    public void shouldMismatchIfTargetAnnotationIsNull() throws Exception {
-        TestAnnotated annotated = new TestAnnotated();
-        IsConstructorAnnotated matcher = new IsConstructorAnnotated(null, null);
-        Description description = new StringDescription();
-
-        boolean result = matcher.matches(annotated);
-        matcher.describeMismatch(annotated, description);
-
-        assertThat(result, is(false));
-        assertThat(description.toString(), containsString("NullPointerException"));
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullTargetAnnotation() throws Exception {
+        new IsConstructorAnnotated(null, null);
     }
 
     @Test
@@ -65,18 +65,9 @@ public class IsConstructorParameterAnnotatedTest {
         assertThat(description.toString(), containsString("annotation missing"));
     }
 
-    @Test
-    public void shouldMismatchIfTargetAnnotationIsNull() throws Exception {
-        TestAnnotated annotated = new TestAnnotated();
-        IsConstructorParameterAnnotated matcher = new IsConstructorParameterAnnotated(null, null, 1, String.class,
-                int.class);
-        Description description = new StringDescription();
-
-        boolean result = matcher.matches(annotated);
-        matcher.describeMismatch(annotated, description);
-
-        assertThat(result, is(false));
-        assertThat(description.toString(), containsString("NullPointerException"));
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullTargetAnnotation() throws Exception {
+        new IsConstructorParameterAnnotated(null, null, 1, String.class, int.class);
     }
 
     @Test
@@ -15,8 +15,10 @@
  */
 package com.zaradai.matchers;
 
+import com.zaradai.matchers.support.ClassFiles;
 import com.zaradai.matchers.support.TestAnnotated;
 import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestInheritedMembers;
 import org.hamcrest.Description;
 import org.hamcrest.StringDescription;
 import org.junit.Test;
@@ -90,17 +92,9 @@ public class IsFieldAnnotatedTest {
         assertThat(description.toString(), containsString("annotation missing"));
     }
 
-    @Test
-    public void shouldMismatchIfTargetAnnotationIsNull() throws Exception {
-        TestAnnotated annotated = new TestAnnotated();
-        IsFieldAnnotated matcher = new IsFieldAnnotated(null, null, "annotatedField");
-        Description description = new StringDescription();
-
-        boolean result = matcher.matches(annotated);
-        matcher.describeMismatch(annotated, description);
-
-        assertThat(result, is(false));
-        assertThat(description.toString(), containsString("NullPointerException"));
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullTargetAnnotation() throws Exception {
+        new IsFieldAnnotated(null, null, "annotatedField");
     }
 
     @Test
@@ -203,4 +197,74 @@ public class IsFieldAnnotatedTest {
         assertThat(IsFieldAnnotated.withParamValue(TestAnnotation.class, "value", 56, "annotatedField")
                 .matches(annotated), is(true));
     }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreateWithNullSearchStrategy() throws Exception {
+        new IsFieldAnnotated(TestAnnotation.class, null, "version", null);
+    }
+
+    @Test
+    public void shouldMismatchInheritedFieldByDefault() throws Exception {
+        TestInheritedMembers.Customer annotated = new TestInheritedMembers.Customer();
+        Description description = new StringDescription();
+        IsFieldAnnotated matcher = new IsFieldAnnotated(TestAnnotation.class, null, "id");
+
+        boolean result = matcher.matches(annotated);
+        matcher.describeMismatch(annotated, description);
+
+        assertThat(result, is(false));
+        assertThat(description.toString(), containsString("NoSuchFieldException"));
+    }
+
+    @Test
+    public void shouldMatchPrivateFieldOfSuperclass() throws Exception {
+        TestInheritedMembers.Customer annotated = new TestInheritedMembers.Customer();
+
+        assertThat(IsFieldAnnotated.withParamValue(TestAnnotation.class, "name", "id", "id",
+                SearchStrategy.SUPERCLASS).matches(annotated), is(true));
+    }
+
+    @Test
+    public void shouldMatchNearestFieldOfName() throws Exception {
+        TestInheritedMembers.Customer annotated = new TestInheritedMembers.Customer();
+
+        assertThat(IsFieldAnnotated.withParamValue(TestAnnotation.class, "name", is("customer"), "version",
+                SearchStrategy.TYPE_HIERARCHY).matches(annotated), is(true));
+    }
+
+    @Test
+    public void shouldMatchInterfaceFieldOnlyWhenSearchingTypeHierarchy() throws Exception {
+        TestInheritedMembers.Customer annotated = new TestInheritedMembers.Customer();
+        Description description = new StringDescription();
+        IsFieldAnnotated matcher = new IsFieldAnnotated(TestAnnotation.class, null, "CONSTANT",
+                SearchStrategy.SUPERCLASS);
+
+        boolean result = matcher.matches(annotated);
+        matcher.describeMismatch(annotated, description);
+
+        assertThat(result, is(false));
+        assertThat(description.toString(), containsString("NoSuchFieldException"));
+        assertThat(IsFieldAnnotated.withParam(TestAnnotation.class, "name", "CONSTANT", SearchStrategy.TYPE_HIERARCHY)
+                .matches(annotated), is(true));
+    }
+
+    @Test
+    public void shouldMatchInheritedFieldOfClassFile() throws Exception {
+        ClassFile classFile = ClassFile.read(ClassFiles.bytesOf(TestInheritedMembers.Customer.class));
+
+        assertThat(IsFieldAnnotated.with(TestAnnotation.class, "id", SearchStrategy.DECLARED).matches(classFile),
+                is(false));
+        assertThat(IsFieldAnnotated.with(TestAnnotation.class, "id", SearchStrategy.SUPERCLASS).matches(classFile),
+                is(true));
+    }
+
+    @Test
+    public void shouldDescribeSearchStrategy() throws Exception {
+        Description description = new StringDescription();
+
+        IsFieldAnnotated.with(TestAnnotation.class, "id", SearchStrategy.SUPERCLASS).describeTo(description);
+
+        assertThat(description.toString(), is("field of class or a superclass to be annotated with " +
+                "<interface com.zaradai.matchers.support.TestAnnotation>"));
+    }
 }
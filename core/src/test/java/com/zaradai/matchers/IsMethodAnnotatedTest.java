@@ -17,6 +17,8 @@ package com.zaradai.matchers;
 
 import com.zaradai.matchers.support.TestAnnotated;
 import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestArrayAnnotation;
+import com.zaradai.matchers.support.TestInheritedMembers;
 import org.hamcrest.Description;
 import org.hamcrest.StringDescription;
 import org.junit.Test;
@@ -91,17 +93,9 @@ public class IsMethodAnnotatedTest {
         assertThat(description.toString(), containsString("annotation missing"));
     }
 
-    @Test
-    public void shouldMismatchIfTargetAnnotationIsNull() throws Exception {
-        TestAnnotated annotated = new TestAnnotated();
-        IsMethodAnnotated matcher = new IsMethodAnnotated(null, null, "annotated");
-        Description description = new StringDescription();
-
-        boolean result = matcher.matches(annotated);
-        matcher.describeMismatch(annotated, description);
-
-        assertThat(result, is(false));
-        assertThat(description.toString(), containsString("NoSuchMethodException"));
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullTargetAnnotation() throws Exception {
+        new IsMethodAnnotated(null, null, "annotated");
     }
 
     @Test
@@ -203,4 +197,96 @@ public class IsMethodAnnotatedTest {
         assertThat(IsMethodAnnotated.withParamValue(TestAnnotation.class, "value", 56, "annotated", int.class)
                 .matches(annotated), is(true));
     }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreateWithNullSearchStrategy() throws Exception {
+        new IsMethodAnnotated(TestAnnotation.class, null, null, "touch");
+    }
+
+    @Test
+    public void shouldMismatchInheritedMethodByDefault() throws Exception {
+        TestInheritedMembers.Customer annotated = new TestInheritedMembers.Customer();
+        Description description = new StringDescription();
+        IsMethodAnnotated matcher = new IsMethodAnnotated(TestAnnotation.class, null, "getId");
+
+        boolean result = matcher.matches(annotated);
+        matcher.describeMismatch(annotated, description);
+
+        assertThat(result, is(false));
+        assertThat(description.toString(), containsString("NoSuchMethodException"));
+    }
+
+    @Test
+    public void shouldMatchMethodOfSuperclass() throws Exception {
+        TestInheritedMembers.Customer annotated = new TestInheritedMembers.Customer();
+
+        assertThat(IsMethodAnnotated.withParamValue(TestAnnotation.class, "name", "entity",
+                SearchStrategy.SUPERCLASS, "getId").matches(annotated), is(true));
+        assertThat(IsMethodAnnotated.with(TestArrayAnnotation.class, SearchStrategy.SUPERCLASS, "getId")
+                .matches(annotated), is(false));
+    }
+
+    @Test
+    public void shouldMergeAnnotationsOfOverriddenMethods() throws Exception {
+        TestInheritedMembers.Customer annotated = new TestInheritedMembers.Customer();
+
+        assertThat(IsMethodAnnotated.withParamValue(TestAnnotation.class, "name", is("customer"),
+                SearchStrategy.SUPERCLASS, "touch").matches(annotated), is(true));
+        assertThat(IsMethodAnnotated.withParam(TestArrayAnnotation.class, "value", SearchStrategy.SUPERCLASS, "touch")
+                .matches(annotated), is(true));
+        assertThat(IsMethodAnnotated.with(TestArrayAnnotation.class, SearchStrategy.DECLARED, "touch")
+                .matches(annotated), is(false));
+    }
+
+    @Test
+    public void shouldMergeAnnotationsOfImplementedInterfaceMethods() throws Exception {
+        TestInheritedMembers.Customer annotated = new TestInheritedMembers.Customer();
+
+        assertThat(IsMethodAnnotated.withParamValue(TestAnnotation.class, "name", "entity",
+                SearchStrategy.TYPE_HIERARCHY, "getId").matches(annotated), is(true));
+        assertThat(IsMethodAnnotated.withParamValue(TestArrayAnnotation.class, "value", new String[] {"identified"},
+                SearchStrategy.TYPE_HIERARCHY, "getId").matches(annotated), is(true));
+        assertThat(IsMethodAnnotated.withParamValue(TestAnnotation.class, "name", "named",
+                SearchStrategy.TYPE_HIERARCHY, "getName").matches(annotated), is(true));
+        assertThat(IsMethodAnnotated.with(TestAnnotation.class, SearchStrategy.SUPERCLASS, "getName")
+                .matches(annotated), is(false));
+    }
+
+    @Test
+    public void shouldNotInheritAnnotationsOfPrivateMethods() throws Exception {
+        TestInheritedMembers.Customer annotated = new TestInheritedMembers.Customer();
+        Description description = new StringDescription();
+        IsMethodAnnotated matcher = new IsMethodAnnotated(TestAnnotation.class, null, SearchStrategy.TYPE_HIERARCHY,
+                "audit");
+
+        boolean result = matcher.matches(annotated);
+        matcher.describeMismatch(annotated, description);
+
+        assertThat(result, is(false));
+        assertThat(description.toString(), containsString("annotation missing"));
+    }
+
+    @Test
+    public void shouldMismatchIfMethodMissingFromHierarchy() throws Exception {
+        TestInheritedMembers.Customer annotated = new TestInheritedMembers.Customer();
+        Description description = new StringDescription();
+        IsMethodAnnotated matcher = new IsMethodAnnotated(TestAnnotation.class, null, SearchStrategy.TYPE_HIERARCHY,
+                "getId", String.class);
+
+        boolean result = matcher.matches(annotated);
+        matcher.describeMismatch(annotated, description);
+
+        assertThat(result, is(false));
+        assertThat(description.toString(), containsString("NoSuchMethodException"));
+    }
+
+    @Test
+    public void shouldDescribeSearchStrategy() throws Exception {
+        Description description = new StringDescription();
+
+        IsMethodAnnotated.with(TestAnnotation.class, SearchStrategy.TYPE_HIERARCHY, "getId").describeTo(description);
+
+        assertThat(description.toString(), is("method of class or a supertype to be annotated with " +
+                "<interface com.zaradai.matchers.support.TestAnnotation>"));
+    }
 }
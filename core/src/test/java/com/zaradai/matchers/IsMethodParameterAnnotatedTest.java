@@ -17,6 +17,7 @@ package com.zaradai.matchers;
 
 import com.zaradai.matchers.support.TestAnnotated;
 import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestCustomParameterMatcher;
 import org.hamcrest.Description;
 import org.hamcrest.StringDescription;
 import org.junit.Test;
@@ -68,17 +69,17 @@ public class IsMethodParameterAnnotatedTest {
     }
 
     @Test
-    public void shouldMismatchIfTargetAnnotationIsNull() throws Exception {
-        TestAnnotated annotated = new TestAnnotated();
-        IsMethodParameterAnnotated matcher = new IsMethodParameterAnnotated(null, null, 1, ANNOTATED_METHOD_NAME,
-                String.class, int.class);
-        Description description = new StringDescription();
+    public void shouldResolveThroughOverriddenParameterLookup() throws Exception {
+        Object item = new Object();
 
-        boolean result = matcher.matches(annotated);
-        matcher.describeMismatch(annotated, description);
+        assertThat(new TestCustomParameterMatcher(TestAnnotation.class, null).matches(item), is(true));
+        assertThat(new TestCustomParameterMatcher(TestAnnotation.class,
+                AnnotationParamMatcher.hasParamValue("value", TestAnnotated.TEST_VALUE)).matches(item), is(true));
+    }
 
-        assertThat(result, is(false));
-        assertThat(description.toString(), containsString("NullPointerException"));
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullTargetAnnotation() throws Exception {
+        new IsMethodParameterAnnotated(null, null, 1, ANNOTATED_METHOD_NAME, String.class, int.class);
     }
 
     @Test
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class LastEvaluationTest {
+    private final Object matcher = new Object();
+    private final Object item = new Object();
+
+    @Test
+    public void shouldReplayRememberedValueOnce() throws Exception {
+        LastEvaluation.remember(matcher, item, Description.NONE, "value");
+
+        assertThat(LastEvaluation.replay(matcher, item, new StringDescription()), is(equalTo((Object) "value")));
+        assertThat(LastEvaluation.replay(matcher, item, new StringDescription()), is(notRemembered()));
+    }
+
+    @Test
+    public void shouldReplayRememberedNullValue() throws Exception {
+        LastEvaluation.remember(matcher, item, Description.NONE, null);
+
+        assertThat(LastEvaluation.replay(matcher, item, new StringDescription()), is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotKeepRememberedItemReachable() throws Exception {
+        Object remembered = new Object();
+        WeakReference<Object> reference = new WeakReference<Object>(remembered);
+        LastEvaluation.remember(matcher, remembered, Description.NONE, new Object());
+        remembered = null;
+
+        for (int i = 0; i < 100 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertThat(reference.get(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldReplayRememberedFailure() throws Exception {
+        Exception failure = new NoSuchFieldException("missing");
+        LastEvaluation.rememberFailure(matcher, item, Description.NONE, failure);
+
+        assertThat(LastEvaluation.replay(matcher, item, new StringDescription()), is(sameInstance((Object) failure)));
+    }
+
+    @Test
+    public void shouldNotReplayForOtherMatcherOrItem() throws Exception {
+        LastEvaluation.remember(matcher, item, Description.NONE, "value");
+
+        assertThat(LastEvaluation.replay(new Object(), item, new StringDescription()), is(notRemembered()));
+        assertThat(LastEvaluation.replay(matcher, new Object(), new StringDescription()), is(notRemembered()));
+    }
+
+    @Test
+    public void shouldNotRememberDescribingEvaluations() throws Exception {
+        LastEvaluation.remember(matcher, item, new StringDescription(), "value");
+
+        assertThat(LastEvaluation.replay(matcher, item, new StringDescription()), is(notRemembered()));
+    }
+
+    @Test
+    public void shouldNotReplayWhenNotDescribing() throws Exception {
+        LastEvaluation.remember(matcher, item, Description.NONE, "value");
+
+        assertThat(LastEvaluation.replay(matcher, item, Description.NONE), is(notRemembered()));
+    }
+
+    @Test
+    public void shouldLookupOnceWhenDescribingMismatch() throws Exception {
+        CountingMatcher matcher = new CountingMatcher(Deprecated.class);
+        TestAnnotated annotated = new TestAnnotated();
+        Description description = new StringDescription();
+
+        boolean result = matcher.matches(annotated);
+        matcher.describeMismatch(annotated, description);
+
+        assertThat(result, is(false));
+        assertThat(matcher.lookups, is(1));
+        assertThat(description.toString(), containsString("annotation missing"));
+    }
+
+    @Test
+    public void shouldLookupAgainForEachMatch() throws Exception {
+        CountingMatcher matcher = new CountingMatcher(Deprecated.class);
+        TestAnnotated annotated = new TestAnnotated();
+
+        matcher.matches(annotated);
+        matcher.matches(annotated);
+
+        assertThat(matcher.lookups, is(2));
+    }
+
+    @Test
+    public void shouldDescribeReplayedParamValueMismatch() throws Exception {
+        Matcher<Annotation> matcher = AnnotationParamMatcher.hasParamValue("value", 42);
+        Annotation annotation = TestAnnotated.class.getAnnotation(TestAnnotation.class);
+        Description description = new StringDescription();
+
+        boolean result = matcher.matches(annotation);
+        matcher.describeMismatch(annotation, description);
+
+        assertThat(result, is(false));
+        assertThat(description.toString(), is("was <" + TestAnnotated.TEST_VALUE + ">"));
+    }
+
+    @Test
+    public void shouldDescribeReplayedLocatorFailure() throws Exception {
+        Matcher<Object> matcher = AnnotationSetMatcher.allOf("field missing", AnnotationLocator.forMember(
+                MemberSignature.field("missing")), new Class[] {TestAnnotation.class});
+        TestAnnotated annotated = new TestAnnotated();
+        Description description = new StringDescription();
+
+        boolean result = matcher.matches(annotated);
+        matcher.describeMismatch(annotated, description);
+
+        assertThat(result, is(false));
+        assertThat(description.toString(), is("java.lang.NoSuchFieldException: missing"));
+    }
+
+    private static Matcher<Object> notRemembered() {
+        return sameInstance(LastEvaluation.NOT_REMEMBERED);
+    }
+
+    private static final class CountingMatcher extends AbstractAnnotationMatcher {
+        private int lookups;
+
+        CountingMatcher(Class<? extends Annotation> annotationClass) {
+            super(annotationClass, null);
+        }
+
+        @Override
+        protected String getAnnotationSource() {
+            return "class";
+        }
+
+        @Override
+        protected Annotation getAnnotation(Object item, Class<? extends Annotation> clazz) throws Exception {
+            lookups++;
+            return item.getClass().getAnnotation(clazz);
+        }
+    }
+}
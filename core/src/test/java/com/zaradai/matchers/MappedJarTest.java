@@ -0,0 +1,263 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.ClassFiles;
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestValueAnnotated;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class MappedJarTest {
+    private static final String ANNOTATED = TestAnnotated.class.getName().replace('.', '/') + ".class";
+    private static final String VALUE_ANNOTATED = TestValueAnnotated.class.getName().replace('.', '/') + ".class";
+    private static final int MAX_ENTRIES = 0xFFFF;
+    private static final int END_SIZE = 22;
+    private static final int ZIP64_END_SIZE = 56;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldFindOnlyClassFileEntries() throws Exception {
+        File jar = folder.newFile();
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+
+        try {
+            deflated(out, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n".getBytes("UTF-8"));
+            deflated(out, "META-INF/versions/9/module-info.class", new byte[] {1});
+            out.putNextEntry(new ZipEntry("com/"));
+            deflated(out, ANNOTATED, ClassFiles.bytesOf(TestAnnotated.class));
+            deflated(out, "com/package-info.class", new byte[] {1});
+            deflated(out, "com/readme.txt", new byte[] {1});
+            stored(out, VALUE_ANNOTATED, ClassFiles.bytesOf(TestValueAnnotated.class));
+            out.setComment("a comment before the end of the archive");
+        } finally {
+            out.close();
+        }
+
+        MappedJar mapped = MappedJar.map(jar);
+
+        assertThat(namesOf(mapped), is(Arrays.asList(ANNOTATED, VALUE_ANNOTATED)));
+        assertThat(mapped.getLocation(0), is(jar + "!/" + ANNOTATED));
+    }
+
+    @Test
+    public void shouldReadDeflatedAndStoredEntries() throws Exception {
+        File jar = folder.newFile();
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+
+        try {
+            deflated(out, ANNOTATED, ClassFiles.bytesOf(TestAnnotated.class));
+            stored(out, VALUE_ANNOTATED, ClassFiles.bytesOf(TestValueAnnotated.class));
+        } finally {
+            out.close();
+        }
+
+        MappedJar mapped = MappedJar.map(jar);
+        MappedJar.Inflation inflation = new MappedJar.Inflation();
+
+        try {
+            ByteBuffer stored = mapped.read(1, inflation);
+
+            assertThat(bytesOf(mapped.read(0, inflation)), is(ClassFiles.bytesOf(TestAnnotated.class)));
+            assertThat(bytesOf(stored), is(ClassFiles.bytesOf(TestValueAnnotated.class)));
+            assertThat(stored.isReadOnly(), is(true));
+            assertThat(ClassFile.read(mapped.read(0, inflation), getClass().getClassLoader()).getName(),
+                    is(TestAnnotated.class.getName()));
+        } finally {
+            inflation.end();
+        }
+    }
+
+    @Test
+    public void shouldReuseInflationBuffers() throws Exception {
+        File jar = folder.newFile();
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+
+        try {
+            deflated(out, VALUE_ANNOTATED, ClassFiles.bytesOf(TestValueAnnotated.class));
+            deflated(out, ANNOTATED, ClassFiles.bytesOf(TestAnnotated.class));
+        } finally {
+            out.close();
+        }
+
+        MappedJar mapped = MappedJar.map(jar);
+        MappedJar.Inflation inflation = new MappedJar.Inflation();
+
+        try {
+            ByteBuffer first = mapped.read(0, inflation);
+            ByteBuffer second = mapped.read(1, inflation);
+
+            assertThat(second.array(), is(sameInstance(first.array())));
+            assertThat(bytesOf(second), is(ClassFiles.bytesOf(TestAnnotated.class)));
+        } finally {
+            inflation.end();
+        }
+    }
+
+    @Test
+    public void shouldMapEmptyJar() throws Exception {
+        File jar = folder.newFile();
+
+        new ZipOutputStream(new FileOutputStream(jar)).close();
+
+        assertThat(MappedJar.map(jar).size(), is(0));
+    }
+
+    @Test(expected = ZipException.class)
+    public void shouldRejectFilesThatAreNotJars() throws Exception {
+        File file = folder.newFile();
+        FileOutputStream out = new FileOutputStream(file);
+
+        try {
+            out.write(ClassFiles.bytesOf(TestAnnotated.class));
+        } finally {
+            out.close();
+        }
+
+        MappedJar.map(file);
+    }
+
+    @Test(expected = ZipException.class)
+    public void shouldRejectCorruptEntries() throws Exception {
+        File jar = folder.newFile();
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+
+        try {
+            deflated(out, ANNOTATED, ClassFiles.bytesOf(TestAnnotated.class));
+        } finally {
+            out.close();
+        }
+
+        // overwrite the deflated data following the local header and the entry name
+        RandomAccessFile file = new RandomAccessFile(jar, "rw");
+
+        try {
+            file.seek(30 + ANNOTATED.length());
+            file.write(new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF});
+        } finally {
+            file.close();
+        }
+
+        MappedJar.Inflation inflation = new MappedJar.Inflation();
+
+        try {
+            MappedJar.map(jar).read(0, inflation);
+        } finally {
+            inflation.end();
+        }
+    }
+
+    @Test
+    public void shouldMapJarOfMaxEntriesWithoutZip64() throws Exception {
+        File jar = jarOfMaxEntries();
+        byte[] bytes = Files.readAllBytes(jar.toPath());
+        ByteBuffer archive = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int end = bytes.length - END_SIZE;
+
+        // drop the zip64 end record and its locator the JDK writes for 65535 entries, as other zip tools do not
+        assertThat(archive.getInt(end - ZIP64_END_SIZE - ZIP64_LOCATOR_SIZE), is(0x06064b50));
+        assertThat(archive.getInt(end - ZIP64_LOCATOR_SIZE), is(0x07064b50));
+
+        FileOutputStream out = new FileOutputStream(jar);
+
+        try {
+            out.write(bytes, 0, end - ZIP64_END_SIZE - ZIP64_LOCATOR_SIZE);
+            out.write(bytes, end, END_SIZE);
+        } finally {
+            out.close();
+        }
+
+        assertThat(MappedJar.map(jar).size(), is(MAX_ENTRIES));
+    }
+
+    @Test(expected = ZipException.class)
+    public void shouldRejectZip64Jar() throws Exception {
+        MappedJar.map(jarOfMaxEntries());
+    }
+
+    private File jarOfMaxEntries() throws IOException {
+        File jar = folder.newFile();
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+
+        try {
+            for (int i = 0; i < MAX_ENTRIES; i++) {
+                stored(out, i + ".class", new byte[0]);
+            }
+        } finally {
+            out.close();
+        }
+
+        return jar;
+    }
+
+    private static List<String> namesOf(MappedJar mapped) {
+        List<String> res = new ArrayList<String>();
+
+        for (int i = 0; i < mapped.size(); i++) {
+            res.add(mapped.getName(i));
+        }
+
+        return res;
+    }
+
+    private static byte[] bytesOf(ByteBuffer buffer) {
+        byte[] res = new byte[buffer.remaining()];
+
+        buffer.duplicate().get(res);
+
+        return res;
+    }
+
+    private static void deflated(ZipOutputStream out, String name, byte[] bytes) throws IOException {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(bytes);
+    }
+
+    private static void stored(ZipOutputStream out, String name, byte[] bytes) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        CRC32 crc = new CRC32();
+
+        crc.update(bytes);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(bytes.length);
+        entry.setCompressedSize(bytes.length);
+        entry.setCrc(crc.getValue());
+        out.putNextEntry(entry);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import org.junit.Test;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class MemberTableTest {
+    @Test
+    public void shouldIndexAllDeclaredMembers() throws Exception {
+        MemberTable table = MemberTable.of(TestAnnotated.class);
+
+        assertThat(table.size(), is(TestAnnotated.class.getDeclaredFields().length
+                + TestAnnotated.class.getDeclaredMethods().length
+                + TestAnnotated.class.getDeclaredConstructors().length));
+    }
+
+    @Test
+    public void shouldFindMembersBySignature() throws Exception {
+        MemberTable table = MemberTable.of(TestAnnotated.class);
+
+        assertThat(table.get(MemberSignature.field("annotatedField")).getAnnotation(TestAnnotation.class),
+                is(notNullValue()));
+        assertThat(table.get(MemberSignature.method("annotated", int.class)).getAnnotation(TestAnnotation.class),
+                is(notNullValue()));
+        assertThat(table.get(MemberSignature.constructor(String.class)).getAnnotation(TestAnnotation.class),
+                is(notNullValue()));
+    }
+
+    @Test
+    public void shouldReturnNullForMissingMembers() throws Exception {
+        MemberTable table = MemberTable.of(TestAnnotated.class);
+
+        assertThat(table.get(MemberSignature.field("missing")), is(nullValue()));
+        assertThat(table.get(MemberSignature.method("annotated", long.class)), is(nullValue()));
+        assertThat(table.get(MemberSignature.method("annotatedField")), is(nullValue()));
+        assertThat(table.get(MemberSignature.constructor(double.class)), is(nullValue()));
+    }
+
+    @Test
+    public void shouldReuseMemberMetadata() throws Exception {
+        MemberTable table = MemberTable.of(TestAnnotated.class);
+
+        assertThat(table.get(MemberSignature.method("annotated", int.class)),
+                is(sameInstance(table.get(MemberSignature.method("annotated", int.class)))));
+    }
+
+    @Test
+    public void shouldFindMembersByReflectiveObject() throws Exception {
+        MemberTable table = MemberTable.of(TestAnnotated.class);
+
+        assertThat(table.get((AnnotatedElement) TestAnnotated.class.getDeclaredField("annotatedField")),
+                is(sameInstance(table.get(MemberSignature.field("annotatedField")))));
+        assertThat(table.get((AnnotatedElement) TestAnnotated.class.getDeclaredMethod("annotated", int.class)),
+                is(sameInstance(table.get(MemberSignature.method("annotated", int.class)))));
+        assertThat(table.get((AnnotatedElement) TestAnnotated.class.getDeclaredConstructor(String.class)),
+                is(sameInstance(table.get(MemberSignature.constructor(String.class)))));
+        assertThat(table.get((AnnotatedElement) Object.class.getDeclaredMethod("toString")), is(nullValue()));
+    }
+
+    @Test
+    public void shouldFindBridgeMethodByReflectiveObject() throws Exception {
+        MemberTable table = MemberTable.of(Covariant.class);
+
+        for (Method method : Covariant.class.getDeclaredMethods()) {
+            assertThat(table.get((AnnotatedElement) method).getElement(), is(equalTo((Object) method)));
+        }
+    }
+
+    @Test
+    public void shouldPreferMostSpecificReturnTypeOverBridgeMethod() throws Exception {
+        MemberTable table = MemberTable.of(Covariant.class);
+        Method method = (Method) table.get(MemberSignature.method("get")).getElement();
+
+        assertThat(method, is(equalTo(Covariant.class.getDeclaredMethod("get"))));
+        assertThat(method.getReturnType(), is(equalTo((Object) String.class)));
+    }
+
+    @Test
+    public void shouldDescribeMissingMembersLikeReflection() throws Exception {
+        assertThat(MemberSignature.constructor(double.class).describe(TestAnnotated.class),
+                is("com.zaradai.matchers.support.TestAnnotated.<init>(double)"));
+        assertThat(MemberSignature.method("run", String.class, int[].class).describe(TestAnnotated.class),
+                is("com.zaradai.matchers.support.TestAnnotated.run(java.lang.String,[I)"));
+        assertThat(MemberSignature.field("missing").describe(TestAnnotated.class), is("missing"));
+    }
+
+    private static class Base {
+        public Object get() {
+            return null;
+        }
+    }
+
+    private static class Covariant extends Base {
+        @Override
+        public String get() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.ClassFiles;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestArrayAnnotation;
+import com.zaradai.matchers.support.TestValueAnnotated;
+import com.zaradai.matchers.support.TestValueAnnotation;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.AnnotationTypeMismatchException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.IncompleteAnnotationException;
+import java.lang.annotation.Retention;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class SyntheticAnnotationTest {
+    @Test
+    public void shouldEqualReflectiveAnnotation() throws Exception {
+        TestValueAnnotation expected = TestValueAnnotated.class.getAnnotation(TestValueAnnotation.class);
+        TestValueAnnotation actual = read(TestValueAnnotated.class, TestValueAnnotation.class);
+
+        assertThat(actual.equals(expected), is(true));
+        assertThat(expected.equals(actual), is(true));
+        assertThat(actual.hashCode(), is(expected.hashCode()));
+        assertThat((Object) actual.annotationType(), is(equalTo((Object) TestValueAnnotation.class)));
+    }
+
+    @Test
+    public void shouldConvertValuesToDeclaredTypes() throws Exception {
+        TestValueAnnotation annotation = read(TestValueAnnotated.class, TestValueAnnotation.class);
+
+        assertThat(annotation.flag(), is(true));
+        assertThat(annotation.octet(), is((byte) -8));
+        assertThat(annotation.letter(), is('\u00e9'));
+        assertThat(annotation.small(), is((short) -16));
+        assertThat(annotation.large(), is(Long.MIN_VALUE));
+        assertThat(Float.isNaN(annotation.single()), is(true));
+        assertThat(Double.compare(annotation.precise(), -0.0), is(0));
+        assertThat(annotation.text(), is("caf\u00e9 \u0000 \uD83D\uDE00"));
+        assertThat(annotation.unit(), is(TimeUnit.DAYS));
+        assertThat((Object) annotation.type(), is(equalTo((Object) int[][].class)));
+        assertThat(annotation.nested().name(), is("nested"));
+        assertThat(annotation.nested().value(), is(7));
+        assertThat(annotation.units(), is(new TimeUnit[] {TimeUnit.HOURS, TimeUnit.MINUTES}));
+        assertThat(annotation.types(), is(new Class<?>[] {String.class, long.class, TestValueAnnotated.class}));
+        assertThat(annotation.larges()[0], is(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void shouldApplyDefaults() throws Exception {
+        TestAnnotation annotation = create(TestAnnotation.class, Collections.<String, Object>emptyMap());
+
+        assertThat(annotation.name(), is(""));
+        assertThat(annotation.value(), is(42));
+        assertThat(annotation, is(equalTo(TestValueAnnotation.class.getDeclaredMethod("nested").getDefaultValue())));
+    }
+
+    @Test
+    public void shouldReturnCopiesOfArrays() throws Exception {
+        TestArrayAnnotation annotation = create(TestArrayAnnotation.class,
+                Collections.<String, Object>singletonMap("codes", new Object[] {1, 2}));
+
+        annotation.codes()[0] = 3;
+
+        assertThat(annotation.codes(), is(new int[] {1, 2}));
+        assertThat(annotation.codes(), is(not(sameInstance(annotation.codes()))));
+    }
+
+    @Test
+    public void shouldDescribeAttributesInNameOrder() throws Exception {
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("value", 7);
+        values.put("name", "seven");
+
+        assertThat(create(TestAnnotation.class, values).toString(),
+                is("@com.zaradai.matchers.support.TestAnnotation(name=seven, value=7)"));
+    }
+
+    @Test
+    public void shouldLeaveOutAnnotationsThatAreNotAvailableAtRuntime() throws Exception {
+        AnnotationData[] annotations = {
+                new AnnotationData("com.zaradai.matchers.Missing", Collections.<String, Object>emptyMap()),
+                new AnnotationData("java.lang.Override", Collections.<String, Object>emptyMap()),
+                new AnnotationData("java.lang.String", Collections.<String, Object>emptyMap()),
+                new AnnotationData(TestAnnotation.class.getName(), Collections.<String, Object>emptyMap())
+        };
+
+        Annotation[] res = SyntheticAnnotation.materialize(annotations, getClass().getClassLoader());
+
+        assertThat(res.length, is(1));
+        assertThat(res[0], is(instanceOf(TestAnnotation.class)));
+    }
+
+    @Test(expected = TypeNotPresentException.class)
+    public void shouldReportMissingClassWhenValueIsRead() throws Exception {
+        TestArrayAnnotation annotation = create(TestArrayAnnotation.class, Collections.<String, Object>singletonMap(
+                "target", new AnnotationData.ClassReference("Lcom/zaradai/matchers/Missing;")));
+
+        assertThat(annotation.value().length, is(0));
+        annotation.target();
+    }
+
+    @Test(expected = EnumConstantNotPresentException.class)
+    public void shouldReportMissingEnumConstantWhenValueIsRead() throws Exception {
+        create(TestArrayAnnotation.class, Collections.<String, Object>singletonMap("type",
+                new AnnotationData.EnumConstant(ElementType.class.getName(), "MISSING"))).type();
+    }
+
+    @Test(expected = AnnotationTypeMismatchException.class)
+    public void shouldReportValueOfTheWrongType() throws Exception {
+        create(TestArrayAnnotation.class, Collections.<String, Object>singletonMap("value", 1)).value();
+    }
+
+    @Test(expected = IncompleteAnnotationException.class)
+    public void shouldReportAttributeWithoutValueOrDefault() throws Exception {
+        create(Retention.class, Collections.<String, Object>emptyMap()).value();
+    }
+
+    private <T extends Annotation> T create(Class<T> type, Map<String, Object> values) {
+        Annotation[] res = SyntheticAnnotation.materialize(new AnnotationData[] {
+                new AnnotationData(type.getName(), values)}, getClass().getClassLoader());
+
+        return type.cast(res[0]);
+    }
+
+    private <T extends Annotation> T read(Class<?> annotated, Class<T> type) throws Exception {
+        ClassFileMetadata metadata = ClassFileParser.parse(ClassFiles.bytesOf(annotated), getClass().getClassLoader());
+
+        return type.cast(metadata.getTypeMetadata().getAnnotation(type));
+    }
+}
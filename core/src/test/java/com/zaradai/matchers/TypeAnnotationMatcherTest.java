@@ -0,0 +1,91 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestArrayAnnotation;
+import com.zaradai.matchers.support.TestMultiAnnotated;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class TypeAnnotationMatcherTest {
+    private final TestAnnotated annotated = new TestAnnotated();
+
+    @Test
+    public void shouldMatchTypesLikeInstances() throws Exception {
+        assertSameResult(IsClassAnnotated.with(TestAnnotation.class));
+        assertSameResult(IsClassAnnotated.with(Deprecated.class));
+        assertSameResult(IsFieldAnnotated.withParamValue(TestAnnotation.class, "value", 1, "annotatedField"));
+        assertSameResult(IsMethodAnnotated.with(TestAnnotation.class, "missing"));
+        assertSameResult(IsConstructorParameterAnnotated.withParam(TestAnnotation.class, "value", 1, String.class,
+                int.class));
+        assertSameResult(IsMethodParameterAnnotated.with(TestAnnotation.class, 0, "methodParameterAnnotated",
+                String.class, int.class));
+        assertSameResult(AnnotationSpec.annotatedWith(TestAnnotation.class).onField("annotatedField").compile());
+    }
+
+    @Test
+    public void shouldMatchAnnotationSets() throws Exception {
+        assertThat(TestMultiAnnotated.class, is(TypeAnnotationMatcher.forType(
+                IsClassAnnotated.withAll(TestAnnotation.class, TestArrayAnnotation.class))));
+    }
+
+    @Test
+    public void shouldMismatchIfItemIsNull() throws Exception {
+        assertThat(mismatch(TypeAnnotationMatcher.forType(IsClassAnnotated.with(TestAnnotation.class)), null),
+                is("was null"));
+    }
+
+    @Test
+    public void shouldMismatchIfItemIsNotClass() throws Exception {
+        assertThat(mismatch(TypeAnnotationMatcher.forType(IsClassAnnotated.with(TestAnnotation.class)), annotated),
+                containsString("was not a class"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMatchersThatOnlyExamineInstances() throws Exception {
+        TypeAnnotationMatcher.forType(notNullValue());
+    }
+
+    @Test
+    public void shouldDescribeLikeInstanceMatcher() throws Exception {
+        Matcher<Object> matcher = IsMethodAnnotated.withParam(TestAnnotation.class, "name", "annotated", int.class);
+
+        assertThat(StringDescription.toString(TypeAnnotationMatcher.forType(matcher)),
+                is(StringDescription.toString(matcher)));
+    }
+
+    private void assertSameResult(Matcher<Object> matcher) {
+        Matcher<Class<?>> typeMatcher = TypeAnnotationMatcher.forType(matcher);
+
+        assertThat(typeMatcher.matches(TestAnnotated.class), is(matcher.matches(annotated)));
+        assertThat(mismatch(typeMatcher, TestAnnotated.class), is(mismatch(matcher, annotated)));
+    }
+
+    private static String mismatch(Matcher<?> matcher, Object item) {
+        Description description = new StringDescription();
+
+        matcher.describeMismatch(item, description);
+
+        return description.toString();
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.*;
+import org.junit.Test;
+
+import static com.zaradai.matchers.TypeAnnotationMatchers.*;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TypeAnnotationMatchersTest {
+    @Test
+    public void shouldMatchAnnotatedClass() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(classAnnotatedWith(TestAnnotation.class)));
+    }
+
+    @Test
+    public void shouldMatchClassAnnotatedWithAllAndNone() throws Exception {
+        Class<?> annotated = TestMultiAnnotated.class;
+
+        assertThat(annotated, is(classAnnotatedWithAll(TestAnnotation.class, TestArrayAnnotation.class)));
+        assertThat(annotated, is(classAnnotatedWithNone(Deprecated.class)));
+    }
+
+    @Test
+    public void shouldMatchFieldAnnotatedWithAllAndNone() throws Exception {
+        Class<?> annotated = TestMultiAnnotated.class;
+
+        assertThat(annotated, is(fieldAnnotatedWithAll("multiField", TestAnnotation.class, TestArrayAnnotation.class)));
+        assertThat(annotated, is(fieldAnnotatedWithNone("plainField", TestAnnotation.class)));
+    }
+
+    @Test
+    public void shouldMatchClassAnnotatedAlongHierarchy() throws Exception {
+        Class<?> annotated = TestHierarchy.Sub.class;
+
+        assertThat(annotated, is(classAnnotatedWith(TestAnnotation.class, SearchStrategy.TYPE_HIERARCHY)));
+        assertThat(annotated, is(classAnnotatedWithParam(TestAnnotation.class, "name", SearchStrategy.TYPE_HIERARCHY)));
+        assertThat(annotated, is(classAnnotatedWithParamValue(TestHierarchyAnnotation.class, "value", is("named"),
+                SearchStrategy.TYPE_HIERARCHY)));
+        assertThat(TestHierarchy.Leaf.class, is(classAnnotatedWithParamValue(TestAnnotation.class, "name", "base",
+                SearchStrategy.SUPERCLASS)));
+    }
+
+    @Test
+    public void shouldMatchInheritedFieldsAndMethods() throws Exception {
+        Class<?> annotated = TestInheritedMembers.Customer.class;
+
+        assertThat(annotated, is(fieldAnnotatedWith(TestAnnotation.class, "id", SearchStrategy.SUPERCLASS)));
+        assertThat(annotated, is(fieldAnnotatedWithParam(TestAnnotation.class, "name", "id", SearchStrategy.SUPERCLASS)));
+        assertThat(annotated, is(fieldAnnotatedWithParamValue(TestAnnotation.class, "name", is("id"), "id",
+                SearchStrategy.SUPERCLASS)));
+        assertThat(annotated, is(fieldAnnotatedWithParamValue(TestAnnotation.class, "name", "identified", "CONSTANT",
+                SearchStrategy.TYPE_HIERARCHY)));
+        assertThat(annotated, is(methodAnnotatedWith(TestArrayAnnotation.class, SearchStrategy.TYPE_HIERARCHY,
+                "getId")));
+        assertThat(annotated, is(methodAnnotatedWithParam(TestAnnotation.class, "name", SearchStrategy.SUPERCLASS,
+                "touch")));
+        assertThat(annotated, is(methodAnnotatedWithParamValue(TestAnnotation.class, "name", is("named"),
+                SearchStrategy.TYPE_HIERARCHY, "getName")));
+        assertThat(annotated, is(methodAnnotatedWithParamValue(TestAnnotation.class, "name", "customer",
+                SearchStrategy.SUPERCLASS, "touch")));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedClassParam() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(classAnnotatedWithParam(TestAnnotation.class, "value")));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedClassParamValueUsingMatcher() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(classAnnotatedWithParamValue(TestAnnotation.class, "value", is(56))));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedClassParamValueUsingValue() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(classAnnotatedWithParamValue(TestAnnotation.class, "value", 56)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedConstructor() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(constructorAnnotatedWith(TestAnnotation.class, String.class)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedConstructorParam() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(constructorAnnotatedWithParam(TestAnnotation.class, "value", String.class)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedConstructorParamValueUsingMatcher() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(constructorAnnotatedWithParamValue(TestAnnotation.class, "value", is(56), String.class)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedConstructorParamValueUsingValue() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(constructorAnnotatedWithParamValue(TestAnnotation.class, "value", 56, String.class)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedField() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(fieldAnnotatedWith(TestAnnotation.class, "annotatedField")));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedFieldParam() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(fieldAnnotatedWithParam(TestAnnotation.class, "value", "annotatedField")));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedFieldParamValueUsingMatcher() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(fieldAnnotatedWithParamValue(TestAnnotation.class, "value", is(56), "annotatedField")));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedFieldParamValueUsingValue() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(fieldAnnotatedWithParamValue(TestAnnotation.class, "value", 56, "annotatedField")));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedMethod() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(methodAnnotatedWith(TestAnnotation.class, "annotated", int.class)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedMethodParam() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(methodAnnotatedWithParam(TestAnnotation.class, "value", "annotated", int.class)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedMethodParamValueUsingMatcher() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(methodAnnotatedWithParamValue(TestAnnotation.class, "value", is(56), "annotated", int.class)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedMethodParamValueUsingValue() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(methodAnnotatedWithParamValue(TestAnnotation.class, "value", 56, "annotated", int.class)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedConstructionParameter() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(constructorParameterAnnotatedWith(TestAnnotation.class, 1, String.class, int.class)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedConstructionParameterParam() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(constructorParameterAnnotatedWithParam(TestAnnotation.class, "value", 1, String.class, int.class)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedConstructionParameterParamValueUsingMatcher() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(constructorParameterAnnotatedWithParamValue(TestAnnotation.class, "value", is(56), 1, String.class, int.class)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedConstructionParameterParamValueUsingValue() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(constructorParameterAnnotatedWithParamValue(TestAnnotation.class, "value", 56, 1, String.class, int.class)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedMethodParameter() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(methodParameterAnnotatedWith(TestAnnotation.class, 1, "methodParameterAnnotated", String.class, int.class)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedMethodParameterParam() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(methodParameterAnnotatedWithParam(TestAnnotation.class, "value", 1, "methodParameterAnnotated", String.class, int.class)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedMethodParameterParamValueUsingMatcher() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(methodParameterAnnotatedWithParamValue(TestAnnotation.class, "value", is(56), 1, "methodParameterAnnotated", String.class, int.class)));
+    }
+
+    @Test
+    public void shouldMatchAnnotatedMethodParameterParamValueUsingValue() throws Exception {
+        Class<?> annotated = TestAnnotated.class;
+
+        assertThat(annotated, is(methodParameterAnnotatedWithParamValue(TestAnnotation.class, "value", 56, 1, "methodParameterAnnotated", String.class, int.class)));
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestAnnotationLiteral;
+import com.zaradai.matchers.support.TestDescribed;
+import com.zaradai.matchers.support.TestDescribed_AnnotationDescriptor;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+
+import static com.zaradai.matchers.AnnotationMatchers.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class TypeDescriptorTest {
+    @Test
+    public void shouldFindDescriptorOfClass() throws Exception {
+        TypeDescriptor descriptor = TypeDescriptor.find(TestDescribed.class);
+
+        assertThat(descriptor, is(sameInstance(TestDescribed_AnnotationDescriptor.DESCRIPTOR)));
+        assertThat(TypeMetadata.forClass(TestDescribed.class), is(sameInstance(descriptor.getMetadata())));
+    }
+
+    @Test
+    public void shouldNotFindDescriptorOfClassWithoutOne() throws Exception {
+        assertThat(TypeDescriptor.find(TestAnnotated.class), is(nullValue()));
+        assertThat(TypeDescriptor.find(String.class), is(nullValue()));
+    }
+
+    @Test
+    public void shouldMatchDescribedAnnotationsInsteadOfReflected() throws Exception {
+        TestDescribed described = new TestDescribed("name");
+
+        assertThat(described, is(classAnnotatedWithParamValue(TestAnnotation.class, "name", "described")));
+        assertThat(described, is(fieldAnnotatedWithParamValue(TestAnnotation.class, "value", 7, "name")));
+        assertThat(described, is(methodParameterAnnotatedWithParamValue(TestAnnotation.class, "name", "described",
+                1, "rename", String.class, String.class)));
+        assertThat(described, is(constructorParameterAnnotatedWithParamValue(TestAnnotation.class, "name",
+                "described", 0, String.class)));
+        assertThat(described, is(not(classAnnotatedWithParamValue(TestAnnotation.class, "name", "reflected"))));
+    }
+
+    @Test
+    public void shouldKeepDescribedAnnotations() throws Exception {
+        TypeDescriptor descriptor = TypeDescriptor.find(Registered.class);
+
+        assertThat(descriptor, is(sameInstance(Registered_AnnotationDescriptor.DESCRIPTOR)));
+        assertThat(descriptor.getMetadata().getTypeMetadata().getAnnotation(TestAnnotation.class),
+                is(sameInstance((Annotation) Registered_AnnotationDescriptor.ANNOTATION)));
+    }
+
+    @Test
+    public void shouldNotLookUpClassesNotListed() throws Exception {
+        // the class has a descriptor class, which would register itself if it was looked up
+        assertThat(TypeDescriptor.find(Unlisted.class), is(nullValue()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectRegistrationOutsideLookup() throws Exception {
+        TypeDescriptor.builder(Unregistered.class).register();
+    }
+
+    @Test
+    public void shouldKeepDescriptorOfClassWhenRegistrationIsRejected() throws Exception {
+        try {
+            TypeDescriptor.builder(TestDescribed.class).register();
+        } catch (IllegalStateException e) {
+            assertThat(TypeDescriptor.find(TestDescribed.class),
+                    is(sameInstance(TestDescribed_AnnotationDescriptor.DESCRIPTOR)));
+            return;
+        }
+
+        throw new AssertionError("Expected the registration to be rejected");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotDescribeNullType() throws Exception {
+        TypeDescriptor.builder(null);
+    }
+
+    private static class Registered {
+    }
+
+    private static final class Registered_AnnotationDescriptor {
+        private static final TestAnnotation ANNOTATION = new TestAnnotationLiteral("registered", 1);
+        private static final TypeDescriptor DESCRIPTOR = TypeDescriptor.builder(Registered.class)
+                .annotatedWith(ANNOTATION)
+                .register();
+    }
+
+    private static class Unregistered {
+    }
+
+    private static class Unlisted {
+    }
+
+    private static final class Unlisted_AnnotationDescriptor {
+        private static final TypeDescriptor DESCRIPTOR = TypeDescriptor.builder(Unlisted.class)
+                .annotatedWith(new TestAnnotationLiteral("unlisted", 1))
+                .register();
+    }
+}
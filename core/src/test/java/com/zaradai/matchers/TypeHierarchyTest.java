@@ -0,0 +1,238 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.ClassFiles;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestArrayAnnotation;
+import com.zaradai.matchers.support.TestGenericMembers;
+import com.zaradai.matchers.support.TestHierarchy;
+import com.zaradai.matchers.support.TestHierarchyAnnotation;
+import com.zaradai.matchers.support.TestInheritedMembers;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class TypeHierarchyTest {
+    @Test
+    public void shouldFindOnlyDeclaredAnnotations() throws Exception {
+        AnnotationTable res = hierarchyOf(TestHierarchy.Leaf.class).getAnnotations(SearchStrategy.DECLARED);
+
+        assertThat(res.size(), is(0));
+        assertThat(hierarchyOf(TestHierarchy.Base.class).getAnnotations(SearchStrategy.DECLARED).size(), is(2));
+    }
+
+    @Test
+    public void shouldFindAnnotationsOfSuperclasses() throws Exception {
+        AnnotationTable res = hierarchyOf(TestHierarchy.Leaf.class).getAnnotations(SearchStrategy.SUPERCLASS);
+
+        assertThat(((TestAnnotation) res.get(TestAnnotation.class)).name(), is("base"));
+        assertThat(((TestHierarchyAnnotation) res.get(TestHierarchyAnnotation.class)).value(), is("base"));
+    }
+
+    @Test
+    public void shouldNotFindAnnotationsOfInterfacesWhenSearchingSuperclasses() throws Exception {
+        AnnotationTable res = hierarchyOf(TestHierarchy.Plain.class).getAnnotations(SearchStrategy.SUPERCLASS);
+
+        assertThat(res.size(), is(0));
+    }
+
+    @Test
+    public void shouldFindAnnotationsOfInterfaces() throws Exception {
+        AnnotationTable res = hierarchyOf(TestHierarchy.Plain.class).getAnnotations(SearchStrategy.TYPE_HIERARCHY);
+
+        assertThat(((TestAnnotation) res.get(TestAnnotation.class)).name(), is("root"));
+        assertThat(((TestHierarchyAnnotation) res.get(TestHierarchyAnnotation.class)).value(), is("contract"));
+    }
+
+    @Test
+    public void shouldPreferSuperclassesToInterfaces() throws Exception {
+        AnnotationTable res = hierarchyOf(TestHierarchy.Leaf.class).getAnnotations(SearchStrategy.TYPE_HIERARCHY);
+
+        assertThat(((TestAnnotation) res.get(TestAnnotation.class)).name(), is("base"));
+        assertThat(((TestHierarchyAnnotation) res.get(TestHierarchyAnnotation.class)).value(), is("base"));
+    }
+
+    @Test
+    public void shouldPreferOwnInterfacesToThoseOfSuperclasses() throws Exception {
+        AnnotationTable res = hierarchyOf(TestHierarchy.Sub.class).getAnnotations(SearchStrategy.TYPE_HIERARCHY);
+
+        assertThat(((TestHierarchyAnnotation) res.get(TestHierarchyAnnotation.class)).value(), is("named"));
+        assertThat(((TestAnnotation) res.get(TestAnnotation.class)).name(), is("root"));
+    }
+
+    @Test
+    public void shouldShareMergedTables() throws Exception {
+        TypeHierarchy hierarchy = hierarchyOf(TestHierarchy.Leaf.class);
+
+        assertThat(hierarchyOf(TestHierarchy.Leaf.class), is(sameInstance(hierarchy)));
+        assertThat(hierarchy.getAnnotations(SearchStrategy.TYPE_HIERARCHY),
+                is(sameInstance(hierarchy.getAnnotations(SearchStrategy.TYPE_HIERARCHY))));
+    }
+
+    @Test
+    public void shouldShareSnapshotsOfSupertypes() throws Exception {
+        AnnotationTable base = hierarchyOf(TestHierarchy.Base.class).getAnnotations(SearchStrategy.DECLARED);
+        AnnotationTable leaf = hierarchyOf(TestHierarchy.Leaf.class).getAnnotations(SearchStrategy.SUPERCLASS);
+
+        assertThat(leaf.getSnapshot(TestAnnotation.class), is(sameInstance(base.getSnapshot(TestAnnotation.class))));
+    }
+
+    @Test
+    public void shouldFindRecordedAnnotationsOfClassFile() throws Exception {
+        ClassFile classFile = ClassFile.read(ClassFiles.bytesOf(TestHierarchy.Base.class));
+        TypeHierarchy hierarchy = classFile.getMetadata().getHierarchy();
+
+        assertThat(((TestAnnotation) hierarchy.getAnnotations(SearchStrategy.DECLARED).get(TestAnnotation.class))
+                .name(), is("base"));
+        assertThat(((TestAnnotation) hierarchy.getAnnotations(SearchStrategy.TYPE_HIERARCHY)
+                .get(TestAnnotation.class)).name(), is("base"));
+    }
+
+    @Test
+    public void shouldLoadSupertypesOfClassFile() throws Exception {
+        ClassFile classFile = ClassFile.read(ClassFiles.bytesOf(TestHierarchy.Sub.class));
+        TypeHierarchy hierarchy = classFile.getMetadata().getHierarchy();
+
+        assertThat(hierarchy.getAnnotations(SearchStrategy.DECLARED).get(TestHierarchyAnnotation.class),
+                is(nullValue()));
+        assertThat(hierarchy.getAnnotations(SearchStrategy.SUPERCLASS).size(), is(0));
+        assertThat(((TestHierarchyAnnotation) hierarchy.getAnnotations(SearchStrategy.TYPE_HIERARCHY)
+                .get(TestHierarchyAnnotation.class)).value(), is("named"));
+    }
+
+    @Test(expected = TypeNotPresentException.class)
+    public void shouldFailIfSupertypeOfClassFileIsMissing() throws Exception {
+        final String missing = TestHierarchy.Middle.class.getName();
+        ClassLoader classLoader = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (name.equals(missing)) {
+                    throw new ClassNotFoundException(name);
+                }
+
+                return super.loadClass(name, resolve);
+            }
+        };
+        ClassFile classFile = ClassFile.read(ClassFiles.bytesOf(TestHierarchy.Leaf.class), classLoader);
+
+        classFile.getMetadata().getHierarchy().getAnnotations(SearchStrategy.SUPERCLASS);
+    }
+
+    @Test
+    public void shouldCacheResolvedMembers() throws Exception {
+        TypeHierarchy hierarchy = hierarchyOf(TestInheritedMembers.Customer.class);
+        MemberSignature signature = MemberSignature.method("getId");
+
+        AnnotationTable res = hierarchy.getMemberAnnotations(signature, SearchStrategy.TYPE_HIERARCHY);
+
+        assertThat(res.size(), is(2));
+        assertThat(hierarchy.getMemberAnnotations(MemberSignature.method("getId"), SearchStrategy.TYPE_HIERARCHY),
+                is(sameInstance(res)));
+    }
+
+    @Test
+    public void shouldShareMemberTablesOfSuperclasses() throws Exception {
+        MemberSignature signature = MemberSignature.field("id");
+        AnnotationTable entity = hierarchyOf(TestInheritedMembers.Entity.class)
+                .getMemberAnnotations(signature, SearchStrategy.DECLARED);
+
+        assertThat(hierarchyOf(TestInheritedMembers.Customer.class)
+                .getMemberAnnotations(signature, SearchStrategy.SUPERCLASS), is(sameInstance(entity)));
+    }
+
+    @Test
+    public void shouldCacheMissingMembers() throws Exception {
+        TypeHierarchy hierarchy = hierarchyOf(TestInheritedMembers.Customer.class);
+        MemberSignature signature = MemberSignature.field("missing");
+
+        assertThat(hierarchy.getMemberAnnotations(signature, SearchStrategy.TYPE_HIERARCHY), is(nullValue()));
+        assertThat(hierarchy.getMemberAnnotations(signature, SearchStrategy.TYPE_HIERARCHY), is(nullValue()));
+    }
+
+    @Test
+    public void shouldMergeOverrideOfGenericSuperclassMethod() throws Exception {
+        MemberSignature signature = MemberSignature.method("save", TestGenericMembers.User.class);
+        AnnotationTable res = hierarchyOf(TestGenericMembers.Sub.class)
+                .getMemberAnnotations(signature, SearchStrategy.SUPERCLASS);
+
+        assertThat(res.size(), is(2));
+        assertThat(((TestAnnotation) res.get(TestAnnotation.class)).name(), is("base"));
+        assertThat(((TestArrayAnnotation) res.get(TestArrayAnnotation.class)).value()[0], is("sub"));
+    }
+
+    @Test
+    public void shouldMergeOverrideOfGenericInterfaceMethod() throws Exception {
+        MemberSignature signature = MemberSignature.method("save", TestGenericMembers.User.class);
+        TypeHierarchy hierarchy = hierarchyOf(TestGenericMembers.UserRepo.class);
+
+        assertThat(hierarchy.getMemberAnnotations(signature, SearchStrategy.SUPERCLASS).get(TestAnnotation.class),
+                is(nullValue()));
+        assertThat(((TestAnnotation) hierarchy.getMemberAnnotations(signature, SearchStrategy.TYPE_HIERARCHY)
+                .get(TestAnnotation.class)).name(), is("repo"));
+    }
+
+    @Test
+    public void shouldMergeOverrideOfGenericMethodInClassFile() throws Exception {
+        ClassFile classFile = ClassFile.read(ClassFiles.bytesOf(TestGenericMembers.Sub.class));
+        AnnotationTable res = classFile.getMetadata().getHierarchy().getMemberAnnotations(
+                MemberSignature.method("save", TestGenericMembers.User.class), SearchStrategy.SUPERCLASS);
+
+        assertThat(((TestAnnotation) res.get(TestAnnotation.class)).name(), is("base"));
+        assertThat(((TestArrayAnnotation) res.get(TestArrayAnnotation.class)).value()[0], is("sub"));
+    }
+
+    @Test
+    public void shouldNotMergeStaticMethods() throws Exception {
+        AnnotationTable res = hierarchyOf(TestInheritedMembers.Customer.class)
+                .getMemberAnnotations(MemberSignature.method("create"), SearchStrategy.SUPERCLASS);
+
+        assertThat(res.size(), is(1));
+        assertThat(((TestAnnotation) res.get(TestAnnotation.class)).name(), is("customer"));
+    }
+
+    @Test
+    public void shouldMergePackagePrivateMethodsOnlyWithinPackage() throws Exception {
+        MemberSignature signature = MemberSignature.method("flush");
+        AnnotationTable customer = hierarchyOf(TestInheritedMembers.Customer.class)
+                .getMemberAnnotations(signature, SearchStrategy.SUPERCLASS);
+        AnnotationTable foreign = hierarchyOf(ForeignCustomer.class)
+                .getMemberAnnotations(signature, SearchStrategy.SUPERCLASS);
+
+        assertThat(customer.size(), is(2));
+        assertThat(((TestArrayAnnotation) customer.get(TestArrayAnnotation.class)).value()[0], is("flush"));
+        assertThat(foreign.size(), is(1));
+        assertThat(((TestAnnotation) foreign.get(TestAnnotation.class)).name(), is("foreign"));
+        assertThat(hierarchyOf(ForeignSupplier.class).getMemberAnnotations(signature, SearchStrategy.SUPERCLASS),
+                is(nullValue()));
+    }
+
+    private static TypeHierarchy hierarchyOf(Class<?> type) {
+        return TypeMetadata.forClass(type).getHierarchy();
+    }
+
+    private static class ForeignCustomer extends TestInheritedMembers.Customer {
+        @TestAnnotation(name = "foreign")
+        void flush() {
+        }
+    }
+
+    private abstract static class ForeignSupplier extends TestInheritedMembers.Entity {
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.AllocationCounter;
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestArrayAnnotated;
+import com.zaradai.matchers.support.TestArrayAnnotation;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+public class WarmLookupAllocationTest {
+    private static final int RUNS = 20000;
+
+    private final TestAnnotated annotated = new TestAnnotated();
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(AllocationCounter.isSupported());
+    }
+
+    @Test
+    public void shouldNotAllocateOnWarmClassLookup() throws Exception {
+        assertAllocationFree(IsClassAnnotated.with(TestAnnotation.class));
+    }
+
+    @Test
+    public void shouldNotAllocateOnWarmFieldLookup() throws Exception {
+        assertAllocationFree(IsFieldAnnotated.with(TestAnnotation.class, "annotatedField"));
+    }
+
+    @Test
+    public void shouldNotAllocateOnWarmMethodLookup() throws Exception {
+        assertAllocationFree(IsMethodAnnotated.with(TestAnnotation.class, "annotated", int.class));
+    }
+
+    @Test
+    public void shouldNotAllocateOnWarmConstructorLookup() throws Exception {
+        assertAllocationFree(IsConstructorAnnotated.with(TestAnnotation.class, String.class));
+    }
+
+    @Test
+    public void shouldNotAllocateOnWarmConstructorParameterLookup() throws Exception {
+        assertAllocationFree(IsConstructorParameterAnnotated.with(TestAnnotation.class, 1, String.class, int.class));
+    }
+
+    @Test
+    public void shouldNotAllocateOnWarmMethodParameterLookup() throws Exception {
+        assertAllocationFree(IsMethodParameterAnnotated.with(TestAnnotation.class, 1, "methodParameterAnnotated",
+                String.class, int.class));
+    }
+
+    @Test
+    public void shouldNotAllocateOnWarmParameterParamValueMatch() throws Exception {
+        assertAllocationFree(IsConstructorParameterAnnotated.withParamValue(TestAnnotation.class, "name",
+                TestAnnotated.TEST_PARAM, 1, String.class, int.class));
+        assertAllocationFree(IsMethodParameterAnnotated.withParamValue(TestAnnotation.class, "name",
+                TestAnnotated.TEST_PARAM, 1, "methodParameterAnnotated", String.class, int.class));
+    }
+
+    @Test
+    public void shouldNotAllocateOnWarmAnnotationSetMatch() throws Exception {
+        assertAllocationFree(IsClassAnnotated.withAll(TestAnnotation.class));
+        assertAllocationFree(IsFieldAnnotated.withNone("nonAnnotatedField", TestAnnotation.class));
+    }
+
+    @Test
+    public void shouldNotAllocateOnWarmCompiledSpecMatch() throws Exception {
+        assertAllocationFree(AnnotationSpec.annotatedWith(TestAnnotation.class)
+                .onMethodParameter(1, "methodParameterAnnotated", String.class, int.class)
+                .withParamValue("name", TestAnnotated.TEST_PARAM).withParamValue("value", TestAnnotated.TEST_VALUE)
+                .compile());
+    }
+
+    @Test
+    public void shouldNotAllocateOnWarmMissingMemberLookup() throws Exception {
+        assertMissAllocationFree(IsFieldAnnotated.with(TestAnnotation.class, "missingField"));
+        assertMissAllocationFree(IsMethodAnnotated.with(TestAnnotation.class, "missing", int.class));
+        assertMissAllocationFree(IsConstructorAnnotated.with(TestAnnotation.class, double.class));
+        assertMissAllocationFree(IsMethodParameterAnnotated.with(TestAnnotation.class, 2, "methodParameterAnnotated",
+                String.class, int.class));
+        assertMissAllocationFree(IsClassAnnotated.withAll(Deprecated.class));
+    }
+
+    @Test
+    public void shouldNotAllocateOnWarmMissingAnnotationLookup() throws Exception {
+        assertMissAllocationFree(IsFieldAnnotated.with(Deprecated.class, "annotatedField"));
+        assertMissAllocationFree(IsMethodAnnotated.with(Deprecated.class, "annotated", int.class));
+    }
+
+    @Test
+    public void shouldNotAllocateOnWarmAnnotatedElementMatch() throws Exception {
+        // TypeSafeDiagnosingMatcher.matches creates a description per call, measure the lookup itself
+        final AnnotatedElementMatcher matcher = new AnnotatedElementMatcher(TestAnnotation.class);
+        final AnnotatedElement field = TestAnnotated.class.getDeclaredField("annotatedField");
+
+        assertThat(matcher.matchesSafely(field, Description.NONE), is(true));
+        assertThat(AllocationCounter.bytesPerRun(new Runnable() {
+            @Override
+            public void run() {
+                matcher.matchesSafely(field, Description.NONE);
+            }
+        }, RUNS), is(lessThan(1.0)));
+    }
+
+    @Test
+    public void shouldNotCopyArraysWhenMatchingArrayParamValues() throws Exception {
+        final TestArrayAnnotated arrayAnnotated = new TestArrayAnnotated();
+        final Annotation annotation = TestArrayAnnotated.class.getDeclaredField("arrayField")
+                .getAnnotation(TestArrayAnnotation.class);
+        final Matcher<Annotation> paramMatcher = AnnotationParamMatcher.hasParamValue("value",
+                TestArrayAnnotated.VALUES);
+        final Matcher<Object> matcher = IsFieldAnnotated.withParamValue(TestArrayAnnotation.class, "value",
+                TestArrayAnnotated.VALUES, "arrayField");
+
+        assertThat(paramMatcher.matches(annotation), is(true));
+        assertThat(matcher.matches(arrayAnnotated), is(true));
+
+        double proxyBytes = AllocationCounter.bytesPerRun(new Runnable() {
+            @Override
+            public void run() {
+                paramMatcher.matches(annotation);
+            }
+        }, RUNS);
+        double snapshotBytes = bytesPerMatch(matcher, arrayAnnotated);
+
+        assertThat(proxyBytes, is(greaterThan((double) TestArrayAnnotated.VALUES.length * 4)));
+        assertThat(snapshotBytes, is(lessThan(1.0)));
+    }
+
+    private void assertAllocationFree(Matcher<Object> matcher) {
+        assertThat(matcher.matches(annotated), is(true));
+        assertThat(bytesPerMatch(matcher, annotated), is(lessThan(1.0)));
+    }
+
+    private void assertMissAllocationFree(Matcher<Object> matcher) {
+        assertThat(matcher.matches(annotated), is(false));
+        assertThat(bytesPerMatch(matcher, annotated), is(lessThan(1.0)));
+    }
+
+    private static double bytesPerMatch(final Matcher<Object> matcher, final Object item) {
+        return AllocationCounter.bytesPerRun(new Runnable() {
+            @Override
+            public void run() {
+                matcher.matches(item);
+            }
+        }, RUNS);
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.support;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the bytes allocated by the calling thread while running a task, using the HotSpot thread allocation
+ * counters.
+ */
+public final class AllocationCounter {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private AllocationCounter() {
+    }
+
+    public static boolean isSupported() {
+        return THREADS instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemorySupported()
+                && ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * Run the task the given number of times and return the average number of bytes allocated per run.  The
+     * task is first run the same number of times to warm caches and let the JIT settle.
+     */
+    public static double bytesPerRun(Runnable task, int runs) {
+        for (int i = 0; i < runs; i++) {
+            task.run();
+        }
+
+        long overhead = allocatedBytes();
+        overhead = allocatedBytes() - overhead;
+        long start = allocatedBytes();
+
+        for (int i = 0; i < runs; i++) {
+            task.run();
+        }
+
+        return (double) (allocatedBytes() - start - overhead) / runs;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,569 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.support;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A corpus of generated classes with annotations on their types, fields, methods, constructors and parameters,
+ * compiled in memory for scale tests and benchmarks.  The corpus is described by a {@link Builder}: the number of
+ * classes, how many members each declares, how many annotation types there are and how likely an element is to be
+ * annotated.  Generation is deterministic for a given seed, and every element records which annotations it was
+ * given so matches can be checked against the plan.
+ * <p>
+ * Every annotation type has a <code>name</code> and a <code>value</code> parameter; an annotated element gives each
+ * of its annotations the same value.  Classes are loaded through {@link #newClassLoader(ClassLoader)}, each loader
+ * defines its own copy of the corpus so classes it loads have never been seen by the matchers.
+ * </p>
+ */
+public final class AnnotatedCorpus {
+    /**
+     * Package of the generated classes and annotation types.
+     */
+    public static final String PACKAGE = "corpus";
+
+    private static final Class<?>[] PARAMETER_TYPES = {int.class, String.class, long.class};
+
+    private final List<CorpusClass> classes;
+    private final List<String> annotationNames;
+    private final Map<String, byte[]> classFiles;
+
+    private AnnotatedCorpus(List<CorpusClass> classes, List<String> annotationNames, Map<String, byte[]> classFiles) {
+        this.classes = Collections.unmodifiableList(classes);
+        this.annotationNames = Collections.unmodifiableList(annotationNames);
+        this.classFiles = classFiles;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the generated classes in the order they were generated.
+     */
+    public List<CorpusClass> getClasses() {
+        return classes;
+    }
+
+    /**
+     * Get the binary names of the generated annotation types.
+     */
+    public List<String> getAnnotationNames() {
+        return annotationNames;
+    }
+
+    /**
+     * Get the class file of a generated class or annotation type.
+     * @return class file bytes or null if the corpus has no such class
+     */
+    public byte[] getClassFile(String name) {
+        byte[] res = classFiles.get(name);
+
+        if (res == null) {
+            return null;
+        }
+
+        return res.clone();
+    }
+
+    /**
+     * Get the binary names of all generated classes and annotation types.
+     */
+    public List<String> getClassFileNames() {
+        List<String> res = new ArrayList<String>(classFiles.keySet());
+        Collections.sort(res);
+
+        return res;
+    }
+
+    /**
+     * Create a class loader that defines the corpus classes on demand, all other classes are loaded by the parent.
+     */
+    public ClassLoader newClassLoader(ClassLoader parent) {
+        return new CorpusClassLoader(parent, classFiles);
+    }
+
+    /**
+     * The kind of an annotatable element of a generated class.
+     */
+    public enum Kind {
+        TYPE,
+        FIELD,
+        METHOD,
+        CONSTRUCTOR,
+        METHOD_PARAMETER,
+        CONSTRUCTOR_PARAMETER
+    }
+
+    /**
+     * A generated class and the elements it declares.
+     */
+    public static final class CorpusClass {
+        private final String name;
+        private final List<CorpusElement> elements;
+
+        private CorpusClass(String name, List<CorpusElement> elements) {
+            this.name = name;
+            this.elements = Collections.unmodifiableList(elements);
+        }
+
+        /**
+         * Get the binary name of the class.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get every element of the class, the class itself first.
+         */
+        public List<CorpusElement> getElements() {
+            return elements;
+        }
+
+        /**
+         * Get the elements of a kind in declaration order.
+         */
+        public List<CorpusElement> getElements(Kind kind) {
+            List<CorpusElement> res = new ArrayList<CorpusElement>();
+
+            for (CorpusElement element : elements) {
+                if (element.getKind() == kind) {
+                    res.add(element);
+                }
+            }
+
+            return res;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * An annotatable element of a generated class and the annotations it was given.
+     */
+    public static final class CorpusElement {
+        private final Kind kind;
+        private final String name;
+        private final Class<?>[] parameterTypes;
+        private final int position;
+        private final List<String> annotations;
+        private final int value;
+
+        private CorpusElement(Kind kind, String name, Class<?>[] parameterTypes, int position,
+                              List<String> annotations, int value) {
+            this.kind = kind;
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+            this.position = position;
+            this.annotations = Collections.unmodifiableList(annotations);
+            this.value = value;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Get the name of the field or method, of the class for types and "&lt;init&gt;" for constructors.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the formal parameter types of the method or constructor, empty for types and fields.
+         */
+        public Class<?>[] getParameterTypes() {
+            return parameterTypes.clone();
+        }
+
+        /**
+         * Get the position of a parameter, -1 for all other elements.
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * Get the binary names of the annotation types the element is annotated with.
+         */
+        public List<String> getAnnotations() {
+            return annotations;
+        }
+
+        public boolean isAnnotatedWith(String annotationName) {
+            return annotations.contains(annotationName);
+        }
+
+        /**
+         * Get the value parameter of the element's annotations.
+         */
+        public int getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + name + Arrays.toString(parameterTypes) + (position < 0 ? "" : " #" + position)
+                    + " " + annotations;
+        }
+    }
+
+    /**
+     * Describes the corpus to generate.
+     */
+    public static final class Builder {
+        private int classCount = 100;
+        private int fieldCount = 4;
+        private int methodCount = 4;
+        private int constructorCount = 2;
+        private int parameterCount = 2;
+        private int annotationTypeCount = 8;
+        private int maxAnnotations = 2;
+        private double density = 0.5;
+        private long seed;
+
+        private Builder() {
+        }
+
+        public Builder classes(int count) {
+            this.classCount = count;
+            return this;
+        }
+
+        /**
+         * Set the number of fields declared by each class.
+         */
+        public Builder fields(int count) {
+            this.fieldCount = count;
+            return this;
+        }
+
+        /**
+         * Set the number of methods declared by each class.
+         */
+        public Builder methods(int count) {
+            this.methodCount = count;
+            return this;
+        }
+
+        /**
+         * Set the number of constructors declared by each class, constructor <code>i</code> has <code>i</code>
+         * parameters so there is always a constructor without parameters.
+         */
+        public Builder constructors(int count) {
+            this.constructorCount = Math.max(1, count);
+            return this;
+        }
+
+        /**
+         * Set the number of parameters of each method.
+         */
+        public Builder parameters(int count) {
+            this.parameterCount = count;
+            return this;
+        }
+
+        public Builder annotationTypes(int count) {
+            this.annotationTypeCount = count;
+            return this;
+        }
+
+        /**
+         * Set the most annotations an annotated element is given, each annotated element is given between one and
+         * this many distinct annotation types.
+         */
+        public Builder maxAnnotations(int count) {
+            this.maxAnnotations = count;
+            return this;
+        }
+
+        /**
+         * Set the probability that an element is annotated, 1 annotates every element.
+         */
+        public Builder density(double probability) {
+            this.density = probability;
+            return this;
+        }
+
+        public Builder seed(long value) {
+            this.seed = value;
+            return this;
+        }
+
+        /**
+         * Generate and compile the corpus.
+         * @throws IllegalStateException if the system java compiler is not available or fails
+         */
+        public AnnotatedCorpus build() {
+            if (annotationTypeCount < 1 || maxAnnotations < 1 || maxAnnotations > annotationTypeCount) {
+                throw new IllegalArgumentException("Between 1 and " + annotationTypeCount
+                        + " annotations per element are possible, not " + maxAnnotations);
+            }
+
+            Random random = new Random(seed);
+            List<String> annotationNames = new ArrayList<String>();
+            Map<String, String> sources = new HashMap<String, String>();
+
+            for (int i = 0; i < annotationTypeCount; i++) {
+                String name = "Annotation" + i;
+                annotationNames.add(PACKAGE + "." + name);
+                sources.put(name, annotationSource(name));
+            }
+
+            List<CorpusClass> classes = new ArrayList<CorpusClass>();
+
+            for (int i = 0; i < classCount; i++) {
+                String name = "Type" + i;
+                List<CorpusElement> elements = new ArrayList<CorpusElement>();
+                sources.put(name, classSource(name, random, annotationNames, elements));
+                classes.add(new CorpusClass(PACKAGE + "." + name, elements));
+            }
+
+            return new AnnotatedCorpus(classes, annotationNames, compile(sources));
+        }
+
+        private String annotationSource(String name) {
+            return "package " + PACKAGE + ";\n\n"
+                    + "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n"
+                    + "public @interface " + name + " {\n"
+                    + "    String name() default \"\";\n"
+                    + "    int value() default 0;\n"
+                    + "}\n";
+        }
+
+        private String classSource(String name, Random random, List<String> annotationNames,
+                                   List<CorpusElement> elements) {
+            StringBuilder res = new StringBuilder("package ").append(PACKAGE).append(";\n\n");
+            Class<?>[] none = new Class<?>[0];
+
+            res.append(annotate(random, annotationNames, elements, Kind.TYPE, PACKAGE + "." + name, none, -1));
+            res.append("public class ").append(name).append(" {\n");
+            for (int i = 0; i < fieldCount; i++) {
+                String field = "field" + i;
+                res.append("    ").append(annotate(random, annotationNames, elements, Kind.FIELD, field, none, -1))
+                        .append("    public ").append(PARAMETER_TYPES[i % PARAMETER_TYPES.length].getName())
+                        .append(' ').append(field).append(";\n");
+            }
+            for (int i = 0; i < constructorCount; i++) {
+                Class<?>[] parameterTypes = parameterTypes(i);
+                res.append("    ").append(annotate(random, annotationNames, elements, Kind.CONSTRUCTOR, "<init>",
+                        parameterTypes, -1)).append("    public ").append(name).append('(')
+                        .append(parameters(random, annotationNames, elements, Kind.CONSTRUCTOR_PARAMETER, "<init>",
+                                parameterTypes)).append(") {\n    }\n");
+            }
+            for (int i = 0; i < methodCount; i++) {
+                String method = "method" + i;
+                Class<?>[] parameterTypes = parameterTypes(parameterCount);
+                res.append("    ").append(annotate(random, annotationNames, elements, Kind.METHOD, method,
+                        parameterTypes, -1)).append("    public void ").append(method).append('(')
+                        .append(parameters(random, annotationNames, elements, Kind.METHOD_PARAMETER, method,
+                                parameterTypes)).append(") {\n    }\n");
+            }
+
+            return res.append("}\n").toString();
+        }
+
+        private String parameters(Random random, List<String> annotationNames, List<CorpusElement> elements,
+                                  Kind kind, String member, Class<?>[] parameterTypes) {
+            StringBuilder res = new StringBuilder();
+
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (i > 0) {
+                    res.append(", ");
+                }
+                res.append(annotate(random, annotationNames, elements, kind, member, parameterTypes, i).trim())
+                        .append(' ').append(parameterTypes[i].getName()).append(" p").append(i);
+            }
+
+            return res.toString().trim();
+        }
+
+        private String annotate(Random random, List<String> annotationNames, List<CorpusElement> elements,
+                                Kind kind, String name, Class<?>[] parameterTypes, int position) {
+            List<String> annotations = new ArrayList<String>();
+            int value = random.nextInt(1000);
+
+            if (random.nextDouble() < density) {
+                List<String> shuffled = new ArrayList<String>(annotationNames);
+                Collections.shuffle(shuffled, random);
+                annotations.addAll(shuffled.subList(0, 1 + random.nextInt(maxAnnotations)));
+                Collections.sort(annotations);
+            }
+            elements.add(new CorpusElement(kind, name, parameterTypes, position, annotations, value));
+
+            StringBuilder res = new StringBuilder();
+
+            for (String annotation : annotations) {
+                res.append('@').append(annotation).append("(name = \"").append(name).append("\", value = ")
+                        .append(value).append(") ");
+            }
+            if (res.length() > 0 && position < 0) {
+                res.append('\n');
+            }
+
+            return res.toString();
+        }
+
+        private static Class<?>[] parameterTypes(int count) {
+            Class<?>[] res = new Class<?>[count];
+
+            for (int i = 0; i < count; i++) {
+                res[i] = PARAMETER_TYPES[i % PARAMETER_TYPES.length];
+            }
+
+            return res;
+        }
+    }
+
+    private static Map<String, byte[]> compile(Map<String, String> sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        if (compiler == null) {
+            throw new IllegalStateException("No system java compiler, the corpus needs a JDK");
+        }
+
+        List<JavaFileObject> units = new ArrayList<JavaFileObject>();
+
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            units.add(new SourceFile(PACKAGE + "." + source.getKey(), source.getValue()));
+        }
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        ClassFiles classFiles = new ClassFiles(compiler.getStandardFileManager(diagnostics, null, null));
+
+        if (!compiler.getTask(null, classFiles, diagnostics, Arrays.asList("-proc:none", "-g:none"), null, units)
+                .call()) {
+            StringBuilder res = new StringBuilder("Failed to compile the corpus");
+
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                res.append('\n').append(diagnostic);
+            }
+            throw new IllegalStateException(res.toString());
+        }
+
+        return classFiles.getBytes();
+    }
+
+    /**
+     * Source of a generated compilation unit.
+     */
+    private static final class SourceFile extends SimpleJavaFileObject {
+        private final String source;
+
+        SourceFile(String name, String source) {
+            super(URI.create("string:///" + name.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+
+    /**
+     * Class file written by the compiler into memory.
+     */
+    private static final class ClassFile extends SimpleJavaFileObject {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        ClassFile(String name) {
+            super(URI.create("bytes:///" + name.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return bytes;
+        }
+    }
+
+    /**
+     * Keeps the compiled class files in memory.
+     */
+    private static final class ClassFiles extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final Map<String, ClassFile> files = new HashMap<String, ClassFile>();
+
+        ClassFiles(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            ClassFile res = new ClassFile(className);
+            files.put(className, res);
+
+            return res;
+        }
+
+        Map<String, byte[]> getBytes() {
+            Map<String, byte[]> res = new HashMap<String, byte[]>();
+
+            for (Map.Entry<String, ClassFile> file : files.entrySet()) {
+                res.put(file.getKey(), file.getValue().bytes.toByteArray());
+            }
+
+            return res;
+        }
+    }
+
+    /**
+     * Defines corpus classes from their class files the first time they are loaded.
+     */
+    private static final class CorpusClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classFiles;
+
+        CorpusClassLoader(ClassLoader parent, Map<String, byte[]> classFiles) {
+            super(parent);
+            this.classFiles = classFiles;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classFiles.get(name);
+
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the class files of test classes from the test classpath.
+ */
+public final class ClassFiles {
+    private ClassFiles() {
+    }
+
+    /**
+     * Open the class file of a class, the caller closes the stream.
+     */
+    public static InputStream open(Class<?> type) {
+        String name = type.getName();
+
+        return type.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class");
+    }
+
+    /**
+     * Read the class file of a class.
+     */
+    public static byte[] bytesOf(Class<?> type) throws IOException {
+        InputStream in = open(type);
+
+        try {
+            ByteArrayOutputStream res = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+
+            for (int count = in.read(buffer); count != -1; count = in.read(buffer)) {
+                res.write(buffer, 0, count);
+            }
+
+            return res.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.support;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Implements {@link TestAnnotation} as the descriptor classes generated by the annotation processor implement
+ * annotation types.
+ */
+public final class TestAnnotationLiteral implements TestAnnotation {
+    private final String name;
+    private final int value;
+
+    public TestAnnotationLiteral(String name, int value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public int value() {
+        return value;
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+        return TestAnnotation.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TestAnnotation && name.equals(((TestAnnotation) o).name())
+                && value == ((TestAnnotation) o).value();
+    }
+
+    @Override
+    public int hashCode() {
+        return ((127 * "name".hashCode()) ^ name.hashCode()) + ((127 * "value".hashCode()) ^ value);
+    }
+
+    @Override
+    public String toString() {
+        return "@" + TestAnnotation.class.getName() + "(name=" + name + ", value=" + value + ")";
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.support;
+
+import java.lang.annotation.ElementType;
+
+@TestArrayAnnotation(value = {"a", "b", "c"}, codes = {1, 2, 3, 4, 5, 6, 7, 8},
+        nested = {@TestAnnotation(name = "first"), @TestAnnotation(name = "second", value = 2)})
+public class TestArrayAnnotated {
+    public static final String[] VALUES = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+
+    @TestArrayAnnotation(value = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"}, type = ElementType.FIELD,
+            target = String.class)
+    private String[] arrayField;
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.support;
+
+import com.zaradai.matchers.IsMethodParameterAnnotated;
+import org.hamcrest.Matcher;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Looks the parameter annotations up on {@link TestAnnotated#methodParameterAnnotated(String, int)}, whatever the item
+ * matched.
+ */
+public class TestCustomParameterMatcher extends IsMethodParameterAnnotated {
+    public TestCustomParameterMatcher(Class<? extends Annotation> annotationClass, Matcher<Annotation> paramMatcher) {
+        super(annotationClass, paramMatcher, 1, "methodParameterAnnotated", String.class, int.class);
+    }
+
+    @Override
+    protected Annotation[][] getParameterAnnotations(Object item) throws Exception {
+        return TestAnnotated.class.getMethod("methodParameterAnnotated", String.class, int.class)
+                .getParameterAnnotations();
+    }
+}
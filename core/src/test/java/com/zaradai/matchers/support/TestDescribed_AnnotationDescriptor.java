@@ -0,0 +1,37 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.support;
+
+import com.zaradai.matchers.TypeDescriptor;
+
+import static com.zaradai.matchers.TypeDescriptor.*;
+
+/**
+ * Describes {@link TestDescribed} differently from reflection, to tell which of the two the matchers used.
+ */
+public final class TestDescribed_AnnotationDescriptor {
+    public static final TypeDescriptor DESCRIPTOR = builder(TestDescribed.class)
+            .annotatedWith(new TestAnnotationLiteral("described", 42))
+            .field("name", 0x0002, new TestAnnotationLiteral("described", 7))
+            .method("rename(Ljava/lang/String;Ljava/lang/String;)", 0x0001, annotations(), annotations(),
+                    annotations(new TestAnnotationLiteral("described", 42)))
+            .constructor("<init>(Ljava/lang/String;)", 0x0001, annotations(),
+                    annotations(new TestAnnotationLiteral("described", 42)))
+            .register();
+
+    private TestDescribed_AnnotationDescriptor() {
+    }
+}
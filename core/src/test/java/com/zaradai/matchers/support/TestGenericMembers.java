@@ -0,0 +1,52 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.support;
+
+/**
+ * Methods overriding the methods of generic supertypes, which the compiler connects through bridge methods.
+ */
+public final class TestGenericMembers {
+    private TestGenericMembers() {
+    }
+
+    public static class User {
+    }
+
+    public abstract static class Base<T> {
+        @TestAnnotation(name = "base")
+        public void save(T item) {
+        }
+    }
+
+    public static class Sub extends Base<User> {
+        @Override
+        @TestArrayAnnotation("sub")
+        public void save(User item) {
+        }
+    }
+
+    public interface Repo<T> {
+        @TestAnnotation(name = "repo")
+        void save(T item);
+    }
+
+    public static class UserRepo implements Repo<User> {
+        @Override
+        @TestArrayAnnotation("user")
+        public void save(User item) {
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.support;
+
+/**
+ * Classes and interfaces annotated at different levels of their type hierarchy.
+ */
+public final class TestHierarchy {
+    private TestHierarchy() {
+    }
+
+    @TestAnnotation(name = "root")
+    public interface Root {
+    }
+
+    @TestHierarchyAnnotation("contract")
+    public interface Contract extends Root {
+    }
+
+    @TestHierarchyAnnotation("named")
+    public interface Named {
+    }
+
+    @TestAnnotation(name = "base")
+    @TestHierarchyAnnotation("base")
+    public static class Base implements Contract {
+    }
+
+    public static class Middle extends Base {
+    }
+
+    public static class Leaf extends Middle {
+    }
+
+    public static class Plain implements Contract {
+    }
+
+    public static class Sub extends Plain implements Named {
+    }
+}
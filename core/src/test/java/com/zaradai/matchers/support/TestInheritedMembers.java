@@ -0,0 +1,99 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.support;
+
+/**
+ * Fields and methods declared at different levels of a type hierarchy, in the style of entities extending a mapped
+ * superclass.
+ */
+public final class TestInheritedMembers {
+    private TestInheritedMembers() {
+    }
+
+    public interface Identified {
+        @TestAnnotation(name = "identified")
+        String CONSTANT = "constant";
+
+        @TestAnnotation(name = "identified", value = 1)
+        @TestArrayAnnotation("identified")
+        String getId();
+
+        @TestAnnotation(name = "named")
+        String getName();
+    }
+
+    public abstract static class Entity implements Identified {
+        @TestAnnotation(name = "id")
+        private String id;
+
+        @TestAnnotation(name = "version")
+        protected int version;
+
+        @Override
+        @TestAnnotation(name = "entity")
+        public String getId() {
+            return id;
+        }
+
+        @TestAnnotation(name = "touch")
+        @TestArrayAnnotation("touch")
+        public void touch() {
+        }
+
+        @TestAnnotation(name = "audit")
+        private void audit() {
+        }
+
+        @TestAnnotation(name = "create")
+        @TestArrayAnnotation("create")
+        public static Entity create() {
+            return null;
+        }
+
+        @TestAnnotation(name = "flush")
+        @TestArrayAnnotation("flush")
+        void flush() {
+        }
+    }
+
+    public static class Customer extends Entity {
+        @TestAnnotation(name = "customer")
+        private long version;
+
+        @Override
+        public String getName() {
+            return "customer";
+        }
+
+        @Override
+        @TestAnnotation(name = "customer")
+        public void touch() {
+        }
+
+        private void audit() {
+        }
+
+        @TestAnnotation(name = "customer")
+        public static Customer create() {
+            return new Customer();
+        }
+
+        @Override
+        @TestAnnotation(name = "customer")
+        void flush() {
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.FIELD, ElementType.CONSTRUCTOR, ElementType.METHOD, ElementType.PARAMETER})
+public @interface TestValueAnnotation {
+    public boolean flag() default false;
+    public byte octet() default 1;
+    public char letter() default 'a';
+    public short small() default 2;
+    public long large() default 3L;
+    public float single() default 4.0f;
+    public double precise() default 5.0;
+    public String text() default "text";
+    public TimeUnit unit() default TimeUnit.SECONDS;
+    public Class<?> type() default void.class;
+    public TestAnnotation nested() default @TestAnnotation;
+    public boolean[] flags() default {};
+    public byte[] octets() default {};
+    public char[] letters() default {};
+    public short[] smalls() default {};
+    public long[] larges() default {};
+    public float[] singles() default {};
+    public double[] precises() default {};
+    public TimeUnit[] units() default {};
+    public Class<?>[] types() default {};
+}
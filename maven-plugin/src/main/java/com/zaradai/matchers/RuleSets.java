@@ -0,0 +1,106 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Loads the rules declared as the public static {@link AnnotationRule} fields of classes.  For example:
+ * <pre>public final class ArchitectureRules {
+ *     public static final AnnotationRule ENTITIES_HAVE_TABLES = AnnotationRule.named("entities are mapped to tables")
+ *         .whereAnnotatedWith(Entity.class).requireAnnotation(Table.class).compile();
+ * }</pre>
+ */
+final class RuleSets {
+    private static final Comparator<Field> BY_NAME = new Comparator<Field>() {
+        @Override
+        public int compare(Field first, Field second) {
+            return first.getName().compareTo(second.getName());
+        }
+    };
+
+    private RuleSets() {
+    }
+
+    /**
+     * Load the rules of classes.  The rules of a class are ordered by the names of their fields, as the order in
+     * which fields are reported by reflection is unspecified.
+     * @param classNames binary names of the classes declaring the rules
+     * @param loader loader of the classes
+     * @return the rules of every class, in the order of the classes
+     * @throws IllegalArgumentException if a class can not be loaded or declares no rules
+     */
+    static List<AnnotationRule> load(List<String> classNames, ClassLoader loader) {
+        List<AnnotationRule> res = new ArrayList<AnnotationRule>();
+
+        for (String className : classNames) {
+            res.addAll(rulesOf(classOf(className.trim(), loader)));
+        }
+
+        return res;
+    }
+
+    private static Class<?> classOf(String className, ClassLoader loader) {
+        try {
+            return Class.forName(className, true, loader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Rules " + className + " not found on the class path of the plugin "
+                    + "or of the module", e);
+        } catch (LinkageError e) {
+            throw new IllegalArgumentException("Rules " + className + " can not be loaded: " + e, e);
+        }
+    }
+
+    private static List<AnnotationRule> rulesOf(Class<?> type) {
+        List<AnnotationRule> res = new ArrayList<AnnotationRule>();
+        Field[] fields = type.getFields();
+
+        Arrays.sort(fields, BY_NAME);
+        for (Field field : fields) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == AnnotationRule.class) {
+                res.add(ruleOf(field));
+            }
+        }
+
+        if (res.isEmpty()) {
+            throw new IllegalArgumentException("Rules " + type.getName() + " declares no public static "
+                    + AnnotationRule.class.getSimpleName() + " field");
+        }
+
+        return res;
+    }
+
+    private static AnnotationRule ruleOf(Field field) {
+        AnnotationRule res;
+
+        try {
+            res = (AnnotationRule) field.get(null);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Rule " + field + " can not be read", e);
+        }
+
+        if (res == null) {
+            throw new IllegalArgumentException("Rule " + field + " is null");
+        }
+
+        return res;
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code verify} goal, bound to the {@code process-classes} phase: verifies {@link AnnotationRule}s against the
+ * classes a module compiled, and optionally against the classes of its dependencies, and fails the build with a
+ * report of every violation.
+ * <p>
+ * Rules are the public static {@link AnnotationRule} fields of the classes named by the {@code rules} parameter,
+ * loaded from the dependencies of the plugin and from the compile class path of the module.  Classes are read from
+ * their class files, none of the classes of the module is loaded or initialized.
+ * </p>
+ * <p>
+ * Each module keeps an {@link AnnotationIndex} of the classes it verifies in its build directory, brought up to date
+ * by the next build so only the classes changed since are read again.  The goal keeps no state between executions
+ * and modules share nothing, so the goal is thread-safe and the modules of a parallel build are verified
+ * concurrently.  The parameters are declared by the plugin descriptor, {@code META-INF/maven/plugin.xml}.
+ * </p>
+ */
+public final class VerifyMojo extends AbstractMojo {
+    private static final String UTF_8 = "UTF-8";
+
+    private File classesDirectory;
+    private List<String> classpathElements;
+    private List<String> rules;
+    private boolean includeDependencies;
+    private File cacheFile;
+    private File reportFile;
+    private int threads;
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Annotation rules are not verified");
+            return;
+        }
+        if (rules == null || rules.isEmpty()) {
+            throw new MojoExecutionException("No rules are configured, name the classes declaring them in <rules>");
+        }
+        if (!classesDirectory.isDirectory()) {
+            getLog().info("No classes to verify in " + classesDirectory);
+            return;
+        }
+
+        List<RuleViolation> violations;
+        URLClassLoader loader = loaderOf(classpathOf());
+
+        try {
+            violations = verify(RuleSets.load(rules, loader), loader);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Classes of " + classesDirectory + " can not be verified", e);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } finally {
+            close(loader);
+        }
+
+        report(violations);
+    }
+
+    private List<RuleViolation> verify(List<AnnotationRule> ruleList, ClassLoader loader) throws IOException {
+        List<File> roots = new ArrayList<File>();
+
+        roots.add(classesDirectory);
+        if (includeDependencies) {
+            for (File element : classpathOf()) {
+                if (!element.equals(classesDirectory)) {
+                    roots.add(element);
+                }
+            }
+        }
+
+        // the index of the previous build, if any, holds every class whose class file did not change since
+        cacheFile.getParentFile().mkdirs();
+        AnnotationIndex.build(roots, cacheFile);
+
+        AnnotationIndex index = AnnotationIndex.open(cacheFile, loader);
+        AnnotationVerifier verifier = AnnotationVerifier.of(ruleList).withClassLoader(loader);
+
+        if (threads > 0) {
+            verifier = verifier.withParallelism(threads);
+        }
+
+        getLog().info("Verifying " + ruleList.size() + " annotation rules against " + index.size() + " classes");
+
+        return verifier.verify(index);
+    }
+
+    private void report(List<RuleViolation> violations) throws MojoExecutionException, MojoFailureException {
+        try {
+            writeReport(violations);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Report " + reportFile + " can not be written", e);
+        }
+
+        if (violations.isEmpty()) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder().append(violations.size())
+                .append(" violation(s) of annotation rules, see ").append(reportFile).append(':');
+
+        for (RuleViolation violation : violations) {
+            getLog().error(violation.toString());
+            message.append(System.getProperty("line.separator")).append("  ").append(violation);
+        }
+
+        throw new MojoFailureException(message.toString());
+    }
+
+    private void writeReport(List<RuleViolation> violations) throws IOException {
+        reportFile.getParentFile().mkdirs();
+
+        Writer out = new OutputStreamWriter(new FileOutputStream(reportFile), UTF_8);
+
+        try {
+            for (RuleViolation violation : violations) {
+                out.write(violation + " (" + violation.getLocation() + ")");
+                out.write(System.getProperty("line.separator"));
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private List<File> classpathOf() {
+        List<File> res = new ArrayList<File>();
+
+        if (classpathElements != null) {
+            for (String element : classpathElements) {
+                res.add(new File(element));
+            }
+        }
+
+        return res;
+    }
+
+    private URLClassLoader loaderOf(List<File> classpath) throws MojoExecutionException {
+        URL[] urls = new URL[classpath.size()];
+
+        for (int i = 0; i < urls.length; i++) {
+            try {
+                urls[i] = classpath.get(i).toURI().toURL();
+            } catch (MalformedURLException e) {
+                throw new MojoExecutionException(classpath.get(i) + " is not a valid class path element", e);
+            }
+        }
+
+        // rules and the annotation types they name resolve to the classes of the plugin's dependencies first
+        return new URLClassLoader(urls, getClass().getClassLoader());
+    }
+
+    private void close(URLClassLoader loader) {
+        try {
+            loader.close();
+        } catch (IOException e) {
+            getLog().debug("Class path of " + classesDirectory + " could not be closed", e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.TestRules;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class RuleSetsTest {
+    @Test
+    public void shouldLoadStaticRulesOrderedByField() throws Exception {
+        assertThat(RuleSets.load(Collections.singletonList(TestRules.class.getName()), getClass().getClassLoader()),
+                is(Arrays.asList(TestRules.FIELDS, TestRules.METHODS)));
+    }
+
+    @Test
+    public void shouldLoadRulesOfEveryClassInOrder() throws Exception {
+        assertThat(RuleSets.load(Arrays.asList(TestRules.class.getName(), " " + TestRules.class.getName() + " "),
+                getClass().getClassLoader()).size(), is(4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectClassWithoutRules() throws Exception {
+        RuleSets.load(Collections.singletonList(TestRules.None.class.getName()), getClass().getClassLoader());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMissingClass() throws Exception {
+        RuleSets.load(Collections.singletonList("com.acme.MissingRules"), getClass().getClassLoader());
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.ClassFiles;
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestConforming;
+import com.zaradai.matchers.support.TestMultiAnnotated;
+import com.zaradai.matchers.support.TestRules;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class VerifyMojoTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldPassClassesKeepingRules() throws Exception {
+        File classes = directoryOf(TestConforming.class);
+        VerifyMojo mojo = mojoOf(classes);
+
+        mojo.execute();
+
+        assertThat(reportOf(classes).isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldFailWithReportOfEveryViolation() throws Exception {
+        File classes = directoryOf(TestAnnotated.class, TestMultiAnnotated.class);
+        List<RuleViolation> expected = AnnotationVerifier.of(TestRules.FIELDS, TestRules.METHODS).verify(classes);
+
+        assertThat(expected.size() > 1, is(true));
+        try {
+            mojoOf(classes).execute();
+            fail("Violations not reported");
+        } catch (MojoFailureException e) {
+            for (RuleViolation violation : expected) {
+                assertThat(e.getMessage(), containsString(violation.toString()));
+            }
+        }
+        assertThat(reportOf(classes).size(), is(expected.size()));
+        assertThat(reportOf(classes).get(0), is(expected.get(0) + " (" + expected.get(0).getLocation() + ")"));
+    }
+
+    @Test
+    public void shouldReuseCacheOfPreviousBuild() throws Exception {
+        File classes = directoryOf(TestConforming.class);
+        VerifyMojo mojo = mojoOf(classes);
+
+        mojo.execute();
+        assertThat(cacheOf(classes).isFile(), is(true));
+
+        write(fileOf(classes, TestAnnotated.class), ClassFiles.bytesOf(TestAnnotated.class));
+        try {
+            mojo.execute();
+            fail("Class added since the previous build not verified");
+        } catch (MojoFailureException e) {
+            assertThat(reportOf(classes).size(), is(AnnotationVerifier.of(TestRules.FIELDS, TestRules.METHODS)
+                    .verify(classes).size()));
+        }
+    }
+
+    @Test
+    public void shouldVerifyDependenciesOnlyWhenIncluded() throws Exception {
+        File classes = directoryOf(TestConforming.class);
+        File dependency = directoryOf(TestAnnotated.class);
+        VerifyMojo mojo = mojoOf(classes);
+
+        set(mojo, "classpathElements", Arrays.asList(classes.getPath(), dependency.getPath()));
+        mojo.execute();
+
+        set(mojo, "includeDependencies", true);
+        try {
+            mojo.execute();
+            fail("Dependency not verified");
+        } catch (MojoFailureException e) {
+            assertThat(e.getMessage(), containsString(TestAnnotated.class.getName()));
+        }
+    }
+
+    @Test
+    public void shouldVerifyModulesConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<String>> results = new ArrayList<Future<String>>();
+
+        try {
+            for (int i = 0; i < 8; i++) {
+                final VerifyMojo mojo = mojoOf(directoryOf(TestAnnotated.class));
+
+                results.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        try {
+                            mojo.execute();
+                            return "";
+                        } catch (MojoFailureException e) {
+                            return e.getMessage().substring(e.getMessage().indexOf(':'));
+                        }
+                    }
+                }));
+            }
+
+            String first = results.get(0).get();
+
+            assertThat(first, containsString(TestAnnotated.class.getName()));
+            for (Future<String> result : results) {
+                assertThat(result.get(), is(first));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldSkipVerification() throws Exception {
+        File classes = directoryOf(TestAnnotated.class);
+        VerifyMojo mojo = mojoOf(classes);
+
+        set(mojo, "skip", true);
+        mojo.execute();
+
+        assertThat(cacheOf(classes).exists(), is(false));
+    }
+
+    @Test
+    public void shouldPassModuleWithoutClasses() throws Exception {
+        mojoOf(new File(folder.getRoot(), "missing")).execute();
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void shouldRequireRules() throws Exception {
+        VerifyMojo mojo = mojoOf(directoryOf(TestAnnotated.class));
+
+        set(mojo, "rules", Collections.<String>emptyList());
+        mojo.execute();
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void shouldFailOnMissingRules() throws Exception {
+        VerifyMojo mojo = mojoOf(directoryOf(TestAnnotated.class));
+
+        set(mojo, "rules", Collections.singletonList("com.acme.MissingRules"));
+        mojo.execute();
+    }
+
+    private VerifyMojo mojoOf(File classes) throws Exception {
+        VerifyMojo res = new VerifyMojo();
+
+        // as configured by Maven from the plugin descriptor
+        set(res, "classesDirectory", classes);
+        set(res, "classpathElements", Collections.singletonList(classes.getPath()));
+        set(res, "rules", Collections.singletonList(TestRules.class.getName()));
+        set(res, "cacheFile", cacheOf(classes));
+        set(res, "reportFile", new File(classes.getParentFile(), "matchers/violations.txt"));
+
+        return res;
+    }
+
+    private static void set(VerifyMojo mojo, String name, Object value) throws Exception {
+        Field field = VerifyMojo.class.getDeclaredField(name);
+
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+
+    private static File cacheOf(File classes) {
+        return new File(classes.getParentFile(), "matchers/annotations.idx");
+    }
+
+    private static List<String> reportOf(File classes) throws IOException {
+        return Files.readAllLines(new File(classes.getParentFile(), "matchers/violations.txt").toPath(), UTF_8);
+    }
+
+    private File directoryOf(Class<?>... types) throws IOException {
+        File res = new File(folder.newFolder(), "classes");
+
+        for (Class<?> type : types) {
+            write(fileOf(res, type), ClassFiles.bytesOf(type));
+        }
+
+        return res;
+    }
+
+    private static File fileOf(File root, Class<?> type) {
+        return new File(root, type.getName().replace('.', '/') + ".class");
+    }
+
+    private static void write(File file, byte[] bytes) throws IOException {
+        file.getParentFile().mkdirs();
+
+        OutputStream out = new FileOutputStream(file);
+
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.processor;
+
+import com.zaradai.matchers.TypeDescriptor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates the {@link TypeDescriptor} class of each class annotated with {@link GenerateDescriptor}.  The
+ * descriptor is named after the binary name of the class followed by {@link TypeDescriptor#SUFFIX} and records the
+ * same annotations as the index of {@link AnnotationIndexProcessor}, as instances of annotation classes generated
+ * with the descriptor, which the matchers read without reflection.  The described classes are listed in the
+ * {@link TypeDescriptor#RESOURCE} of the compiled classes, so the matchers only look up the descriptors of listed
+ * classes.  The generated classes refer to {@link TypeDescriptor}, so the {@code matchers} jar is needed on the
+ * compile class path, with the {@code provided} scope it is only loaded once the classes are matched.  Private
+ * classes, and classes with annotations of types or values not accessible from their package, can not be described,
+ * their descriptors could not refer to them.
+ */
+@SupportedAnnotationTypes("com.zaradai.matchers.processor.GenerateDescriptor")
+public final class AnnotationDescriptorProcessor extends AbstractProcessor {
+    private final Set<String> described = new TreeSet<String>();
+    private TypeElementReader reader;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        reader = new TypeElementReader(processingEnv.getElementUtils(), processingEnv.getTypeUtils());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (!described.isEmpty()) {
+                writeDescribed();
+            }
+            return true;
+        }
+
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(GenerateDescriptor.class))) {
+            if (isAccessible(type)) {
+                generate(type);
+            } else {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "A descriptor can not be generated for a private class", type);
+            }
+        }
+
+        return true;
+    }
+
+    private void generate(TypeElement type) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String descriptorName = reader.binaryName(type) + TypeDescriptor.SUFFIX;
+        String source;
+
+        try {
+            source = DescriptorSource.of(processingEnv.getElementUtils(), processingEnv.getTypeUtils(), reader,
+                    packageElement.getQualifiedName().toString(),
+                    descriptorName.substring(descriptorName.lastIndexOf('.') + 1), type);
+        } catch (IllegalArgumentException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), type);
+            return;
+        }
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(descriptorName, type);
+            Writer out = file.openWriter();
+
+            try {
+                out.write(source);
+            } finally {
+                out.close();
+            }
+            described.add(reader.binaryName(type));
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + descriptorName
+                    + ": " + e, type);
+        }
+    }
+
+    private void writeDescribed() {
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    TypeDescriptor.RESOURCE, (Element[]) null);
+            Writer out = new OutputStreamWriter(resource.openOutputStream(), "UTF-8");
+
+            try {
+                for (String name : described) {
+                    out.write(name);
+                    out.write('\n');
+                }
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write "
+                    + TypeDescriptor.RESOURCE + ": " + e);
+        }
+    }
+
+    private static boolean isAccessible(TypeElement type) {
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.processor;
+
+import com.zaradai.matchers.AnnotationIndex;
+import com.zaradai.matchers.AnnotationIndexWriter;
+import com.zaradai.matchers.ClassFile;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+
+/**
+ * Generates the {@link AnnotationIndex#RESOURCE} index of the classes javac compiles, so the matchers read the
+ * annotations of those classes from the index instead of through reflection.
+ * <p>
+ * Every top level and member class, interface, enum and annotation type compiled is recorded with its runtime
+ * visible annotations, including those it inherits from its superclasses, and the annotations of its fields, methods,
+ * constructors and their parameters, as {@link Class#getAnnotations()} and the declared members would report them.
+ * Local and anonymous classes are not recorded, the matchers fall back to reflection for them.  The processor
+ * claims no annotations, so it runs alongside any other processor.  It is registered as a service and runs whenever
+ * its jar is on the compile class path:
+ * <pre>&lt;dependency&gt;
+ *     &lt;groupId&gt;com.zaradai&lt;/groupId&gt;
+ *     &lt;artifactId&gt;matchers-processor&lt;/artifactId&gt;
+ *     &lt;scope&gt;provided&lt;/scope&gt;
+ * &lt;/dependency&gt;</pre>
+ * </p>
+ * <p>
+ * The matchers only trust the index of a directory for the class files that are not newer than it.  The index is
+ * written once processing is over, before javac writes the class files, so the processor stamps it again after each
+ * class file javac generates.  Under another compiler the index is left older than the class files and the matchers
+ * read the classes through reflection.
+ * </p>
+ */
+@SupportedAnnotationTypes("*")
+public final class AnnotationIndexProcessor extends AbstractProcessor {
+    private final AnnotationIndexWriter writer = new AnnotationIndexWriter();
+    private TypeElementReader reader;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        reader = new TypeElementReader(processingEnv.getElementUtils(), processingEnv.getTypeUtils());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            write();
+        } else {
+            // sources generated by other processors are compiled, and recorded, in the rounds that follow
+            addTypes(ElementFilter.typesIn(roundEnv.getRootElements()));
+        }
+
+        return false;
+    }
+
+    private void addTypes(Iterable<TypeElement> types) {
+        for (TypeElement type : types) {
+            ClassFile classFile = reader.read(type);
+
+            if (!writer.contains(classFile.getName())) {
+                writer.add(classFile);
+            }
+            addTypes(ElementFilter.typesIn(type.getEnclosedElements()));
+        }
+    }
+
+    private void write() {
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    AnnotationIndex.RESOURCE, (Element[]) null);
+            OutputStream out = resource.openOutputStream();
+
+            try {
+                out.write(writer.toByteArray());
+            } finally {
+                out.close();
+            }
+            stampAfterClassFiles(resource);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write "
+                    + AnnotationIndex.RESOURCE + ": " + e);
+        }
+    }
+
+    private void stampAfterClassFiles(FileObject resource) {
+        File index;
+
+        try {
+            index = new File(resource.toUri());
+        } catch (IllegalArgumentException e) {
+            // an index that is not a local file is packaged with its classes and trusted as it is
+            return;
+        }
+
+        try {
+            JavacTask.instance(processingEnv).addTaskListener(new IndexStamp(index));
+        } catch (IllegalArgumentException e) {
+            warnUnstamped();
+        } catch (NoClassDefFoundError e) {
+            warnUnstamped();
+        }
+    }
+
+    private void warnUnstamped() {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "The compiler is not javac, the "
+                + AnnotationIndex.RESOURCE + " index is older than the class files and is ignored for them");
+    }
+
+    /**
+     * Stamps the index as modified after each class file javac writes, so the index is never older than the class
+     * files it describes.
+     */
+    private static final class IndexStamp implements TaskListener {
+        private final File index;
+
+        IndexStamp(File index) {
+            this.index = index;
+        }
+
+        @Override
+        public void started(TaskEvent event) {
+            // class files are only complete once they are generated
+        }
+
+        @Override
+        public void finished(TaskEvent event) {
+            if (event.getKind() == TaskEvent.Kind.GENERATE) {
+                // an index that can not be stamped stays older than the class files and is ignored for them
+                index.setLastModified(System.currentTimeMillis());
+            }
+        }
+    }
+}
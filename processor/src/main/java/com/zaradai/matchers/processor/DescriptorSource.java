@@ -0,0 +1,501 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.processor;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Renders the source of the {@link com.zaradai.matchers.TypeDescriptor} class of a class, see
+ * {@link com.zaradai.matchers.TypeDescriptor} for its form.  Every annotation type the descriptor holds an
+ * annotation of is implemented by a nested literal class, whose fields hold the values of the attributes, defaults
+ * included, and whose {@link Object#equals(Object)} and {@link Object#hashCode()} follow the contract of
+ * {@link java.lang.annotation.Annotation}.  Types are referred to by their canonical names, so the descriptor can
+ * only be generated if every type it refers to is accessible from its package.  Members are written sorted by key,
+ * so the same class always produces the same source.
+ */
+final class DescriptorSource {
+    private static final String INDENT = "            ";
+    private static final String LITERAL_SUFFIX = "Literal";
+    private static final int MEMBER_HASH_MULTIPLIER = 127;
+
+    private final Elements elements;
+    private final Types types;
+    private final TypeElementReader reader;
+    private final String packageName;
+    private final Map<TypeElement, String> literals = new LinkedHashMap<TypeElement, String>();
+    private final Set<String> literalNames = new HashSet<String>();
+    private final StringBuilder out = new StringBuilder();
+
+    private DescriptorSource(Elements elements, Types types, TypeElementReader reader, String packageName) {
+        this.elements = elements;
+        this.types = types;
+        this.reader = reader;
+        this.packageName = packageName;
+    }
+
+    /**
+     * Render the descriptor class of a class.
+     * @param elements element utilities
+     * @param types type utilities
+     * @param reader reader of member keys and access flags
+     * @param packageName package of the class, empty for the unnamed package
+     * @param simpleName simple name of the descriptor class
+     * @param type the class described
+     * @return source of the descriptor class
+     * @throws IllegalArgumentException if the descriptor would refer to a type not accessible from the package
+     */
+    static String of(Elements elements, Types types, TypeElementReader reader, String packageName, String simpleName,
+                     TypeElement type) {
+        return new DescriptorSource(elements, types, reader, packageName).render(simpleName, type);
+    }
+
+    private String render(String simpleName, TypeElement type) {
+        StringBuilder body = new StringBuilder();
+
+        describe(type);
+        body.append(out);
+        out.setLength(0);
+
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import com.zaradai.matchers.TypeDescriptor;\n\n");
+        out.append("import static com.zaradai.matchers.TypeDescriptor.*;\n\n");
+        out.append("/**\n * Annotations of {@link ").append(canonicalName(type))
+                .append("}, generated by the matchers annotation processor.\n */\n");
+        // literals of attributes with a generic array type, such as Class<? extends Number>[], are created raw
+        out.append("@SuppressWarnings(\"unchecked\")\n");
+        out.append("public final class ").append(simpleName).append(" {\n");
+        out.append("    /**\n     * Annotations of the class and of the members it declares.\n     */\n");
+        out.append(body);
+        out.append("    private ").append(simpleName).append("() {\n    }\n");
+        for (Map.Entry<TypeElement, String> literal : literals.entrySet()) {
+            out.append('\n');
+            literal(literal.getValue(), literal.getKey());
+        }
+        out.append("}\n");
+
+        return out.toString();
+    }
+
+    private void describe(TypeElement type) {
+        out.append("    public static final TypeDescriptor DESCRIPTOR = builder(")
+                .append(typeName(types.erasure(type.asType()), false)).append(".class)\n");
+        out.append(INDENT).append(".annotatedWith(");
+        annotations(elements.getAllAnnotationMirrors(type));
+        out.append(")\n");
+        fields(type);
+        executables(type, ElementFilter.methodsIn(type.getEnclosedElements()), "method");
+        executables(type, ElementFilter.constructorsIn(type.getEnclosedElements()), "constructor");
+        out.append(INDENT).append(".register();\n\n");
+    }
+
+    private void fields(TypeElement type) {
+        Map<String, Element> fields = new TreeMap<String, Element>();
+
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.FIELD || member.getKind() == ElementKind.ENUM_CONSTANT) {
+                fields.put(member.getSimpleName().toString(), member);
+            }
+        }
+
+        for (Map.Entry<String, Element> field : fields.entrySet()) {
+            out.append(INDENT).append(".field(");
+            string(field.getKey());
+            out.append(", ").append(access(field.getValue()));
+            for (AnnotationMirror annotation : runtimeVisible(field.getValue().getAnnotationMirrors())) {
+                out.append(", ");
+                annotation(annotation);
+            }
+            out.append(")\n");
+        }
+    }
+
+    private void executables(TypeElement type, List<ExecutableElement> members, String method) {
+        Map<String, ExecutableElement> executables = new TreeMap<String, ExecutableElement>();
+
+        for (ExecutableElement executable : members) {
+            executables.put(reader.keyOf(type, executable), executable);
+        }
+
+        for (Map.Entry<String, ExecutableElement> executable : executables.entrySet()) {
+            out.append(INDENT).append('.').append(method).append('(');
+            string(executable.getKey());
+            out.append(", ").append(access(executable.getValue())).append(", annotations(");
+            annotations(executable.getValue().getAnnotationMirrors());
+            out.append(')');
+            for (int i = reader.implicitParameterCount(type, executable.getValue()); i > 0; i--) {
+                out.append(", annotations()");
+            }
+            for (VariableElement parameter : executable.getValue().getParameters()) {
+                out.append(", annotations(");
+                annotations(parameter.getAnnotationMirrors());
+                out.append(')');
+            }
+            out.append(")\n");
+        }
+    }
+
+    private static String access(Element element) {
+        return "0x" + String.format("%04x", TypeElementReader.access(element));
+    }
+
+    private static List<AnnotationMirror> runtimeVisible(List<? extends AnnotationMirror> mirrors) {
+        List<AnnotationMirror> res = new ArrayList<AnnotationMirror>();
+
+        for (AnnotationMirror mirror : mirrors) {
+            // annotations without runtime retention are not in the class file, reflection never sees them
+            if (TypeElementReader.isRuntimeVisible(mirror)) {
+                res.add(mirror);
+            }
+        }
+
+        return res;
+    }
+
+    private void annotations(List<? extends AnnotationMirror> mirrors) {
+        List<AnnotationMirror> annotations = runtimeVisible(mirrors);
+
+        for (int i = 0; i < annotations.size(); i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            annotation(annotations.get(i));
+        }
+    }
+
+    private void annotation(AnnotationMirror mirror) {
+        TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                elements.getElementValuesWithDefaults(mirror);
+        List<ExecutableElement> attributes = attributesOf(annotationType);
+
+        out.append("new ").append(literalOf(annotationType)).append('(');
+        for (int i = 0; i < attributes.size(); i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            value(values.get(attributes.get(i)), attributes.get(i).getReturnType());
+        }
+        out.append(')');
+    }
+
+    private String literalOf(TypeElement annotationType) {
+        String res = literals.get(annotationType);
+
+        if (res == null) {
+            checkAccessible(annotationType);
+            res = annotationType.getSimpleName() + LITERAL_SUFFIX;
+            for (int i = 2; !literalNames.add(res); i++) {
+                res = annotationType.getSimpleName() + LITERAL_SUFFIX + i;
+            }
+            literals.put(annotationType, res);
+        }
+
+        return res;
+    }
+
+    private void value(AnnotationValue annotationValue, TypeMirror type) {
+        Object value = annotationValue.getValue();
+
+        if (value instanceof List) {
+            TypeMirror componentType = ((ArrayType) type).getComponentType();
+
+            out.append("new ").append(typeName(types.erasure(componentType), false)).append("[] {");
+            for (int i = 0; i < ((List<?>) value).size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(' ');
+                value((AnnotationValue) ((List<?>) value).get(i), componentType);
+            }
+            out.append(" }");
+        } else if (value instanceof TypeMirror) {
+            out.append(typeName(types.erasure((TypeMirror) value), false)).append(".class");
+        } else if (value instanceof VariableElement) {
+            VariableElement constant = (VariableElement) value;
+
+            out.append(typeName(constant.getEnclosingElement().asType(), false)).append('.')
+                    .append(constant.getSimpleName());
+        } else if (value instanceof AnnotationMirror) {
+            annotation((AnnotationMirror) value);
+        } else {
+            constant(value);
+        }
+    }
+
+    private void constant(Object value) {
+        if (value instanceof Byte) {
+            out.append("(byte) ").append(value);
+        } else if (value instanceof Short) {
+            out.append("(short) ").append(value);
+        } else if (value instanceof Long) {
+            out.append(value).append('L');
+        } else if (value instanceof Float) {
+            // the raw bits keep every value, NaN and negative zero included, exactly
+            out.append("java.lang.Float.intBitsToFloat(0x")
+                    .append(Integer.toHexString(Float.floatToRawIntBits((Float) value))).append(')');
+        } else if (value instanceof Double) {
+            out.append("java.lang.Double.longBitsToDouble(0x")
+                    .append(Long.toHexString(Double.doubleToRawLongBits((Double) value))).append("L)");
+        } else if (value instanceof Character) {
+            out.append('\'');
+            character((Character) value);
+            out.append('\'');
+        } else if (value instanceof String) {
+            string((String) value);
+        } else {
+            // booleans and ints
+            out.append(value);
+        }
+    }
+
+    private void literal(String name, TypeElement annotationType) {
+        String typeName = typeName(annotationType.asType(), false);
+        List<ExecutableElement> attributes = attributesOf(annotationType);
+
+        out.append("    private static final class ").append(name).append(" implements ").append(typeName)
+                .append(" {\n");
+        for (ExecutableElement attribute : attributes) {
+            out.append("        private final ").append(typeName(attribute.getReturnType(), true)).append(' ')
+                    .append(attribute.getSimpleName()).append(";\n");
+        }
+        if (!attributes.isEmpty()) {
+            out.append('\n');
+        }
+
+        out.append("        ").append(name).append('(');
+        for (int i = 0; i < attributes.size(); i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            out.append(typeName(attributes.get(i).getReturnType(), true)).append(' ')
+                    .append(attributes.get(i).getSimpleName());
+        }
+        out.append(") {\n");
+        for (ExecutableElement attribute : attributes) {
+            out.append("            this.").append(attribute.getSimpleName()).append(" = ")
+                    .append(attribute.getSimpleName()).append(";\n");
+        }
+        out.append("        }\n");
+
+        for (ExecutableElement attribute : attributes) {
+            out.append("\n        @Override\n        public ").append(typeName(attribute.getReturnType(), true))
+                    .append(' ').append(attribute.getSimpleName()).append("() {\n            return this.")
+                    .append(attribute.getSimpleName());
+            if (attribute.getReturnType().getKind() == TypeKind.ARRAY) {
+                // like the annotations of reflection, every caller gets its own copy of an array
+                out.append(".clone()");
+            }
+            out.append(";\n        }\n");
+        }
+
+        out.append("\n        @Override\n        public java.lang.Class<? extends java.lang.annotation.Annotation>")
+                .append(" annotationType() {\n            return ").append(typeName).append(".class;\n        }\n");
+        equals(typeName, attributes);
+        hash(attributes);
+        describe(typeName, attributes);
+        out.append("    }\n");
+    }
+
+    private void equals(String typeName, List<ExecutableElement> attributes) {
+        out.append("\n        @Override\n        public boolean equals(java.lang.Object o) {\n");
+        out.append("            if (o == this) {\n                return true;\n            }\n");
+        out.append("            if (!(o instanceof ").append(typeName).append(")) {\n                return false;\n")
+                .append("            }\n\n            return true");
+        for (ExecutableElement attribute : attributes) {
+            String own = "this." + attribute.getSimpleName();
+            String other = "((" + typeName + ") o)." + attribute.getSimpleName() + "()";
+
+            out.append("\n                    && ");
+            switch (attribute.getReturnType().getKind()) {
+                case ARRAY:
+                    out.append("java.util.Arrays.equals(").append(own).append(", ").append(other).append(')');
+                    break;
+                case FLOAT:
+                    out.append("java.lang.Float.floatToIntBits(").append(own)
+                            .append(") == java.lang.Float.floatToIntBits(")
+                            .append(other).append(')');
+                    break;
+                case DOUBLE:
+                    out.append("java.lang.Double.doubleToLongBits(").append(own)
+                            .append(") == java.lang.Double.doubleToLongBits(")
+                            .append(other).append(')');
+                    break;
+                case DECLARED:
+                    out.append(own).append(".equals(").append(other).append(')');
+                    break;
+                default:
+                    out.append(own).append(" == ").append(other);
+                    break;
+            }
+        }
+        out.append(";\n        }\n");
+    }
+
+    private void hash(List<ExecutableElement> attributes) {
+        out.append("\n        @Override\n        public int hashCode() {\n            return 0");
+        for (ExecutableElement attribute : attributes) {
+            String own = "this." + attribute.getSimpleName();
+            TypeMirror type = attribute.getReturnType();
+
+            // the member value hash codes Annotation.hashCode() specifies
+            out.append("\n                    + (").append(MEMBER_HASH_MULTIPLIER
+                    * attribute.getSimpleName().toString().hashCode()).append(" ^ ");
+            if (type.getKind() == TypeKind.ARRAY) {
+                out.append("java.util.Arrays.hashCode(").append(own).append(')');
+            } else if (type.getKind().isPrimitive()) {
+                out.append(types.boxedClass(types.getPrimitiveType(type.getKind())).getQualifiedName())
+                        .append(".valueOf(").append(own).append(").hashCode()");
+            } else {
+                out.append(own).append(".hashCode()");
+            }
+            out.append(')');
+        }
+        out.append(";\n        }\n");
+    }
+
+    private void describe(String typeName, List<ExecutableElement> attributes) {
+        out.append("\n        @Override\n        public java.lang.String toString() {\n            return \"@")
+                .append(typeName).append("(\"");
+        for (int i = 0; i < attributes.size(); i++) {
+            String own = "this." + attributes.get(i).getSimpleName();
+
+            out.append("\n                    + \"");
+            if (i > 0) {
+                out.append(", ");
+            }
+            out.append(attributes.get(i).getSimpleName()).append("=\" + ");
+            if (attributes.get(i).getReturnType().getKind() == TypeKind.ARRAY) {
+                out.append("java.util.Arrays.toString(").append(own).append(')');
+            } else {
+                out.append(own);
+            }
+        }
+        out.append(" + \")\";\n        }\n");
+    }
+
+    private static List<ExecutableElement> attributesOf(TypeElement annotationType) {
+        return ElementFilter.methodsIn(annotationType.getEnclosedElements());
+    }
+
+    private String typeName(TypeMirror type, boolean generic) {
+        switch (type.getKind()) {
+            case ARRAY:
+                return typeName(((ArrayType) type).getComponentType(), generic) + "[]";
+            case DECLARED:
+                return declaredName((DeclaredType) type, generic);
+            case WILDCARD:
+                return wildcardName((WildcardType) type);
+            default:
+                // primitive types and void
+                return type.toString();
+        }
+    }
+
+    private String declaredName(DeclaredType type, boolean generic) {
+        TypeElement element = (TypeElement) type.asElement();
+
+        checkAccessible(element);
+
+        StringBuilder res = new StringBuilder(canonicalName(element));
+
+        if (generic && !type.getTypeArguments().isEmpty()) {
+            res.append('<');
+            for (int i = 0; i < type.getTypeArguments().size(); i++) {
+                if (i > 0) {
+                    res.append(", ");
+                }
+                res.append(typeName(type.getTypeArguments().get(i), true));
+            }
+            res.append('>');
+        }
+
+        return res.toString();
+    }
+
+    private String wildcardName(WildcardType type) {
+        if (type.getExtendsBound() != null) {
+            return "? extends " + typeName(type.getExtendsBound(), true);
+        }
+        if (type.getSuperBound() != null) {
+            return "? super " + typeName(type.getSuperBound(), true);
+        }
+
+        return "?";
+    }
+
+    private static String canonicalName(TypeElement type) {
+        return type.getQualifiedName().toString();
+    }
+
+    private void checkAccessible(TypeElement type) {
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            Set<Modifier> modifiers = element.getModifiers();
+            boolean samePackage = elements.getPackageOf(element).getQualifiedName().contentEquals(packageName);
+
+            if (canonicalName(type).isEmpty() || modifiers.contains(Modifier.PRIVATE)
+                    || !(modifiers.contains(Modifier.PUBLIC) || samePackage)) {
+                throw new IllegalArgumentException("A descriptor can not refer to " + type
+                        + ", it is not accessible from its package");
+            }
+        }
+    }
+
+    private void string(String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            character(value.charAt(i));
+        }
+        out.append('"');
+    }
+
+    private void character(char c) {
+        if (c == '"' || c == '\'' || c == '\\') {
+            out.append('\\').append(c);
+        } else if (c < ' ') {
+            // a unicode escape of a line break would end the literal, as it is translated before the source is parsed
+            out.append('\\').append(String.format("%03o", (int) c));
+        } else if (c > '~') {
+            // unicode escapes keep the source ASCII whatever the encoding javac reads it with
+            out.append("\\u").append(String.format("%04x", (int) c));
+        } else {
+            out.append(c);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.processor;
+
+import com.zaradai.matchers.AnnotationRecord;
+import com.zaradai.matchers.ClassFile;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.SimpleAnnotationValueVisitor8;
+import javax.lang.model.util.Types;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the annotation metadata of a class being compiled from its source elements, in the form a {@link ClassFile}
+ * records it when read from a class file: members are keyed by their class file descriptors, constructors of inner
+ * classes and enums include their implicit leading parameters and only runtime visible annotations are recorded.
+ * Unlike a class file, the class level annotations include those inherited from superclasses, as reflection reports
+ * them.
+ */
+final class TypeElementReader {
+    private static final String OBJECT = "java.lang.Object";
+    private static final String CONSTRUCTOR_NAME = "<init>";
+    private static final List<String> ENUM_CONSTRUCTOR_PARAMETERS = Arrays.asList("Ljava/lang/String;", "I");
+    private static final AnnotationRecord[] NO_ANNOTATIONS = new AnnotationRecord[0];
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_PROTECTED = 0x0004;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_VOLATILE = 0x0040;
+    private static final int ACC_TRANSIENT = 0x0080;
+    private static final int ACC_NATIVE = 0x0100;
+    private static final int ACC_ABSTRACT = 0x0400;
+
+    private final Elements elements;
+    private final Types types;
+    private final ValueReader valueReader = new ValueReader();
+
+    /**
+     * Setup the reader with the utilities of the processing environment.
+     * @param elements element utilities
+     * @param types type utilities
+     */
+    TypeElementReader(Elements elements, Types types) {
+        this.elements = elements;
+        this.types = types;
+    }
+
+    /**
+     * Read the metadata of a class.
+     * @param type the class, interface, enum or annotation type
+     * @return the class with the annotations of the members it declares
+     */
+    ClassFile read(TypeElement type) {
+        List<String> interfaceNames = new ArrayList<String>();
+
+        for (TypeMirror implemented : type.getInterfaces()) {
+            interfaceNames.add(binaryName(implemented));
+        }
+
+        ClassFile.Builder builder = ClassFile.builder(binaryName(type), superclassName(type), interfaceNames);
+
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.FIELD || member.getKind() == ElementKind.ENUM_CONSTANT) {
+                builder.field(member.getSimpleName().toString(), access(member),
+                        annotations(member.getAnnotationMirrors()));
+            } else if (member.getKind() == ElementKind.METHOD) {
+                ExecutableElement method = (ExecutableElement) member;
+
+                builder.method(keyOf(type, method), access(method), annotations(method.getAnnotationMirrors()),
+                        parameterAnnotations(method, 0));
+            } else if (member.getKind() == ElementKind.CONSTRUCTOR) {
+                ExecutableElement constructor = (ExecutableElement) member;
+
+                builder.constructor(keyOf(type, constructor), access(constructor),
+                        annotations(constructor.getAnnotationMirrors()),
+                        parameterAnnotations(constructor, implicitParameterCount(type, constructor)));
+            }
+        }
+
+        return builder.build(annotations(elements.getAllAnnotationMirrors(type)));
+    }
+
+    /**
+     * Get the key of a method or constructor, its name followed by the class file descriptor of its parameter types.
+     * @param type the class declaring the method or constructor
+     * @param executable the method or constructor
+     * @return key of the member, with {@code <init>} as the name of constructors
+     */
+    String keyOf(TypeElement type, ExecutableElement executable) {
+        if (executable.getKind() == ElementKind.CONSTRUCTOR) {
+            return key(CONSTRUCTOR_NAME, implicitParameters(type), executable);
+        }
+
+        return key(executable.getSimpleName().toString(), Collections.<String>emptyList(), executable);
+    }
+
+    /**
+     * Get the number of parameters the compiler adds ahead of those declared, such as the enclosing instance of an
+     * inner class constructor.
+     * @param type the class declaring the method or constructor
+     * @param executable the method or constructor
+     * @return number of implicit leading parameters
+     */
+    int implicitParameterCount(TypeElement type, ExecutableElement executable) {
+        if (executable.getKind() == ElementKind.CONSTRUCTOR) {
+            return implicitParameters(type).size();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Get the binary name of a class.
+     * @param type the class
+     * @return binary name, such as {@code com.acme.Order$Line}
+     */
+    String binaryName(TypeElement type) {
+        return elements.getBinaryName(type).toString();
+    }
+
+    /**
+     * Test if an annotation is retained at runtime, so reflection reports it.
+     * @param mirror the annotation
+     * @return true if the annotation type has runtime retention
+     */
+    static boolean isRuntimeVisible(AnnotationMirror mirror) {
+        Retention retention = mirror.getAnnotationType().asElement().getAnnotation(Retention.class);
+
+        return retention != null && retention.value() == RetentionPolicy.RUNTIME;
+    }
+
+    /**
+     * Get the access flags of a class or member, as the class file records them.
+     * @param element class or member
+     * @return access flags
+     */
+    static int access(Element element) {
+        int res = 0;
+
+        for (Modifier modifier : element.getModifiers()) {
+            res |= flagOf(modifier);
+        }
+
+        return res;
+    }
+
+    private String superclassName(TypeElement type) {
+        if (type.getSuperclass().getKind() == TypeKind.DECLARED) {
+            return binaryName(type.getSuperclass());
+        }
+        // interfaces extend Object in their class files, only Object itself has no superclass
+        if (type.getQualifiedName().contentEquals(OBJECT)) {
+            return null;
+        }
+
+        return OBJECT;
+    }
+
+    private List<String> implicitParameters(TypeElement type) {
+        if (type.getKind() == ElementKind.ENUM) {
+            return ENUM_CONSTRUCTOR_PARAMETERS;
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && type.getKind() == ElementKind.CLASS
+                && !type.getModifiers().contains(Modifier.STATIC)) {
+            // an inner class is constructed with the instance of its enclosing class
+            return Collections.singletonList(descriptor(type.getEnclosingElement().asType()));
+        }
+
+        return Collections.emptyList();
+    }
+
+    private String key(String name, List<String> implicit, ExecutableElement executable) {
+        StringBuilder res = new StringBuilder(name).append('(');
+
+        for (String parameter : implicit) {
+            res.append(parameter);
+        }
+
+        for (VariableElement parameter : executable.getParameters()) {
+            res.append(descriptor(parameter.asType()));
+        }
+
+        return res.append(')').toString();
+    }
+
+    private AnnotationRecord[][] parameterAnnotations(ExecutableElement executable, int implicit) {
+        List<? extends VariableElement> parameters = executable.getParameters();
+        AnnotationRecord[][] res = new AnnotationRecord[implicit + parameters.size()][];
+
+        for (int i = 0; i < implicit; i++) {
+            res[i] = NO_ANNOTATIONS;
+        }
+        for (int i = 0; i < parameters.size(); i++) {
+            res[implicit + i] = annotations(parameters.get(i).getAnnotationMirrors());
+        }
+
+        return res;
+    }
+
+    private AnnotationRecord[] annotations(List<? extends AnnotationMirror> mirrors) {
+        List<AnnotationRecord> res = new ArrayList<AnnotationRecord>();
+
+        for (AnnotationMirror mirror : mirrors) {
+            // annotations without runtime retention are not in the class file, reflection never sees them
+            if (isRuntimeVisible(mirror)) {
+                res.add(annotation(mirror));
+            }
+        }
+
+        if (res.isEmpty()) {
+            return NO_ANNOTATIONS;
+        }
+
+        return res.toArray(new AnnotationRecord[res.size()]);
+    }
+
+    private AnnotationRecord annotation(AnnotationMirror mirror) {
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : mirror.getElementValues().entrySet()) {
+            values.put(entry.getKey().getSimpleName().toString(), entry.getValue().accept(valueReader, null));
+        }
+
+        return AnnotationRecord.of(binaryName(mirror.getAnnotationType()), values);
+    }
+
+    private String binaryName(TypeMirror type) {
+        return binaryName((TypeElement) ((DeclaredType) type).asElement());
+    }
+
+    private String descriptor(TypeMirror type) {
+        TypeMirror erased = types.erasure(type);
+
+        switch (erased.getKind()) {
+            case BOOLEAN:
+                return "Z";
+            case BYTE:
+                return "B";
+            case CHAR:
+                return "C";
+            case SHORT:
+                return "S";
+            case INT:
+                return "I";
+            case LONG:
+                return "J";
+            case FLOAT:
+                return "F";
+            case DOUBLE:
+                return "D";
+            case VOID:
+                return "V";
+            case ARRAY:
+                return "[" + descriptor(((ArrayType) erased).getComponentType());
+            case DECLARED:
+                return "L" + binaryName(erased).replace('.', '/') + ";";
+            default:
+                // a type that does not resolve never matches a descriptor of a loaded class
+                return "?";
+        }
+    }
+
+    private static int flagOf(Modifier modifier) {
+        switch (modifier) {
+            case PUBLIC:
+                return ACC_PUBLIC;
+            case PRIVATE:
+                return ACC_PRIVATE;
+            case PROTECTED:
+                return ACC_PROTECTED;
+            case STATIC:
+                return ACC_STATIC;
+            case FINAL:
+                return ACC_FINAL;
+            case VOLATILE:
+                return ACC_VOLATILE;
+            case TRANSIENT:
+                return ACC_TRANSIENT;
+            case NATIVE:
+                return ACC_NATIVE;
+            case ABSTRACT:
+                return ACC_ABSTRACT;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Converts annotation values to the values an {@link AnnotationRecord} holds, as read from a class file.
+     */
+    private final class ValueReader extends SimpleAnnotationValueVisitor8<Object, Void> {
+        @Override
+        protected Object defaultAction(Object value, Void unused) {
+            // constants are boxed and strings kept as they are, as read from a class file
+            return value;
+        }
+
+        @Override
+        public Object visitType(TypeMirror type, Void unused) {
+            return AnnotationRecord.classLiteral(descriptor(type));
+        }
+
+        @Override
+        public Object visitEnumConstant(VariableElement constant, Void unused) {
+            return AnnotationRecord.enumConstant(binaryName((TypeElement) constant.getEnclosingElement()),
+                    constant.getSimpleName().toString());
+        }
+
+        @Override
+        public Object visitAnnotation(AnnotationMirror mirror, Void unused) {
+            return annotation(mirror);
+        }
+
+        @Override
+        public Object visitArray(List<? extends AnnotationValue> values, Void unused) {
+            Object[] res = new Object[values.size()];
+
+            for (int i = 0; i < res.length; i++) {
+                res[i] = values.get(i).accept(this, null);
+            }
+
+            return res;
+        }
+    }
+}
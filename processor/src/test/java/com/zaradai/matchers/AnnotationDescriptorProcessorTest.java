@@ -0,0 +1,113 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestIndexedBase;
+import com.zaradai.matchers.support.TestIndexedSubclass;
+import com.zaradai.matchers.support.TestIndexedValueAnnotated;
+import com.zaradai.matchers.support.TestInheritedAnnotation;
+import com.zaradai.matchers.support.TestValueAnnotation;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.zaradai.matchers.AnnotationMatchers.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class AnnotationDescriptorProcessorTest {
+    private static final List<Class<?>> DESCRIBED = Arrays.<Class<?>>asList(TestIndexedSubclass.class,
+            TestIndexedSubclass.Nested.class, TestIndexedValueAnnotated.class, TestIndexedValueAnnotated.Inner.class,
+            TestIndexedValueAnnotated.Mode.class);
+
+    @Test
+    public void shouldGenerateDescriptorOfAnnotatedClasses() throws Exception {
+        for (Class<?> type : DESCRIBED) {
+            assertThat(type.getName(), TypeDescriptor.find(type), is(notNullValue()));
+        }
+        assertThat(Class.forName(TestIndexedSubclass.Nested.class.getName() + TypeDescriptor.SUFFIX)
+                .getSimpleName(), is("TestIndexedSubclass$Nested_AnnotationDescriptor"));
+    }
+
+    @Test
+    public void shouldNotDescribeClassesNotAnnotated() throws Exception {
+        assertThat(TypeDescriptor.find(TestIndexedBase.class), is(nullValue()));
+        // the index still covers the class
+        assertThat(TypeMetadata.forClass(TestIndexedBase.class), is(instanceOf(ClassFileMetadata.class)));
+    }
+
+    @Test
+    public void shouldPreferDescriptorOverIndex() throws Exception {
+        for (Class<?> type : DESCRIBED) {
+            assertThat(TypeMetadata.forClass(type), is(sameInstance(TypeDescriptor.find(type).getMetadata())));
+        }
+    }
+
+    @Test
+    public void shouldDescribeAnnotationsAsReflectionReportsThem() throws Exception {
+        for (Class<?> type : DESCRIBED) {
+            MetadataAssertions.assertSameAsReflection(type, TypeDescriptor.find(type).getMetadata());
+        }
+    }
+
+    @Test
+    public void shouldKeepEveryValueExactly() throws Exception {
+        TestValueAnnotation annotation = (TestValueAnnotation) TypeDescriptor.find(TestIndexedValueAnnotated.class)
+                .getMetadata().getTypeMetadata().getAnnotation(TestValueAnnotation.class);
+
+        assertThat(annotation, is(TestIndexedValueAnnotated.class.getAnnotation(TestValueAnnotation.class)));
+        assertThat(Float.isNaN(annotation.single()), is(true));
+        assertThat(Double.doubleToRawLongBits(annotation.precise()), is(Double.doubleToRawLongBits(-0.0)));
+        assertThat(annotation.text(), is("caf\u00e9 \u0000 \uD83D\uDE00"));
+        assertThat(annotation.unit(), is(TimeUnit.DAYS));
+        assertThat(annotation.type(), is((Object) int[][].class));
+        assertThat(((TestAnnotation) TypeDescriptor.find(TestIndexedSubclass.Nested.class).getMetadata()
+                .getTypeMetadata().getAnnotation(TestAnnotation.class)).name(), is("line\nbreak \\ \"quoted\" \u0001"));
+    }
+
+    @Test
+    public void shouldImplementAnnotationsWithoutProxies() throws Exception {
+        TestValueAnnotation reflected = TestIndexedValueAnnotated.class.getAnnotation(TestValueAnnotation.class);
+        Annotation annotation = TypeDescriptor.find(TestIndexedValueAnnotated.class).getMetadata().getTypeMetadata()
+                .getAnnotation(TestValueAnnotation.class);
+
+        assertThat(Proxy.isProxyClass(annotation.getClass()), is(false));
+        assertThat(annotation.annotationType(), is((Object) TestValueAnnotation.class));
+        assertThat(reflected.equals(annotation), is(true));
+        assertThat(annotation.hashCode(), is(reflected.hashCode()));
+        assertThat(((TestValueAnnotation) annotation).larges(), is(not(sameInstance(
+                ((TestValueAnnotation) annotation).larges()))));
+    }
+
+    @Test
+    public void shouldMatchDescribedClasses() throws Exception {
+        TestIndexedSubclass subclass = new TestIndexedSubclass();
+
+        assertThat(subclass, is(classAnnotatedWith(TestInheritedAnnotation.class)));
+        assertThat(subclass, is(fieldAnnotatedWithParamValue(TestAnnotation.class, "name", equalTo("name"), "name")));
+        assertThat(subclass, is(methodParameterAnnotatedWith(TestAnnotation.class, 1, "max", Comparable.class,
+                Comparable.class)));
+        assertThat(subclass, is(not(methodAnnotatedWith(TestAnnotation.class, "identify", int.class))));
+        assertThat(new TestIndexedValueAnnotated().new Inner("inner", 1), is(constructorParameterAnnotatedWithParamValue(
+                TestAnnotation.class, "name", equalTo("inner"), 1, TestIndexedValueAnnotated.class, String.class,
+                int.class)));
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import com.zaradai.matchers.support.TestAnnotated;
+import com.zaradai.matchers.support.TestAnnotation;
+import com.zaradai.matchers.support.TestIndexedBase;
+import com.zaradai.matchers.support.TestIndexedSubclass;
+import com.zaradai.matchers.support.TestIndexedValueAnnotated;
+import com.zaradai.matchers.support.TestInheritedAnnotation;
+import com.zaradai.matchers.support.TestValueAnnotation;
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.zaradai.matchers.AnnotationMatchers.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class AnnotationIndexProcessorTest {
+    private static final List<Class<?>> INDEXED = Arrays.<Class<?>>asList(TestIndexedBase.class,
+            TestIndexedSubclass.class, TestIndexedSubclass.Nested.class, TestIndexedSubclass.Contract.class,
+            TestIndexedValueAnnotated.class, TestIndexedValueAnnotated.Inner.class,
+            TestIndexedValueAnnotated.Mode.class, TestInheritedAnnotation.class);
+
+    @Test
+    public void shouldGenerateIndexOfCompiledClasses() throws Exception {
+        URL resource = getClass().getClassLoader().getResource(AnnotationIndex.RESOURCE);
+
+        assertThat(resource, is(notNullValue()));
+
+        AnnotationIndex index = AnnotationIndex.open(resource, getClass().getClassLoader());
+
+        for (Class<?> type : INDEXED) {
+            assertThat(index.find(type.getName()), is(notNullValue()));
+        }
+        assertThat(index.find(getClass().getName()), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldPreferIndexOverReflection() throws Exception {
+        for (Class<?> type : INDEXED) {
+            assertThat(TypeMetadata.forClass(type), is(instanceOf(ClassFileMetadata.class)));
+        }
+        assertThat(TypeMetadata.of(new TestIndexedSubclass()), is(instanceOf(ClassFileMetadata.class)));
+    }
+
+    @Test
+    public void shouldFallBackToReflectionForClassesOutsideTheIndex() throws Exception {
+        Object anonymous = new TestIndexedSubclass() {
+        };
+
+        // compiled without the processor
+        assertThat(TypeMetadata.forClass(TestAnnotated.class), is(instanceOf(ClassMetadata.class)));
+        // local and anonymous classes are not indexed
+        assertThat(TypeMetadata.of(anonymous), is(instanceOf(ClassMetadata.class)));
+        assertThat(TypeMetadata.forClass(String.class), is(instanceOf(ClassMetadata.class)));
+    }
+
+    @Test
+    public void shouldRecordAnnotationsAsReflectionReportsThem() throws Exception {
+        for (Class<?> type : INDEXED) {
+            MetadataAssertions.assertSameAsReflection(type, IndexResources.find(type).getMetadata());
+        }
+    }
+
+    @Test
+    public void shouldIncludeInheritedClassAnnotations() throws Exception {
+        TypeMetadata indexed = IndexResources.find(TestIndexedSubclass.class).getMetadata();
+
+        assertThat(((TestInheritedAnnotation) indexed.getTypeMetadata().getAnnotation(TestInheritedAnnotation.class))
+                .value(), is("base"));
+        // not inherited, as by reflection
+        assertThat(indexed.getTypeMetadata().getAnnotation(TestAnnotation.class), is(nullValue()));
+    }
+
+    @Test
+    public void shouldMatchIndexedClasses() throws Exception {
+        TestIndexedSubclass subclass = new TestIndexedSubclass();
+
+        assertThat(subclass, is(classAnnotatedWith(TestInheritedAnnotation.class)));
+        assertThat(subclass, is(classAnnotatedWithParamValue(TestValueAnnotation.class, "text", equalTo("subclass"))));
+        assertThat(subclass, is(fieldAnnotatedWithParamValue(TestAnnotation.class, "value", equalTo(1), "name")));
+        assertThat(subclass, is(not(fieldAnnotatedWith(TestAnnotation.class, "id"))));
+        assertThat(subclass, is(constructorParameterAnnotatedWith(TestAnnotation.class, 0, String.class)));
+        assertThat(new TestIndexedValueAnnotated(), is(methodAnnotatedWithParamValue(TestAnnotation.class, "name",
+                equalTo("copy"), "copy", int[].class, String[][].class, double.class)));
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Compares the metadata generated for a class with what reflection reports for it.
+ */
+final class MetadataAssertions {
+    private MetadataAssertions() {
+    }
+
+    /**
+     * Assert the class and every member it declares in source carry the same annotations in the metadata as through
+     * reflection.
+     */
+    static void assertSameAsReflection(Class<?> type, TypeMetadata metadata) throws Exception {
+        assertSameAnnotations(type.getName(), type, metadata.getTypeMetadata());
+        for (Field field : type.getDeclaredFields()) {
+            if (!field.isSynthetic()) {
+                assertSameAnnotations(field.toString(), field,
+                        metadata.getMember(MemberSignature.field(field.getName())));
+            }
+        }
+        for (Method method : type.getDeclaredMethods()) {
+            if (!method.isSynthetic()) {
+                ElementMetadata member = metadata.getMember(MemberSignature.method(method.getName(),
+                        method.getParameterTypes()));
+
+                assertSameAnnotations(method.toString(), method, member);
+                assertSameParameterAnnotations(method.toString(), method.getParameterAnnotations(), member);
+            }
+        }
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            if (!constructor.isSynthetic()) {
+                ElementMetadata member = metadata.getMember(MemberSignature.constructor(
+                        constructor.getParameterTypes()));
+
+                assertSameAnnotations(constructor.toString(), constructor, member);
+                assertSameParameterAnnotations(constructor.toString(), constructor.getParameterAnnotations(),
+                        member);
+            }
+        }
+    }
+
+    private static void assertSameAnnotations(String element, AnnotatedElement expected, ElementMetadata actual) {
+        assertThat(element, actual.getAnnotations().size(), is(expected.getAnnotations().length));
+        for (Annotation annotation : expected.getAnnotations()) {
+            assertThat(element, actual.getAnnotation(annotation.annotationType()), is(annotation));
+        }
+    }
+
+    private static void assertSameParameterAnnotations(String element, Annotation[][] expected,
+                                                       ElementMetadata actual) {
+        Annotation[][] parameterAnnotations = actual.getParameterAnnotations();
+
+        assertThat(element, parameterAnnotations.length, is(expected.length));
+        for (int i = 0; i < expected.length; i++) {
+            assertThat(element + " parameter " + i, Arrays.asList(parameterAnnotations[i]),
+                    is(Arrays.asList(expected[i])));
+        }
+    }
+}
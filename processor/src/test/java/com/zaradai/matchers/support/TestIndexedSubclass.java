@@ -0,0 +1,58 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.support;
+
+import com.zaradai.matchers.processor.GenerateDescriptor;
+
+import java.io.Serializable;
+
+@SuppressWarnings("serial")
+@TestValueAnnotation(text = "subclass")
+@GenerateDescriptor
+public class TestIndexedSubclass extends TestIndexedBase implements Serializable {
+    @Deprecated
+    @TestAnnotation(name = "name", value = 1)
+    private String name;
+
+    public TestIndexedSubclass() {
+    }
+
+    public TestIndexedSubclass(@TestAnnotation(name = "name") String name) {
+        this.name = name;
+    }
+
+    @Override
+    public long identify(int salt) {
+        return id ^ salt;
+    }
+
+    @TestAnnotation(name = "generic")
+    public <T extends Comparable<T>> T max(T first, @TestAnnotation T second) {
+        return first;
+    }
+
+    @GenerateDescriptor
+    @TestAnnotation(name = "line\nbreak \\ \"quoted\" \u0001")
+    public static class Nested {
+        @TestAnnotation(name = "nested")
+        private int[][] values;
+    }
+
+    public interface Contract {
+        @TestAnnotation(name = "contract")
+        void fulfil();
+    }
+}
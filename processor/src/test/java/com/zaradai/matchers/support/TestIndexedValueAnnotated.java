@@ -0,0 +1,66 @@
+/**
+ * Copyright 2014 Zaradai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zaradai.matchers.support;
+
+import com.zaradai.matchers.processor.GenerateDescriptor;
+
+import java.util.concurrent.TimeUnit;
+
+@TestValueAnnotation(flag = true, octet = -8, letter = '\u00e9', small = -16, large = Long.MIN_VALUE,
+        single = Float.NaN, precise = -0.0, text = "caf\u00e9 \u0000 \uD83D\uDE00", unit = TimeUnit.DAYS,
+        type = int[][].class, nested = @TestAnnotation(name = "nested", value = 7), flags = {true, false},
+        octets = {1, -1}, letters = {'x', 'y'}, smalls = {3, -3}, larges = {Long.MAX_VALUE}, singles = {1.5f},
+        precises = {2.5, -2.5}, units = {TimeUnit.HOURS, TimeUnit.MINUTES},
+        types = {String.class, long.class, TestIndexedValueAnnotated.class})
+@GenerateDescriptor
+public class TestIndexedValueAnnotated implements Comparable<TestIndexedValueAnnotated> {
+    @TestValueAnnotation
+    private long defaulted;
+
+    @TestAnnotation
+    public static String shadowed;
+
+    static {
+        shadowed = "initialized";
+    }
+
+    @TestAnnotation(name = "compare")
+    @Override
+    public int compareTo(@TestAnnotation(name = "other") TestIndexedValueAnnotated other) {
+        return 0;
+    }
+
+    @TestAnnotation(name = "copy")
+    public TestIndexedValueAnnotated copy(int[] values, String[][] names, double scale) {
+        return this;
+    }
+
+    @GenerateDescriptor
+    public class Inner {
+        public Inner(@TestAnnotation(name = "inner") String name, int count) {
+
+        }
+    }
+
+    @GenerateDescriptor
+    public enum Mode {
+        FIRST(1);
+
+        Mode(@TestAnnotation(name = "mode") int code) {
+
+        }
+    }
+}